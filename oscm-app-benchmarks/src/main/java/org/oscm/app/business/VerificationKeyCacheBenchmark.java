@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Decrypts a token signature with a pooled cipher and with a cipher created
+ * for each token, as it was done before the key and the ciphers were cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class VerificationKeyCacheBenchmark {
+
+    private final VerificationKeyCache cache = new VerificationKeyCache();
+    private Key publicKey;
+    private byte[] signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair pair = generator.generateKeyPair();
+        publicKey = pair.getPublic();
+        Cipher cipher = Cipher.getInstance("RSA");
+        cipher.init(Cipher.ENCRYPT_MODE, pair.getPrivate());
+        signature = cipher.doFinal("token".getBytes("UTF-8"));
+    }
+
+    @Benchmark
+    public byte[] pooledCipher() throws Exception {
+        Cipher cipher = cache.borrowDecryptCipher(publicKey);
+        byte[] result = cipher.doFinal(signature);
+        cache.returnDecryptCipher(publicKey, cipher);
+        return result;
+    }
+
+    @Benchmark
+    public byte[] cipherPerToken() throws Exception {
+        Cipher cipher = Cipher.getInstance(publicKey.getAlgorithm());
+        cipher.init(Cipher.DECRYPT_MODE, publicKey);
+        return cipher.doFinal(signature);
+    }
+}
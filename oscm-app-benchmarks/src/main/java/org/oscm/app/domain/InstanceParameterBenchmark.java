@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.oscm.encrypter.AESEncrypter;
+
+/**
+ * Reads an encrypted instance parameter repeatedly, with the decrypted value
+ * cached by the entity and with a decryption for each read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstanceParameterBenchmark {
+
+    private InstanceParameter parameter;
+
+    @Setup
+    public void setUp() throws Exception {
+        AESEncrypter.generateKey();
+        parameter = new InstanceParameter();
+        parameter.setParameterKey("KEY_PWD");
+        parameter.setEncrypted(true);
+        parameter.setDecryptedValue("secret");
+    }
+
+    @Benchmark
+    public String cachedDecryption() throws Exception {
+        return parameter.getDecryptedValue();
+    }
+
+    @Benchmark
+    public String decryptionPerRead() throws Exception {
+        return AESEncrypter.decrypt(parameter.getParameterValue());
+    }
+}
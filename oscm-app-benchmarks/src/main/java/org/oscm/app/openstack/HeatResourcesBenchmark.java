@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reads the server IDs from a generated resource listing of a Heat stack,
+ * with the streaming reader of {@link HeatClient} and, as before, with the
+ * complete response parsed into a JSON tree. The streaming variant includes
+ * the request handling of {@link OpenStackConnection}, the response itself is
+ * served from memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HeatResourcesBenchmark {
+
+    private static final String HEAT_ENDPOINT = "http://heat:8004/v1/tenant";
+
+    @Param({ "100", "1000", "10000" })
+    private int resources;
+
+    private byte[] listing;
+    private HeatClient heatClient;
+
+    @Setup
+    public void setUp() {
+        listing = createListing(resources).getBytes(StandardCharsets.UTF_8);
+        OpenStackConnection.setURLStreamHandler(new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL url) {
+                return new ListingConnection(url);
+            }
+
+            @Override
+            protected URLConnection openConnection(URL url, Proxy proxy) {
+                return new ListingConnection(url);
+            }
+        });
+        OpenStackConnection connection = new OpenStackConnection(
+                "http://keystone:5000/v3/auth");
+        connection.setHeatEndpoint(HEAT_ENDPOINT);
+        heatClient = new HeatClient(connection);
+    }
+
+    @Benchmark
+    public List<String> streamingReader() throws Exception {
+        return heatClient.getServerIds("stack");
+    }
+
+    @Benchmark
+    public List<String> jsonTree() throws Exception {
+        List<String> serverIds = new ArrayList<String>();
+        JSONObject responseJson = new JSONObject(
+                new String(listing, StandardCharsets.UTF_8));
+        JSONArray resources = responseJson.getJSONArray("resources");
+        for (int i = 0; i < resources.length(); i++) {
+            JSONObject resource = resources.getJSONObject(i);
+            if ("OS::Nova::Server"
+                    .equalsIgnoreCase(resource.optString("resource_type"))) {
+                serverIds.add(resource.optString("physical_resource_id"));
+            }
+        }
+        return serverIds;
+    }
+
+    /**
+     * Every fourth resource is a server, the others are ports as in typical
+     * stacks. Each resource carries the links and dependencies Heat returns.
+     */
+    private static String createListing(int count) {
+        StringBuilder sb = new StringBuilder("{\"resources\":[");
+        for (int i = 0; i < count; i++) {
+            String type = i % 4 == 0 ? "OS::Nova::Server" : "OS::Neutron::Port";
+            String id = String.format("%08x-0000-4000-8000-%012x",
+                    Integer.valueOf(i), Integer.valueOf(i));
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"resource_name\":\"resource").append(i)
+                    .append("\",\"resource_type\":\"").append(type)
+                    .append("\",\"physical_resource_id\":\"").append(id)
+                    .append("\",\"logical_resource_id\":\"resource").append(i)
+                    .append("\",\"resource_status\":\"CREATE_COMPLETE\"")
+                    .append(",\"resource_status_reason\":\"state changed\"")
+                    .append(",\"creation_time\":\"2016-10-06T10:00:00\"")
+                    .append(",\"updated_time\":\"2016-10-06T10:05:00\"")
+                    .append(",\"required_by\":[\"resource").append(i + 1)
+                    .append("\"],\"links\":[{\"href\":\"").append(HEAT_ENDPOINT)
+                    .append("/stacks/stack/sID/resources/resource").append(i)
+                    .append("\",\"rel\":\"self\"},{\"href\":\"")
+                    .append(HEAT_ENDPOINT)
+                    .append("/stacks/stack/sID\",\"rel\":\"stack\"}]}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private class ListingConnection extends HttpURLConnection {
+
+        ListingConnection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void connect() {
+            connected = true;
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return HTTP_OK;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(listing);
+        }
+    }
+}
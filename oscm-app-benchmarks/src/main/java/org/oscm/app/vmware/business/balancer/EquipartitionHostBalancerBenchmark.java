@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.business.balancer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Calculates the spreads of all hosts incrementally and, as before, with the
+ * complete spread calculated again for each host.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EquipartitionHostBalancerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int hosts;
+
+    private double[] values;
+    private double[] norm;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new double[hosts];
+        norm = new double[hosts];
+        for (int i = 0; i < hosts; i++) {
+            values[i] = random.nextInt(64);
+            norm[i] = 64 + random.nextInt(192);
+        }
+    }
+
+    @Benchmark
+    public double[] incremental() {
+        return EquipartitionHostBalancer.calculateSpread(values, 4, norm);
+    }
+
+    @Benchmark
+    public double[] perHost() {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            double[] calcBase = new double[values.length];
+            for (int j = 0; j < values.length; j++) {
+                calcBase[j] = (values[j] + (i == j ? 4 : 0)) / norm[j];
+            }
+            double avg = 0;
+            for (double value : calcBase) {
+                avg += value / calcBase.length;
+            }
+            double sum = 0;
+            for (double value : calcBase) {
+                sum += (avg - value) * (avg - value);
+            }
+            result[i] = Math.sqrt(sum / calcBase.length) / avg;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.business.statemachine;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.oscm.app.v2_0.data.ProvisioningSettings;
+import org.oscm.app.v2_0.data.Setting;
+
+/**
+ * Creates the state machine of a VM creation as done in each timer run, with
+ * the parsed definition reused and with the definition parsed every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StateMachineBenchmark {
+
+    private ProvisioningSettings settings;
+
+    @Setup
+    public void setUp() {
+        settings = new ProvisioningSettings(new HashMap<String, Setting>(),
+                new HashMap<String, Setting>(), new HashMap<String, Setting>(),
+                new HashMap<String, Setting>(), "en");
+        StateMachine.initializeProvisioningSettings(settings, "create_vm.xml");
+    }
+
+    @Benchmark
+    public StateMachine parsedOnce() throws Exception {
+        return new StateMachine(settings);
+    }
+
+    @Benchmark
+    public StateMachine parsedEachTime() throws Exception {
+        StateMachine.clearDefinitions();
+        return new StateMachine(settings);
+    }
+}
@@ -8,12 +8,12 @@
 
 package org.oscm.app.openstack;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
 import org.oscm.app.openstack.data.CreateStackRequest;
@@ -24,6 +24,9 @@ import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 /**
  * Client for communication with OpenStack Heat API.
  */
@@ -177,36 +180,55 @@ public class HeatClient {
         return false;
     }
 
+    /**
+     * The physical IDs of the server resources of a stack and the creation
+     * time of the oldest of them.
+     */
+    public static class ServerResources {
+
+        private final List<String> ids = new LinkedList<String>();
+        private String createdSince;
+
+        public List<String> getIds() {
+            return ids;
+        }
+
+        /**
+         * @return the creation time as returned by Heat or <code>null</code>
+         *         if it is not known for all servers
+         */
+        public String getCreatedSince() {
+            return createdSince;
+        }
+    }
+
     public List<String> getServerIds(String stackName) throws HeatException {
+        return getServerResources(stackName, false).getIds();
+    }
+
+    public ServerResources getServerResources(String stackName)
+            throws HeatException {
+        return getServerResources(stackName, false);
+    }
+
+    private String getServerIdByStackResource(String stackName)
+            throws HeatException {
+        List<String> serverIds = getServerResources(stackName, true).getIds();
+        return serverIds.isEmpty() ? null : serverIds.get(0);
+    }
+
+    private ServerResources getServerResources(String stackName,
+            final boolean first) throws HeatException {
         logger.debug("HeatClient.getServerId() Endpoint: "
                 + connection.getHeatEndpoint());
         String uri;
-        List<String> serverIds = new LinkedList<String>();
         try {
             uri = connection.getHeatEndpoint() + "/stacks/"
                     + URLEncoder.encode(stackName, "UTF-8") + "/resources";
 
-            RESTResponse response = connection.processRequest(uri, "GET");
-            String body = response.getResponseBody();
-            JSONObject responseJson = new JSONObject(body);
-            JSONArray resources = responseJson.getJSONArray("resources");
-            for (int i = 0; i < resources.length(); i++) {
-                JSONObject resource = resources.getJSONObject(i);
-                InstanceType type = getInstanceType(
-                        resource.optString("resource_type"));
-                if (type == null) {
-                    continue;
-                }
-                switch (type) {
-                case NOVA:
-                case EC2:
-                case TROVE:
-                    serverIds.add(resource.optString("physical_resource_id"));
-                    break;
-                default:
-                    continue;
-                }
-            }
+            return connection.readResponse(uri, "GET",
+                    body -> JsonStream.readObject(body,
+                            parser -> readServerResources(parser, first)));
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         } catch (OpenStackConnectionException ex) {
@@ -217,49 +239,54 @@ public class HeatClient {
             logger.error("HeatClient.getStackDetails()", e);
             throw new HeatException(e.getMessage());
         }
-        return serverIds;
     }
 
-    private String getServerIdByStackResource(String stackName)
-            throws HeatException {
-        logger.debug("HeatClient.getServerId() Endpoint: "
-                + connection.getHeatEndpoint());
-        String uri;
-        try {
-            uri = connection.getHeatEndpoint() + "/stacks/"
-                    + URLEncoder.encode(stackName, "UTF-8") + "/resources";
-
-            RESTResponse response = connection.processRequest(uri, "GET");
-            String body = response.getResponseBody();
-            JSONObject responseJson = new JSONObject(body);
-            JSONArray resources = responseJson.getJSONArray("resources");
-            for (int i = 0; i < resources.length(); i++) {
-                JSONObject resource = resources.getJSONObject(i);
-                InstanceType type = getInstanceType(
-                        resource.optString("resource_type"));
-                if (type == null) {
-                    continue;
+    /**
+     * Reads the physical IDs and creation times of the server resources, only
+     * these fields and the type of each resource are kept.
+     */
+    private static ServerResources readServerResources(JsonParser parser,
+            boolean first) throws IOException, JSONException {
+        ServerResources servers = new ServerResources();
+        boolean createdKnown = true;
+        JsonStream.findField(parser, "resources");
+        JsonStream.expectArray(parser, "resources");
+        while (JsonStream.nextElement(parser)) {
+            JsonStream.expectObject(parser, "resources");
+            String resourceType = "";
+            String physicalResourceId = "";
+            String creationTime = null;
+            String field;
+            while ((field = JsonStream.nextField(parser)) != null) {
+                if ("resource_type".equals(field)) {
+                    resourceType = JsonStream.text(parser);
+                } else if ("physical_resource_id".equals(field)) {
+                    physicalResourceId = JsonStream.text(parser);
+                } else if ("creation_time".equals(field)
+                        && parser.getCurrentToken() != JsonToken.VALUE_NULL) {
+                    creationTime = JsonStream.text(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (getInstanceType(resourceType) != null) {
+                servers.ids.add(physicalResourceId);
+                // the ISO 8601 times of Heat are ordered like their text
+                if (creationTime == null) {
+                    createdKnown = false;
+                } else if (servers.createdSince == null
+                        || creationTime.compareTo(servers.createdSince) < 0) {
+                    servers.createdSince = creationTime;
                 }
-                switch (type) {
-                case NOVA:
-                case EC2:
-                case TROVE:
-                    return resource.optString("physical_resource_id");
-                default:
-                    continue;
+                if (first) {
+                    break;
                 }
             }
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        } catch (OpenStackConnectionException ex) {
-            throw new HeatException(
-                    "Failed to connect to Heat: " + ex.getMessage(),
-                    ex.getResponseCode());
-        } catch (JSONException e) {
-            logger.error("HeatClient.getStackDetails()", e);
-            throw new HeatException(e.getMessage());
         }
-        return null;
+        if (!createdKnown) {
+            servers.createdSince = null;
+        }
+        return servers;
     }
 
     public Stack getStackDetails(String stackName) throws HeatException {
@@ -270,33 +297,8 @@ public class HeatClient {
             uri = connection.getHeatEndpoint() + "/stacks/"
                     + URLEncoder.encode(stackName, "UTF-8");
 
-            RESTResponse response = connection.processRequest(uri, "GET");
-            String body = response.getResponseBody();
-            logger.debug("HeatClient.getStackDetails() Responsecode: "
-                    + response.getResponseCode());
-            JSONObject responseJson = new JSONObject(body);
-            JSONObject stack = responseJson.getJSONObject("stack");
-            Stack result = new Stack();
-            result.setId(stack.getString("id"));
-            result.setStatus(stack.getString("stack_status"));
-            try {
-                result.setStatusReason(stack.getString("stack_status_reason"));
-            } catch (JSONException e) {
-                logger.error("HeatClient.getStackDetails()", e);
-                result.setStatusReason("n/a");
-            }
-
-            try {
-                JSONArray outputs = stack.getJSONArray("outputs");
-                for (int i = 0; i < outputs.length(); i++) {
-                    JSONObject output = outputs.getJSONObject(i);
-                    result.addOutput(output.optString("output_key"),
-                            output.optString("output_value"));
-                }
-            } catch (JSONException e) {
-                // ignore if output is not yet here
-            }
-            return result;
+            return connection.readResponse(uri, "GET",
+                    body -> JsonStream.readObject(body, HeatClient::readStack));
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         } catch (OpenStackConnectionException ex) {
@@ -309,6 +311,71 @@ public class HeatClient {
         }
     }
 
+    /**
+     * Reads ID, status and outputs of the stack and skips its parameters,
+     * template and links.
+     */
+    private static Stack readStack(JsonParser parser)
+            throws IOException, JSONException {
+        JsonStream.findField(parser, "stack");
+        JsonStream.expectObject(parser, "stack");
+        Stack result = new Stack();
+        String field;
+        while ((field = JsonStream.nextField(parser)) != null) {
+            if ("id".equals(field)) {
+                result.setId(JsonStream.text(parser));
+            } else if ("stack_status".equals(field)) {
+                result.setStatus(JsonStream.text(parser));
+            } else if ("stack_status_reason".equals(field)) {
+                result.setStatusReason(JsonStream.text(parser));
+            } else if ("outputs".equals(field)) {
+                readOutputs(parser, result);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (result.getId() == null) {
+            throw JsonStream.notFound("id");
+        }
+        if (result.getStatus() == null) {
+            throw JsonStream.notFound("stack_status");
+        }
+        if (result.getStatusReason() == null) {
+            logger.error("HeatClient.getStackDetails() "
+                    + JsonStream.notFound("stack_status_reason").getMessage());
+            result.setStatusReason("n/a");
+        }
+        return result;
+    }
+
+    private static void readOutputs(JsonParser parser, Stack result)
+            throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            // ignore if output is not yet here
+            parser.skipChildren();
+            return;
+        }
+        while (JsonStream.nextElement(parser)) {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String key = "";
+            String value = "";
+            String field;
+            while ((field = JsonStream.nextField(parser)) != null) {
+                if ("output_key".equals(field)) {
+                    key = JsonStream.text(parser);
+                } else if ("output_value".equals(field)) {
+                    value = JsonStream.text(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            result.addOutput(key, value);
+        }
+    }
+
     public void deleteStack(String stackName) throws HeatException {
         logger.debug("HeatClient.deleteStack() Endpoint: "
                 + connection.getHeatEndpoint());
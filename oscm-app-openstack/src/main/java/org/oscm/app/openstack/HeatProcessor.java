@@ -105,10 +105,16 @@ public class HeatProcessor {
             throws HeatException, APPlatformException {
         OpenStackConnection connection = new OpenStackConnection(
                 ph.getKeystoneUrl());
-        KeystoneClient client = new KeystoneClient(connection);
+        for (String service : new String[] { OpenStackConnection.KEYSTONE,
+                OpenStackConnection.HEAT, OpenStackConnection.NOVA }) {
+            connection.setTimeouts(service, ph.getConnectTimeout(service),
+                    ph.getReadTimeout(service));
+        }
+        connection.setMaxConnectionsPerHost(ph.getMaxConnectionsPerHost());
         try {
-            client.authenticate(ph.getUserName(), ph.getPassword(),
-                    ph.getDomainName(), ph.getTenantId());
+            KeystoneTokenCache.getInstance().authenticate(connection,
+                    ph.getUserName(), ph::getPassword, ph.getDomainName(),
+                    ph.getTenantId());
         } catch (OpenStackConnectionException ex) {
             throw new HeatException(
                     "Failed to connect to Heat: " + ex.getMessage(),
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+import org.apache.sling.commons.json.JSONException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads single fields of JSON responses with a pull parser, so that large
+ * responses, e.g. the resources of nested stacks, are not kept in memory as a
+ * whole. Values which are not needed are skipped without being materialized.
+ * Errors are reported as {@link JSONException} like the ones of the
+ * <code>JSONObject</code> based parsing.
+ */
+final class JsonStream {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Reads the required fields of an object.
+     */
+    interface ObjectReader<T> {
+
+        /**
+         * @param parser
+         *            the parser positioned at the start of the object
+         */
+        T read(JsonParser parser) throws IOException, JSONException;
+    }
+
+    private JsonStream() {
+    }
+
+    /**
+     * Parses the given response body, which has to be a JSON object.
+     */
+    static <T> T readObject(InputStream body, ObjectReader<T> reader)
+            throws IOException, JSONException {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JSONException(
+                        "A JSONObject text must begin with '{'");
+            }
+            return reader.read(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Moves the parser to the value of the next field of the current object.
+     *
+     * @return the name of the field or <code>null</code> at the end of the
+     *         object
+     */
+    static String nextField(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            return null;
+        }
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        return name;
+    }
+
+    /**
+     * Moves the parser to the value of the given field of the current object
+     * and skips all other fields before.
+     *
+     * @throws JSONException
+     *             if the object does not contain the field
+     */
+    static void findField(JsonParser parser, String name)
+            throws IOException, JSONException {
+        String field;
+        while ((field = nextField(parser)) != null) {
+            if (field.equals(name)) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw notFound(name);
+    }
+
+    /**
+     * Moves the parser to the next element of the current array.
+     *
+     * @return <code>false</code> at the end of the array
+     */
+    static boolean nextElement(JsonParser parser) throws IOException {
+        return parser.nextToken() != JsonToken.END_ARRAY;
+    }
+
+    /**
+     * Fails if the value the parser is positioned at is not an object.
+     */
+    static void expectObject(JsonParser parser, String name)
+            throws JSONException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw new JSONException(
+                    "JSONObject[" + quote(name) + "] is not a JSONObject.");
+        }
+    }
+
+    /**
+     * Fails if the value the parser is positioned at is not an array.
+     */
+    static void expectArray(JsonParser parser, String name)
+            throws JSONException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            throw new JSONException(
+                    "JSONObject[" + quote(name) + "] is not a JSONArray.");
+        }
+    }
+
+    /**
+     * Returns the value the parser is positioned at as text. Objects and
+     * arrays are returned as JSON text.
+     */
+    static String text(JsonParser parser) throws IOException {
+        if (!parser.getCurrentToken().isStructStart()) {
+            return parser.getText();
+        }
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    static JSONException notFound(String name) {
+        return new JSONException("JSONObject[" + quote(name) + "] not found.");
+    }
+
+    private static String quote(String name) {
+        return "\"" + name + "\"";
+    }
+}
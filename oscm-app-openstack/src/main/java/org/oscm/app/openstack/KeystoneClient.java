@@ -8,6 +8,9 @@
 
 package org.oscm.app.openstack;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
 import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
@@ -30,6 +33,12 @@ public class KeystoneClient {
 
     final static String TYPE_NOVA = "compute";
 
+    /**
+     * Lifetime assumed for tokens without expiration date, the default of
+     * Keystone.
+     */
+    final static long DEFAULT_LIFETIME = 60 * 60000;
+
     private final OpenStackConnection connection;
 
     /**
@@ -54,6 +63,25 @@ public class KeystoneClient {
     public void authenticate(String user, String password, String domainName,
             String tenantId)
             throws APPlatformException, OpenStackConnectionException {
+        connection.useToken(
+                requestToken(user, password, domainName, tenantId));
+    }
+
+    /**
+     * Requests a new token for the V3 API without changing the connection
+     * given in the constructor.
+     * 
+     * @param user
+     * @param password
+     * @param domainName
+     * @param tenantId
+     * @return the token and the endpoints of its service catalog
+     * 
+     * @throws OpenStackConnectionException
+     */
+    public KeystoneToken requestToken(String user, String password,
+            String domainName, String tenantId)
+            throws APPlatformException, OpenStackConnectionException {
         LOGGER.debug("KeystoneClient.authenticate() user: " + user + "  domain:"
                 + domainName + " tenant ID:" + tenantId + "  endpoint: "
                 + connection.getKeystoneEndpoint());
@@ -165,11 +193,22 @@ public class KeystoneClient {
                 LOGGER.debug("KeystoneClient.authenticate() nova endpoint: "
                         + novaEndpoint);
             }
-            connection.useAuthentication(authToken);
-            connection.setHeatEndpoint(heatEndpoint);
-            connection.setNovaEndpoint(novaEndpoint);
+            return new KeystoneToken(authToken, heatEndpoint, novaEndpoint,
+                    getExpires(token));
         } catch (JSONException e) {
             throw new RuntimeException(e);
         }
     }
+
+    private long getExpires(JSONObject token) {
+        String expiresAt = token.optString("expires_at", null);
+        if (expiresAt != null) {
+            try {
+                return Instant.parse(expiresAt).toEpochMilli();
+            } catch (DateTimeParseException e) {
+                LOGGER.warn("Invalid token expiration date: " + expiresAt);
+            }
+        }
+        return System.currentTimeMillis() + DEFAULT_LIFETIME;
+    }
 }
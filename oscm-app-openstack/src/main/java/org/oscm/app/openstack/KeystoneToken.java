@@ -0,0 +1,48 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+/**
+ * Token issued by Keystone together with the endpoints taken from its service
+ * catalog.
+ */
+public class KeystoneToken {
+
+    private final String authToken;
+    private final String heatEndpoint;
+    private final String novaEndpoint;
+    private final long expires;
+
+    public KeystoneToken(String authToken, String heatEndpoint,
+            String novaEndpoint, long expires) {
+        this.authToken = authToken;
+        this.heatEndpoint = heatEndpoint;
+        this.novaEndpoint = novaEndpoint;
+        this.expires = expires;
+    }
+
+    public String getAuthToken() {
+        return authToken;
+    }
+
+    public String getHeatEndpoint() {
+        return heatEndpoint;
+    }
+
+    public String getNovaEndpoint() {
+        return novaEndpoint;
+    }
+
+    /**
+     * Returns the point in time in milliseconds when the token expires.
+     */
+    public long getExpires() {
+        return expires;
+    }
+}
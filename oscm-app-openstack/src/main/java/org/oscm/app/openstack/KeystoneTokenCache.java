@@ -0,0 +1,349 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.openstack4j.api.OSClient.OSClientV3;
+import org.openstack4j.api.types.Facing;
+import org.openstack4j.core.transport.Config;
+import org.openstack4j.model.identity.v3.Token;
+import org.openstack4j.openstack.OSFactory;
+import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
+import org.oscm.app.v2_0.exceptions.APPlatformException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the tokens issued by Keystone per endpoint, domain, tenant and user, so
+ * that Heat and Nova requests do not need a Keystone round-trip each. A token
+ * is renewed by the first request within {@link #REFRESH_AHEAD} of its
+ * expiration while concurrent requests continue to use the old one. Tokens
+ * rejected by OpenStack are dropped and requested again.
+ * <p>
+ * No password is kept: the tokens are stored with a salted hash of the
+ * password they were issued for, and a connection reads the password from its
+ * source again when it has to renew its token.
+ */
+public class KeystoneTokenCache {
+
+    static final long REFRESH_AHEAD = 5 * 60000;
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(KeystoneTokenCache.class);
+
+    private static final String REST = "rest";
+
+    private static final String OPENSTACK4J = "openstack4j";
+
+    private static class SingletonHolder {
+        public static final KeystoneTokenCache INSTANCE = new KeystoneTokenCache(
+                REFRESH_AHEAD);
+    }
+
+    public static KeystoneTokenCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private final ConcurrentMap<List<String>, Slot> slots = new ConcurrentHashMap<List<String>, Slot>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final long refreshAhead;
+    private final byte[] salt = new byte[16];
+
+    KeystoneTokenCache(long refreshAhead) {
+        this.refreshAhead = refreshAhead;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Authenticates the given connection with a cached token or a new one. If
+     * the token is rejected later on, the connection drops it and
+     * authenticates again.
+     *
+     * @param connection
+     *            The connection that needs to be authenticated
+     * @param user
+     * @param password
+     *            Provides the password, also when the token is renewed
+     * @param domainName
+     * @param tenantId
+     * @throws OpenStackConnectionException
+     */
+    public void authenticate(OpenStackConnection connection, String user,
+            Supplier<String> password, String domainName, String tenantId)
+            throws APPlatformException, OpenStackConnectionException {
+        List<String> key = Arrays.asList(REST,
+                connection.getKeystoneEndpoint(), domainName, tenantId, user);
+        Renewal renewal = new Renewal(key, user, password, domainName,
+                tenantId);
+        renewal.token = getToken(key, connection, user, password.get(),
+                domainName, tenantId);
+        connection.useToken(renewal.token);
+        connection.setTokenRenewal(renewal);
+    }
+
+    private KeystoneToken getToken(List<String> key,
+            OpenStackConnection connection, String user, String password,
+            String domainName, String tenantId)
+            throws APPlatformException, OpenStackConnectionException {
+        Slot slot = getSlot(key);
+        byte[] passwordHash = hash(password);
+        KeystoneToken token = (KeystoneToken) slot.acquire(passwordHash);
+        if (token != null) {
+            return token;
+        }
+        try {
+            token = new KeystoneClient(connection).requestToken(user,
+                    password, domainName, tenantId);
+            slot.update(token, token.getExpires(), passwordHash);
+            return token;
+        } catch (APPlatformException | OpenStackConnectionException e) {
+            token = (KeystoneToken) slot.usable(passwordHash);
+            if (token == null) {
+                throw e;
+            }
+            LOGGER.warn("Failed to renew Keystone token, using the current "
+                    + "one until it expires: " + e.getMessage());
+            return token;
+        } finally {
+            slot.release();
+        }
+    }
+
+    /**
+     * Returns an openstack4j client using a cached token or authenticates with
+     * the given login.
+     *
+     * @param endpoint
+     *            The URL to the Keystone API
+     * @param user
+     * @param password
+     * @param domainName
+     * @param projectId
+     *            <code>null</code> for an unscoped token
+     * @param config
+     *            The configuration for clients created from cached tokens
+     * @param login
+     *            Authenticates with the given credentials
+     */
+    public OSClientV3 getClient(String endpoint, String user, String password,
+            String domainName, String projectId, Config config,
+            Supplier<OSClientV3> login) {
+        Slot slot = getSlot(Arrays.asList(OPENSTACK4J, endpoint, domainName,
+                projectId, user));
+        byte[] passwordHash = hash(password);
+        Token token = (Token) slot.acquire(passwordHash);
+        if (token != null) {
+            return OSFactory.clientFromToken(token, Facing.PUBLIC, config);
+        }
+        try {
+            OSClientV3 client = login.get();
+            token = client.getToken();
+            long expires = token.getExpires() == null
+                    ? System.currentTimeMillis()
+                            + KeystoneClient.DEFAULT_LIFETIME
+                    : token.getExpires().getTime();
+            slot.update(token, expires, passwordHash);
+            return client;
+        } catch (RuntimeException e) {
+            token = (Token) slot.usable(passwordHash);
+            if (token == null) {
+                throw e;
+            }
+            LOGGER.warn("Failed to renew Keystone token, using the current "
+                    + "one until it expires: " + e.getMessage());
+            return OSFactory.clientFromToken(token, Facing.PUBLIC, config);
+        } finally {
+            slot.release();
+        }
+    }
+
+    /**
+     * Drops the given token unless it has been renewed already.
+     */
+    void invalidate(List<String> key, Object token) {
+        Slot slot = slots.get(key);
+        if (slot != null && slot.invalidate(token)) {
+            invalidations.incrementAndGet();
+            LOGGER.debug("Keystone token rejected, " + getMetrics());
+        }
+    }
+
+    /**
+     * Removes all tokens.
+     */
+    public void clear() {
+        slots.clear();
+    }
+
+    public KeystoneTokenCacheMetrics getMetrics() {
+        return new KeystoneTokenCacheMetrics(slots.size(), hits.get(),
+                refreshes.get(), invalidations.get());
+    }
+
+    private byte[] hash(String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            if (password != null) {
+                md.update(password.getBytes(StandardCharsets.UTF_8));
+            }
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Slot getSlot(List<String> key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            Slot created = new Slot();
+            slot = slots.putIfAbsent(key, created);
+            if (slot == null) {
+                slot = created;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Drops the rejected token of a connection and authenticates it again with
+     * the password read from its source.
+     */
+    private class Renewal implements OpenStackConnection.TokenRenewal {
+
+        private final List<String> key;
+        private final String user;
+        private final Supplier<String> password;
+        private final String domainName;
+        private final String tenantId;
+        private KeystoneToken token;
+
+        Renewal(List<String> key, String user, Supplier<String> password,
+                String domainName, String tenantId) {
+            this.key = key;
+            this.user = user;
+            this.password = password;
+            this.domainName = domainName;
+            this.tenantId = tenantId;
+        }
+
+        @Override
+        public void renew(OpenStackConnection connection)
+                throws OpenStackConnectionException {
+            invalidate(key, token);
+            try {
+                token = getToken(key, connection, user, password.get(),
+                        domainName, tenantId);
+            } catch (APPlatformException e) {
+                throw new OpenStackConnectionException(e.getMessage(), 401);
+            }
+            connection.useToken(token);
+        }
+    }
+
+    /**
+     * The token of one key. Only one thread at a time requests a new token.
+     */
+    private class Slot {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicReference<Entry> entry = new AtomicReference<Entry>();
+
+        /**
+         * Returns the cached token if it can be used. Otherwise
+         * <code>null</code> is returned and the caller has to request a new
+         * token and call {@link #release()} afterwards.
+         */
+        Object acquire(byte[] passwordHash) {
+            Entry current = entry.get();
+            long now = System.currentTimeMillis();
+            if (current != null && current.isFor(passwordHash)
+                    && current.expires > now) {
+                if (current.expires - refreshAhead > now || !lock.tryLock()) {
+                    return hit(current);
+                }
+            } else {
+                lock.lock();
+            }
+            current = entry.get();
+            if (current != null && current.isFor(passwordHash)
+                    && current.expires - refreshAhead > System
+                            .currentTimeMillis()) {
+                lock.unlock();
+                return hit(current);
+            }
+            return null;
+        }
+
+        /**
+         * Returns the cached token if it has not expired yet, even if it is
+         * due to be renewed.
+         */
+        Object usable(byte[] passwordHash) {
+            Entry current = entry.get();
+            if (current != null && current.isFor(passwordHash)
+                    && current.expires > System.currentTimeMillis()) {
+                return current.token;
+            }
+            return null;
+        }
+
+        void update(Object token, long expires, byte[] passwordHash) {
+            entry.set(new Entry(token, expires, passwordHash));
+            refreshes.incrementAndGet();
+            LOGGER.debug("Keystone token requested, " + getMetrics());
+        }
+
+        void release() {
+            lock.unlock();
+        }
+
+        boolean invalidate(Object token) {
+            Entry current = entry.get();
+            return current != null && current.token == token
+                    && entry.compareAndSet(current, null);
+        }
+
+        private Object hit(Entry current) {
+            hits.incrementAndGet();
+            return current.token;
+        }
+    }
+
+    private static class Entry {
+
+        final Object token;
+        final long expires;
+        final byte[] passwordHash;
+
+        Entry(Object token, long expires, byte[] passwordHash) {
+            this.token = token;
+            this.expires = expires;
+            this.passwordHash = passwordHash;
+        }
+
+        boolean isFor(byte[] passwordHash) {
+            return MessageDigest.isEqual(this.passwordHash, passwordHash);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+/**
+ * Snapshot of the usage of the Keystone token cache.
+ */
+public class KeystoneTokenCacheMetrics {
+
+    private final int size;
+    private final long hits;
+    private final long refreshes;
+    private final long invalidations;
+
+    public KeystoneTokenCacheMetrics(int size, long hits, long refreshes,
+            long invalidations) {
+        this.size = size;
+        this.hits = hits;
+        this.refreshes = refreshes;
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * Returns the number of cached tokens.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of authentications served from the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of tokens requested from Keystone.
+     */
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * Returns the number of tokens dropped because they were rejected.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size + ", hits: " + hits + ", refreshes: "
+                + refreshes + ", invalidations: " + invalidations;
+    }
+}
@@ -8,11 +8,16 @@
 
 package org.oscm.app.openstack;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
-import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
 import org.oscm.app.openstack.controller.PropertyHandler;
@@ -22,6 +27,9 @@ import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 /**
  * @author tateiwamext
  *
@@ -31,6 +39,16 @@ public class NovaClient {
     private final OpenStackConnection connection;
     private final Logger logger = LoggerFactory.getLogger(NovaClient.class);
 
+    /**
+     * The margin for the difference of the clocks of Heat and Nova.
+     */
+    static final Duration CLOCK_SKEW = Duration.ofHours(1);
+
+    /**
+     * The maximum number of pages read from a listing of servers.
+     */
+    static final int MAX_PAGES = 100;
+
     private enum IP_TYPE {
         fixed, floating
     }
@@ -110,52 +128,16 @@ public class NovaClient {
     public Server getServerDetails(PropertyHandler ph, String serverId,
             boolean moreInfo) throws OpenStackConnectionException {
         String uri;
-        Server result = new Server(serverId);
-        String flavorName = "-";
-        List<String> fixedIP = new ArrayList<String>();
-        List<String> floatingIP = new ArrayList<String>();
         try {
             uri = connection.getNovaEndpoint() + "/servers/"
                     + URLEncoder.encode(serverId, "UTF-8");
 
-            RESTResponse response = connection.processRequest(uri, "GET");
-            String body = response.getResponseBody();
-            logger.debug("NovaClient.getServerDetails() Responsecode: "
-                    + response.getResponseCode());
-            JSONObject responseJson = new JSONObject(body);
-            JSONObject server = responseJson.getJSONObject("server");
-            result.setId(server.getString("id"));
-            result.setStatus(server.getString("status"));
-            result.setName(server.getString("name"));
-            if (moreInfo) {
-                JSONObject flavor = server.getJSONObject("flavor");
-                flavorName = getFlavorName(flavor.getString("id"));
-                result.setType(flavorName);
-                if (server.has("addresses")) {
-                    JSONObject addresses = server.getJSONObject("addresses");
-                    Iterator<?> networkNames = addresses.keys();
-                    while (networkNames.hasNext()) {
-                        String key = (String) networkNames.next();
-                        if (addresses.get(key) instanceof JSONArray) {
-                            JSONArray networks = addresses.getJSONArray(key);
-                            for (int i = 0; i < networks.length(); i++) {
-                                JSONObject network = networks.getJSONObject(i);
-                                if (network.getString("OS-EXT-IPS:type")
-                                        .equals(IP_TYPE.fixed.toString())) {
-                                    fixedIP.add(network.getString("addr"));
-                                } else if (network.getString("OS-EXT-IPS:type")
-                                        .equals(IP_TYPE.floating.toString())) {
-                                    floatingIP.add(network.getString("addr"));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            result.setType(flavorName);
-            result.setPrivateIP(fixedIP);
-            result.setPublicIP(floatingIP);
-            return result;
+            ServerFields server = connection.readResponse(uri, "GET",
+                    body -> JsonStream.readObject(body, parser -> {
+                        JsonStream.findField(parser, "server");
+                        return readServer(parser, "server");
+                    }));
+            return toServer(server, moreInfo, new HashMap<String, String>());
         } catch (UnsupportedEncodingException e) {
             logger.error("Runtime error happened during encoding", e);
             throw new RuntimeException(e);
@@ -163,12 +145,270 @@ public class NovaClient {
             logger.error("NovaClient.getServerDetails() JSONException occurred",
                     e);
         }
-        result.setName("");
-        result.setStatus(ServerStatus.UNKNOWN.toString());
+        return unknownServer(serverId);
+    }
+
+    /**
+     * Get the details of several servers with as few requests as possible.
+     * The listing is restricted to the servers changed since the creation of
+     * the stack and its pages are only read until all servers are found.
+     * Servers which are not contained in the listing of Nova are missing in
+     * the result, so the caller has to request them separately.
+     * 
+     * @param ph
+     * @param serverIds
+     * @param createdSince
+     *            the creation time of the oldest server as returned by Heat,
+     *            <code>null</code> to list all servers
+     * @return the servers found by their IDs, empty if the listing failed
+     */
+    public Map<String, Server> getServersDetails(PropertyHandler ph,
+            final Collection<String> serverIds, String createdSince,
+            boolean moreInfo) {
+        Map<String, Server> result = new HashMap<String, Server>();
+        Set<String> wanted = new HashSet<String>(serverIds);
+        String uri = connection.getNovaEndpoint() + "/servers/detail";
+        String query = getChangesSinceQuery(createdSince);
+        try {
+            Map<String, String> flavorNames = new HashMap<String, String>();
+            for (int page = 0; page < MAX_PAGES; page++) {
+                ServerPage servers = connection.readResponse(
+                        query == null ? uri : uri + "?" + query, "GET",
+                        body -> JsonStream.readObject(body,
+                                parser -> readServers(parser, wanted)));
+                for (ServerFields server : servers.servers) {
+                    result.put(server.id,
+                            toServer(server, moreInfo, flavorNames));
+                }
+                String next = getQuery(servers.next);
+                if (wanted.isEmpty() || next == null || next.equals(query)) {
+                    break;
+                }
+                query = next;
+            }
+        } catch (OpenStackConnectionException | JSONException e) {
+            logger.debug("NovaClient.getServersDetails() Could not list "
+                    + "servers, they are requested one by one: "
+                    + e.getMessage());
+            result.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the filter for the servers changed since the given Heat time,
+     * which is moved back by {@link #CLOCK_SKEW} as the clocks of Heat and
+     * Nova may differ.
+     */
+    static String getChangesSinceQuery(String createdSince) {
+        if (createdSince == null) {
+            return null;
+        }
+        try {
+            String time = createdSince.endsWith("Z")
+                    ? createdSince.substring(0, createdSince.length() - 1)
+                    : createdSince;
+            LocalDateTime since = LocalDateTime.parse(time)
+                    .minus(CLOCK_SKEW);
+            return "changes-since=" + URLEncoder.encode(
+                    since.truncatedTo(ChronoUnit.SECONDS)
+                            .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                            + "Z",
+                    "UTF-8");
+        } catch (DateTimeParseException e) {
+            return null;
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the query of the given link to the next page, which is sent to
+     * the configured endpoint, as the host of the link may not be reachable.
+     */
+    private static String getQuery(String link) {
+        if (link == null) {
+            return null;
+        }
+        int index = link.indexOf('?');
+        return index < 0 ? null : link.substring(index + 1);
+    }
+
+    /**
+     * Reads the servers with the given IDs from a page of a listing, all other
+     * servers are dropped right after their ID has been read. The IDs of the
+     * servers found are removed from the given set.
+     */
+    private static ServerPage readServers(JsonParser parser,
+            Set<String> serverIds) throws IOException, JSONException {
+        ServerPage page = new ServerPage();
+        boolean found = false;
+        String field;
+        while ((field = JsonStream.nextField(parser)) != null) {
+            if ("servers".equals(field)) {
+                found = true;
+                JsonStream.expectArray(parser, "servers");
+                while (JsonStream.nextElement(parser)) {
+                    ServerFields server = readServer(parser, "servers");
+                    if (serverIds.remove(server.id)) {
+                        page.servers.add(server);
+                    }
+                }
+            } else if ("servers_links".equals(field)
+                    && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+                page.next = readNextLink(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!found) {
+            throw JsonStream.notFound("servers");
+        }
+        return page;
+    }
+
+    private static String readNextLink(JsonParser parser)
+            throws IOException, JSONException {
+        String next = null;
+        while (JsonStream.nextElement(parser)) {
+            JsonStream.expectObject(parser, "servers_links");
+            String rel = null;
+            String href = null;
+            String field;
+            while ((field = JsonStream.nextField(parser)) != null) {
+                if ("rel".equals(field)) {
+                    rel = JsonStream.text(parser);
+                } else if ("href".equals(field)) {
+                    href = JsonStream.text(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if ("next".equals(rel)) {
+                next = href;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Reads the fields of a server which are shown to the user and skips all
+     * others.
+     */
+    private static ServerFields readServer(JsonParser parser, String name)
+            throws IOException, JSONException {
+        JsonStream.expectObject(parser, name);
+        ServerFields server = new ServerFields();
+        String field;
+        while ((field = JsonStream.nextField(parser)) != null) {
+            if ("id".equals(field)) {
+                server.id = JsonStream.text(parser);
+            } else if ("name".equals(field)) {
+                server.name = JsonStream.text(parser);
+            } else if ("status".equals(field)) {
+                server.status = JsonStream.text(parser);
+            } else if ("flavor".equals(field)) {
+                readFlavor(parser, server);
+            } else if ("addresses".equals(field)) {
+                readAddresses(parser, server);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return server;
+    }
+
+    private static void readFlavor(JsonParser parser, ServerFields server)
+            throws IOException, JSONException {
+        JsonStream.expectObject(parser, "flavor");
+        String field;
+        while ((field = JsonStream.nextField(parser)) != null) {
+            if ("id".equals(field)) {
+                server.flavorId = JsonStream.text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readAddresses(JsonParser parser, ServerFields server)
+            throws IOException, JSONException {
+        JsonStream.expectObject(parser, "addresses");
+        while (JsonStream.nextField(parser) != null) {
+            if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            while (JsonStream.nextElement(parser)) {
+                JsonStream.expectObject(parser, "addresses");
+                String type = null;
+                String addr = null;
+                String field;
+                while ((field = JsonStream.nextField(parser)) != null) {
+                    if ("OS-EXT-IPS:type".equals(field)) {
+                        type = JsonStream.text(parser);
+                    } else if ("addr".equals(field)) {
+                        addr = JsonStream.text(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (IP_TYPE.fixed.toString().equals(type)) {
+                    server.fixedIP.add(addr);
+                } else if (IP_TYPE.floating.toString().equals(type)) {
+                    server.floatingIP.add(addr);
+                }
+            }
+        }
+    }
+
+    private Server toServer(ServerFields server, boolean moreInfo,
+            Map<String, String> flavorNames)
+            throws JSONException, OpenStackConnectionException {
+        if (server.id == null) {
+            throw JsonStream.notFound("id");
+        }
+        if (server.status == null) {
+            throw JsonStream.notFound("status");
+        }
+        if (server.name == null) {
+            throw JsonStream.notFound("name");
+        }
+        Server result = new Server(server.id);
+        String flavorName = "-";
+        List<String> fixedIP = new ArrayList<String>();
+        List<String> floatingIP = new ArrayList<String>();
+        result.setStatus(server.status);
+        result.setName(server.name);
+        if (moreInfo) {
+            if (server.flavorId == null) {
+                throw JsonStream.notFound("flavor");
+            }
+            flavorName = flavorNames.get(server.flavorId);
+            if (flavorName == null) {
+                flavorName = getFlavorName(server.flavorId);
+                flavorNames.put(server.flavorId, flavorName);
+            }
+            fixedIP = server.fixedIP;
+            floatingIP = server.floatingIP;
+        }
         result.setType(flavorName);
         result.setPrivateIP(fixedIP);
         result.setPublicIP(floatingIP);
+        return result;
+    }
 
+    /**
+     * Returns a server with unknown status, used if its details could not be
+     * read.
+     */
+    private static Server unknownServer(String serverId) {
+        Server result = new Server(serverId);
+        result.setName("");
+        result.setStatus(ServerStatus.UNKNOWN.toString());
+        result.setType("-");
+        result.setPrivateIP(new ArrayList<String>());
+        result.setPublicIP(new ArrayList<String>());
         return result;
     }
 
@@ -228,4 +468,26 @@ public class NovaClient {
         return "-";
     }
 
+    /**
+     * The servers read from a page of a listing and the link to the next
+     * page.
+     */
+    private static class ServerPage {
+
+        final List<ServerFields> servers = new ArrayList<ServerFields>();
+        String next;
+    }
+
+    /**
+     * The fields of a server read from a response of Nova.
+     */
+    private static class ServerFields {
+
+        String id;
+        String name;
+        String status;
+        String flavorId;
+        final List<String> fixedIP = new ArrayList<String>();
+        final List<String> floatingIP = new ArrayList<String>();
+    }
 }
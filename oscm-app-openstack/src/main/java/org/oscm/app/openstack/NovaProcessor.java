@@ -10,8 +10,19 @@ package org.oscm.app.openstack;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+
+import org.oscm.app.openstack.HeatClient.ServerResources;
 import org.oscm.app.openstack.controller.PropertyHandler;
 import org.oscm.app.openstack.controller.ServerStatus;
 import org.oscm.app.openstack.data.Server;
@@ -29,16 +40,52 @@ import org.slf4j.LoggerFactory;
  * 
  */
 public class NovaProcessor {
+
+    /**
+     * The executor of the application server which runs the server requests
+     * in parallel. The requests per host are limited by
+     * {@link OpenStackConnection}.
+     */
+    static final String EXECUTOR_JNDI_NAME = "java:comp/"
+            + "DefaultManagedExecutorService";
+
+    /**
+     * The maximum time in milliseconds the servers of a stack are waited for.
+     */
+    static final long MAX_WAIT = 5 * 60000L;
+
     private final Logger logger = LoggerFactory.getLogger(NovaProcessor.class);
 
+    /**
+     * An operation on a single server.
+     */
+    private interface ServerTask<T> {
+
+        T run(String serverId) throws OpenStackConnectionException;
+    }
+
+    /**
+     * Provides the result of a server whose operation failed.
+     */
+    private interface ServerFailure<T> {
+
+        T failed(String serverId, Exception cause);
+    }
+
     private OpenStackConnection getConnection(PropertyHandler ph)
             throws APPlatformException, NovaException {
         OpenStackConnection connection = new OpenStackConnection(
                 ph.getKeystoneUrl());
-        KeystoneClient client = new KeystoneClient(connection);
+        for (String service : new String[] { OpenStackConnection.KEYSTONE,
+                OpenStackConnection.HEAT, OpenStackConnection.NOVA }) {
+            connection.setTimeouts(service, ph.getConnectTimeout(service),
+                    ph.getReadTimeout(service));
+        }
+        connection.setMaxConnectionsPerHost(ph.getMaxConnectionsPerHost());
         try {
-            client.authenticate(ph.getUserName(), ph.getPassword(),
-                    ph.getDomainName(), ph.getTenantId());
+            KeystoneTokenCache.getInstance().authenticate(connection,
+                    ph.getUserName(), ph::getPassword, ph.getDomainName(),
+                    ph.getTenantId());
         } catch (OpenStackConnectionException ex) {
             throw new NovaException("Failed to connect to Nova: "
                     + ex.getMessage(), ex.getResponseCode());
@@ -56,62 +103,32 @@ public class NovaProcessor {
     public HashMap<String, Boolean> startInstances(PropertyHandler ph)
             throws HeatException, APPlatformException, NovaException {
         OpenStackConnection connection = getConnection(ph);
-        List<String> skippedServers = new ArrayList<String>();
 
-        List<String> serverIds = new HeatClient(connection).getServerIds(ph
-                .getStackName());
+        ServerResources resources = new HeatClient(connection)
+                .getServerResources(ph.getStackName());
+        List<String> serverIds = resources.getIds();
 
-        HashMap<String, Boolean> operationStatuses = new HashMap<String, Boolean>();
         if (serverIds.size() == 0) {
             throw new InstanceNotAliveException(
                     Messages.getAll("error_starting_failed_instance_not_found"));
         }
 
         NovaClient nc = new NovaClient(connection);
-        for (String id : serverIds) {
-            Boolean result = Boolean.FALSE;
-            try {
-                if (nc.isNotServerExceptedStatus(ServerStatus.ACTIVE, ph, id)) {
-                    result = nc.startServer(ph, id);
-                } else {
-                    skippedServers.add(id);
-                }
-            } catch (OpenStackConnectionException ex) {
-                if (ex.getResponseCode() == 401) {
-                    logger.info(
-                            "Could not start server (Server ID:"
-                                    + id
-                                    + ") in stack (Stack ID: "
-                                    + ph.getStackId()
-                                    + ") because of unauthorized. Retry once after authorised.",
-                            ex);
-                    try {
-                        connection = getConnection(ph);
-                        nc = new NovaClient(connection);
-
-                        if (nc.isNotServerExceptedStatus(ServerStatus.ACTIVE,
-                                ph, id)) {
-                            result = nc.startServer(ph, id);
-                        } else {
-                            skippedServers.add(id);
-                        }
-                    } catch (OpenStackConnectionException e) {
-                        logger.info("Could not start server (Server ID:" + id
-                                + ") in stack (Stack ID: " + ph.getStackId()
-                                + ")", e);
-                        result = Boolean.FALSE;
-                    }
-                } else {
-
-                    logger.info("Could not start server (Server ID:" + id
-                            + ") in stack (Stack ID: " + ph.getStackId() + ")",
-                            ex);
-                    result = Boolean.FALSE;
-                }
+        Map<String, Server> listed = nc.getServersDetails(ph, serverIds,
+                resources.getCreatedSince(), false);
+        Map<String, Boolean> results = forEachServer(ph, serverIds, id -> {
+            if (isNotServerExceptedStatus(nc, listed, ServerStatus.ACTIVE, ph,
+                    id)) {
+                return nc.startServer(ph, id);
             }
-            operationStatuses.put(id, result);
-        }
-        if (skippedServers.size() == serverIds.size()) {
+            return null;
+        }, (id, ex) -> {
+            logger.info("Could not start server (Server ID:" + id
+                    + ") in stack (Stack ID: " + ph.getStackId() + ")", ex);
+            return Boolean.FALSE;
+        });
+        HashMap<String, Boolean> operationStatuses = new HashMap<String, Boolean>();
+        if (collect(results, operationStatuses) == serverIds.size()) {
             throw new APPlatformException(
                     Messages.getAll("error_all_servers_active"));
         }
@@ -130,61 +147,32 @@ public class NovaProcessor {
     public HashMap<String, Boolean> stopInstances(PropertyHandler ph)
             throws HeatException, APPlatformException, NovaException {
         OpenStackConnection connection = getConnection(ph);
-        List<String> skippedServers = new ArrayList<String>();
 
-        List<String> serverIds = new HeatClient(connection).getServerIds(ph
-                .getStackName());
+        ServerResources resources = new HeatClient(connection)
+                .getServerResources(ph.getStackName());
+        List<String> serverIds = resources.getIds();
 
-        HashMap<String, Boolean> operationStatuses = new HashMap<String, Boolean>();
         if (serverIds.size() == 0) {
             throw new InstanceNotAliveException(
                     Messages.getAll("error_stopping_failed_instance_not_found"));
         }
 
         NovaClient nc = new NovaClient(connection);
-        for (String id : serverIds) {
-            Boolean result = Boolean.FALSE;
-            try {
-                if (nc.isNotServerExceptedStatus(ServerStatus.SHUTOFF, ph, id)) {
-                    result = nc.stopServer(ph, id);
-                } else {
-                    skippedServers.add(id);
-                }
-            } catch (OpenStackConnectionException ex) {
-                if (ex.getResponseCode() == 401) {
-                    logger.info(
-                            "Could not stop server (Server ID:"
-                                    + id
-                                    + ") in stack (Stack ID: "
-                                    + ph.getStackId()
-                                    + ") because of unauthorized. Retry once after authorised.",
-                            ex);
-                    try {
-                        connection = getConnection(ph);
-                        nc = new NovaClient(connection);
-                        if (nc.isNotServerExceptedStatus(ServerStatus.SHUTOFF,
-                                ph, id)) {
-                            result = nc.stopServer(ph, id);
-                        } else {
-                            skippedServers.add(id);
-                        }
-                    } catch (OpenStackConnectionException e) {
-                        logger.info("Could not stop server (Server ID:" + id
-                                + ") in stack (Stack ID: " + ph.getStackId()
-                                + ")", e);
-                        result = Boolean.FALSE;
-                    }
-                } else {
-
-                    logger.info("Could not stop server (Server ID:" + id
-                            + ") in stack (Stack ID: " + ph.getStackId() + ")",
-                            ex);
-                    result = Boolean.FALSE;
-                }
+        Map<String, Server> listed = nc.getServersDetails(ph, serverIds,
+                resources.getCreatedSince(), false);
+        Map<String, Boolean> results = forEachServer(ph, serverIds, id -> {
+            if (isNotServerExceptedStatus(nc, listed, ServerStatus.SHUTOFF, ph,
+                    id)) {
+                return nc.stopServer(ph, id);
             }
-            operationStatuses.put(id, result);
-        }
-        if (skippedServers.size() == serverIds.size()) {
+            return null;
+        }, (id, ex) -> {
+            logger.info("Could not stop server (Server ID:" + id
+                    + ") in stack (Stack ID: " + ph.getStackId() + ")", ex);
+            return Boolean.FALSE;
+        });
+        HashMap<String, Boolean> operationStatuses = new HashMap<String, Boolean>();
+        if (collect(results, operationStatuses) == serverIds.size()) {
             throw new APPlatformException(
                     Messages.getAll("error_all_servers_stopped"));
         }
@@ -205,10 +193,10 @@ public class NovaProcessor {
             throws HeatException, APPlatformException, NovaException {
         OpenStackConnection connection = getConnection(ph);
 
-        List<String> serverIds = new HeatClient(connection).getServerIds(ph
-                .getStackName());
+        ServerResources resources = new HeatClient(connection)
+                .getServerResources(ph.getStackName());
+        List<String> serverIds = resources.getIds();
 
-        List<Server> servers = new ArrayList<Server>();
         if (serverIds.size() == 0) {
             throw new InstanceNotAliveException(Messages.getAll(
                     "error_check_servers_status_failed_instance_not_found",
@@ -216,43 +204,160 @@ public class NovaProcessor {
         }
 
         NovaClient nc = new NovaClient(connection);
+        Map<String, Server> listed = nc.getServersDetails(ph, serverIds,
+                resources.getCreatedSince(), moreInfo);
+        List<String> missing = new ArrayList<String>();
         for (String id : serverIds) {
-            Server server = new Server(id);
-            try {
-                server = nc.getServerDetails(ph, id, moreInfo);
-            } catch (OpenStackConnectionException ex) {
-                if (ex.getResponseCode() == 401) {
-                    logger.info(
-                            "NovaClient.getServerDetails() Could not get server status (Server ID:"
-                                    + id
-                                    + ") in stack (Stack ID: "
-                                    + ph.getStackId()
-                                    + ") because of unauthorized. Retry once after authorised.",
-                            ex);
-                    try {
-                        connection = getConnection(ph);
-                        nc = new NovaClient(connection);
-                        server = nc.getServerDetails(ph, id, moreInfo);
-                    } catch (OpenStackConnectionException e) {
-                        logger.error(
-                                "NovaClient.getServerDetails() Could not get server status (Server ID:"
-                                        + id + ") in stack (Stack ID: "
-                                        + ph.getStackId() + ")", e);
-                        server.setName("");
-                        server.setStatus(ServerStatus.UNKNOWN.toString());
-                    }
-                } else {
+            if (!listed.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        Map<String, Server> requested = forEachServer(ph, missing,
+                id -> nc.getServerDetails(ph, id, moreInfo), (id, ex) -> {
                     logger.error(
                             "NovaClient.getServerDetails() Could not get server status (Server ID:"
                                     + id + ") in stack (Stack ID: "
                                     + ph.getStackId() + ")", ex);
+                    Server server = new Server(id);
                     server.setName("");
                     server.setStatus(ServerStatus.UNKNOWN.toString());
+                    return server;
+                });
+
+        List<Server> servers = new ArrayList<Server>();
+        for (String id : serverIds) {
+            Server server = listed.get(id);
+            servers.add(server != null ? server : requested.get(id));
+        }
+        return servers;
+    }
+
+    private boolean isNotServerExceptedStatus(NovaClient nc,
+            Map<String, Server> listed, ServerStatus exceptedStatus,
+            PropertyHandler ph, String id)
+            throws OpenStackConnectionException {
+        Server server = listed.get(id);
+        if (server == null) {
+            return nc.isNotServerExceptedStatus(exceptedStatus, ph, id);
+        }
+        return !server.getStatus().equals(exceptedStatus.toString());
+    }
+
+    /**
+     * Copies the results of the servers, skipped servers are set to false.
+     * 
+     * @return the number of skipped servers
+     */
+    private int collect(Map<String, Boolean> results,
+            HashMap<String, Boolean> operationStatuses) {
+        int skipped = 0;
+        for (Map.Entry<String, Boolean> result : results.entrySet()) {
+            if (result.getValue() == null) {
+                skipped++;
+                operationStatuses.put(result.getKey(), Boolean.FALSE);
+            } else {
+                operationStatuses.put(result.getKey(), result.getValue());
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Protected method for unit test purposes. Returns <code>null</code> if
+     * no managed executor is available, the servers are then handled one
+     * after another.
+     */
+    protected ExecutorService getExecutor() {
+        try {
+            return InitialContext.doLookup(EXECUTOR_JNDI_NAME);
+        } catch (NamingException e) {
+            logger.debug("No managed executor available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Runs the task for all given servers in parallel. As at most
+     * {@link PropertyHandler#getMaxConnectionsPerHost()} requests are sent to
+     * Nova at once, the servers are waited for at most the Nova connect
+     * and read timeout per round of requests, measured from their
+     * submission. So the time a task waits for a thread or a connection
+     * counts as well. The overall wait is limited to {@link #MAX_WAIT}, but
+     * it is at least one timeout.
+     * 
+     * @return the results by server ID in the order of the given servers
+     */
+    private <T> Map<String, T> forEachServer(PropertyHandler ph,
+            List<String> serverIds, ServerTask<T> task,
+            ServerFailure<T> failure) {
+        ExecutorService executor = getExecutor();
+        if (executor == null) {
+            return forEachServerSequentially(serverIds, task, failure);
+        }
+        long timeout = getServerTimeout(ph);
+        int perHost = ph.getMaxConnectionsPerHost();
+        long rounds = (serverIds.size() + perHost - 1) / perHost;
+        long wait = Math.max(timeout, Math.min(timeout * rounds, MAX_WAIT));
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(wait);
+        Map<String, Future<T>> futures = new LinkedHashMap<String, Future<T>>();
+        for (String id : serverIds) {
+            futures.put(id, executor.submit(() -> task.run(id)));
+        }
+        Map<String, T> results = new LinkedHashMap<String, T>();
+        for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+            String id = future.getKey();
+            T result;
+            try {
+                result = timeout > 0
+                        ? future.getValue().get(
+                                Math.max(deadline - System.nanoTime(), 0),
+                                TimeUnit.NANOSECONDS)
+                        : future.getValue().get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
                 }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                result = failure.failed(id, (Exception) e.getCause());
+            } catch (TimeoutException e) {
+                future.getValue().cancel(true);
+                result = failure.failed(id, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.getValue().cancel(true);
+                result = failure.failed(id, e);
             }
-            servers.add(server);
+            results.put(id, result);
         }
-        return servers;
+        return results;
+    }
+
+    private <T> Map<String, T> forEachServerSequentially(
+            List<String> serverIds, ServerTask<T> task,
+            ServerFailure<T> failure) {
+        Map<String, T> results = new LinkedHashMap<String, T>();
+        for (String id : serverIds) {
+            T result;
+            try {
+                result = task.run(id);
+            } catch (OpenStackConnectionException e) {
+                result = failure.failed(id, e);
+            }
+            results.put(id, result);
+        }
+        return results;
+    }
+
+    private long getServerTimeout(PropertyHandler ph) {
+        long connectTimeout = ph.getConnectTimeout(OpenStackConnection.NOVA);
+        long readTimeout = ph.getReadTimeout(OpenStackConnection.NOVA);
+        if (connectTimeout <= 0 || readTimeout <= 0) {
+            return 0;
+        }
+        return connectTimeout + readTimeout;
     }
 
 }
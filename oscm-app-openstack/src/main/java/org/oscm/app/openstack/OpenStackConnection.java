@@ -10,6 +10,7 @@ package org.oscm.app.openstack;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.net.Authenticator;
@@ -21,10 +22,18 @@ import java.net.URL;
 import java.net.URLStreamHandler;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 
+import org.apache.sling.commons.json.JSONException;
 import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
 import org.oscm.app.openstack.proxy.ProxyAuthenticator;
 import org.oscm.app.openstack.proxy.ProxySettings;
@@ -33,18 +42,102 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A connection to the OpenStack Heat API.
+ * <p>
+ * The underlying HTTP connections are kept alive and reused by the JDK as long
+ * as the responses are read completely. The number of concurrent requests per
+ * host is limited for the whole JVM, so the limit is shared by all service
+ * instances which APP polls in parallel and by the parallel server requests
+ * of {@link NovaProcessor}. It is set from the controller configuration and
+ * should be at least the number of instances polled in parallel. The JDK
+ * keeps at most <code>http.maxConnections</code> connections per host alive,
+ * so it should be raised accordingly; additional connections are closed after
+ * their request.
  */
 public class OpenStackConnection {
 
+    public static final String KEYSTONE = "KEYSTONE";
+
+    public static final String HEAT = "HEAT";
+
+    public static final String NOVA = "NOVA";
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 60000;
+
+    public static final int DEFAULT_READ_TIMEOUT = 300000;
+
+    /**
+     * The default of the concurrent requests per host, which matches the
+     * default number of instances APP polls in parallel.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 16;
+
     private static final Logger logger = LoggerFactory
             .getLogger(OpenStackConnection.class);
 
+    private static final ConcurrentMap<String, HostPermits> hostPermits = new ConcurrentHashMap<String, HostPermits>();
+
     private static URLStreamHandler streamHandler;
 
+    private static volatile SSLSocketFactory sslSocketFactory;
+
     private String keystoneEndpoint = "";
-    private String heatEndpoint = "";
-    private String novaEndpoint = "";
-    private String authToken = null;
+    private volatile String heatEndpoint = "";
+    private volatile String novaEndpoint = "";
+    private volatile String authToken = null;
+    private TokenRenewal tokenRenewal = null;
+    private final Map<String, int[]> timeouts = new ConcurrentHashMap<String, int[]>();
+    private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
+    /**
+     * Provides a new token if the current one has been rejected.
+     */
+    public interface TokenRenewal {
+
+        void renew(OpenStackConnection connection)
+                throws OpenStackConnectionException;
+    }
+
+    /**
+     * Reads the body of a successful response while it is received.
+     */
+    public interface ResponseReader<T> {
+
+        T read(InputStream body) throws IOException, JSONException;
+    }
+
+    /**
+     * Reads the response from the HTTP connection the request has been sent
+     * with.
+     */
+    private interface Exchange<T, E extends Exception> {
+
+        T receive(HttpURLConnection connection) throws IOException, E;
+    }
+
+    /**
+     * The permits for the concurrent requests to one host. The number of
+     * permits follows the configuration of the last connection using them.
+     */
+    private static class HostPermits extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        private int limit;
+
+        HostPermits(int limit) {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+        synchronized void resize(int newLimit) {
+            if (newLimit > limit) {
+                release(newLimit - limit);
+            } else if (newLimit < limit) {
+                reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+    }
 
     /**
      * Sets the URL stream handler. <b>Should only be used for unit testing!</b>
@@ -118,21 +211,94 @@ public class OpenStackConnection {
         return processRequest(restUri, method, null);
     }
 
+    /**
+     * Sends the request. If the token is rejected with HTTP 401 and a
+     * {@link TokenRenewal} is set, the token is renewed and the request is
+     * sent once more. The connection may be used by several threads at once,
+     * a rejected token is renewed only once for all of them.
+     */
     public RESTResponse processRequest(String restUri, String method,
             String requestBody) throws OpenStackConnectionException {
+        return execute(restUri, method, requestBody, RESTResponse::new);
+    }
+
+    /**
+     * Sends a request without body and passes the response body to the given
+     * reader without reading it into memory first. Tokens are renewed like
+     * for {@link #processRequest(String, String, String)}.
+     *
+     * @return the result of the reader
+     */
+    public <T> T readResponse(String restUri, String method,
+            final ResponseReader<T> reader)
+            throws OpenStackConnectionException, JSONException {
+        return execute(restUri, method, null, connection -> {
+            InputStream body = connection.getInputStream();
+            try {
+                return reader.read(body);
+            } finally {
+                body.close();
+            }
+        });
+    }
+
+    private <T, E extends Exception> T execute(String restUri, String method,
+            String requestBody, Exchange<T, E> exchange)
+            throws OpenStackConnectionException, E {
+        String rejectedToken = authToken;
+        try {
+            return sendRequest(restUri, method, requestBody, rejectedToken,
+                    exchange);
+        } catch (OpenStackConnectionException e) {
+            if (e.getResponseCode() != 401) {
+                throw e;
+            }
+            String renewedToken;
+            synchronized (this) {
+                if (tokenRenewal == null) {
+                    throw e;
+                }
+                if (Objects.equals(authToken, rejectedToken)) {
+                    logger.debug("Token rejected, renewing it for " + restUri);
+                    // the Keystone request of the renewal must not be renewed
+                    // again
+                    TokenRenewal renewal = tokenRenewal;
+                    tokenRenewal = null;
+                    authToken = null;
+                    try {
+                        renewal.renew(this);
+                    } finally {
+                        tokenRenewal = renewal;
+                    }
+                }
+                renewedToken = authToken;
+            }
+            return sendRequest(restUri, method, requestBody, renewedToken,
+                    exchange);
+        }
+    }
+
+    private <T, E extends Exception> T sendRequest(String restUri,
+            String method, String requestBody, String token,
+            Exchange<T, E> exchange) throws OpenStackConnectionException, E {
         HttpURLConnection connection = null;
         OutputStreamWriter out = null;
+        Semaphore permits = null;
+        boolean reusable = false;
         try {
-            HttpURLConnection.setFollowRedirects(true);
-            HttpsURLConnection.setFollowRedirects(true);
+            int[] serviceTimeouts = getTimeouts(restUri);
+            permits = acquirePermit(new URL(null, restUri, streamHandler),
+                    serviceTimeouts[0]);
             connection = connectUsingProxy(restUri, connection);
             logger.debug("Sending " + method + " request to " + restUri);
 
             connection.setRequestMethod(method);
-            if (authToken != null) {
-                connection.setRequestProperty("X-Auth-Token", authToken);
+            connection.setInstanceFollowRedirects(true);
+            if (token != null) {
+                connection.setRequestProperty("X-Auth-Token", token);
             }
-            connection.setReadTimeout(300000);
+            connection.setConnectTimeout(serviceTimeouts[0]);
+            connection.setReadTimeout(serviceTimeouts[1]);
 
             // add payload if present
             if (requestBody != null) {
@@ -147,7 +313,11 @@ public class OpenStackConnection {
                 out.close();
             }
             connection.connect();
-            return new RESTResponse(connection);
+            T response = exchange.receive(connection);
+            // the response has been read, so the JDK keeps the connection
+            // alive for the next request to the same host
+            reusable = true;
+            return response;
         } catch (MalformedURLException e) {
             throw new OpenStackConnectionException("invalid URL: " + restUri);
         } catch (IOException e) {
@@ -185,14 +355,68 @@ public class OpenStackConnection {
                     // best effort pattern
                 }
             }
-            if (connection != null) {
+            if (connection != null && !reusable) {
                 try {
                     connection.disconnect();
                 } catch (Exception e) {
                     // best effort pattern
                 }
             }
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Waits for one of the permits of the host of the given URL.
+     */
+    private Semaphore acquirePermit(URL url, int timeout)
+            throws OpenStackConnectionException {
+        String host = url.getHost() + ":" + url.getPort();
+        HostPermits permits = hostPermits.get(host);
+        if (permits == null) {
+            HostPermits created = new HostPermits(maxConnectionsPerHost);
+            permits = hostPermits.putIfAbsent(host, created);
+            if (permits == null) {
+                permits = created;
+            }
+        }
+        permits.resize(maxConnectionsPerHost);
+        try {
+            if (permits.tryAcquire(timeout > 0 ? timeout : Long.MAX_VALUE,
+                    TimeUnit.MILLISECONDS)) {
+                return permits;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        throw new OpenStackConnectionException(
+                "no connection available for " + url);
+    }
+
+    /**
+     * Returns the connect and read timeout for the service of the given URI.
+     */
+    private int[] getTimeouts(String restUri) {
+        String service = null;
+        if (isServedBy(restUri, heatEndpoint)) {
+            service = HEAT;
+        } else if (isServedBy(restUri, novaEndpoint)) {
+            service = NOVA;
+        } else if (isServedBy(restUri, keystoneEndpoint)) {
+            service = KEYSTONE;
+        }
+        int[] serviceTimeouts = service == null ? null : timeouts.get(service);
+        if (serviceTimeouts == null) {
+            return new int[] { DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT };
+        }
+        return serviceTimeouts;
+    }
+
+    private boolean isServedBy(String restUri, String endpoint) {
+        return endpoint != null && endpoint.length() > 0
+                && restUri.startsWith(endpoint);
     }
 
     private String getErrorResponse(HttpURLConnection connection) {
@@ -292,10 +516,10 @@ public class OpenStackConnection {
                 // TODO
                 // This setting is only needed for K5.
                 // We have to support multi protocols.
-                SSLContext sslcontext = SSLContext.getInstance("TLSv1.2");
-                sslcontext.init(null, null, null);
+                // The factory is shared, otherwise neither TLS sessions nor
+                // kept alive connections could be reused.
                 ((HttpsURLConnection) connection)
-                        .setSSLSocketFactory(sslcontext.getSocketFactory());
+                        .setSSLSocketFactory(getSSLSocketFactory());
             }
 
         } catch (ClassCastException e) {
@@ -312,6 +536,18 @@ public class OpenStackConnection {
         return connection;
     }
 
+    private static SSLSocketFactory getSSLSocketFactory()
+            throws NoSuchAlgorithmException, KeyManagementException {
+        SSLSocketFactory factory = sslSocketFactory;
+        if (factory == null) {
+            SSLContext sslcontext = SSLContext.getInstance("TLSv1.2");
+            sslcontext.init(null, null, null);
+            factory = sslcontext.getSocketFactory();
+            sslSocketFactory = factory;
+        }
+        return factory;
+    }
+
     protected Proxy resolveProxy(String proxyHost, int proxyPortInt) {
         Proxy proxy = new Proxy(Proxy.Type.HTTP,
                 new InetSocketAddress(proxyHost, proxyPortInt));
@@ -337,4 +573,58 @@ public class OpenStackConnection {
         this.authToken = authToken;
     }
 
+    /**
+     * Uses the given token and the endpoints of its service catalog.
+     *
+     * @param token
+     *            generated by Keystone
+     */
+    protected void useToken(KeystoneToken token) {
+        useAuthentication(token.getAuthToken());
+        setHeatEndpoint(token.getHeatEndpoint());
+        setNovaEndpoint(token.getNovaEndpoint());
+    }
+
+    /**
+     * Sets the timeouts of the requests to the given service.
+     *
+     * @param service
+     *            {@link #KEYSTONE}, {@link #HEAT} or {@link #NOVA}
+     * @param connectTimeout
+     *            in milliseconds, 0 to wait infinitely
+     * @param readTimeout
+     *            in milliseconds, 0 to wait infinitely
+     */
+    public void setTimeouts(String service, int connectTimeout,
+            int readTimeout) {
+        timeouts.put(service, new int[] { connectTimeout, readTimeout });
+    }
+
+    /**
+     * Sets the number of concurrent requests per host, which applies to all
+     * connections to the hosts this connection sends requests to.
+     *
+     * @param maxConnectionsPerHost
+     *            the number of requests, values below 1 are ignored
+     */
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost > 0) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Sets how to renew the token if it is rejected.
+     *
+     * @param tokenRenewal
+     *            <code>null</code> to fail on rejected tokens
+     */
+    public synchronized void setTokenRenewal(TokenRenewal tokenRenewal) {
+        this.tokenRenewal = tokenRenewal;
+    }
+
 }
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Date;
+import java.util.List;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.System.getProperty;
@@ -66,6 +67,14 @@ public class OpenstackClient {
             config = config.withProxy(newProxyHost());
         }
 
+        final Config clientConfig = config;
+        return KeystoneTokenCache.getInstance().getClient(getKeystoneUrl(),
+                user, password, ph.getDomainName(), projectId, clientConfig,
+                () -> login(user, password, projectId, clientConfig));
+    }
+
+    private OSClientV3 login(String user, String password, String projectId,
+            Config config) {
         if (isNullOrEmpty(projectId)) {
             return OSFactory.builderV3().endpoint(getKeystoneUrl())
                     .withConfig(config)
@@ -232,6 +241,16 @@ public class OpenstackClient {
                 startTime, endTime);
     }
 
+    /**
+     * Returns the usage of all tenants which used resources in the given time
+     * window.
+     */
+    public List<? extends SimpleTenantUsage> listUsages(String startTime,
+            String endTime) {
+        return client.compute().quotaSets().listTenantUsages(startTime,
+                endTime);
+    }
+
     public QuotaSet getQuotas(String projectId) {
         return client.compute().quotaSets().get(projectId);
     }
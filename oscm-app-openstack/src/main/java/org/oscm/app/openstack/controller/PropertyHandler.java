@@ -18,6 +18,7 @@ import java.util.Set;
 import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
+import org.oscm.app.openstack.OpenStackConnection;
 import org.oscm.app.openstack.data.FlowState;
 import org.oscm.app.openstack.exceptions.HeatException;
 import org.oscm.app.v2_0.BSSWebServiceFactory;
@@ -93,6 +94,12 @@ public class PropertyHandler {
     // Timeout for status check (msec)
     public static final String READY_TIMEOUT = "READY_TIMEOUT";
 
+    // Timeouts of the requests to OpenStack (msec), can be set per service
+    // with the prefix KEYSTONE_, HEAT_ or NOVA_
+    public static final String CONNECT_TIMEOUT = "CONNECT_TIMEOUT";
+    public static final String READ_TIMEOUT = "READ_TIMEOUT";
+    public static final String MAX_CONNECTIONS_PER_HOST = "MAX_CONNECTIONS_PER_HOST";
+
     // Start time of operation
     public static final String START_TIME = "START_TIME";
 
@@ -151,6 +158,20 @@ public class PropertyHandler {
 
     public static final String LAST_USAGE_FETCH = "LAST_USAGE_FETCH";
 
+    /**
+     * Controller setting defining how the usage of tenant subscriptions is
+     * fetched.
+     * <ul>
+     * <li>os-simple-tenant-usage: The usage of all tenants is fetched with a
+     * single request per Keystone endpoint and time window. The API user needs
+     * the right to list the usage of all tenants.
+     * <li>Otherwise: The usage is fetched for each tenant separately
+     * </ul>
+     */
+    public static final String USAGE_MODE = "USAGE_MODE";
+
+    public static final String USAGE_MODE_TENANT_USAGES = "os-simple-tenant-usage";
+
     /**
      * Default constructor.
      * 
@@ -169,6 +190,15 @@ public class PropertyHandler {
                 : Boolean.parseBoolean(setting.getValue());
     }
 
+    /**
+     * Returns <code>true</code> if the usage of all tenants is fetched at once,
+     * see {@link #USAGE_MODE}.
+     */
+    public boolean isTenantUsageListing() {
+        String mode = getValue(USAGE_MODE, settings.getConfigSettings());
+        return mode != null && USAGE_MODE_TENANT_USAGES.equals(mode.trim());
+    }
+
     /**
      * Returns the internal state of the current provisioning operation as set
      * by the controller or the dispatcher.
@@ -522,6 +552,77 @@ public class PropertyHandler {
 
     }
     
+    /**
+     * Returns the connect timeout for requests to the given service.
+     * 
+     * @param service
+     *            {@link OpenStackConnection#KEYSTONE},
+     *            {@link OpenStackConnection#HEAT} or
+     *            {@link OpenStackConnection#NOVA}
+     * @return timeout in milliseconds
+     */
+    public int getConnectTimeout(String service) {
+        return getTimeout(service, CONNECT_TIMEOUT,
+                OpenStackConnection.DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Returns the read timeout for requests to the given service.
+     * 
+     * @param service
+     *            {@link OpenStackConnection#KEYSTONE},
+     *            {@link OpenStackConnection#HEAT} or
+     *            {@link OpenStackConnection#NOVA}
+     * @return timeout in milliseconds
+     */
+    public int getReadTimeout(String service) {
+        return getTimeout(service, READ_TIMEOUT,
+                OpenStackConnection.DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Returns the number of concurrent requests per OpenStack host.
+     * 
+     * @return the configured number or
+     *         {@link OpenStackConnection#DEFAULT_MAX_CONNECTIONS_PER_HOST}
+     */
+    public int getMaxConnectionsPerHost() {
+        String value = getValue(MAX_CONNECTIONS_PER_HOST,
+                settings.getConfigSettings());
+        if (value != null && value.trim().length() > 0) {
+            try {
+                int max = Integer.parseInt(value.trim());
+                if (max > 0) {
+                    return max;
+                }
+            } catch (NumberFormatException ex) {
+                // logged below
+            }
+            LOGGER.warn("Wrong value set for property '"
+                    + MAX_CONNECTIONS_PER_HOST + "' and therefore ignored");
+        }
+        return OpenStackConnection.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    }
+
+    private int getTimeout(String service, String key, int defaultTimeout) {
+        String name = service + "_" + key;
+        String timeout = getValue(name, settings.getConfigSettings());
+        if (timeout == null || timeout.trim().length() == 0) {
+            name = key;
+            timeout = getValue(name, settings.getConfigSettings());
+        }
+        if (timeout == null || timeout.trim().length() == 0) {
+            return defaultTimeout;
+        }
+        try {
+            return Integer.parseInt(timeout.trim());
+        } catch (NumberFormatException ex) {
+            LOGGER.warn("Wrong value set for property '" + name
+                    + "' and therefore ignored");
+        }
+        return defaultTimeout;
+    }
+
     public String getResourceType() {
         return getValue(RESOURCE_TYPE, settings.getParameters());
     }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack.usage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.openstack4j.model.compute.SimpleTenantUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the usage of all tenants per Keystone endpoint and time window, so that
+ * the usage timer needs a single os-simple-tenant-usage request for all tenant
+ * subscriptions with the same time window instead of one per subscription.
+ * Windows are dropped after {@link #EXPIRATION}, a failed request is not kept,
+ * so the next subscription of the window requests it again.
+ */
+public class TenantUsageCache {
+
+    static final long EXPIRATION = 30 * 60000;
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(TenantUsageCache.class);
+
+    private static class SingletonHolder {
+        public static final TenantUsageCache INSTANCE = new TenantUsageCache(
+                EXPIRATION);
+    }
+
+    public static TenantUsageCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private final ConcurrentMap<List<String>, Window> windows = new ConcurrentHashMap<List<String>, Window>();
+    private final long expiration;
+
+    TenantUsageCache(long expiration) {
+        this.expiration = expiration;
+    }
+
+    /**
+     * Returns the usage of a tenant in the given time window.
+     *
+     * @param endpoint
+     *            The URL to the Keystone API
+     * @param domainName
+     * @param user
+     * @param tenantId
+     * @param startTime
+     * @param endTime
+     * @param listing
+     *            Requests the usage of all tenants in the time window
+     * @return the usage or <code>null</code> if the tenant has not used any
+     *         resources in the time window
+     */
+    public SimpleTenantUsage getUsage(String endpoint, String domainName,
+            String user, String tenantId, String startTime, String endTime,
+            Supplier<List<? extends SimpleTenantUsage>> listing) {
+        removeExpired();
+        List<String> key = Arrays.asList(endpoint, domainName, user,
+                startTime, endTime);
+        Window window = windows.get(key);
+        if (window == null) {
+            Window created = new Window();
+            window = windows.putIfAbsent(key, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        return window.getUsages(listing).get(tenantId);
+    }
+
+    /**
+     * Removes all time windows.
+     */
+    public void clear() {
+        windows.clear();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Window> it = windows.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The usages of all tenants in one time window, requested by the first
+     * thread that needs them.
+     */
+    private class Window {
+
+        private final long created = System.currentTimeMillis();
+        private Map<String, SimpleTenantUsage> usages;
+
+        synchronized Map<String, SimpleTenantUsage> getUsages(
+                Supplier<List<? extends SimpleTenantUsage>> listing) {
+            if (usages == null) {
+                Map<String, SimpleTenantUsage> result = new HashMap<String, SimpleTenantUsage>();
+                for (SimpleTenantUsage usage : listing.get()) {
+                    result.put(usage.getTenantId(), usage);
+                }
+                usages = result;
+                LOGGER.debug("Fetched the usage of " + usages.size()
+                        + " tenants");
+            }
+            return usages;
+        }
+
+        boolean isExpired(long now) {
+            return created + expiration < now;
+        }
+    }
+}
@@ -13,6 +13,8 @@ import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.openstack4j.model.compute.SimpleTenantUsage;
 import org.oscm.app.openstack.OpenstackClient;
@@ -44,6 +46,7 @@ public class UsageConverter {
 
     PropertyHandler ph;
     OpenstackClient osClient;
+    TenantUsageCache usageCache = TenantUsageCache.getInstance();
 
     public UsageConverter() {
 
@@ -59,34 +62,50 @@ public class UsageConverter {
             ObjectNotFoundException, OrganizationAuthoritiesException,
             ValidationException {
 
-        SimpleTenantUsage usage = osClient.getUsage(startTime, endTime);
+        SimpleTenantUsage usage = ph.isTenantUsageListing()
+                ? getTenantUsage(startTime, endTime)
+                : osClient.getUsage(startTime, endTime);
+        if (usage == null) {
+            return;
+        }
 
+        List<VOGatheredEvent> events = new ArrayList<VOGatheredEvent>();
         if (usage.getTotalHours() != null) {
             long totalHours = new BigDecimal(usage.getTotalHours()).longValue();
-            submit(EVENT_TOTAL, totalHours, endTime);
+            addEvent(events, EVENT_TOTAL, totalHours, endTime);
         }
 
         if (usage.getTotalMemoryMbUsage() != null) {
             long totalMemory = usage.getTotalMemoryMbUsage().longValue();
-            submit(EVENT_RAM, totalMemory, endTime);
+            addEvent(events, EVENT_RAM, totalMemory, endTime);
         }
 
         if (usage.getTotalVcpusUsage() != null) {
             long totalCpu = usage.getTotalVcpusUsage().longValue();
-            submit(EVENT_CPU, totalCpu, endTime);
+            addEvent(events, EVENT_CPU, totalCpu, endTime);
         }
 
         if (usage.getTotalLocalGbUsage() != null) {
             long totalGb = usage.getTotalLocalGbUsage().longValue();
-            submit(EVENT_DISK, totalGb, endTime);
+            addEvent(events, EVENT_DISK, totalGb, endTime);
         }
 
+        submit(events);
     }
 
-    void submit(String eventId, long multiplier, String occurence)
-            throws ConfigurationException, MalformedURLException,
-            ObjectNotFoundException, OrganizationAuthoritiesException,
-            ValidationException {
+    /**
+     * Returns the usage of the project taken from the usage of all tenants,
+     * which is requested only once per time window.
+     */
+    SimpleTenantUsage getTenantUsage(final String startTime,
+            final String endTime) {
+        return usageCache.getUsage(ph.getKeystoneUrl(), ph.getDomainName(),
+                ph.getUserName(), ph.getProjectId(), startTime, endTime,
+                () -> osClient.listUsages(startTime, endTime));
+    }
+
+    void addEvent(List<VOGatheredEvent> events, String eventId,
+            long multiplier, String occurence) {
 
         if (multiplier <= 0) {
             return;
@@ -99,13 +118,28 @@ public class UsageConverter {
         event.setOccurrenceTime(parse(occurence, ISO_LOCAL_DATE_TIME)
                 .toInstant(UTC).toEpochMilli());
         event.setUniqueId(eventId + "_" + occurence);
+        events.add(event);
+    }
+
+    /**
+     * Records the events for the instance using a single event service port.
+     */
+    void submit(List<VOGatheredEvent> events) throws ConfigurationException,
+            MalformedURLException, ObjectNotFoundException,
+            OrganizationAuthoritiesException, ValidationException {
+
+        if (events.isEmpty()) {
+            return;
+        }
 
-        try {
-            EventService svc = ph.getWebService(EventService.class);
-            svc.recordEventForInstance(ph.getTechnicalServiceId(),
-                    ph.getInstanceId(), event);
-        } catch (DuplicateEventException e) {
-            LOGGER.debug("Event already inserted");
+        EventService svc = ph.getWebService(EventService.class);
+        for (VOGatheredEvent event : events) {
+            try {
+                svc.recordEventForInstance(ph.getTechnicalServiceId(),
+                        ph.getInstanceId(), event);
+            } catch (DuplicateEventException e) {
+                LOGGER.debug("Event already inserted");
+            }
         }
     }
 
@@ -77,6 +77,7 @@ public class HeatProcessorTest {
     public void setUp() throws Exception {
         OpenStackConnection.setURLStreamHandler(streamHandler);
         HeatProcessor.setURLStreamHandler(streamHandler);
+        KeystoneTokenCache.getInstance().clear();
         paramHandler.setStackId("sID");
     }
 
@@ -213,6 +214,29 @@ public class HeatProcessorTest {
         assertEquals("n/a", result.getStatusReason());
     }
 
+    @Test
+    public void getStackDetails_skipUnusedFields() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        streamHandler.put("/stacks/" + instanceName, new MockHttpURLConnection(
+                200, "{\"stack\": {\"parameters\": {\"id\": \"P\"},"
+                        + "\"links\": [{\"href\": \"L\"}],"
+                        + "\"outputs\": [{\"output_key\": \"OK\","
+                        + "\"output_value\": {\"ip\": [\"1.2.3.4\"]}}],"
+                        + "\"stack_status\": \"CREATE_COMPLETE\","
+                        + "\"id\": \"ID\"}}"));
+
+        // when
+        Stack result = givenHeatProcessor().getStackDetails(paramHandler);
+
+        // then
+        assertEquals("ID", result.getId());
+        assertEquals("CREATE_COMPLETE", result.getStatus());
+        assertEquals("n/a", result.getStatusReason());
+        assertEquals("{\"ip\":[\"1.2.3.4\"]}", result.getOutput("OK"));
+    }
+
     @Test
     public void getStackDetails_JSONException() throws Exception {
         // given
@@ -228,8 +252,7 @@ public class HeatProcessorTest {
         } catch (HeatException ex) {
             // then
             // then
-            assertEquals(
-                    "A JSONObject text must begin with '{' at character 0 of ",
+            assertEquals("A JSONObject text must begin with '{'",
                     ex.getMessage());
         }
     }
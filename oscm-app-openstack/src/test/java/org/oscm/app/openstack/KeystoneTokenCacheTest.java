@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
+
+public class KeystoneTokenCacheTest {
+
+    private static final String KEYSTONE = "http://keystone:8080/v3/auth";
+
+    private final MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+    private KeystoneTokenCache cache;
+
+    @Before
+    public void setUp() {
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+        cache = new KeystoneTokenCache(KeystoneTokenCache.REFRESH_AHEAD);
+    }
+
+    @Test
+    public void authenticate() throws Exception {
+        // given
+        OpenStackConnection first = new OpenStackConnection(KEYSTONE);
+        OpenStackConnection second = new OpenStackConnection(KEYSTONE);
+
+        // when
+        cache.authenticate(first, "user", () -> "password", "domain",
+                "tenant");
+        cache.authenticate(second, "user", () -> "password", "domain",
+                "tenant");
+
+        // then
+        assertEquals("http://heatendpoint", second.getHeatEndpoint());
+        assertEquals("http://novaendpoint", second.getNovaEndpoint());
+        KeystoneTokenCacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getRefreshes());
+        assertEquals(1, metrics.getHits());
+    }
+
+    @Test
+    public void authenticate_otherTenant() throws Exception {
+        // when
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "tenant");
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "other");
+
+        // then
+        assertEquals(2, cache.getMetrics().getRefreshes());
+        assertEquals(0, cache.getMetrics().getHits());
+    }
+
+    @Test
+    public void authenticate_changedPassword() throws Exception {
+        // when
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "tenant");
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "changed", "domain", "tenant");
+
+        // then
+        assertEquals(2, cache.getMetrics().getRefreshes());
+    }
+
+    @Test
+    public void authenticate_refreshAhead() throws Exception {
+        // given
+        cache = new KeystoneTokenCache(KeystoneClient.DEFAULT_LIFETIME + 60000);
+
+        // when
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "tenant");
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "tenant");
+
+        // then
+        assertEquals(2, cache.getMetrics().getRefreshes());
+    }
+
+    @Test
+    public void authenticate_refreshFailed() throws Exception {
+        // given
+        cache = new KeystoneTokenCache(KeystoneClient.DEFAULT_LIFETIME - 1);
+        cache.authenticate(new OpenStackConnection(KEYSTONE), "user",
+                () -> "password", "domain", "tenant");
+        Thread.sleep(10);
+        MockHttpURLConnection unavailable = new MockHttpURLConnection(503,
+                "");
+        unavailable.setIOException(new IOException());
+        streamHandler.put("/v3/auth/tokens/2", unavailable);
+        OpenStackConnection connection = new OpenStackConnection(KEYSTONE);
+
+        // when
+        cache.authenticate(connection, "user", () -> "password", "domain",
+                "tenant");
+
+        // then
+        assertEquals("http://novaendpoint", connection.getNovaEndpoint());
+        assertEquals(1, cache.getMetrics().getRefreshes());
+    }
+
+    @Test
+    public void processRequest_tokenRejected() throws Exception {
+        // given
+        OpenStackConnection connection = new OpenStackConnection(KEYSTONE);
+        cache.authenticate(connection, "user", () -> "password", "domain",
+                "tenant");
+        MockHttpURLConnection rejected = new MockHttpURLConnection(401, "");
+        rejected.setIOException(new IOException());
+        streamHandler.put("/servers/serverId", rejected);
+        streamHandler.put("/servers/serverId/2",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServer("server1", "serverId")));
+
+        // when
+        RESTResponse response = connection.processRequest(
+                connection.getNovaEndpoint() + "/servers/serverId", "GET");
+
+        // then
+        assertEquals(200, response.getResponseCode());
+        KeystoneTokenCacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getInvalidations());
+        assertEquals(2, metrics.getRefreshes());
+    }
+
+    @Test
+    public void processRequest_tokenRejected_passwordReadAgain()
+            throws Exception {
+        // given
+        AtomicInteger reads = new AtomicInteger();
+        OpenStackConnection connection = new OpenStackConnection(KEYSTONE);
+        cache.authenticate(connection, "user", () -> {
+            reads.incrementAndGet();
+            return "password";
+        }, "domain", "tenant");
+        MockHttpURLConnection rejected = new MockHttpURLConnection(401, "");
+        rejected.setIOException(new IOException());
+        streamHandler.put("/servers/serverId", rejected);
+        streamHandler.put("/servers/serverId/2",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServer("server1", "serverId")));
+
+        // when
+        connection.processRequest(
+                connection.getNovaEndpoint() + "/servers/serverId", "GET");
+
+        // then
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void processRequest_tokenRejectedTwice() throws Exception {
+        // given
+        OpenStackConnection connection = new OpenStackConnection(KEYSTONE);
+        cache.authenticate(connection, "user", () -> "password", "domain",
+                "tenant");
+        MockHttpURLConnection rejected = new MockHttpURLConnection(401, "");
+        rejected.setIOException(new IOException());
+        streamHandler.put("/servers/serverId", rejected);
+
+        try {
+            // when
+            connection.processRequest(
+                    connection.getNovaEndpoint() + "/servers/serverId", "GET");
+            fail();
+        } catch (OpenStackConnectionException e) {
+            // then
+            assertEquals(401, e.getResponseCode());
+            assertEquals(2, cache.getMetrics().getRefreshes());
+        }
+    }
+}
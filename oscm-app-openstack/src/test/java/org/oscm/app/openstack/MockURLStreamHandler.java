@@ -15,9 +15,9 @@ import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
@@ -38,7 +38,7 @@ public class MockURLStreamHandler extends URLStreamHandler {
     public MockURLStreamHandler() {
         List<String> serverNames = new ArrayList<>();
         serverNames.add("server1");
-        connection = new HashMap<>();
+        connection = new ConcurrentHashMap<>();
         put("/v3/auth/tokens",
                 new MockHttpURLConnection(201, respTokens(true, true, false)));
         put("/stacks/instanceName", new MockHttpURLConnection(200,
@@ -70,8 +70,13 @@ public class MockURLStreamHandler extends URLStreamHandler {
                         respServerDetail("server1", "0-Instance-server1",
                                 ServerStatus.ACTIVE, "testTenantID")));
         put("/flavors/1", new MockHttpURLConnection(200, respFlavor(1, "S-1")));
+        // The listing of all servers is not available unless a test puts one,
+        // so that the servers are requested one by one
+        MockHttpURLConnection noListing = new MockHttpURLConnection(404, "");
+        noListing.setIOException(new IOException());
+        put("/servers/detail", noListing);
 
-        connectionHttps = new HashMap<>();
+        connectionHttps = new ConcurrentHashMap<>();
         put("/v3/auth/tokens",
                 new MockHttpsURLConnection(201, respTokens(true, true, true)));
         put("/v1/templates/fosi_v2.json",
@@ -87,7 +92,8 @@ public class MockURLStreamHandler extends URLStreamHandler {
         put("/stacks/Instance4/sID/actions", new MockHttpsURLConnection(200,
                 respStacksInstance4sIdActions()));
         put("/stacks", new MockHttpsURLConnection(200, respStacks()));
-        this.count = new HashMap<>();
+        put("/servers/detail", new MockHttpsURLConnection(404, ""));
+        this.count = new ConcurrentHashMap<>();
     }
 
     /**
@@ -323,6 +329,11 @@ public class MockURLStreamHandler extends URLStreamHandler {
 
     public static String respStacksResources(List<String> serverNames,
             String resourceType) {
+        return respStacksResources(serverNames, resourceType, null);
+    }
+
+    public static String respStacksResources(List<String> serverNames,
+            String resourceType, String creationTime) {
         try {
             JSONObject response = new JSONObject();
             JSONArray resources = new JSONArray();
@@ -340,6 +351,9 @@ public class MockURLStreamHandler extends URLStreamHandler {
                 server.put("physical_resource_id", Integer.toString(i)
                         + "-Instance-" + serverNames.get(i));
                 server.put("resource_type", resourceType);
+                if (creationTime != null) {
+                    server.put("creation_time", creationTime);
+                }
                 resources.put(server);
             }
 
@@ -363,6 +377,34 @@ public class MockURLStreamHandler extends URLStreamHandler {
         }
     }
 
+    public static String respServersDetail(String... serverDetails) {
+        return respServersDetailPage(null, serverDetails);
+    }
+
+    public static String respServersDetailPage(String next,
+            String... serverDetails) {
+        try {
+            JSONObject response = new JSONObject();
+            JSONArray servers = new JSONArray();
+            for (String serverDetail : serverDetails) {
+                servers.put(new JSONObject(serverDetail)
+                        .getJSONObject("server"));
+            }
+            response.put("servers", servers);
+            if (next != null) {
+                JSONArray links = new JSONArray();
+                JSONObject link = new JSONObject();
+                link.put("href", next);
+                link.put("rel", "next");
+                links.put(link);
+                response.put("servers_links", links);
+            }
+            return response.toString();
+        } catch (JSONException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     public static String respServerDetail(String serverName, String serverId,
             ServerStatus status, String tenant_id) {
         try {
@@ -12,10 +12,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -61,6 +64,7 @@ public class NovaProcessorTest {
     public void setUp() throws Exception {
         OpenStackConnection.setURLStreamHandler(streamHandler);
         paramHandler.setStackId("sID");
+        KeystoneTokenCache.getInstance().clear();
     }
 
     @Test
@@ -272,6 +276,46 @@ public class NovaProcessorTest {
                 ServerStatus.UNKNOWN.toString());
     }
 
+    @Test
+    public void getServersDetails_missingVM_parallel() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        final List<String> serverNames = Arrays.asList("server1",
+                "otherserver2");
+        MockHttpURLConnection connection2 = new MockHttpURLConnection(404,
+                MockURLStreamHandler.respServerDetail(null, null, null, null));
+        connection2.setIOException(new IOException());
+
+        streamHandler.put(
+                "/stacks/" + instanceName + "/resources",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respStacksResources(serverNames,
+                                InstanceType.EC2.getString())));
+        streamHandler.put("/servers/1-Instance-otherserver2", connection2);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        List<Server> result;
+        try {
+            result = new NovaProcessor() {
+                @Override
+                protected ExecutorService getExecutor() {
+                    return executor;
+                }
+            }.getServersDetails(paramHandler, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals(result.size(), 2);
+        assertEquals(result.get(0).getStatus(), ServerStatus.ACTIVE.name());
+        assertEquals(result.get(1).getId(), "1-Instance-otherserver2");
+        assertEquals(result.get(1).getStatus(),
+                ServerStatus.UNKNOWN.toString());
+    }
+
     @Test
     public void startInstances() throws Exception {
         // given
@@ -920,6 +964,221 @@ public class NovaProcessorTest {
         new NovaProcessor().stopInstances(paramHandler);
     }
 
+    @Test
+    public void getServersDetails_listing() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        givenServers(instanceName);
+        streamHandler.put("/servers/detail", new MockHttpURLConnection(200,
+                MockURLStreamHandler.respServersDetail(
+                        MockURLStreamHandler.respServerDetail("server1",
+                                "0-Instance-server1", ServerStatus.ACTIVE,
+                                "testTenantID"),
+                        MockURLStreamHandler.respServerDetail("other",
+                                "2-Instance-other", ServerStatus.ACTIVE,
+                                "testTenantID"),
+                        MockURLStreamHandler.respServerDetail("otherserver2",
+                                "1-Instance-otherserver2",
+                                ServerStatus.SHUTOFF, "testTenantID"))));
+        givenUnavailable("/servers/0-Instance-server1");
+        givenUnavailable("/servers/1-Instance-otherserver2");
+
+        // when
+        List<Server> result = new NovaProcessor()
+                .getServersDetails(paramHandler, true);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals("0-Instance-server1", result.get(0).getId());
+        assertEquals(ServerStatus.ACTIVE.name(), result.get(0).getStatus());
+        assertEquals("S-1", result.get(0).getType());
+        assertEquals("1-Instance-otherserver2", result.get(1).getId());
+        assertEquals(ServerStatus.SHUTOFF.name(), result.get(1).getStatus());
+        assertEquals(Arrays.asList("192.168.0.4"),
+                result.get(1).getPrivateIP());
+    }
+
+    @Test
+    public void getServersDetails_listingPaged() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        givenServers(instanceName);
+        streamHandler.put("/servers/detail", new MockHttpURLConnection(200,
+                MockURLStreamHandler.respServersDetailPage(
+                        "http://internal/v2/servers/detail?marker=other",
+                        MockURLStreamHandler.respServerDetail("server1",
+                                "0-Instance-server1", ServerStatus.ACTIVE,
+                                "testTenantID"),
+                        MockURLStreamHandler.respServerDetail("other",
+                                "2-Instance-other", ServerStatus.ACTIVE,
+                                "testTenantID"))));
+        streamHandler.put("/servers/detail?marker=other",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServersDetailPage(
+                                "http://internal/v2/servers/detail?marker=last",
+                                MockURLStreamHandler.respServerDetail(
+                                        "otherserver2",
+                                        "1-Instance-otherserver2",
+                                        ServerStatus.SHUTOFF,
+                                        "testTenantID"))));
+        givenUnavailable("/servers/detail?marker=last");
+        givenUnavailable("/servers/0-Instance-server1");
+        givenUnavailable("/servers/1-Instance-otherserver2");
+
+        // when
+        List<Server> result = new NovaProcessor()
+                .getServersDetails(paramHandler, false);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(ServerStatus.ACTIVE.name(), result.get(0).getStatus());
+        assertEquals("otherserver2", result.get(1).getName());
+        assertEquals(ServerStatus.SHUTOFF.name(), result.get(1).getStatus());
+    }
+
+    @Test
+    public void getServersDetails_listingChangesSince() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        streamHandler.put("/stacks/" + instanceName + "/resources",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respStacksResources(
+                                Arrays.asList("server1", "otherserver2"),
+                                InstanceType.EC2.getString(),
+                                "2016-10-06T10:00:00")));
+        streamHandler.put(
+                "/servers/detail?changes-since=2016-10-06T09%3A00%3A00Z",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServersDetail(
+                                MockURLStreamHandler.respServerDetail(
+                                        "server1", "0-Instance-server1",
+                                        ServerStatus.ACTIVE, "testTenantID"),
+                                MockURLStreamHandler.respServerDetail(
+                                        "otherserver2",
+                                        "1-Instance-otherserver2",
+                                        ServerStatus.SHUTOFF,
+                                        "testTenantID"))));
+        givenUnavailable("/servers/0-Instance-server1");
+        givenUnavailable("/servers/1-Instance-otherserver2");
+
+        // when
+        List<Server> result = new NovaProcessor()
+                .getServersDetails(paramHandler, false);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(ServerStatus.ACTIVE.name(), result.get(0).getStatus());
+        assertEquals(ServerStatus.SHUTOFF.name(), result.get(1).getStatus());
+    }
+
+    @Test
+    public void getServersDetails_listingIncomplete() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        givenServers(instanceName);
+        streamHandler.put("/servers/detail", new MockHttpURLConnection(200,
+                MockURLStreamHandler.respServersDetail(MockURLStreamHandler
+                        .respServerDetail("server1", "0-Instance-server1",
+                                ServerStatus.ACTIVE, "testTenantID"))));
+        streamHandler.put("/servers/1-Instance-otherserver2",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServerDetail("otherserver2",
+                                "1-Instance-otherserver2",
+                                ServerStatus.SHUTOFF, "testTenantID")));
+
+        // when
+        List<Server> result = new NovaProcessor()
+                .getServersDetails(paramHandler, false);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(ServerStatus.ACTIVE.name(), result.get(0).getStatus());
+        assertEquals("otherserver2", result.get(1).getName());
+        assertEquals(ServerStatus.SHUTOFF.name(), result.get(1).getStatus());
+    }
+
+    @Test
+    public void getServersDetails_timeout() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        givenServers(instanceName);
+        configSettings.put("NOVA_" + PropertyHandler.CONNECT_TIMEOUT,
+                new Setting("NOVA_" + PropertyHandler.CONNECT_TIMEOUT, "100"));
+        configSettings.put("NOVA_" + PropertyHandler.READ_TIMEOUT,
+                new Setting("NOVA_" + PropertyHandler.READ_TIMEOUT, "100"));
+        streamHandler.put("/servers/1-Instance-otherserver2",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respServerDetail("otherserver2",
+                                "1-Instance-otherserver2",
+                                ServerStatus.ACTIVE, "testTenantID")) {
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        try {
+                            Thread.sleep(10000);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return super.getInputStream();
+                    }
+                });
+
+        // when
+        List<Server> result = new NovaProcessor()
+                .getServersDetails(paramHandler, false);
+
+        // then
+        assertEquals(ServerStatus.ACTIVE.name(), result.get(0).getStatus());
+        assertEquals(ServerStatus.UNKNOWN.name(), result.get(1).getStatus());
+    }
+
+    @Test
+    public void startInstances_listing() throws Exception {
+        // given
+        final String instanceName = "Instance4";
+        createBasicParameters(instanceName, "fosi_v2.json", "http");
+        givenServers(instanceName);
+        streamHandler.put("/servers/detail", new MockHttpURLConnection(200,
+                MockURLStreamHandler.respServersDetail(
+                        MockURLStreamHandler.respServerDetail("server1",
+                                "0-Instance-server1", ServerStatus.ACTIVE,
+                                "testTenantID"),
+                        MockURLStreamHandler.respServerDetail("otherserver2",
+                                "1-Instance-otherserver2",
+                                ServerStatus.SHUTOFF, "testTenantID"))));
+        givenUnavailable("/servers/1-Instance-otherserver2");
+        streamHandler.put("/servers/1-Instance-otherserver2/action",
+                new MockHttpURLConnection(202, MockURLStreamHandler
+                        .respServerActions()));
+
+        // when
+        HashMap<String, Boolean> result = new NovaProcessor()
+                .startInstances(paramHandler);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(Boolean.FALSE, result.get("0-Instance-server1"));
+        assertEquals(Boolean.TRUE, result.get("1-Instance-otherserver2"));
+    }
+
+    private void givenServers(String instanceName) {
+        streamHandler.put("/stacks/" + instanceName + "/resources",
+                new MockHttpURLConnection(200, MockURLStreamHandler
+                        .respStacksResources(
+                                Arrays.asList("server1", "otherserver2"),
+                                InstanceType.EC2.getString())));
+    }
+
+    private void givenUnavailable(String url) {
+        MockHttpURLConnection connection = new MockHttpURLConnection(500, "");
+        connection.setIOException(new IOException());
+        streamHandler.put(url, connection);
+    }
+
     private void createBasicParameters(String instanceName,
             String templateName, String httpMethod) {
         parameters.put(PropertyHandler.STACK_NAME, new Setting(
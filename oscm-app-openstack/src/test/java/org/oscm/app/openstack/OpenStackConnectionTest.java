@@ -19,6 +19,7 @@ import java.net.Proxy;
 import java.net.URL;
 import java.net.URLConnection;
 
+import org.apache.sling.commons.json.JSONException;
 import org.junit.Before;
 import org.junit.Test;
 import org.oscm.app.openstack.exceptions.OpenStackConnectionException;
@@ -626,6 +627,137 @@ public class OpenStackConnectionTest {
         }
     }
 
+    @Test
+    public void processRequest_keepAlive() throws Exception {
+        // given
+        MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+        DisconnectCountingConnection connection = new DisconnectCountingConnection(
+                200, MockURLStreamHandler.respServerActions());
+        streamHandler.put("/servers/serverId", connection);
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+        OpenStackConnection oc = new OpenStackConnection(
+                "http://keystone/v3/auth");
+        oc.setNovaEndpoint("http://nova");
+        oc.setTimeouts(OpenStackConnection.NOVA, 1000, 2000);
+
+        // when
+        oc.processRequest("http://nova/servers/serverId", "GET");
+
+        // then
+        assertEquals(0, connection.disconnects);
+        assertEquals(1000, connection.getConnectTimeout());
+        assertEquals(2000, connection.getReadTimeout());
+    }
+
+    @Test
+    public void processRequest_defaultTimeouts() throws Exception {
+        // given
+        MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+        DisconnectCountingConnection connection = new DisconnectCountingConnection(
+                200, MockURLStreamHandler.respServerActions());
+        streamHandler.put("/servers/serverId", connection);
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+        OpenStackConnection oc = new OpenStackConnection(
+                "http://keystone/v3/auth");
+        oc.setHeatEndpoint("http://heat");
+        oc.setTimeouts(OpenStackConnection.HEAT, 1000, 2000);
+
+        // when
+        oc.processRequest("http://nova/servers/serverId", "GET");
+
+        // then
+        assertEquals(OpenStackConnection.DEFAULT_CONNECT_TIMEOUT,
+                connection.getConnectTimeout());
+        assertEquals(OpenStackConnection.DEFAULT_READ_TIMEOUT,
+                connection.getReadTimeout());
+    }
+
+    @Test
+    public void processRequest_disconnectOnError() throws Exception {
+        // given
+        MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+        DisconnectCountingConnection connection = new DisconnectCountingConnection(
+                404, "");
+        connection.setIOException(new IOException());
+        streamHandler.put("/servers/serverId", connection);
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+
+        // when
+        try {
+            givenOpenStackConnetion().processRequest(
+                    "http://nova/servers/serverId", "GET");
+            fail("Test must fail with Exception!");
+        } catch (OpenStackConnectionException ex) {
+            // then
+            assertEquals(404, ex.getResponseCode());
+            assertEquals(1, connection.disconnects);
+        }
+    }
+
+    @Test
+    public void readResponse() throws Exception {
+        // given
+        MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+        DisconnectCountingConnection connection = new DisconnectCountingConnection(
+                200, MockURLStreamHandler.respServer("server1", "serverId"));
+        streamHandler.put("/servers/serverId", connection);
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+
+        // when
+        String name = givenOpenStackConnetion().readResponse(
+                "http://nova/servers/serverId", "GET",
+                body -> JsonStream.readObject(body, parser -> {
+                    JsonStream.findField(parser, "server");
+                    JsonStream.expectObject(parser, "server");
+                    JsonStream.findField(parser, "name");
+                    return JsonStream.text(parser);
+                }));
+
+        // then
+        assertEquals("server1", name);
+        assertEquals(0, connection.disconnects);
+    }
+
+    @Test
+    public void readResponse_invalidJSON() throws Exception {
+        // given
+        MockURLStreamHandler streamHandler = new MockURLStreamHandler();
+        DisconnectCountingConnection connection = new DisconnectCountingConnection(
+                200, "{\"server\": {\"name\": ");
+        streamHandler.put("/servers/serverId", connection);
+        OpenStackConnection.setURLStreamHandler(streamHandler);
+
+        // when
+        try {
+            givenOpenStackConnetion().readResponse(
+                    "http://nova/servers/serverId", "GET",
+                    body -> JsonStream.readObject(body, parser -> {
+                        JsonStream.findField(parser, "server");
+                        JsonStream.findField(parser, "name");
+                        return JsonStream.text(parser);
+                    }));
+            fail("Test must fail with JSONException!");
+        } catch (JSONException ex) {
+            // then
+            assertEquals(1, connection.disconnects);
+        }
+    }
+
+    private static class DisconnectCountingConnection
+            extends MockHttpURLConnection {
+
+        int disconnects;
+
+        DisconnectCountingConnection(int responseCode, String output) {
+            super(responseCode, output);
+        }
+
+        @Override
+        public void disconnect() {
+            disconnects++;
+        }
+    }
+
     OpenStackConnection givenOpenStackConnetion() {
         return new OpenStackConnection("some test") {
 
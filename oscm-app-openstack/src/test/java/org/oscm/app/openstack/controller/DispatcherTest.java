@@ -36,6 +36,7 @@ import org.mockito.Captor;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.oscm.app.openstack.HeatProcessor;
+import org.oscm.app.openstack.KeystoneTokenCache;
 import org.oscm.app.openstack.MockHttpURLConnection;
 import org.oscm.app.openstack.MockHttpsURLConnection;
 import org.oscm.app.openstack.MockURLStreamHandler;
@@ -93,6 +94,7 @@ public class DispatcherTest {
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
+        KeystoneTokenCache.getInstance().clear();
 
         parameters = new HashMap<>();
         configSettings = new HashMap<>();
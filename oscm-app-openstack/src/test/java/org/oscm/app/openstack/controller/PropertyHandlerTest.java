@@ -21,6 +21,7 @@ import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
+import org.oscm.app.openstack.OpenStackConnection;
 import org.oscm.app.openstack.data.FlowState;
 import org.oscm.app.openstack.exceptions.HeatException;
 import org.oscm.app.openstack.i18n.Messages;
@@ -343,6 +344,79 @@ public class PropertyHandlerTest {
         assertEquals(0, time);
     }
 
+    @Test
+    public void getConnectTimeout() {
+        // given
+        configSettings.put(PropertyHandler.CONNECT_TIMEOUT, new Setting(
+                PropertyHandler.CONNECT_TIMEOUT, "10000"));
+        configSettings.put("HEAT_" + PropertyHandler.CONNECT_TIMEOUT,
+                new Setting("HEAT_" + PropertyHandler.CONNECT_TIMEOUT,
+                        "20000"));
+        propertyHandler = new PropertyHandler(settings);
+
+        // when
+        int heat = propertyHandler.getConnectTimeout(OpenStackConnection.HEAT);
+        int nova = propertyHandler.getConnectTimeout(OpenStackConnection.NOVA);
+
+        // then
+        assertEquals(20000, heat);
+        assertEquals(10000, nova);
+    }
+
+    @Test
+    public void getReadTimeout_null() {
+        // given
+        propertyHandler = new PropertyHandler(settings);
+
+        // when
+        int time = propertyHandler.getReadTimeout(OpenStackConnection.NOVA);
+
+        // then
+        assertEquals(OpenStackConnection.DEFAULT_READ_TIMEOUT, time);
+    }
+
+    @Test
+    public void getReadTimeout_wrongValue() {
+        // given
+        configSettings.put("NOVA_" + PropertyHandler.READ_TIMEOUT, new Setting(
+                "NOVA_" + PropertyHandler.READ_TIMEOUT, "foo"));
+        propertyHandler = new PropertyHandler(settings);
+
+        // when
+        int time = propertyHandler.getReadTimeout(OpenStackConnection.NOVA);
+
+        // then
+        assertEquals(OpenStackConnection.DEFAULT_READ_TIMEOUT, time);
+    }
+
+    @Test
+    public void getMaxConnectionsPerHost() {
+        // given
+        configSettings.put(PropertyHandler.MAX_CONNECTIONS_PER_HOST,
+                new Setting(PropertyHandler.MAX_CONNECTIONS_PER_HOST, "32"));
+        propertyHandler = new PropertyHandler(settings);
+
+        // when
+        int max = propertyHandler.getMaxConnectionsPerHost();
+
+        // then
+        assertEquals(32, max);
+    }
+
+    @Test
+    public void getMaxConnectionsPerHost_wrongValue() {
+        // given
+        configSettings.put(PropertyHandler.MAX_CONNECTIONS_PER_HOST,
+                new Setting(PropertyHandler.MAX_CONNECTIONS_PER_HOST, "0"));
+        propertyHandler = new PropertyHandler(settings);
+
+        // when
+        int max = propertyHandler.getMaxConnectionsPerHost();
+
+        // then
+        assertEquals(OpenStackConnection.DEFAULT_MAX_CONNECTIONS_PER_HOST, max);
+    }
+
     @Test
     public void getReadyTimeout_wringValue() {
         // given
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack.usage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.oscm.app.openstack.usage.UsageConverterTest.givenUsage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openstack4j.model.compute.SimpleTenantUsage;
+
+public class TenantUsageCacheTest {
+
+    private static final String KEYSTONE = "http://keystone:8080/v3/auth";
+
+    private TenantUsageCache cache;
+    private AtomicInteger listings;
+
+    @Before
+    public void setUp() {
+        cache = new TenantUsageCache(TenantUsageCache.EXPIRATION);
+        listings = new AtomicInteger();
+    }
+
+    @Test
+    public void getUsage() {
+        // when
+        SimpleTenantUsage first = cache.getUsage(KEYSTONE, "domain", "user",
+                "tenant1", "start", "end", givenListing());
+        SimpleTenantUsage second = cache.getUsage(KEYSTONE, "domain", "user",
+                "tenant2", "start", "end", givenListing());
+
+        // then
+        assertEquals("tenant1", first.getTenantId());
+        assertEquals("tenant2", second.getTenantId());
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    public void getUsage_noUsage() {
+        // when
+        SimpleTenantUsage usage = cache.getUsage(KEYSTONE, "domain", "user",
+                "tenant3", "start", "end", givenListing());
+
+        // then
+        assertNull(usage);
+    }
+
+    @Test
+    public void getUsage_otherWindow() {
+        // when
+        cache.getUsage(KEYSTONE, "domain", "user", "tenant1", "start", "end",
+                givenListing());
+        cache.getUsage(KEYSTONE, "domain", "user", "tenant1", "end", "later",
+                givenListing());
+
+        // then
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    public void getUsage_expired() throws Exception {
+        // given
+        cache = new TenantUsageCache(0);
+        cache.getUsage(KEYSTONE, "domain", "user", "tenant1", "start", "end",
+                givenListing());
+        Thread.sleep(10);
+
+        // when
+        cache.getUsage(KEYSTONE, "domain", "user", "tenant1", "start", "end",
+                givenListing());
+
+        // then
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    public void getUsage_listingFailed() {
+        // given
+        try {
+            cache.getUsage(KEYSTONE, "domain", "user", "tenant1", "start",
+                    "end", () -> {
+                        throw new IllegalStateException("unavailable");
+                    });
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // when
+        SimpleTenantUsage usage = cache.getUsage(KEYSTONE, "domain", "user",
+                "tenant1", "start", "end", givenListing());
+
+        // then
+        assertEquals("tenant1", usage.getTenantId());
+        assertEquals(1, listings.get());
+    }
+
+    private Supplier<List<? extends SimpleTenantUsage>> givenListing() {
+        return () -> {
+            listings.incrementAndGet();
+            return Arrays.asList(givenUsage("tenant1", 1),
+                    givenUsage("tenant2", 2));
+        };
+    }
+}
@@ -13,13 +13,22 @@ import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.openstack4j.model.compute.SimpleTenantUsage;
+import org.oscm.app.openstack.OpenstackClient;
 import org.oscm.app.openstack.controller.PropertyHandler;
 import org.oscm.app.v2_0.data.PasswordAuthentication;
 import org.oscm.intf.EventService;
@@ -52,9 +61,11 @@ public class UsageConverterTest {
         String occurence = "2011-12-03T10:15:30";
         EventService svc = mock(EventService.class);
         doReturn(svc).when(ph).getWebService(EventService.class);
+        List<VOGatheredEvent> events = new ArrayList<VOGatheredEvent>();
 
         // when
-        converter.submit(eventId, multiplier, occurence);
+        converter.addEvent(events, eventId, multiplier, occurence);
+        converter.submit(events);
 
         // then
         verifyZeroInteractions(svc);
@@ -71,9 +82,11 @@ public class UsageConverterTest {
         String occurence = "2011-12-03T10:15:30";
         EventService svc = mock(EventService.class);
         doReturn(svc).when(ph).getWebService(EventService.class);
+        List<VOGatheredEvent> events = new ArrayList<VOGatheredEvent>();
 
         // when
-        converter.submit(eventId, multiplier, occurence);
+        converter.addEvent(events, eventId, multiplier, occurence);
+        converter.submit(events);
 
         // then
         verifyZeroInteractions(svc);
@@ -89,14 +102,14 @@ public class UsageConverterTest {
         EventService svc = mock(EventService.class);
         doReturn(svc).when(ph).getWebService(EventService.class);
 
-        PasswordAuthentication auth = mock(PasswordAuthentication.class);
-        doReturn("user").when(auth).getUserName();
-        doReturn(auth).when(ph).getTPAuthentication();
+        givenTPAuthentication();
 
         ArgumentCaptor<VOGatheredEvent> event = forClass(VOGatheredEvent.class);
+        List<VOGatheredEvent> events = new ArrayList<VOGatheredEvent>();
 
         // when
-        converter.submit(eventId, multiplier, occurence);
+        converter.addEvent(events, eventId, multiplier, occurence);
+        converter.submit(events);
 
         // then
         verify(svc).recordEventForInstance(anyString(), anyString(),
@@ -107,4 +120,77 @@ public class UsageConverterTest {
                 event.getValue().getUniqueId());
     }
 
+    @Test
+    public void registerUsageEvents_tenantUsageListing() throws Exception {
+        // given
+        String startTime = "1970-01-01T00:00:00";
+        String endTime = "1970-01-01T01:00:00";
+        EventService svc = mock(EventService.class);
+        doReturn(svc).when(ph).getWebService(EventService.class);
+        givenTPAuthentication();
+        doReturn(Boolean.TRUE).when(ph).isTenantUsageListing();
+        doReturn("http://keystone/v3/auth").when(ph).getKeystoneUrl();
+        doReturn("project").when(ph).getProjectId();
+        converter.usageCache = new TenantUsageCache(
+                TenantUsageCache.EXPIRATION);
+        converter.osClient = mock(OpenstackClient.class);
+        doReturn(Arrays.asList(givenUsage("other", 5),
+                givenUsage("project", 2))).when(converter.osClient)
+                        .listUsages(startTime, endTime);
+
+        // when
+        converter.registerUsageEvents(startTime, endTime);
+        converter.registerUsageEvents(startTime, endTime);
+
+        // then
+        verify(converter.osClient, times(1)).listUsages(startTime, endTime);
+        verify(converter.osClient, never()).getUsage(anyString(),
+                anyString());
+        verify(ph, times(2)).getWebService(EventService.class);
+        ArgumentCaptor<VOGatheredEvent> event = forClass(VOGatheredEvent.class);
+        verify(svc, times(8)).recordEventForInstance(anyString(),
+                anyString(), event.capture());
+        assertEquals(UsageConverter.EVENT_TOTAL,
+                event.getAllValues().get(0).getEventId());
+        assertEquals(2L, event.getAllValues().get(0).getMultiplier());
+    }
+
+    @Test
+    public void registerUsageEvents_tenantWithoutUsage() throws Exception {
+        // given
+        String startTime = "1970-01-01T00:00:00";
+        String endTime = "1970-01-01T01:00:00";
+        EventService svc = mock(EventService.class);
+        doReturn(svc).when(ph).getWebService(EventService.class);
+        doReturn(Boolean.TRUE).when(ph).isTenantUsageListing();
+        doReturn("project").when(ph).getProjectId();
+        converter.usageCache = new TenantUsageCache(
+                TenantUsageCache.EXPIRATION);
+        converter.osClient = mock(OpenstackClient.class);
+        doReturn(Arrays.asList(givenUsage("other", 5)))
+                .when(converter.osClient).listUsages(startTime, endTime);
+
+        // when
+        converter.registerUsageEvents(startTime, endTime);
+
+        // then
+        verifyZeroInteractions(svc);
+    }
+
+    private void givenTPAuthentication() {
+        PasswordAuthentication auth = mock(PasswordAuthentication.class);
+        doReturn("user").when(auth).getUserName();
+        doReturn(auth).when(ph).getTPAuthentication();
+    }
+
+    static SimpleTenantUsage givenUsage(String tenantId, long value) {
+        SimpleTenantUsage usage = mock(SimpleTenantUsage.class);
+        doReturn(tenantId).when(usage).getTenantId();
+        doReturn(String.valueOf(value)).when(usage).getTotalHours();
+        doReturn(new BigDecimal(value)).when(usage).getTotalMemoryMbUsage();
+        doReturn(new BigDecimal(value)).when(usage).getTotalVcpusUsage();
+        doReturn(new BigDecimal(value)).when(usage).getTotalLocalGbUsage();
+        return usage;
+    }
+
 }
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+import org.oscm.app.vmware.business.InventoryCache;
+
+/**
+ * Ties the inventory watchers of the controller to its deployment. The
+ * watcher threads are created by the managed thread factory of the
+ * application server and are stopped when the controller is undeployed.
+ */
+@Singleton
+@Startup
+public class InventoryLifecycle {
+
+	@Resource
+	protected ManagedThreadFactory threadFactory;
+
+	@PostConstruct
+	public void start() {
+		InventoryCache.getInstance().setThreadFactory(threadFactory);
+	}
+
+	@PreDestroy
+	public void stop() {
+		InventoryCache.getInstance().setThreadFactory(null);
+		InventoryCache.getInstance().stopAll();
+	}
+}
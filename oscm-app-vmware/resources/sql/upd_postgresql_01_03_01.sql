@@ -0,0 +1,2 @@
+ALTER TABLE vcenter ADD COLUMN IF NOT EXISTS max_sessions int;
+ALTER TABLE vcenter ADD COLUMN IF NOT EXISTS max_idle_sessions int;
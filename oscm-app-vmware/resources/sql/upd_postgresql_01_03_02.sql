@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS "ippool_vlan_in_use_idx" ON ippool ("vlan_tkey", "in_use");
+DROP INDEX IF EXISTS "ippool_vlan_idx";
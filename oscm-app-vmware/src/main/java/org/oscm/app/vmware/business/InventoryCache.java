@@ -0,0 +1,86 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+
+import org.oscm.app.vmware.remote.vmware.VMClientFactory;
+
+/**
+ * Holds one {@link InventoryWatcher} per cluster, shared by all requests of the controller. A
+ * watcher is started with the first request for its cluster and removed again when it stops
+ * because of inactivity.
+ *
+ * <p>The watcher threads are created by the thread factory of the application server, which is
+ * set when the controller is started. Without it no watchers are started and the inventory is read
+ * from vCenter with each request.
+ */
+public class InventoryCache {
+
+  private static class SingletonHolder {
+    public static final InventoryCache INSTANCE =
+        new InventoryCache(vcenter -> new VMClientFactory().create(vcenter));
+  }
+
+  public static InventoryCache getInstance() {
+    return SingletonHolder.INSTANCE;
+  }
+
+  private final ConcurrentMap<String, InventoryWatcher> watchers =
+      new ConcurrentHashMap<String, InventoryWatcher>();
+  private final InventoryWatcher.ClientFactory clientFactory;
+  private volatile ThreadFactory threadFactory;
+
+  InventoryCache(InventoryWatcher.ClientFactory clientFactory) {
+    this.clientFactory = clientFactory;
+  }
+
+  /** Sets the factory of the watcher threads, <code>null</code> to start no more watchers. */
+  public void setThreadFactory(ThreadFactory threadFactory) {
+    this.threadFactory = threadFactory;
+  }
+
+  /**
+   * Returns the watcher of the given cluster, starting it if necessary, or <code>null</code> if
+   * the cluster is not fully specified or no watchers can be started.
+   */
+  public InventoryWatcher getWatcher(String vcenter, String datacenter, String cluster) {
+    ThreadFactory factory = threadFactory;
+    if (vcenter == null || datacenter == null || cluster == null || factory == null) {
+      return null;
+    }
+    String key = vcenter + "/" + datacenter + "/" + cluster;
+    return watchers.computeIfAbsent(key, k -> start(k, vcenter, datacenter, cluster, factory));
+  }
+
+  private InventoryWatcher start(
+      String key, String vcenter, String datacenter, String cluster, ThreadFactory factory) {
+    InventoryWatcher watcher = new InventoryWatcher(vcenter, datacenter, cluster, clientFactory);
+    watcher.setOnExit(() -> watchers.remove(key, watcher));
+    Thread thread = factory.newThread(watcher);
+    thread.setName("vmware-inventory-" + key);
+    thread.start();
+    return watcher;
+  }
+
+  /** Stops all watchers, e.g. when the controller is undeployed. */
+  public void stopAll() {
+    for (InventoryWatcher watcher : watchers.values()) {
+      watcher.stop();
+    }
+    watchers.clear();
+  }
+
+  int size() {
+    return watchers.size();
+  }
+}
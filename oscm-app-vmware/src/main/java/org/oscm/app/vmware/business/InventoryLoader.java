@@ -0,0 +1,210 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vmware.vim25.ArrayOfDatastoreHostMount;
+import com.vmware.vim25.ArrayOfManagedObjectReference;
+import com.vmware.vim25.DatastoreHostMount;
+import com.vmware.vim25.DynamicProperty;
+import com.vmware.vim25.HostMountInfo;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectContent;
+import com.vmware.vim25.PropertySpec;
+import com.vmware.vim25.SelectionSpec;
+import com.vmware.vim25.TraversalSpec;
+
+/**
+ * Reads the inventory of a cluster, i.e. its host systems together with their datastores and
+ * virtual machines, with a single property collector request instead of one request per object.
+ */
+public class InventoryLoader {
+
+  static final String HOST_SYSTEM = "HostSystem";
+  static final String DATASTORE = "Datastore";
+  static final String VIRTUAL_MACHINE = "VirtualMachine";
+
+  private static final Logger logger = LoggerFactory.getLogger(InventoryLoader.class);
+
+  private final ManagedObjectAccessor serviceUtil;
+
+  public InventoryLoader(ManagedObjectAccessor serviceUtil) {
+    this.serviceUtil = serviceUtil;
+  }
+
+  /**
+   * Reads the host systems of the given cluster together with their writable datastores and the
+   * virtual machines running on them. The returned inventory is not yet initialized.
+   */
+  public VMwareDatacenterInventory load(ManagedObjectReference cluster) throws Exception {
+    List<ObjectContent> contents =
+        serviceUtil.retrieveContainerContents(
+            cluster,
+            Collections.singletonList(HOST_SYSTEM),
+            buildHostTraversal(),
+            buildPropertySpecs());
+    return build(contents);
+  }
+
+  /**
+   * Builds the inventory from the given host system, datastore and virtual machine objects, as
+   * read with the traversal and property specifications of this class. The returned inventory is
+   * not yet initialized.
+   */
+  public VMwareDatacenterInventory build(Collection<ObjectContent> contents) throws Exception {
+    Map<String, ObjectContent> hosts = new LinkedHashMap<String, ObjectContent>();
+    Map<String, ObjectContent> datastores = new HashMap<String, ObjectContent>();
+    List<ObjectContent> vms = new ArrayList<ObjectContent>();
+    for (ObjectContent oc : contents) {
+      String type = oc.getObj().getType();
+      if (HOST_SYSTEM.equals(type)) {
+        hosts.put(oc.getObj().getValue(), oc);
+      } else if (DATASTORE.equals(type)) {
+        datastores.put(oc.getObj().getValue(), oc);
+      } else if (VIRTUAL_MACHINE.equals(type)) {
+        vms.add(oc);
+      }
+    }
+    logger.debug(
+        "Read " + hosts.size() + " hosts, " + datastores.size() + " datastores and " + vms.size()
+            + " VMs");
+
+    VMwareDatacenterInventory inventory = new VMwareDatacenterInventory();
+    Map<String, String> hostNames = new HashMap<String, String>();
+    for (ObjectContent host : hosts.values()) {
+      inventory.addHostSystem(host.getPropSet());
+      String hostName = getName(host.getPropSet(), "name");
+      hostNames.put(host.getObj().getValue(), hostName);
+      inventory.addHostName(host.getObj(), hostName);
+    }
+
+    for (ObjectContent host : hosts.values()) {
+      String hostName = hostNames.get(host.getObj().getValue());
+      for (ManagedObjectReference storageRef : getDatastores(host.getPropSet())) {
+        ObjectContent storage = datastores.get(storageRef.getValue());
+        if (storage != null) {
+          addStorage(inventory, storage, hostName, hostNames);
+        }
+      }
+    }
+
+    for (ObjectContent vm : vms) {
+      inventory.addVirtualMachine(vm.getPropSet(), serviceUtil);
+    }
+    return inventory;
+  }
+
+  /**
+   * Adds the given datastore to the given host for each accessible, writable mount on it.
+   */
+  private void addStorage(
+      VMwareDatacenterInventory inventory,
+      ObjectContent storage,
+      String hostName,
+      Map<String, String> hostNames) {
+    for (DatastoreHostMount hm : getHostMounts(storage.getPropSet())) {
+      String hostThatLinksToThisStorage = hostNames.get(hm.getKey().getValue());
+      HostMountInfo mountInfo = hm.getMountInfo();
+      if (hostName.equals(hostThatLinksToThisStorage)
+          && mountInfo.isAccessible().booleanValue()
+          && mountInfo.isMounted().booleanValue()
+          && !mountInfo.getAccessMode().equals("readOnly")) {
+
+        logger.debug("storage: " + getName(storage.getPropSet(), "summary.name"));
+        inventory.addStorage(hostName, storage.getPropSet());
+      }
+    }
+  }
+
+  static List<SelectionSpec> buildHostTraversal() {
+    TraversalSpec hostToVm = new TraversalSpec();
+    hostToVm.setName("hostToVm");
+    hostToVm.setType(HOST_SYSTEM);
+    hostToVm.setPath("vm");
+    hostToVm.setSkip(Boolean.FALSE);
+
+    TraversalSpec hostToDs = new TraversalSpec();
+    hostToDs.setName("hostToDs");
+    hostToDs.setType(HOST_SYSTEM);
+    hostToDs.setPath("datastore");
+    hostToDs.setSkip(Boolean.FALSE);
+
+    return Arrays.<SelectionSpec>asList(hostToVm, hostToDs);
+  }
+
+  static List<PropertySpec> buildPropertySpecs() {
+    return Arrays.asList(
+        propertySpec(
+            HOST_SYSTEM,
+            "name",
+            "summary.hardware.memorySize",
+            "summary.hardware.numCpuCores",
+            "datastore"),
+        propertySpec(DATASTORE, "summary.name", "summary.capacity", "summary.freeSpace", "host"),
+        propertySpec(
+            VIRTUAL_MACHINE,
+            "name",
+            "summary.config.memorySizeMB",
+            "summary.config.numCpu",
+            "runtime.host"));
+  }
+
+  private static PropertySpec propertySpec(String type, String... paths) {
+    PropertySpec spec = new PropertySpec();
+    spec.setType(type);
+    spec.setAll(Boolean.FALSE);
+    spec.getPathSet().addAll(Arrays.asList(paths));
+    return spec;
+  }
+
+  private static String getName(List<DynamicProperty> dps, String property) {
+    Object value = getValue(dps, property);
+    return value == null ? "" : value.toString();
+  }
+
+  private static List<ManagedObjectReference> getDatastores(List<DynamicProperty> dps) {
+    Object value = getValue(dps, "datastore");
+    if (value instanceof ArrayOfManagedObjectReference) {
+      return ((ArrayOfManagedObjectReference) value).getManagedObjectReference();
+    }
+    return Collections.emptyList();
+  }
+
+  private static List<DatastoreHostMount> getHostMounts(List<DynamicProperty> dps) {
+    Object value = getValue(dps, "host");
+    if (value instanceof ArrayOfDatastoreHostMount) {
+      return ((ArrayOfDatastoreHostMount) value).getDatastoreHostMount();
+    }
+    return Collections.emptyList();
+  }
+
+  static Object getValue(List<DynamicProperty> dps, String property) {
+    if (dps != null) {
+      for (DynamicProperty dp : dps) {
+        if (property.equals(dp.getName())) {
+          return dp.getVal();
+        }
+      }
+    }
+    return null;
+  }
+}
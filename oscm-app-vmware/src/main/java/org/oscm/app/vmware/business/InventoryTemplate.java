@@ -21,8 +21,6 @@ import org.oscm.app.vmware.remote.vmware.VMwareClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.vmware.vim25.DatastoreHostMount;
-import com.vmware.vim25.DynamicProperty;
 import com.vmware.vim25.InvalidPropertyFaultMsg;
 import com.vmware.vim25.ManagedObjectReference;
 import com.vmware.vim25.RuntimeFaultFaultMsg;
@@ -81,12 +79,33 @@ public class InventoryTemplate {
     ManagedObjectReference vmPool = getVMPool(hostName, vmHost);
     ManagedObjectReference vmDatastore = getVMDatastore(storageName, hostName, vmHost);
 
+    reserve(datacenter, cluster, hostName, storageName);
+
     relocSpec.setDatastore(vmDatastore);
     relocSpec.setPool(vmPool);
     relocSpec.setHost(vmHost);
     return relocSpec;
   }
 
+  /**
+   * Reserves the resources of the new VM in the shared inventory, so that concurrent requests
+   * see them before the VM shows up in vSphere. The storage is charged for the disk and the swap
+   * file of the memory, as by the storage balancer.
+   */
+  protected void reserve(String datacenter, String cluster, String hostName, String storageName)
+      throws Exception {
+    InventoryWatcher watcher = getInventoryWatcher(datacenter, cluster);
+    if (watcher != null) {
+      watcher.reserve(
+          paramHandler.getInstanceName(),
+          hostName,
+          storageName,
+          paramHandler.getConfigCPUs(),
+          paramHandler.getConfigMemoryMB(),
+          paramHandler.getTemplateDiskSpaceMB() + paramHandler.getConfigMemoryMB());
+    }
+  }
+
   protected LoadBalancerConfiguration createLoadBalancerConfiguration(
       String xmlData, VMwareDatacenterInventory inventory) throws Exception {
     return new LoadBalancerConfiguration(xmlData, inventory);
@@ -149,121 +168,43 @@ public class InventoryTemplate {
     return vmHost;
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Reads the hosts of the given cluster together with their datastores and VMs. The inventory
+   * is taken from the shared inventory of the cluster if it is available. Otherwise it is
+   * retrieved with a fixed number of calls, independent of the number of objects.
+   */
   VMwareDatacenterInventory readDatacenterInventory(
       VMwareClient appUtil, String datacenter, String cluster) throws Exception {
     logger.debug("datacenter: " + datacenter + " cluster: " + cluster);
 
     ManagedObjectAccessor serviceUtil = appUtil.getServiceUtil();
 
+    InventoryWatcher watcher = getInventoryWatcher(datacenter, cluster);
+    if (watcher != null) {
+      VMwareDatacenterInventory inventory =
+          watcher.getInventory(createInventoryLoader(serviceUtil));
+      if (inventory != null) {
+        return inventory;
+      }
+      logger.debug("shared inventory not available, reading inventory from vCenter");
+    }
+
     ManagedObjectReference dcMoRef = serviceUtil.getDecendentMoRef(null, "Datacenter", datacenter);
 
     ManagedObjectReference clusterMoRef =
         serviceUtil.getDecendentMoRef(dcMoRef, "ClusterComputeResource", cluster);
 
-    List<ManagedObjectReference> hostMoRefs =
-        (List<ManagedObjectReference>) serviceUtil.getDynamicProperty(clusterMoRef, "host");
-
-    VMwareDatacenterInventory inventory = new VMwareDatacenterInventory();
-    for (ManagedObjectReference hostRef : hostMoRefs) {
-      List<DynamicProperty> dps = setHostSystemPropertyToInventory(serviceUtil, inventory, hostRef);
-      String host = getHostName(dps);
-      setStoragePropertyToInventory(serviceUtil, inventory, hostRef, host);
-      setVMToInventory(serviceUtil, inventory, hostRef);
-    }
+    VMwareDatacenterInventory inventory = createInventoryLoader(serviceUtil).load(clusterMoRef);
     inventory.initialize();
     return inventory;
   }
 
-  protected void setVMToInventory(
-      ManagedObjectAccessor serviceUtil,
-      VMwareDatacenterInventory inventory,
-      ManagedObjectReference hostRef)
-      throws Exception {
-    List<DynamicProperty> dps;
-    List<ManagedObjectReference> vmRefs =
-        (List<ManagedObjectReference>) serviceUtil.getDynamicProperty(hostRef, "vm");
-    for (ManagedObjectReference vmRef : vmRefs) {
-      dps =
-          serviceUtil.getDynamicProperty(
-              vmRef,
-              new String[] {
-                "name", "summary.config.memorySizeMB", "summary.config.numCpu", "runtime.host"
-              });
-      inventory.addVirtualMachine(dps, serviceUtil);
-    }
+  protected InventoryLoader createInventoryLoader(ManagedObjectAccessor serviceUtil) {
+    return new InventoryLoader(serviceUtil);
   }
 
-  protected void setStoragePropertyToInventory(
-      ManagedObjectAccessor serviceUtil,
-      VMwareDatacenterInventory inventory,
-      ManagedObjectReference hostRef,
-      String host)
-      throws Exception {
-    List<DynamicProperty> dps;
-    List<ManagedObjectReference> storageRefs =
-        (List<ManagedObjectReference>) serviceUtil.getDynamicProperty(hostRef, "datastore");
-    for (ManagedObjectReference storageRef : storageRefs) {
-
-      dps =
-          serviceUtil.getDynamicProperty(
-              storageRef, new String[] {"summary.name", "summary.capacity", "summary.freeSpace"});
-
-      String storageName = getStorageName(dps);
-
-      List<DatastoreHostMount> hostMounts =
-          (List<DatastoreHostMount>) serviceUtil.getDynamicProperty(storageRef, "host");
-
-      for (DatastoreHostMount hm : hostMounts) {
-        ManagedObjectReference hostMor = hm.getKey();
-        String hostThatLinksToThisStoarge =
-            (String) serviceUtil.getDynamicProperty(hostMor, "name");
-        if (host.equals(hostThatLinksToThisStoarge)
-            && hm.getMountInfo().isAccessible().booleanValue()
-            && hm.getMountInfo().isMounted().booleanValue()
-            && !hm.getMountInfo().getAccessMode().equals("readOnly")) {
-
-          logger.debug("storage: " + storageName);
-          inventory.addStorage(host, dps);
-        }
-      }
-    }
-  }
-
-  protected String getStorageName(List<DynamicProperty> dps) {
-    String storageName = "";
-    for (DynamicProperty dp : dps) {
-      String key = dp.getName();
-      if ("summary.name".equals(key) && dp.getVal() != null) {
-        storageName = dp.getVal().toString();
-      }
-    }
-    return storageName;
-  }
-
-  protected List<DynamicProperty> setHostSystemPropertyToInventory(
-      ManagedObjectAccessor serviceUtil,
-      VMwareDatacenterInventory inventory,
-      ManagedObjectReference hostRef)
-      throws Exception {
-
-    List<DynamicProperty> dps =
-        serviceUtil.getDynamicProperty(
-            hostRef,
-            new String[] {"name", "summary.hardware.memorySize", "summary.hardware.numCpuCores"});
-    inventory.addHostSystem(dps);
-    return dps;
-  }
-
-  protected String getHostName(List<DynamicProperty> dps) {
-    String host = "";
-    for (DynamicProperty dp : dps) {
-      String key = dp.getName();
-      if ("name".equals(key) && dp.getVal() != null) {
-        host = dp.getVal().toString();
-      }
-    }
-    logger.debug("addHostSystem host: " + host);
-    return host;
+  protected InventoryWatcher getInventoryWatcher(String datacenter, String cluster) {
+    return InventoryCache.getInstance()
+        .getWatcher(paramHandler.getTargetVCenterServer(), datacenter, cluster);
   }
 }
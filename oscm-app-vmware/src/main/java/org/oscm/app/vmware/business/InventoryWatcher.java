@@ -0,0 +1,343 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.oscm.app.vmware.business.model.VMwareHost;
+import org.oscm.app.vmware.business.model.VMwareStorage;
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+import org.oscm.app.vmware.remote.vmware.VMwareClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vmware.vim25.DynamicProperty;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectContent;
+import com.vmware.vim25.ObjectUpdate;
+import com.vmware.vim25.ObjectUpdateKind;
+import com.vmware.vim25.PropertyChange;
+import com.vmware.vim25.PropertyChangeOp;
+import com.vmware.vim25.PropertyFilterUpdate;
+import com.vmware.vim25.ServiceContent;
+import com.vmware.vim25.UpdateSet;
+import com.vmware.vim25.VimPortType;
+import com.vmware.vim25.WaitOptions;
+
+/**
+ * Keeps the inventory of one cluster current. The initial state is read once, afterwards only
+ * the changes are received from vSphere with <code>WaitForUpdatesEx</code>. The watcher runs in
+ * its own thread with its own vSphere session, as property collectors and filters belong to the
+ * session that created them.
+ *
+ * <p>Placements made by this controller are reserved until the new VM shows up in the inventory,
+ * so that concurrent requests do not all choose the same host.
+ *
+ * <p>The watcher ends itself when the inventory has not been requested for a while.
+ */
+public class InventoryWatcher implements Runnable {
+
+  static final int MAX_WAIT_SECONDS = 60;
+  static final long RETRY_DELAY = 30000;
+  static final long IDLE_TIMEOUT = 30 * 60000;
+  static final long ALLOCATION_TIME_TO_LIVE = 15 * 60000;
+
+  private static final Logger logger = LoggerFactory.getLogger(InventoryWatcher.class);
+
+  /** Creates a new, connected client for the given vCenter. */
+  @FunctionalInterface
+  public interface ClientFactory {
+    VMwareClient create(String vcenter) throws Exception;
+  }
+
+  private final String vcenter;
+  private final String datacenter;
+  private final String cluster;
+  private final ClientFactory clientFactory;
+
+  /** The current state of all objects, only accessed by the watcher thread. */
+  private final Map<String, ObjectContent> objects = new HashMap<String, ObjectContent>();
+
+  private final List<Allocation> allocations = new CopyOnWriteArrayList<Allocation>();
+  private volatile Snapshot snapshot;
+  private volatile long lastAccess = System.currentTimeMillis();
+  private volatile boolean stopped;
+  private volatile Runnable onExit;
+
+  public InventoryWatcher(
+      String vcenter, String datacenter, String cluster, ClientFactory clientFactory) {
+    this.vcenter = vcenter;
+    this.datacenter = datacenter;
+    this.cluster = cluster;
+    this.clientFactory = clientFactory;
+  }
+
+  /**
+   * Returns a new inventory built from the current state including the reservations not yet
+   * visible in vSphere, or <code>null</code> if the state is not available, e.g. while the
+   * initial state is read or after the connection got lost. The inventory is initialized.
+   */
+  public VMwareDatacenterInventory getInventory(InventoryLoader loader) throws Exception {
+    lastAccess = System.currentTimeMillis();
+    Snapshot current = snapshot;
+    if (current == null) {
+      return null;
+    }
+    VMwareDatacenterInventory inventory = loader.build(current.contents);
+    inventory.initialize();
+    for (Allocation allocation : allocations) {
+      if (!current.vmNames.contains(allocation.vmName)) {
+        allocation.applyTo(inventory);
+      }
+    }
+    return inventory;
+  }
+
+  /**
+   * Reserves the resources of a VM which is about to be created on the given host and storage.
+   */
+  public void reserve(
+      String vmName,
+      String hostName,
+      String storageName,
+      int cpus,
+      long memoryMB,
+      double diskMB) {
+    allocations.add(
+        new Allocation(
+            vmName,
+            hostName,
+            storageName,
+            cpus,
+            memoryMB,
+            diskMB,
+            System.currentTimeMillis() + ALLOCATION_TIME_TO_LIVE));
+  }
+
+  void setOnExit(Runnable onExit) {
+    this.onExit = onExit;
+  }
+
+  public void stop() {
+    stopped = true;
+  }
+
+  boolean isIdle() {
+    return System.currentTimeMillis() - lastAccess > IDLE_TIMEOUT;
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!stopped && !isIdle()) {
+        try {
+          watch();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (Exception e) {
+          snapshot = null;
+          logger.warn(
+              "Lost inventory updates of cluster " + cluster + " on vCenter " + vcenter, e);
+          Thread.sleep(RETRY_DELAY);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      snapshot = null;
+      logger.debug("Stopped inventory updates of cluster " + cluster + " on vCenter " + vcenter);
+      Runnable callback = onExit;
+      if (callback != null) {
+        callback.run();
+      }
+    }
+  }
+
+  /** Reads the initial state and applies all changes until the watcher is stopped. */
+  private void watch() throws Exception {
+    VMwareClient client = clientFactory.create(vcenter);
+    try {
+      ManagedObjectAccessor serviceUtil = client.getServiceUtil();
+      ManagedObjectReference dcRef = serviceUtil.getDecendentMoRef(null, "Datacenter", datacenter);
+      ManagedObjectReference clusterRef =
+          serviceUtil.getDecendentMoRef(dcRef, "ClusterComputeResource", cluster);
+      if (clusterRef == null) {
+        throw new IllegalStateException("Cluster " + cluster + " not found");
+      }
+
+      VimPortType vimPort = client.getService();
+      ServiceContent serviceContent = client.getConnection().getServiceContent();
+      ManagedObjectReference collector =
+          vimPort.createPropertyCollector(serviceContent.getPropertyCollector());
+      ManagedObjectReference view =
+          vimPort.createContainerView(
+              serviceContent.getViewManager(),
+              clusterRef,
+              Collections.singletonList(InventoryLoader.HOST_SYSTEM),
+              true);
+      try {
+        vimPort.createFilter(
+            collector,
+            ManagedObjectAccessor.buildContainerViewFilterSpec(
+                view, InventoryLoader.buildHostTraversal(), InventoryLoader.buildPropertySpecs()),
+            false);
+
+        WaitOptions options = new WaitOptions();
+        options.setMaxWaitSeconds(Integer.valueOf(MAX_WAIT_SECONDS));
+        objects.clear();
+        String version = "";
+        while (!stopped && !isIdle()) {
+          UpdateSet updates = vimPort.waitForUpdatesEx(collector, version, options);
+          if (updates != null) {
+            apply(updates);
+            version = updates.getVersion();
+            if (!Boolean.TRUE.equals(updates.isTruncated())) {
+              publish();
+            }
+          }
+          if (Thread.interrupted()) {
+            throw new InterruptedException();
+          }
+        }
+      } finally {
+        try {
+          vimPort.destroyPropertyCollector(collector);
+          vimPort.destroyView(view);
+        } catch (Exception e) {
+          logger.debug("Failed to clean up inventory property collector", e);
+        }
+      }
+    } finally {
+      client.close();
+    }
+  }
+
+  /** Applies the given changes to the current state. */
+  void apply(UpdateSet updates) {
+    for (PropertyFilterUpdate filterUpdate : updates.getFilterSet()) {
+      for (ObjectUpdate update : filterUpdate.getObjectSet()) {
+        String key = update.getObj().getType() + ":" + update.getObj().getValue();
+        if (update.getKind() == ObjectUpdateKind.LEAVE) {
+          objects.remove(key);
+          continue;
+        }
+        ObjectContent content = objects.get(key);
+        if (content == null) {
+          content = new ObjectContent();
+          content.setObj(update.getObj());
+          objects.put(key, content);
+        }
+        for (PropertyChange change : update.getChangeSet()) {
+          apply(content.getPropSet(), change);
+        }
+      }
+    }
+  }
+
+  private static void apply(List<DynamicProperty> dps, PropertyChange change) {
+    dps.removeIf(dp -> dp.getName().equals(change.getName()));
+    if (change.getOp() == PropertyChangeOp.ASSIGN || change.getOp() == PropertyChangeOp.ADD) {
+      DynamicProperty dp = new DynamicProperty();
+      dp.setName(change.getName());
+      dp.setVal(change.getVal());
+      dps.add(dp);
+    }
+  }
+
+  /**
+   * Makes the current state visible to the readers. Reservations are released once their VM was
+   * already part of the previous state, so a reader still using the previous state does not lose
+   * them.
+   */
+  void publish() {
+    List<ObjectContent> contents = new ArrayList<ObjectContent>(objects.size());
+    Set<String> vmNames = new HashSet<String>();
+    for (ObjectContent content : objects.values()) {
+      ObjectContent copy = new ObjectContent();
+      copy.setObj(content.getObj());
+      copy.getPropSet().addAll(content.getPropSet());
+      contents.add(copy);
+      if (InventoryLoader.VIRTUAL_MACHINE.equals(content.getObj().getType())) {
+        Object name = InventoryLoader.getValue(content.getPropSet(), "name");
+        if (name != null) {
+          vmNames.add(name.toString());
+        }
+      }
+    }
+
+    Snapshot previous = snapshot;
+    long now = System.currentTimeMillis();
+    allocations.removeIf(
+        a -> a.expires <= now || previous != null && previous.vmNames.contains(a.vmName));
+    snapshot = new Snapshot(Collections.unmodifiableList(contents), vmNames);
+  }
+
+  int getAllocationCount() {
+    return allocations.size();
+  }
+
+  private static class Snapshot {
+
+    final List<ObjectContent> contents;
+    final Set<String> vmNames;
+
+    Snapshot(List<ObjectContent> contents, Set<String> vmNames) {
+      this.contents = contents;
+      this.vmNames = vmNames;
+    }
+  }
+
+  private static class Allocation {
+
+    final String vmName;
+    final String hostName;
+    final String storageName;
+    final int cpus;
+    final long memoryMB;
+    final double diskMB;
+    final long expires;
+
+    Allocation(
+        String vmName,
+        String hostName,
+        String storageName,
+        int cpus,
+        long memoryMB,
+        double diskMB,
+        long expires) {
+      this.vmName = vmName;
+      this.hostName = hostName;
+      this.storageName = storageName;
+      this.cpus = cpus;
+      this.memoryMB = memoryMB;
+      this.diskMB = diskMB;
+      this.expires = expires;
+    }
+
+    void applyTo(VMwareDatacenterInventory inventory) {
+      VMwareHost host = inventory.getHost(hostName);
+      if (host != null) {
+        host.allocate(cpus, memoryMB);
+      }
+      VMwareStorage storage = storageName == null ? null : inventory.getStorage(storageName);
+      if (storage != null && diskMB > 0) {
+        storage.allocate(diskMB);
+      }
+    }
+  }
+}
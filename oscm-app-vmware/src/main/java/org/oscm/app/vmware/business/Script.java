@@ -55,9 +55,13 @@ public class Script {
     private static final String WINDOWS_GUEST_FILE_PATH = "C:\\Windows\\Temp\\runonce.bat";
     private static final String LINUX_GUEST_FILE_PATH = "/tmp/runonce.sh";
     static final String HIDDEN_PWD = "*****";
-    
-    private boolean scriptExecuting = false;
 
+    /**
+     * The time after which the completion check gives up if the state of the
+     * script process cannot be read.
+     */
+    static final long UNREADABLE_TIMEOUT = 15 * 60000;
+    
     private OS os;
     private VMPropertyHandler ph;
     private ServiceParamRetrieval sp;
@@ -65,19 +69,18 @@ public class Script {
     private String guestUserId;
     private String guestPassword;
     private String executableScript;
-    
-    private static Script script = null;
-    
-    private Script() {};
-    
-    public static synchronized Script getInstance () {
-        if (script == null) {
-            script = new Script();
-        }
-        return script;
-      }
-    
-    
+
+    /**
+     * Returns whether a script has been started for the instance of the given
+     * settings and its completion has not been checked yet. The process
+     * information of a finished script is kept as empty value, because
+     * parameters removed from the settings are not removed from the database.
+     */
+    public static boolean isStarted(VMPropertyHandler ph) {
+        String pid = ph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID);
+        return pid != null && pid.trim().length() > 0;
+    }
+
     public void initScript(VMPropertyHandler ph, OS os) throws Exception {
         initializeScript(ph, os);
 
@@ -91,6 +94,14 @@ public class Script {
         this.executableScript = script;
     }
 
+    /**
+     * Prepares checking the completion of a script which has been started in
+     * an earlier call.
+     */
+    public void resume(VMPropertyHandler ph, OS os) throws Exception {
+        initializeScript(ph, os);
+    }
+
     private void initializeScript(VMPropertyHandler ph, OS os) throws Exception {
         this.ph = ph;
         this.os = os;
@@ -446,66 +457,147 @@ public class Script {
         return param.replace('1', Integer.toString(index).charAt(0));
     }
     
-    public void execute(VMwareClient vmw, ManagedObjectReference vmwInstance)
+    /**
+     * Uploads the script into the guest and starts it without waiting for it
+     * to finish. The process ID and the output file are stored in the
+     * settings, so that the completion can be checked with
+     * {@link #checkCompletion(VMwareClient, ManagedObjectReference)} by a later
+     * poll.
+     */
+    public void start(VMwareClient vmw, ManagedObjectReference vmwInstance)
             throws Exception {
-        if (!scriptExecuting) {
-            executeScript(vmw, vmwInstance);
+        ScriptExecutionObjectReferences objectRef = getScriptExecutionObjectReferences(
+                vmw);
+        NamePasswordAuthentication auth = getPasswordAuthentication();
+        String scriptPatched = insertServiceParameter();
+        URL vSphereURL = getVSphereURL();
+
+        uploadScriptFileToVM(objectRef.getVimPort(), vmwInstance,
+                objectRef.getFileManagerRef(), auth, scriptPatched,
+                vSphereURL.getHost());
+        LOG.debug("Executing CreateTemporaryFile guest operation");
+
+        String tempFilePath = objectRef.getVimPort().createTemporaryFileInGuest(
+                objectRef.getFileManagerRef(), vmwInstance, auth, "", "", "");
+        LOG.debug("Successfully created a temporary file at: " + tempFilePath
+                + " inside the guest");
+        GuestProgramSpec spec = getGuestProgramSpec(tempFilePath);
+        LOG.debug("Starting the specified program inside the guest");
+        long pid = objectRef.getVimPort().startProgramInGuest(
+                objectRef.getProcessManagerRef(), vmwInstance, auth, spec);
+        LOG.debug("Process ID of the program started is: " + pid + "");
+
+        if (isUpdatingLinuxPassword()) {
+            setUpdatedPassword(auth);
         }
+
+        ph.setSetting(VMPropertyHandler.SM_SCRIPT_PID, Long.toString(pid));
+        ph.setSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT, tempFilePath);
     }
 
-    private void executeScript(VMwareClient vmw,
+    /**
+     * Checks once whether the script started by
+     * {@link #start(VMwareClient, ManagedObjectReference)} has finished.
+     * Returns <code>false</code> if it is still running or its state cannot be
+     * read, e.g. while the guest tools restart. When it has finished, a
+     * failure is logged together with the script output and the process
+     * information is cleared in the settings.
+     *
+     * @throws Exception
+     *             if the state of the script process could not be read for
+     *             {@link #UNREADABLE_TIMEOUT}
+     */
+    public boolean checkCompletion(VMwareClient vmw,
             ManagedObjectReference vmwInstance) throws Exception {
         try {
-            setScriptExecuting(true);
-            LOG.debug("");
-
             ScriptExecutionObjectReferences objectRef = getScriptExecutionObjectReferences(
                     vmw);
             NamePasswordAuthentication auth = getPasswordAuthentication();
-            String scriptPatched = insertServiceParameter();
-            URL vSphereURL = getVSphereURL();
-
-            uploadScriptFileToVM(objectRef.getVimPort(), vmwInstance, objectRef.getFileManagerRef(), auth,
-                    scriptPatched, vSphereURL.getHost());
-            LOG.debug("Executing CreateTemporaryFile guest operation");
-            
-            String tempFilePath = objectRef.getVimPort().createTemporaryFileInGuest(
-                    objectRef.getFileManagerRef(), vmwInstance, auth, "", "", "");
-            LOG.debug("Successfully created a temporary file at: "
-                    + tempFilePath + " inside the guest");
-            GuestProgramSpec spec = getGuestProgramSpec(tempFilePath);
-            LOG.debug("Starting the specified program inside the guest");
-            long pid = objectRef.getVimPort().startProgramInGuest(objectRef.getProcessManagerRef(),
-                    vmwInstance, auth, spec);
-            LOG.debug("Process ID of the program started is: " + pid + "");
-
             if (isUpdatingLinuxPassword()) {
-                setUpdatedPassword(auth);
+                auth.setPassword(ph.getServiceSetting(
+                        VMPropertyHandler.TS_LINUX_ROOT_PWD));
             }
+            List<Long> pidsList = new ArrayList<Long>();
+            pidsList.add(Long.valueOf(
+                    ph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)));
 
             List<GuestProcessInfo> procInfo = null;
-            List<Long> pidsList = new ArrayList<Long>();
-            pidsList.add(Long.valueOf(pid));
-            
-            do {
-                LOG.debug("Waiting for the process to finish running.");
+            try {
+                procInfo = getProcInfo(vmwInstance, objectRef.getVimPort(),
+                        objectRef.getProcessManagerRef(), auth, pidsList);
+            } catch (Exception e) {
+                setNewAuthPassword(auth, e);
                 try {
-                    procInfo = getProcInfo(vmwInstance, objectRef.getVimPort(), objectRef.getProcessManagerRef(), auth,
-                            pidsList);
-                } catch (Exception e) {
-                    setNewAuthPassword(auth, e);
+                    procInfo = getProcInfo(vmwInstance, objectRef.getVimPort(),
+                            objectRef.getProcessManagerRef(), auth, pidsList);
+                } catch (Exception e1) {
+                    LOG.warn("Failed to read the state of the script process",
+                            e1);
                 }
-                Thread.sleep(1000);
-            } while (procInfo != null && procInfo.get(0).getEndTime() == null);
+            }
 
-            checkIfScriptWasRunningSuccessful(vmwInstance, objectRef.getVimPort(),
-                    objectRef.getFileManagerRef(), auth, vSphereURL, tempFilePath, procInfo);
-            setScriptExecuting(false);
-            
+            if (procInfo == null) {
+                checkUnreadableTimeout();
+                return false;
+            }
+            if (isUnreadable()) {
+                ph.setSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE,
+                        "");
+            }
+
+            if (!procInfo.isEmpty() && procInfo.get(0).getEndTime() == null) {
+                LOG.debug("Waiting for the process to finish running.");
+                return false;
+            }
+
+            if (!procInfo.isEmpty()) {
+                checkIfScriptWasRunningSuccessful(vmwInstance,
+                        objectRef.getVimPort(), objectRef.getFileManagerRef(),
+                        auth, procInfo);
+            }
         } catch (Exception e) {
-            setScriptExecuting(false);
+            clearProcess();
             throw e;
         }
+        clearProcess();
+        return true;
+    }
+
+    private void clearProcess() {
+        ph.setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+        ph.setSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT, "");
+        if (isUnreadable()) {
+            ph.setSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE, "");
+        }
+    }
+
+    private boolean isUnreadable() {
+        String since = ph
+                .getServiceSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE);
+        return since != null && since.trim().length() > 0;
+    }
+
+    /**
+     * Remembers when the state of the script process could not be read for
+     * the first time, and fails if it has not been readable since then for
+     * {@link #UNREADABLE_TIMEOUT}.
+     */
+    private void checkUnreadableTimeout() throws Exception {
+        long now = System.currentTimeMillis();
+        if (!isUnreadable()) {
+            ph.setSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE,
+                    Long.toString(now));
+            return;
+        }
+        long since = Long.parseLong(ph
+                .getServiceSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE)
+                .trim());
+        if (now - since >= UNREADABLE_TIMEOUT) {
+            throw new Exception("The state of the script process "
+                    + ph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)
+                    + " could not be read for " + (now - since) / 1000
+                    + " seconds");
+        }
     }
 
     protected ScriptExecutionObjectReferences getScriptExecutionObjectReferences(
@@ -517,8 +609,7 @@ public class Script {
     private void checkIfScriptWasRunningSuccessful(
             ManagedObjectReference vmwInstance, VimPortType vimPort,
             ManagedObjectReference fileManagerRef,
-            NamePasswordAuthentication auth, URL vSphereURL,
-            String tempFilePath, List<GuestProcessInfo> procInfo)
+            NamePasswordAuthentication auth, List<GuestProcessInfo> procInfo)
             throws FileFaultFaultMsg, GuestOperationsFaultFaultMsg,
             InvalidStateFaultMsg, RuntimeFaultFaultMsg, TaskInProgressFaultMsg,
             Exception {
@@ -526,6 +617,9 @@ public class Script {
                 && procInfo.get(0).getExitCode().intValue() != 0) {
             LOG.error(
                     "Script return code: " + procInfo.get(0).getExitCode());
+            String tempFilePath = ph
+                    .getServiceSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT);
+            URL vSphereURL = getVSphereURL();
             FileTransferInformation fileTransferInformation = null;
             fileTransferInformation = vimPort.initiateFileTransferFromGuest(
                     fileManagerRef, vmwInstance, auth, tempFilePath);
@@ -573,8 +667,7 @@ public class Script {
         return auth;
     }
 
-    private void setUpdatedPassword(NamePasswordAuthentication auth)
-            throws InterruptedException {
+    private void setUpdatedPassword(NamePasswordAuthentication auth) {
         auth.setUsername(guestUserId);
         auth.setPassword(ph.getServiceSetting(
                 VMPropertyHandler.TS_LINUX_ROOT_PWD));
@@ -584,7 +677,6 @@ public class Script {
                 ph.getServiceSetting(VMPropertyHandler.TS_SCRIPT_PWD),
                 ph.getServiceSetting(
                         VMPropertyHandler.TS_LINUX_ROOT_PWD));
-        Thread.sleep(1000);
     }
 
     private boolean isUpdatingLinuxPassword() {
@@ -609,14 +701,4 @@ public class Script {
         DataAccessService das = new DataAccessService(ph.getLocale());
         return new URL(das.getCredentials(vcenter).getURL());
     }
-
-
-
-    public boolean isScriptExecuting() {
-        return scriptExecuting;
-    }
-
-    public void setScriptExecuting(boolean scriptIsExecuted) {
-        this.scriptExecuting = scriptIsExecuted;
-    }
 }
@@ -300,36 +300,49 @@ public class VM extends Template {
     return folder;
   }
 
-  public void runScript(VMPropertyHandler paramHandler) throws Exception {
+  /**
+   * Starts the script given by the service parameters in the guest, or checks whether the script
+   * started by an earlier call has finished.
+   *
+   * @return <code>true</code> if there is no script or it has finished
+   */
+  public boolean runScript(VMPropertyHandler paramHandler) throws Exception {
     logger.debug("instanceName: " + instanceName);
     String scriptURL = paramHandler.getServiceSetting(VMPropertyHandler.TS_SCRIPT_URL);
-    Script script = Script.getInstance();
-    if (scriptURL != null) {
-      try {
-        script.initScript(paramHandler, detectOs());
-        script.execute(vmw, vmInstance);
-      } catch (Exception e) {
-        script.setScriptExecuting(false);
-        throw e;
-      }
+    if (scriptURL == null) {
+      return true;
     }
+    Script script = new Script();
+    if (Script.isStarted(paramHandler)) {
+      script.resume(paramHandler, detectOs());
+      return script.checkCompletion(vmw, vmInstance);
+    }
+    script.initScript(paramHandler, detectOs());
+    script.start(vmw, vmInstance);
+    return false;
   }
 
-  public void updateLinuxVMPassword(VMPropertyHandler paramHandler) throws Exception {
+  /**
+   * Starts the script updating the Linux root password in the guest, or checks whether the script
+   * started by an earlier call has finished.
+   *
+   * @return <code>true</code> if there is no script or it has finished
+   */
+  public boolean updateLinuxVMPassword(VMPropertyHandler paramHandler) throws Exception {
     logger.debug("instanceName: " + instanceName);
-
+    Script script = new Script();
+    if (Script.isStarted(paramHandler)) {
+      script.resume(paramHandler, detectOs());
+      return script.checkCompletion(vmw, vmInstance);
+    }
     String password = paramHandler.getServiceSetting(VMPropertyHandler.TS_LINUX_ROOT_PWD);
     String updateScript = VMScript.updateLinuxVMRootPassword(password);
-    Script script = Script.getInstance();
-    if (updateScript != null) {
-      script.initScript(paramHandler, detectOs(), updateScript);
-      script.execute(vmw, vmInstance);
+    if (updateScript == null) {
+      return true;
     }
-  }
-
-  public boolean isScriptExecuting() {
-    Script script = Script.getInstance();
-    return script.isScriptExecuting();
+    script.initScript(paramHandler, detectOs(), updateScript);
+    script.start(vmw, vmInstance);
+    return false;
   }
 
   public int getNumberOfNICs() throws Exception {
@@ -355,6 +355,14 @@ public class VMPropertyHandler {
   public static final String SM_STATE_MACHINE = "SM_STATE_MACHINE";
   public static final String SM_ERROR_MESSAGE = "SM_ERROR_MESSAGE";
 
+  /** Process ID and output file of the script running in the guest */
+  public static final String SM_SCRIPT_PID = "SM_SCRIPT_PID";
+
+  public static final String SM_SCRIPT_OUTPUT = "SM_SCRIPT_OUTPUT";
+
+  /** Time since which the state of the script process could not be read */
+  public static final String SM_SCRIPT_UNREADABLE_SINCE = "SM_SCRIPT_UNREADABLE_SINCE";
+
   /** The port which is used to access the vm remote console */
   public static final String TS_VSPHERE_CONSOLE_PORT = "VSPHERE_CONSOLE_PORT";
 
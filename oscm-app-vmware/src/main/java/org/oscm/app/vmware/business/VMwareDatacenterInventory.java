@@ -159,6 +159,16 @@ public class VMwareDatacenterInventory {
         return result;
     }
 
+    /**
+     * Registers the name of the given host system, so that it does not need
+     * to be retrieved from vSphere when adding the VMs running on it.
+     */
+    public void addHostName(ManagedObjectReference host, String name) {
+        if (host != null && name != null) {
+            hostCache.put(host.getValue(), name);
+        }
+    }
+
     /**
      * Initializes the allocation data of the host by summing up all configured
      * (not the actual used) resources of all VMs deployed on each host.
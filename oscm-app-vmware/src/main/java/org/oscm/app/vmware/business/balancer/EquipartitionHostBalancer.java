@@ -31,10 +31,23 @@ public class EquipartitionHostBalancer extends HostBalancer {
     private static final Logger logger = LoggerFactory
             .getLogger(EquipartitionHostBalancer.class);
 
+    private static final int MEMORY = 0;
+    private static final int CPU = 1;
+    private static final int VM = 2;
+    private static final int ROWS = 3;
+
     private double cpuWeight = 1;
     private double memWeight = 1;
     private double vmWeight = 1;
 
+    /**
+     * Scratch buffers reused by all placements of this balancer, one row per
+     * attribute and one column per valid host.
+     */
+    private double[][] counts = new double[ROWS][0];
+    private double[][] normalizers = new double[ROWS][0];
+    private double[][] spreads = new double[ROWS][0];
+
     @Override
     public void setConfiguration(Node xmlConfig) {
         super.setConfiguration(xmlConfig);
@@ -70,55 +83,79 @@ public class EquipartitionHostBalancer extends HostBalancer {
     public VMwareHost next(VMPropertyHandler properties)
             throws APPlatformException {
 
+        List<VMwareHost> validHosts = getValidHosts(properties);
+        if (validHosts.isEmpty()) {
+            logger.debug("No valid host available");
+            throw new APPlatformException(Messages.getAll("error_outof_host"));
+        }
+        fillBuffers(validHosts);
+        int indexOfHost = select(validHosts.size(), properties);
+        try {
+            return validHosts.get(indexOfHost);
+        } catch (IndexOutOfBoundsException e) {
+            logger.error("Host balancing resulted in invalid host index "
+                    + indexOfHost);
+        }
+
+        throw new APPlatformException(Messages.getAll("error_outof_host"));
+    }
+
+    private List<VMwareHost> getValidHosts(VMPropertyHandler properties) {
         List<VMwareHost> validHosts = new ArrayList<VMwareHost>();
         for (VMwareHost host : getElements()) {
             if (isValid(host, properties)) {
                 validHosts.add(host);
             }
         }
-        int cnt = validHosts.size();
-        if (cnt == 0) {
-            logger.debug("No valid host available");
-            throw new APPlatformException(Messages.getAll("error_outof_host"));
+        return validHosts;
+    }
+
+    /**
+     * Copies the allocation and capacity of the given hosts into the scratch
+     * buffers, growing them if necessary.
+     */
+    private void fillBuffers(List<VMwareHost> hosts) {
+        int cnt = hosts.size();
+        if (counts[0].length < cnt) {
+            for (int row = 0; row < ROWS; row++) {
+                counts[row] = new double[cnt];
+                normalizers[row] = new double[cnt];
+                spreads[row] = new double[cnt];
+            }
         }
-        double[] vmCounts = new double[cnt];
-        double[] memCounts = new double[cnt];
-        double[] cpuCounts = new double[cnt];
-        double[] vmNormalizer = new double[cnt];
-        double[] memNormalizer = new double[cnt];
-        double[] cpuNormalizer = new double[cnt];
         int i = 0;
-        for (VMwareHost host : validHosts) {
+        for (VMwareHost host : hosts) {
             logger.debug("Add host for balancer: " + host.getName() + " "
                     + host.getAllocationAsString());
-            memCounts[i] = host.getAllocatedMemoryMB();
-            memNormalizer[i] = host.getMemorySizeMB();
-            cpuCounts[i] = host.getAllocatedCPUs();
-            cpuNormalizer[i] = host.getCpuCores();
-            vmCounts[i] = host.getAllocatedVMs();
-            vmNormalizer[i] = 1;
+            counts[MEMORY][i] = host.getAllocatedMemoryMB();
+            normalizers[MEMORY][i] = host.getMemorySizeMB();
+            counts[CPU][i] = host.getAllocatedCPUs();
+            normalizers[CPU][i] = host.getCpuCores();
+            counts[VM][i] = host.getAllocatedVMs();
+            normalizers[VM][i] = 1;
             i++;
         }
-        memCounts = calculateSpread(memCounts, properties.getConfigMemoryMB(),
-                memNormalizer);
-        cpuCounts = calculateSpread(cpuCounts, properties.getConfigCPUs(),
-                cpuNormalizer);
-        vmCounts = calculateSpread(vmCounts, 1, vmNormalizer);
+    }
+
+    /**
+     * Calculates the spreads for the first <code>cnt</code> hosts in the
+     * buffers and returns the index of the host with the least weighted
+     * spread.
+     */
+    private int select(int cnt, VMPropertyHandler properties) {
+        calculateSpread(counts[MEMORY], cnt, properties.getConfigMemoryMB(),
+                normalizers[MEMORY], spreads[MEMORY]);
+        calculateSpread(counts[CPU], cnt, properties.getConfigCPUs(),
+                normalizers[CPU], spreads[CPU]);
+        calculateSpread(counts[VM], cnt, 1, normalizers[VM], spreads[VM]);
         if (logger.isDebugEnabled()) {
-            logger.debug("Memory spread: " + getLogString(memCounts));
-            logger.debug("CPU spread:    " + getLogString(cpuCounts));
-            logger.debug("VM spread:     " + getLogString(vmCounts));
-        }
-        int indexOfHost = assess(new double[][] { memCounts, cpuCounts,
-                vmCounts }, new double[] { memWeight, cpuWeight, vmWeight });
-        try {
-            return validHosts.get(indexOfHost);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            logger.error("Host balancing resulted in invalid host index "
-                    + indexOfHost);
+            logger.debug(
+                    "Memory spread: " + getLogString(spreads[MEMORY], cnt));
+            logger.debug("CPU spread:    " + getLogString(spreads[CPU], cnt));
+            logger.debug("VM spread:     " + getLogString(spreads[VM], cnt));
         }
-
-        throw new APPlatformException(Messages.getAll("error_outof_host"));
+        return assess(spreads, cnt,
+                new double[] { memWeight, cpuWeight, vmWeight });
     }
 
     /**
@@ -144,47 +181,55 @@ public class EquipartitionHostBalancer extends HostBalancer {
     public static double[] calculateSpread(double[] values, double addition,
             double[] normalizer) {
         double[] result = new double[values.length];
-        double[] calcBase = new double[values.length];
-        if (values.length > 0) {
-            for (int i = 0; i < values.length; i++) {
-                // no normalizer => set to 100%
-                double factor = normalizer.length >= i + 1 ? normalizer[i] : 1;
-                calcBase[i] = values[i] / (factor > 0 ? factor : 1);
-            }
-            for (int i = 0; i < calcBase.length; i++) {
-                double factor = normalizer.length >= i + 1 ? normalizer[i] : 1;
-                double normalizedAddition = addition
-                        / (factor > 0 ? factor : 1);
-                calcBase[i] += normalizedAddition;
-                result[i] = spread(calcBase);
-                calcBase[i] -= normalizedAddition;
-            }
-        }
+        calculateSpread(values, values.length, addition, normalizer, result);
         return result;
     }
 
     /**
-     * Calculates the average from the given set of values.
+     * Calculates the spread values of the first <code>cnt</code> values into
+     * the given result array, see
+     * {@link #calculateSpread(double[], double, double[])}.
+     * <p>
+     * The mean and the sum of squared deviations of the normalized values are
+     * calculated once. Adding <code>d</code> to the value <code>x</code>
+     * changes the sum of squared deviations by
+     * <code>2d(x-mean) + d&sup2; - d&sup2;/n</code>, so each spread is
+     * derived in constant time instead of iterating over all values again.
      */
-    private static double average(double[] values) {
+    static void calculateSpread(double[] values, int cnt, double addition,
+            double[] normalizer, double[] result) {
+        if (cnt == 0) {
+            return;
+        }
         double sum = 0;
-        for (int i = 0; i < values.length; i++) {
-            sum += values[i];
+        for (int i = 0; i < cnt; i++) {
+            sum += values[i] / norm(normalizer, i);
+        }
+        double avg = sum / cnt;
+        double deviations = 0;
+        for (int i = 0; i < cnt; i++) {
+            deviations += square(values[i] / norm(normalizer, i) - avg);
+        }
+        for (int i = 0; i < cnt; i++) {
+            double factor = norm(normalizer, i);
+            double normalizedAddition = addition / factor;
+            double newDeviations = deviations
+                    + 2 * normalizedAddition * (values[i] / factor - avg)
+                    + square(normalizedAddition)
+                    - square(normalizedAddition) / cnt;
+            double newAvg = avg + normalizedAddition / cnt;
+            result[i] = Math.sqrt(Math.max(0, newDeviations) / cnt)
+                    / (newAvg != 0 ? newAvg : 1);
         }
-        return sum / values.length;
     }
 
     /**
-     * Calculates the spread over the given set of values and normalizes the
-     * result as percentage of the average.
+     * Returns the normalizer of the value with the given index, or 1 if it is
+     * not set or not positive.
      */
-    private static double spread(double[] values) {
-        double sum = 0;
-        double avg = average(values);
-        for (int i = 0; i < values.length; i++) {
-            sum += square(avg - values[i]);
-        }
-        return Math.sqrt(sum / values.length) / (avg != 0 ? avg : 1);
+    private static double norm(double[] normalizer, int i) {
+        double factor = normalizer.length >= i + 1 ? normalizer[i] : 1;
+        return factor > 0 ? factor : 1;
     }
 
     /**
@@ -203,9 +248,6 @@ public class EquipartitionHostBalancer extends HostBalancer {
      */
     public static int assess(double[][] values, double[] weights) {
         int hostCount = -1;
-        int resultIndex = -1; // index of lowest weighted spread
-        double lowestSpread = -1;
-        double[] internalWeigths = new double[values.length];
         // check all values lines for same host count
         for (int i = 0; i < values.length; i++) {
             if (hostCount == -1) {
@@ -215,6 +257,19 @@ public class EquipartitionHostBalancer extends HostBalancer {
                 throw new IllegalStateException(
                         "Comparing systems with unequal number of attributes.");
             }
+        }
+        return assess(values, hostCount, weights);
+    }
+
+    /**
+     * Like {@link #assess(double[][], double[])}, but only considers the
+     * first <code>hostCount</code> values of each value set.
+     */
+    static int assess(double[][] values, int hostCount, double[] weights) {
+        int resultIndex = -1; // index of lowest weighted spread
+        double lowestSpread = -1;
+        double[] internalWeigths = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
             if (i < weights.length) {
                 internalWeigths[i] = weights[i];
             } else {
@@ -245,9 +300,9 @@ public class EquipartitionHostBalancer extends HostBalancer {
         return resultIndex;
     }
 
-    private static String getLogString(double[] values) {
+    private static String getLogString(double[] values, int cnt) {
         StringBuffer sb = new StringBuffer();
-        for (int i = 0; i < values.length; i++) {
+        for (int i = 0; i < cnt; i++) {
             sb.append((i > 0 ? ", " : "[")).append(values[i]);
         }
         sb.append("]");
@@ -166,6 +166,15 @@ public class VMwareHost {
         this.allocatedVMs = allocatedVMs;
     }
 
+    /**
+     * Adds a VM with the given configuration to the allocation of this host.
+     */
+    public void allocate(int cpus, long memoryMB) {
+        allocatedVMs++;
+        allocatedCPUs += cpus;
+        allocatedMemory += memoryMB;
+    }
+
     public void setVMLimit(VMwareValue vmLimit) {
         this.vmLimit = (vmLimit != null ? vmLimit : DEFAULT_VM_LIMIT);
     }
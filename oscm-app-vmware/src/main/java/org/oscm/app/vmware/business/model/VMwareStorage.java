@@ -55,6 +55,13 @@ public class VMwareStorage {
         this.free = freeStorage == null ? 0 : freeStorage.getValue(Unit.MB);
     }
 
+    /**
+     * Reduces the free space of this storage by the given amount.
+     */
+    public void allocate(double megaBytes) {
+        free = Math.max(0, free - megaBytes);
+    }
+
     public boolean checkLimit(double requestedMegaBytes) {
         if (requestedMegaBytes < 0) {
             throw new IllegalArgumentException(
@@ -37,6 +37,7 @@ public class CreateActions extends Actions {
   private static final Logger logger = LoggerFactory.getLogger(CreateActions.class);
 
   private static final String EVENT_CREATING = "creating";
+  private static final String EVENT_EXECUTING = "executing";
 
   @StateMachineAction
   public String importVM(String instanceId, ProvisioningSettings settings, InstanceStatus result) {
@@ -172,7 +173,9 @@ public class CreateActions extends Actions {
       if (ph.getServiceSetting(VMPropertyHandler.TS_SCRIPT_URL) != null
           && ph.getServiceSetting(VMPropertyHandler.TS_SCRIPT_URL).trim().length() > 0) {
         VM vm = new VM(vmClient, ph.getInstanceName());
-        vm.runScript(ph);
+        if (!vm.runScript(ph)) {
+          return EVENT_EXECUTING;
+        }
       }
       return EVENT_SUCCESS;
     } catch (Exception e) {
@@ -208,9 +211,9 @@ public class CreateActions extends Actions {
       vmClient = VMClientPool.getInstance().getPool().borrowObject(vcenter);
       if (ph.getServiceSetting(VMPropertyHandler.TS_LINUX_ROOT_PWD) != null) {
         VM vm = new VM(vmClient, ph.getInstanceName());
-          if(!vm.isScriptExecuting()) {
-            vm.updateLinuxVMPassword(ph);
-          }
+        if (!vm.updateLinuxVMPassword(ph)) {
+          return EVENT_EXECUTING;
+        }
       }
       return EVENT_SUCCESS;
     } catch (Exception e) {
@@ -8,7 +8,9 @@
 
 package org.oscm.app.vmware.business.statemachine;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -19,6 +21,7 @@ public class State {
     private String action;
     private String timeout;
     private List<Event> events;
+    private volatile Map<String, Event> eventIndex;
 
     @XmlElement(name = "event")
     public List<Event> getEvents() {
@@ -27,6 +30,28 @@ public class State {
 
     public void setEvents(List<Event> events) {
         this.events = events;
+        eventIndex = null;
+    }
+
+    /**
+     * Returns the event with the given ID, or <code>null</code> if it is not
+     * defined for this state.
+     */
+    public Event getEvent(String id) {
+        Map<String, Event> index = eventIndex;
+        if (index == null) {
+            index = new HashMap<String, Event>();
+            List<Event> list = getEvents();
+            if (list != null) {
+                for (Event event : list) {
+                    if (!index.containsKey(event.getId())) {
+                        index.put(event.getId(), event);
+                    }
+                }
+            }
+            eventIndex = index;
+        }
+        return index.get(id);
     }
 
     public String getAction() {
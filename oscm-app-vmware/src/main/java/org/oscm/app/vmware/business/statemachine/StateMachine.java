@@ -9,8 +9,11 @@
 package org.oscm.app.vmware.business.statemachine;
 
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 
 import org.oscm.app.v2_0.APPlatformServiceFactory;
@@ -34,6 +37,15 @@ public class StateMachine {
     private static final Logger logger = LoggerFactory
             .getLogger(StateMachine.class);
 
+    /**
+     * The parsed state machine definitions by their file names. They are
+     * shared by all instances and never changed after parsing.
+     */
+    private static final ConcurrentMap<String, States> DEFINITIONS =
+            new ConcurrentHashMap<>();
+
+    private static volatile JAXBContext context;
+
     private States states;
 
     private String stateId;
@@ -55,12 +67,26 @@ public class StateMachine {
 
     private States loadStateMachine(String filename)
             throws StateMachineException {
+        States result = filename == null ? null : DEFINITIONS.get(filename);
+        if (result == null) {
+            result = parseStateMachine(filename);
+            if (filename != null) {
+                States previous = DEFINITIONS.putIfAbsent(filename, result);
+                if (previous != null) {
+                    result = previous;
+                }
+            }
+        }
+        return result;
+    }
+
+    private States parseStateMachine(String filename)
+            throws StateMachineException {
         logger.debug("filename: " + filename);
         ClassLoader loader = Thread.currentThread().getContextClassLoader();
         try (InputStream stream = loader.getResourceAsStream("statemachines/"
                 + filename);) {
-            JAXBContext jaxbContext = JAXBContext.newInstance(States.class);
-            Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
+            Unmarshaller jaxbUnmarshaller = getContext().createUnmarshaller();
             return (States) jaxbUnmarshaller.unmarshal(stream);
         } catch (Exception e) {
             throw new StateMachineException(
@@ -69,6 +95,24 @@ public class StateMachine {
         }
     }
 
+    private static JAXBContext getContext() throws JAXBException {
+        JAXBContext result = context;
+        if (result == null) {
+            result = JAXBContext.newInstance(States.class);
+            context = result;
+        }
+        return result;
+    }
+
+    /**
+     * Discards the parsed state machine definitions, so that they are read
+     * again with the next use.
+     */
+    static void clearDefinitions() {
+        DEFINITIONS.clear();
+        context = null;
+    }
+
     public String getStateId() {
         return stateId;
     }
@@ -189,24 +233,22 @@ public class StateMachine {
     }
 
     private State getState(String stateId) throws StateMachineException {
-        for (State state : states.getStates()) {
-            if (state.getId().equals(stateId)) {
-                return state;
-            }
+        State state = states.getState(stateId);
+        if (state == null) {
+            throw new StateMachineException("State " + stateId + " not found");
         }
-        throw new StateMachineException("State " + stateId + " not found");
+        return state;
     }
 
     private String getNextState(State state, String eventId)
             throws StateMachineException {
 
-        for (Event event : state.getEvents()) {
-            if (event.getId().equals(eventId)) {
-                logger.debug("Transition from current state '" + state.getId()
-                        + "' with event '" + eventId + "' into state '"
-                        + event.getState() + "'");
-                return event.getState();
-            }
+        Event event = state.getEvent(eventId);
+        if (event != null) {
+            logger.debug("Transition from current state '" + state.getId()
+                    + "' with event '" + eventId + "' into state '"
+                    + event.getState() + "'");
+            return event.getState();
         }
 
         throw new StateMachineException(
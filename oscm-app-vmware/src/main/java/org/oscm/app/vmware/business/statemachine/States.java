@@ -8,9 +8,14 @@
 
 package org.oscm.app.vmware.business.statemachine;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -27,12 +32,34 @@ public class States {
 
     private static final Logger logger = LoggerFactory.getLogger(States.class);
 
+    private static final MethodType ACTION_TYPE = MethodType.methodType(
+            String.class, String.class, ProvisioningSettings.class,
+            InstanceStatus.class);
+
     private List<State> states;
     private String clazz;
 
+    /**
+     * The states by their IDs, built with the first lookup since JAXB fills
+     * the list of states after setting it.
+     */
+    private volatile Map<String, State> stateIndex;
+
+    /**
+     * The action methods by their names, bound to the single instance of the
+     * action class. The action classes do not hold any state.
+     */
+    private final ConcurrentMap<String, MethodHandle> actions =
+            new ConcurrentHashMap<>();
+    private Object actionTarget;
+
     @XmlAttribute
     public void setClass(String clazz) {
-        this.clazz = clazz;
+        synchronized (actions) {
+            this.clazz = clazz;
+            actionTarget = null;
+            actions.clear();
+        }
     }
 
     public String getActionClass() {
@@ -46,6 +73,29 @@ public class States {
 
     public void setStates(List<State> aStates) {
         this.states = aStates;
+        stateIndex = null;
+    }
+
+    /**
+     * Returns the state with the given ID, or <code>null</code> if it is not
+     * defined.
+     */
+    public State getState(String id) {
+        Map<String, State> index = stateIndex;
+        if (index == null) {
+            index = new HashMap<String, State>();
+            List<State> list = getStates();
+            if (list != null) {
+                for (State state : list) {
+                    // the first definition wins as with a sequential search
+                    if (!index.containsKey(state.getId())) {
+                        index.put(state.getId(), state);
+                    }
+                }
+            }
+            stateIndex = index;
+        }
+        return index.get(id);
     }
 
     public String invokeAction(State state, String instanceId,
@@ -55,26 +105,9 @@ public class States {
         logger.info("Invoking action '" + state.getAction() + "' of state '"
                 + state.getId() + "' for instance '" + instanceId + "'");
 
+        MethodHandle action;
         try {
-            Class<?> c = Class.forName(clazz);
-            Object o = c.newInstance();
-
-            Class<?>[] paramTypes = new Class[3];
-            paramTypes[0] = String.class;
-            paramTypes[1] = ProvisioningSettings.class;
-            paramTypes[2] = InstanceStatus.class;
-
-            String methodName = state.getAction();
-            Method m;
-            try {
-                m = c.getMethod(methodName, paramTypes);
-            } catch (NoSuchMethodException e) {
-                m = c.getSuperclass().getMethod(methodName, paramTypes);
-            }
-            return (String) m.invoke(o, instanceId, settings, status);
-        } catch (InvocationTargetException e) {
-            throw new StateMachineException(e.getCause().getMessage(),
-                    e.getCause(), instanceId, clazz, state.getAction());
+            action = getAction(state.getAction());
         } catch (Exception e) {
             logger.error("Failed to call action method '" + state.getAction()
                     + "' of state '" + state.getId() + "' for class '" + clazz
@@ -82,5 +115,33 @@ public class States {
             throw new StateMachineException("Runtime error in action method: "
                     + e.getMessage(), e, instanceId, clazz, state.getAction());
         }
+        try {
+            return (String) action.invokeExact(instanceId, settings, status);
+        } catch (Throwable e) {
+            throw new StateMachineException(e.getMessage(), e, instanceId,
+                    clazz, state.getAction());
+        }
+    }
+
+    /**
+     * Returns the action method with the given name. The method is resolved
+     * with the first call and reused afterwards.
+     */
+    private MethodHandle getAction(String methodName)
+            throws ReflectiveOperationException {
+        MethodHandle action = actions.get(methodName);
+        if (action == null) {
+            synchronized (actions) {
+                if (actionTarget == null) {
+                    actionTarget = Class.forName(clazz).newInstance();
+                }
+                action = MethodHandles.publicLookup()
+                        .findVirtual(actionTarget.getClass(), methodName,
+                                ACTION_TYPE)
+                        .bindTo(actionTarget);
+                actions.put(methodName, action);
+            }
+        }
+        return action;
     }
 }
\ No newline at end of file
@@ -67,6 +67,8 @@ public class DistributedVirtualSwitchImporter implements Importer {
       while ((dvs = parser.readNextObject()) != null) {
         this.save(dvs);
       }
+    } finally {
+      das.invalidateTopology();
     }
   }
 }
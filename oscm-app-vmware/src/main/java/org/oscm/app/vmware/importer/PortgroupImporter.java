@@ -75,6 +75,8 @@ public class PortgroupImporter implements Importer {
       while ((portgroup = parser.readNextObject()) != null) {
         this.save(portgroup);
       }
+    } finally {
+      das.invalidateTopology();
     }
   }
 }
@@ -107,6 +107,8 @@ public class VCenterImporter implements Importer {
                     this.update(vCenter);
                 }
             }
+        } finally {
+            das.invalidateTopology();
         }
     }
 }
@@ -61,6 +61,8 @@ public class VLANImporter implements Importer {
             while((vlan = parser.readNextObject()) != null) {
                 this.save(vlan);
             }
+        } finally {
+            das.invalidateTopology();
         }
     }
 }
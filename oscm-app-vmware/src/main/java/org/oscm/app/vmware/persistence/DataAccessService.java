@@ -14,8 +14,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
@@ -43,6 +46,12 @@ public class DataAccessService {
    */
   private static final String DATASOURCE = "BSSAppVMwareDS";
 
+  /** The free IP addresses per VLAN tkey, shared by all instances. */
+  private static final ConcurrentMap<Integer, IPAddressBitmap> FREE_IP_ADDRESSES =
+      new ConcurrentHashMap<>();
+
+  private final TopologyCache topology = TopologyCache.getInstance();
+
   private DataSource ds = null;
 
   private String locale = "en";
@@ -81,6 +90,10 @@ public class DataAccessService {
   }
 
   public String getVCenterIdentifier(String vcenter) throws Exception {
+    return topology.get(key("vcenter identifier", vcenter), () -> readVCenterIdentifier(vcenter));
+  }
+
+  private String readVCenterIdentifier(String vcenter) throws Exception {
     logger.debug("vcenter: " + vcenter);
     String identifier = null;
     String query = "SELECT identifier FROM vcenter WHERE name = ?";
@@ -122,10 +135,28 @@ public class DataAccessService {
     } catch (SQLException e) {
       logger.error("Failed to save controller configuration", e);
       throw new Exception(Messages.get(locale, "error_db_save_conf"));
+    } finally {
+      invalidateTopology();
     }
   }
 
   public List<VCenter> getVCenter() throws Exception {
+    List<VCenter> vcenters = topology.get(key("vcenter"), this::readVCenter);
+    List<VCenter> result = new ArrayList<>(vcenters.size());
+    for (VCenter vcenter : vcenters) {
+      VCenter copy = new VCenter();
+      copy.name = vcenter.name;
+      copy.identifier = vcenter.identifier;
+      copy.setUrl(vcenter.getUrl());
+      copy.setUserid(vcenter.getUserid());
+      copy.setPassword(vcenter.getPassword());
+      copy.tkey = vcenter.tkey;
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<VCenter> readVCenter() throws Exception {
     logger.debug("");
     List<VCenter> vcenter = new ArrayList<>();
     String query = "SELECT tkey,name,identifier,url,userid,password FROM vcenter";
@@ -153,6 +184,20 @@ public class DataAccessService {
   }
 
   public List<Cluster> getCluster() throws Exception {
+    List<Cluster> clusters = topology.get(key("cluster"), this::readCluster);
+    List<Cluster> result = new ArrayList<>(clusters.size());
+    for (Cluster cluster : clusters) {
+      Cluster copy = new Cluster();
+      copy.name = cluster.name;
+      copy.loadbalancer = cluster.loadbalancer;
+      copy.datacenter_tkey = cluster.datacenter_tkey;
+      copy.tkey = cluster.tkey;
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<Cluster> readCluster() throws Exception {
     logger.debug("getCluster");
     List<Cluster> clusters = new ArrayList<>();
     String query = "SELECT tkey,name,load_balancer,datacenter_tkey FROM cluster";
@@ -234,6 +279,22 @@ public class DataAccessService {
   }
 
   public List<Portgroup> getPortgroup(DistributedVirtualSwitch dvs) throws Exception {
+    List<Portgroup> portgroups =
+        topology.get(key("portgroup", Integer.valueOf(dvs.getTkey())), () -> readPortgroup(dvs));
+    List<Portgroup> result = new ArrayList<>(portgroups.size());
+    for (Portgroup portgroup : portgroups) {
+      Portgroup copy = new Portgroup();
+      copy.setTkey(portgroup.getTkey());
+      copy.setUuid(portgroup.getUuid());
+      copy.setName(portgroup.getName());
+      copy.setDistributedVirtualSwitch_cluster_fk(
+          portgroup.getDistributedVirtualSwitch_cluster_fk());
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<Portgroup> readPortgroup(DistributedVirtualSwitch dvs) throws Exception {
     List<Portgroup> portgroups = new ArrayList<>();
     logger.debug("DistributedVirtualSwitch: " + dvs.getName() + " dvs_tkey: " + dvs.getTkey());
 
@@ -261,6 +322,24 @@ public class DataAccessService {
 
   public List<DistributedVirtualSwitch> getDistributedVirtualSwitch(Cluster cluster)
       throws Exception {
+    List<DistributedVirtualSwitch> switches =
+        topology.get(
+            key("distributed virtual switch", Integer.valueOf(cluster.getTkey())),
+            () -> readDistributedVirtualSwitch(cluster));
+    List<DistributedVirtualSwitch> result = new ArrayList<>(switches.size());
+    for (DistributedVirtualSwitch dvs : switches) {
+      DistributedVirtualSwitch copy = new DistributedVirtualSwitch();
+      copy.setTkey(dvs.getTkey());
+      copy.setUuid(dvs.getUuid());
+      copy.setName(dvs.getName());
+      copy.setClusterTkey(dvs.getClusterTkey());
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<DistributedVirtualSwitch> readDistributedVirtualSwitch(Cluster cluster)
+      throws Exception {
     List<DistributedVirtualSwitch> ipPools = new ArrayList<>();
     logger.debug("cluster: " + cluster.getName());
 
@@ -313,6 +392,10 @@ public class DataAccessService {
   }
 
   public VMwareCredentials getCredentials(String vcenter) throws Exception {
+    return topology.get(key("credentials", vcenter), () -> readCredentials(vcenter));
+  }
+
+  private VMwareCredentials readCredentials(String vcenter) throws Exception {
     logger.debug("vcenter=" + vcenter);
     String query = "SELECT url,userid,password FROM vcenter WHERE name = ?";
     VMwareCredentials credentials = new VMwareCredentials(null, null, null);
@@ -347,7 +430,35 @@ public class DataAccessService {
     return credentials;
   }
 
+  public VMwarePoolLimits getPoolLimits(String vcenter) throws Exception {
+    return topology.get(key("pool limits", vcenter), () -> readPoolLimits(vcenter));
+  }
+
+  private VMwarePoolLimits readPoolLimits(String vcenter) throws Exception {
+    logger.debug("vcenter=" + vcenter);
+    String query = "SELECT max_sessions,max_idle_sessions FROM vcenter WHERE name = ?";
+    VMwarePoolLimits limits = new VMwarePoolLimits(0, 0);
+    try (Connection con = getDatasource().getConnection();
+        PreparedStatement stmt = con.prepareStatement(query); ) {
+      stmt.setString(1, vcenter);
+      ResultSet rs = stmt.executeQuery();
+      while (rs.next()) {
+        limits =
+            new VMwarePoolLimits(rs.getInt("max_sessions"), rs.getInt("max_idle_sessions"));
+      }
+    } catch (SQLException e) {
+      logger.error("Failed to retrieve session limits of vcenter: " + vcenter, e);
+      throw e;
+    }
+    return limits;
+  }
+
   public String getDatacenterId(String vcenter, String datacenter) throws Exception {
+    return topology.get(
+        key("datacenter id", vcenter, datacenter), () -> readDatacenterId(vcenter, datacenter));
+  }
+
+  private String readDatacenterId(String vcenter, String datacenter) throws Exception {
     logger.debug("vcenter=" + vcenter + " datacenter=" + datacenter);
     String query =
         "select identifier from datacenter where name = ? and vcenter_tkey=(select tkey from vcenter where name = ?)";
@@ -379,6 +490,18 @@ public class DataAccessService {
   }
 
   public String getHostLoadBalancerConfig(String vcenter, String datacenter, String cluster) {
+    try {
+      return topology.get(
+          key("load balancer", vcenter, datacenter, cluster),
+          () -> readHostLoadBalancerConfig(vcenter, datacenter, cluster));
+    } catch (Exception e) {
+      logger.error("Failed to retrieve load balancer configuration for cluster " + cluster, e);
+      return "";
+    }
+  }
+
+  private String readHostLoadBalancerConfig(String vcenter, String datacenter, String cluster)
+      throws Exception {
     logger.debug("vcenter: " + vcenter + " datacenter: " + datacenter + " cluster: " + cluster);
     String query =
         "SELECT load_balancer FROM cluster WHERE name = ? AND datacenter_tkey = (SELECT tkey FROM datacenter WHERE name = ? and vcenter_tkey = (SELECT TKEY FROM vcenter WHERE NAME = ?))";
@@ -392,14 +515,27 @@ public class DataAccessService {
       while (rs.next()) {
         xml = rs.getString("load_balancer");
       }
-    } catch (Exception e) {
-      logger.error("Failed to retrieve load balancer configuration for cluster " + cluster, e);
     }
 
     return xml;
   }
 
   public List<VLAN> getVLANs(Cluster cluster) throws Exception {
+    List<VLAN> vlans =
+        topology.get(key("vlan", Integer.valueOf(cluster.tkey)), () -> readVLANs(cluster));
+    List<VLAN> result = new ArrayList<>(vlans.size());
+    for (VLAN vlan : vlans) {
+      VLAN copy = new VLAN();
+      copy.setName(vlan.getName());
+      copy.setEnabled(vlan.isEnabled());
+      copy.setTkey(vlan.getTkey());
+      copy.setClusterTKey(vlan.getClusterTKey());
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<VLAN> readVLANs(Cluster cluster) throws Exception {
     List<VLAN> vlans = new ArrayList<>();
     logger.debug(
         "cluster: "
@@ -451,6 +587,8 @@ public class DataAccessService {
           logger.debug("added VLAN " + vlan.getName() + " with tkey " + tkey);
         }
       }
+    } finally {
+      invalidateTopology();
     }
 
     return tkey;
@@ -469,6 +607,8 @@ public class DataAccessService {
       }
       int[] affectedRecords = stmt.executeBatch();
       logger.debug("number of records updated: " + affectedRecords);
+    } finally {
+      invalidateTopology();
     }
   }
 
@@ -480,11 +620,28 @@ public class DataAccessService {
       stmt.setInt(1, vlan.getTkey());
       int affectedRows = stmt.executeUpdate();
       logger.debug("number of records deleted: " + affectedRows);
+    } finally {
+      invalidateTopology();
     }
+    FREE_IP_ADDRESSES.remove(Integer.valueOf(vlan.getTkey()));
   }
 
   public VMwareNetwork getNetworkSettings(
       String vcenter, String datacenter, String cluster, String vlan) throws Exception {
+    VMwareNetwork network =
+        topology.get(
+            key("network", vcenter, datacenter, cluster, vlan),
+            () -> readNetworkSettings(vcenter, datacenter, cluster, vlan));
+    VMwareNetwork copy = new VMwareNetwork();
+    copy.setSubnetMask(network.getSubnetMask());
+    copy.setGateway(network.getGateway());
+    copy.setDnsServer(network.getDnsServer());
+    copy.setDnsSuffix(network.getDnsSuffix());
+    return copy;
+  }
+
+  private VMwareNetwork readNetworkSettings(
+      String vcenter, String datacenter, String cluster, String vlan) throws Exception {
     VMwareNetwork network = new VMwareNetwork();
     logger.debug(
         "vcenter: "
@@ -628,10 +785,6 @@ public class DataAccessService {
     }
 
     String ipaddress = null;
-    String query2 =
-        "SELECT IP_ADDRESS,VLAN_TKEY FROM IPPOOL WHERE VLAN_TKEY = (SELECT TKEY from VLAN WHERE NAME = ? AND CLUSTER_TKEY = ?) AND IN_USE = FALSE LIMIT 1";
-    String query3 = "UPDATE IPPOOL SET IN_USE = TRUE WHERE IP_ADDRESS = ? AND VLAN_TKEY = ?";
-
     try (Connection con = getDatasource().getConnection(); ) {
       int cluster_tkey = getClusterTKey(con, vcenter, datacenter, cluster);
       if (cluster_tkey == -1) {
@@ -641,17 +794,7 @@ public class DataAccessService {
       }
 
       logger.debug("retrieved tkey " + cluster_tkey + " for cluster " + cluster);
-      int vlanTKey = -1;
-      try (PreparedStatement stmt = con.prepareStatement(query2); ) {
-        stmt.setString(1, vlan);
-        stmt.setInt(2, cluster_tkey);
-        ResultSet rs = stmt.executeQuery();
-        while (rs.next()) {
-          ipaddress = rs.getString("IP_ADDRESS");
-          vlanTKey = rs.getInt("VLAN_TKEY");
-        }
-      }
-      logger.debug("retrieved vlan tkey " + vlanTKey + " and ip address: " + ipaddress);
+      int vlanTKey = getVLANTKey(con, cluster_tkey, vlan);
       if (vlanTKey == -1) {
         logger.error(
             "Failed to reserve IP address for vcenter: "
@@ -666,16 +809,12 @@ public class DataAccessService {
         throw new Exception(message);
       }
 
+      logger.debug("retrieved vlan tkey " + vlanTKey);
+      ipaddress = reserveIPAddress(con, vlanTKey);
       if (ipaddress == null) {
         logger.error("Failed to reserve IP address. No free IP address available in VLAN " + vlan);
         String message = Messages.get(locale, "error_db_no_free_ipaddress", vlan);
         throw new Exception(message);
-      } else {
-        try (PreparedStatement stmt = con.prepareStatement(query3); ) {
-          stmt.setString(1, ipaddress);
-          stmt.setInt(2, vlanTKey);
-          stmt.executeUpdate();
-        }
       }
     }
 
@@ -683,6 +822,82 @@ public class DataAccessService {
     return ipaddress;
   }
 
+  /**
+   * Marks a free IP address of the given VLAN as used and returns it, or <code>null</code> if no
+   * address is left. Each address is reserved with a single conditional update, so concurrent
+   * reservations never get the same address. The free addresses known to this controller are tried
+   * first; the database is searched if none of them is left.
+   */
+  String reserveIPAddress(Connection con, int vlanTKey) throws Exception {
+    String query =
+        "UPDATE ippool SET in_use = TRUE WHERE tkey = ? AND in_use = FALSE RETURNING ip_address";
+    String query2 =
+        "UPDATE ippool SET in_use = TRUE WHERE tkey = (SELECT tkey FROM ippool WHERE vlan_tkey = ? AND in_use = FALSE ORDER BY tkey LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING ip_address";
+
+    IPAddressBitmap bitmap = getFreeIPAddresses(con, vlanTKey);
+    try (PreparedStatement stmt = con.prepareStatement(query); ) {
+      for (int tkey = bitmap.take(); tkey != -1; tkey = bitmap.take()) {
+        stmt.setInt(1, tkey);
+        try (ResultSet rs = stmt.executeQuery(); ) {
+          if (rs.next()) {
+            return rs.getString("ip_address");
+          }
+        }
+        logger.debug("IP address with tkey " + tkey + " is no longer available");
+      }
+    }
+
+    String ipaddress = null;
+    try (PreparedStatement stmt = con.prepareStatement(query2); ) {
+      stmt.setInt(1, vlanTKey);
+      try (ResultSet rs = stmt.executeQuery(); ) {
+        if (rs.next()) {
+          ipaddress = rs.getString("ip_address");
+        }
+      }
+    }
+    if (ipaddress != null) {
+      // addresses were added by someone else, read them on the next reservation
+      FREE_IP_ADDRESSES.remove(Integer.valueOf(vlanTKey), bitmap);
+    }
+    return ipaddress;
+  }
+
+  /** Returns the free addresses of the given VLAN, reading them if not yet known. */
+  private IPAddressBitmap getFreeIPAddresses(Connection con, int vlanTKey) throws Exception {
+    IPAddressBitmap bitmap = FREE_IP_ADDRESSES.get(Integer.valueOf(vlanTKey));
+    if (bitmap != null) {
+      return bitmap;
+    }
+
+    String query = "SELECT tkey, ip_address, in_use FROM ippool WHERE vlan_tkey = ? ORDER BY tkey";
+    List<Integer> tkeys = new ArrayList<>();
+    List<String> addresses = new ArrayList<>();
+    List<Boolean> inUse = new ArrayList<>();
+    try (PreparedStatement stmt = con.prepareStatement(query); ) {
+      stmt.setInt(1, vlanTKey);
+      try (ResultSet rs = stmt.executeQuery(); ) {
+        while (rs.next()) {
+          tkeys.add(Integer.valueOf(rs.getInt("tkey")));
+          addresses.add(rs.getString("ip_address"));
+          inUse.add(Boolean.valueOf(rs.getBoolean("in_use")));
+        }
+      }
+    }
+
+    int[] tkeyArray = new int[tkeys.size()];
+    boolean[] inUseArray = new boolean[inUse.size()];
+    for (int i = 0; i < tkeyArray.length; i++) {
+      tkeyArray[i] = tkeys.get(i).intValue();
+      inUseArray[i] = inUse.get(i).booleanValue();
+    }
+    bitmap = new IPAddressBitmap(tkeyArray, addresses.toArray(new String[0]), inUseArray);
+    logger.debug(
+        "read " + bitmap.getFreeCount() + " free IP addresses of VLAN with tkey " + vlanTKey);
+    IPAddressBitmap existing = FREE_IP_ADDRESSES.putIfAbsent(Integer.valueOf(vlanTKey), bitmap);
+    return existing == null ? bitmap : existing;
+  }
+
   /**
    * The given IP address is marked as used in the VMware Controller database. This functionality is
    * used when VMs are imported.
@@ -761,6 +976,13 @@ public class DataAccessService {
         stmt.executeUpdate();
         logger.debug("IP address " + ipAddress + " has been marked as used.");
       }
+
+      // an address assigned manually must not be handed out by reserveIPAddress
+      IPAddressBitmap bitmap =
+          FREE_IP_ADDRESSES.get(Integer.valueOf(getVLANTKey(con, cluster_tkey, vlan)));
+      if (bitmap != null) {
+        bitmap.markUsed(ipAddress);
+      }
     } catch (Exception e) {
       logger.error("Failed to mark IP address as used.", e);
       success = false;
@@ -971,6 +1193,7 @@ public class DataAccessService {
         stmt.setInt(3, vlanTkey);
         stmt.execute();
       }
+      FREE_IP_ADDRESSES.remove(Integer.valueOf(vlanTkey));
     }
   }
 
@@ -1007,8 +1230,7 @@ public class DataAccessService {
       throw new Exception("ipaddress not defined");
     }
 
-    String query =
-        "UPDATE IPPOOL SET IN_USE = FALSE WHERE IP_ADDRESS = ? AND VLAN_TKEY = (SELECT TKEY FROM VLAN WHERE CLUSTER_TKEY = ? AND NAME = ?)";
+    String query = "UPDATE IPPOOL SET IN_USE = FALSE WHERE IP_ADDRESS = ? AND VLAN_TKEY = ?";
 
     try (Connection con = getDatasource().getConnection(); ) {
       int cluster_tkey = getClusterTKey(con, vcenter, datacenter, cluster);
@@ -1017,18 +1239,56 @@ public class DataAccessService {
         throw new SQLException("Failed to release IP address. Unknown cluster " + cluster);
       }
 
+      int vlanTKey = getVLANTKey(con, cluster_tkey, vlan);
       try (PreparedStatement stmt = con.prepareStatement(query); ) {
         stmt.setString(1, ipaddress);
-        stmt.setInt(2, cluster_tkey);
-        stmt.setString(3, vlan);
+        stmt.setInt(2, vlanTKey);
         stmt.execute();
       }
+
+      IPAddressBitmap bitmap = FREE_IP_ADDRESSES.get(Integer.valueOf(vlanTKey));
+      if (bitmap != null) {
+        bitmap.release(ipaddress);
+      }
+    }
+  }
+
+  private int getVLANTKey(Connection con, int cluster_tkey, String vlan) throws Exception {
+    Integer tkey =
+        topology.get(
+            key("vlan tkey", Integer.valueOf(cluster_tkey), vlan),
+            () -> Integer.valueOf(readVLANTKey(con, cluster_tkey, vlan)));
+    return tkey.intValue();
+  }
+
+  private int readVLANTKey(Connection con, int cluster_tkey, String vlan) throws Exception {
+    int vlan_tkey = -1;
+    String query = "SELECT tkey FROM vlan WHERE name = ? AND cluster_tkey = ?";
+
+    try (PreparedStatement stmt = con.prepareStatement(query); ) {
+      stmt.setString(1, vlan);
+      stmt.setInt(2, cluster_tkey);
+      ResultSet rs = stmt.executeQuery();
+      while (rs.next()) {
+        vlan_tkey = rs.getInt("tkey");
+      }
     }
+    return vlan_tkey;
   }
 
   private int getVLANTKey(
       Connection con, String vcenter, String datacenter, String cluster, String vlan)
       throws Exception {
+    Integer tkey =
+        topology.get(
+            key("vlan tkey", vcenter, datacenter, cluster, vlan),
+            () -> Integer.valueOf(readVLANTKey(con, vcenter, datacenter, cluster, vlan)));
+    return tkey.intValue();
+  }
+
+  private int readVLANTKey(
+      Connection con, String vcenter, String datacenter, String cluster, String vlan)
+      throws Exception {
     logger.debug(
         "vcenter: "
             + vcenter
@@ -1057,6 +1317,15 @@ public class DataAccessService {
 
   private int getClusterTKey(Connection con, String vcenter, String datacenter, String cluster)
       throws Exception {
+    Integer tkey =
+        topology.get(
+            key("cluster tkey", vcenter, datacenter, cluster),
+            () -> Integer.valueOf(readClusterTKey(con, vcenter, datacenter, cluster)));
+    return tkey.intValue();
+  }
+
+  private int readClusterTKey(Connection con, String vcenter, String datacenter, String cluster)
+      throws Exception {
     logger.debug("vcenter: " + vcenter + "  datacenter: " + datacenter + "  cluster: " + cluster);
     int cluster_tkey = -1;
     String query =
@@ -1074,6 +1343,15 @@ public class DataAccessService {
     return cluster_tkey;
   }
 
+  private static List<Object> key(Object... parts) {
+    return Arrays.asList(parts);
+  }
+
+  /** Drops the cached topology, to be called whenever it was changed. */
+  public void invalidateTopology() {
+    topology.invalidate();
+  }
+
   public DataSource getDatasource() throws Exception {
     if (ds == null) {
       try {
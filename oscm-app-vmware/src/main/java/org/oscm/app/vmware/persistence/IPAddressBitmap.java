@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.persistence;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The free IP addresses of one VLAN as known to this controller. The bitmap only serves as a hint
+ * which address to try first, the database stays authoritative. A set bit marks an address that
+ * was free when the bitmap was built or released afterwards.
+ */
+class IPAddressBitmap {
+
+  private final int[] tkeys;
+  private final Map<String, Integer> indexes;
+  private final BitSet free;
+  private int next;
+
+  IPAddressBitmap(int[] tkeys, String[] addresses, boolean[] inUse) {
+    this.tkeys = tkeys;
+    this.indexes = new HashMap<String, Integer>(addresses.length * 2);
+    this.free = new BitSet(tkeys.length);
+    for (int i = 0; i < tkeys.length; i++) {
+      indexes.put(addresses[i], Integer.valueOf(i));
+      if (!inUse[i]) {
+        free.set(i);
+      }
+    }
+  }
+
+  /**
+   * Removes the next free address from the bitmap and returns its key, or -1 if no address is left.
+   * The search continues behind the last address taken, so recently released addresses are not
+   * handed out again immediately.
+   */
+  synchronized int take() {
+    int index = free.nextSetBit(next);
+    if (index < 0) {
+      index = free.nextSetBit(0);
+    }
+    if (index < 0) {
+      return -1;
+    }
+    free.clear(index);
+    next = index + 1;
+    return tkeys[index];
+  }
+
+  /** Marks the given address as free again. Unknown addresses are ignored. */
+  synchronized void release(String address) {
+    Integer index = indexes.get(address);
+    if (index != null) {
+      free.set(index.intValue());
+    }
+  }
+
+  /** Marks the given address as used. Unknown addresses are ignored. */
+  synchronized void markUsed(String address) {
+    Integer index = indexes.get(address);
+    if (index != null) {
+      free.clear(index.intValue());
+    }
+  }
+
+  synchronized int getFreeCount() {
+    return free.cardinality();
+  }
+}
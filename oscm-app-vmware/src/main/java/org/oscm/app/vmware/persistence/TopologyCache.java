@@ -0,0 +1,105 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache for the topology of the controller database, i.e. vCenters, datacenters,
+ * clusters, VLANs, switches and portgroups together with the vCenter credentials and the load
+ * balancer configuration. The data only changes through the importers and the cluster
+ * configuration, which invalidate the cache. Entries expire after a while in case the database
+ * was changed by other means.
+ */
+public class TopologyCache {
+
+  static final long TIME_TO_LIVE = 10 * 60000;
+
+  private static final Logger logger = LoggerFactory.getLogger(TopologyCache.class);
+
+  private static class SingletonHolder {
+    public static final TopologyCache INSTANCE = new TopologyCache(TIME_TO_LIVE);
+  }
+
+  public static TopologyCache getInstance() {
+    return SingletonHolder.INSTANCE;
+  }
+
+  /** Reads a value from the database. */
+  @FunctionalInterface
+  public interface Loader<T> {
+    T load() throws Exception;
+  }
+
+  private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+  private final long timeToLive;
+
+  TopologyCache(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Returns the cached value of the given key or reads it with the given loader. Values are only
+   * cached if the loader succeeds, <code>null</code> is a valid value. A value read while the
+   * cache was invalidated is not kept, as it might already be outdated.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Loader<T> loader) throws Exception {
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expires > now) {
+      hits.incrementAndGet();
+      return (T) entry.value;
+    }
+
+    misses.incrementAndGet();
+    long current = generation.get();
+    T value = loader.load();
+    Entry loaded = new Entry(value, now + timeToLive);
+    entries.put(key, loaded);
+    if (generation.get() != current) {
+      entries.remove(key, loaded);
+    }
+    return value;
+  }
+
+  /** Removes all entries, e.g. after the topology was changed. */
+  public void invalidate() {
+    generation.incrementAndGet();
+    entries.clear();
+    invalidations.incrementAndGet();
+    logger.debug("Topology cache invalidated, " + getStatistics());
+  }
+
+  public TopologyCacheStatistics getStatistics() {
+    return new TopologyCacheStatistics(
+        entries.size(), hits.get(), misses.get(), invalidations.get());
+  }
+
+  private static class Entry {
+
+    final Object value;
+    final long expires;
+
+    Entry(Object value, long expires) {
+      this.value = value;
+      this.expires = expires;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.persistence;
+
+/**
+ * Snapshot of the usage of the topology cache.
+ */
+public class TopologyCacheStatistics {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+
+    public TopologyCacheStatistics(int size, long hits, long misses,
+            long invalidations) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups which had to read the database.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the share of lookups served from the cache, between 0 and 1.
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size + ", hits: " + hits + ", misses: " + misses
+                + ", invalidations: " + invalidations;
+    }
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.persistence;
+
+/**
+ * Limits for the sessions which are kept open to one vCenter. A value of 0
+ * means that the default of the client pool applies.
+ */
+public class VMwarePoolLimits {
+
+    private final int maxSessions;
+    private final int maxIdleSessions;
+
+    public VMwarePoolLimits(int maxSessions, int maxIdleSessions) {
+        this.maxSessions = maxSessions;
+        this.maxIdleSessions = maxIdleSessions;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public int getMaxIdleSessions() {
+        return maxIdleSessions;
+    }
+
+}
@@ -339,6 +339,69 @@ public class ManagedObjectAccessor {
         return tgtMoref;
     }
 
+    /**
+     * Retrieves the given properties of all objects in the given container and
+     * of all objects reachable from them with one property collector request,
+     * which is continued until all results are read.
+     *
+     * @param container
+     *            the container to begin the search from, e.g. a cluster
+     * @param viewTypes
+     *            the types of the objects in the container to start the
+     *            traversal with
+     * @param selectSet
+     *            the traversal from the objects in the container to further
+     *            objects, may be empty
+     * @param propertySpecs
+     *            the properties to retrieve per object type
+     * @return the contents of all found objects. May be empty but not
+     *         <code>null</code>
+     * @throws InvalidPropertyFaultMsg
+     * @throws RuntimeFaultFaultMsg
+     */
+    public List<ObjectContent> retrieveContainerContents(
+            ManagedObjectReference container, List<String> viewTypes,
+            List<SelectionSpec> selectSet, List<PropertySpec> propertySpecs)
+            throws InvalidPropertyFaultMsg, RuntimeFaultFaultMsg {
+
+        ManagedObjectReference containerView = vimPort.createContainerView(
+                serviceContent.getViewManager(), container, viewTypes, true);
+        try {
+            List<PropertyFilterSpec> propertyFilterSpecs = new ArrayList<PropertyFilterSpec>();
+            propertyFilterSpecs.add(buildContainerViewFilterSpec(
+                    containerView, selectSet, propertySpecs));
+            return retrievePropertiesAllObjects(propertyFilterSpecs);
+        } finally {
+            vimPort.destroyView(containerView);
+        }
+    }
+
+    /**
+     * Assembles the filter specification for the given properties of all
+     * objects in the given container view and of all objects reachable from
+     * them.
+     */
+    public static PropertyFilterSpec buildContainerViewFilterSpec(
+            ManagedObjectReference containerView, List<SelectionSpec> selectSet,
+            List<PropertySpec> propertySpecs) {
+        TraversalSpec viewToObjects = new TraversalSpec();
+        viewToObjects.setName("view");
+        viewToObjects.setPath("view");
+        viewToObjects.setSkip(Boolean.FALSE);
+        viewToObjects.setType("ContainerView");
+        viewToObjects.getSelectSet().addAll(selectSet);
+
+        ObjectSpec objectSpec = new ObjectSpec();
+        objectSpec.setObj(containerView);
+        objectSpec.setSkip(Boolean.TRUE);
+        objectSpec.getSelectSet().add(viewToObjects);
+
+        PropertyFilterSpec propertyFilterSpec = new PropertyFilterSpec();
+        propertyFilterSpec.getPropSet().addAll(propertySpecs);
+        propertyFilterSpec.getObjectSet().add(objectSpec);
+        return propertyFilterSpec;
+    }
+
     /**
      * Assembles the property specification required to retrieve inventory
      * information.
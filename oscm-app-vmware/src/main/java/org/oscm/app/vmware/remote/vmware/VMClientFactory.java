@@ -8,6 +8,8 @@
 
 package org.oscm.app.vmware.remote.vmware;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
@@ -15,6 +17,8 @@ import org.apache.commons.pool2.impl.DefaultPooledObject;
 public class VMClientFactory
         extends BaseKeyedPooledObjectFactory<String, VMwareClient> {
 
+    private final AtomicLong validationFailures = new AtomicLong();
+
     @Override
     public VMwareClient create(String vcenter) throws Exception {
         VMwareClientFactory vmwFactory = new VMwareClientFactory("en");
@@ -31,7 +35,11 @@ public class VMClientFactory
     @Override
     public boolean validateObject(String vcenter,
             PooledObject<VMwareClient> p) {
-        return p.getObject().isConnected();
+        boolean valid = p.getObject().isConnected();
+        if (!valid) {
+            validationFailures.incrementAndGet();
+        }
+        return valid;
     }
 
     @Override
@@ -40,4 +48,12 @@ public class VMClientFactory
         p.getObject().close();
     }
 
+    /**
+     * Returns the number of clients found invalid since the factory was
+     * created.
+     */
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
 }
\ No newline at end of file
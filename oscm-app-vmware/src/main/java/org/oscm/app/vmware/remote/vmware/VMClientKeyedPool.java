@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.remote.vmware;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.oscm.app.vmware.persistence.VMwarePoolLimits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keyed pool of vSphere clients which limits the number of sessions and idle
+ * sessions per vCenter. The limits of a vCenter are read once, when the first
+ * client for it is requested.
+ */
+class VMClientKeyedPool extends GenericKeyedObjectPool<String, VMwareClient> {
+
+    private static final Logger LOG = LoggerFactory
+            .getLogger(VMClientKeyedPool.class);
+
+    static final int DEFAULT_MAX_SESSIONS = 20;
+    static final int DEFAULT_MAX_IDLE_SESSIONS = 10;
+
+    /** Reads the session limits of a vCenter. */
+    @FunctionalInterface
+    interface LimitsLoader {
+        VMwarePoolLimits load(String vcenter) throws Exception;
+    }
+
+    private final VMClientFactory factory;
+    private final LimitsLoader limitsLoader;
+    private final ConcurrentMap<String, VMwarePoolLimits> limits =
+            new ConcurrentHashMap<String, VMwarePoolLimits>();
+    private final ConcurrentMap<String, Semaphore> sessions =
+            new ConcurrentHashMap<String, Semaphore>();
+    /** The checked out clients and the permits of their vCenter. */
+    private final Map<VMwareClient, Semaphore> borrowed = Collections
+            .synchronizedMap(new IdentityHashMap<VMwareClient, Semaphore>());
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitMillis = new AtomicLong();
+    private volatile long maxBorrowWaitMillis;
+
+    VMClientKeyedPool(VMClientFactory factory, LimitsLoader limitsLoader) {
+        super(factory);
+        this.factory = factory;
+        this.limitsLoader = limitsLoader;
+        setMaxTotal(-1);
+        setMaxTotalPerKey(-1);
+        setMaxIdlePerKey(-1);
+    }
+
+    @Override
+    public VMwareClient borrowObject(String vcenter, long borrowMaxWaitMillis)
+            throws Exception {
+        long start = System.currentTimeMillis();
+        Semaphore permits = getSessions(vcenter);
+        if (borrowMaxWaitMillis < 0) {
+            permits.acquire();
+        } else if (!permits.tryAcquire(borrowMaxWaitMillis,
+                TimeUnit.MILLISECONDS)) {
+            throw new NoSuchElementException(
+                    "Timeout waiting for a free session to vCenter " + vcenter);
+        }
+
+        try {
+            long remaining = borrowMaxWaitMillis < 0 ? borrowMaxWaitMillis
+                    : Math.max(0, borrowMaxWaitMillis
+                            - (System.currentTimeMillis() - start));
+            VMwareClient client = super.borrowObject(vcenter, remaining);
+            borrowed.put(client, permits);
+            updateBorrowStats(System.currentTimeMillis() - start);
+            return client;
+        } catch (Exception e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the client to the pool, or closes it if enough sessions are
+     * idle. The session permit is released only if the client is currently
+     * checked out, so returning a client twice or returning a foreign one
+     * cannot raise the session limit.
+     */
+    @Override
+    public void returnObject(String vcenter, VMwareClient client) {
+        Semaphore permits = borrowed.remove(client);
+        try {
+            if (getNumIdle(vcenter) >= getMaxIdleSessions(vcenter)) {
+                try {
+                    super.invalidateObject(vcenter, client);
+                } catch (IllegalStateException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.warn("Failed to close surplus session to vCenter "
+                            + vcenter, e);
+                }
+            } else {
+                super.returnObject(vcenter, client);
+            }
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Destroys the client. Like {@link #returnObject(String, VMwareClient)}
+     * the session permit is released only for a client checked out.
+     */
+    @Override
+    public void invalidateObject(String vcenter, VMwareClient client)
+            throws Exception {
+        Semaphore permits = borrowed.remove(client);
+        try {
+            super.invalidateObject(vcenter, client);
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public void evict() throws Exception {
+        super.evict();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("vSphere client pool " + getMetrics());
+        }
+    }
+
+    VMClientPoolMetrics getMetrics() {
+        long count = borrowCount.get();
+        return new VMClientPoolMetrics(getNumActive(), getNumIdle(), count,
+                count == 0 ? 0 : borrowWaitMillis.get() / count,
+                maxBorrowWaitMillis, factory.getValidationFailures());
+    }
+
+    private void updateBorrowStats(long waitMillis) {
+        borrowCount.incrementAndGet();
+        borrowWaitMillis.addAndGet(waitMillis);
+        if (waitMillis > maxBorrowWaitMillis) {
+            maxBorrowWaitMillis = waitMillis;
+        }
+    }
+
+    private Semaphore getSessions(String vcenter) {
+        return sessions.computeIfAbsent(vcenter, v -> {
+            int max = getLimits(v).getMaxSessions();
+            return new Semaphore(max > 0 ? max : DEFAULT_MAX_SESSIONS, true);
+        });
+    }
+
+    private int getMaxIdleSessions(String vcenter) {
+        int max = getLimits(vcenter).getMaxIdleSessions();
+        return max > 0 ? max : DEFAULT_MAX_IDLE_SESSIONS;
+    }
+
+    private VMwarePoolLimits getLimits(String vcenter) {
+        return limits.computeIfAbsent(vcenter, v -> {
+            try {
+                return limitsLoader.load(v);
+            } catch (Exception e) {
+                LOG.warn("Failed to read session limits of vCenter " + v
+                        + ", using defaults", e);
+                return new VMwarePoolLimits(0, 0);
+            }
+        });
+    }
+}
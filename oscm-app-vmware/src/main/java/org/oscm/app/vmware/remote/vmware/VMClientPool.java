@@ -9,10 +9,19 @@
 package org.oscm.app.vmware.remote.vmware;
 
 import org.apache.commons.pool2.KeyedObjectPool;
-import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
-
+import org.oscm.app.vmware.persistence.DataAccessService;
+
+/**
+ * Pool of vSphere clients shared by all requests, keyed by vCenter. Clients
+ * are validated with a cheap session check when borrowed. Idle clients are
+ * checked in the background, which also keeps their sessions alive, and
+ * closed after {@link #MAX_IDLE_TIME} milliseconds.
+ */
 public class VMClientPool {
 
+    static final long EVICTION_INTERVAL = 5 * 60000;
+    static final long MAX_IDLE_TIME = 30 * 60000;
+
     private KeyedObjectPool<String, VMwareClient> pool;
 
     private static class SingletonHolder {
@@ -32,14 +41,21 @@ public class VMClientPool {
     }
 
     public void startPool() {
-        pool = new GenericKeyedObjectPool<String, VMwareClient>(
-                new VMClientFactory());
-        ((GenericKeyedObjectPool<String, VMwareClient>) pool)
-                .setMaxIdlePerKey(10);
-        ((GenericKeyedObjectPool<String, VMwareClient>) pool).setMaxTotal(20);
-        ((GenericKeyedObjectPool<String, VMwareClient>) pool)
-                .setMaxTotalPerKey(20);
-        ((GenericKeyedObjectPool<String, VMwareClient>) pool)
-                .setTestOnBorrow(true);
+        VMClientKeyedPool clientPool = new VMClientKeyedPool(
+                new VMClientFactory(),
+                vcenter -> new DataAccessService("en").getPoolLimits(vcenter));
+        clientPool.setTestOnBorrow(true);
+        clientPool.setTestWhileIdle(true);
+        clientPool.setNumTestsPerEvictionRun(-1);
+        clientPool.setTimeBetweenEvictionRunsMillis(EVICTION_INTERVAL);
+        clientPool.setMinEvictableIdleTimeMillis(MAX_IDLE_TIME);
+        pool = clientPool;
+    }
+
+    /**
+     * Returns the current usage of the pool.
+     */
+    public VMClientPoolMetrics getMetrics() {
+        return ((VMClientKeyedPool) pool).getMetrics();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.remote.vmware;
+
+/**
+ * Snapshot of the usage of the vSphere client pool.
+ */
+public class VMClientPoolMetrics {
+
+    private final int numActive;
+    private final int numIdle;
+    private final long borrowCount;
+    private final long meanBorrowWaitMillis;
+    private final long maxBorrowWaitMillis;
+    private final long validationFailures;
+
+    public VMClientPoolMetrics(int numActive, int numIdle, long borrowCount,
+            long meanBorrowWaitMillis, long maxBorrowWaitMillis,
+            long validationFailures) {
+        this.numActive = numActive;
+        this.numIdle = numIdle;
+        this.borrowCount = borrowCount;
+        this.meanBorrowWaitMillis = meanBorrowWaitMillis;
+        this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+        this.validationFailures = validationFailures;
+    }
+
+    /**
+     * Returns the number of clients currently borrowed.
+     */
+    public int getNumActive() {
+        return numActive;
+    }
+
+    /**
+     * Returns the number of connected clients waiting in the pool.
+     */
+    public int getNumIdle() {
+        return numIdle;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * Returns the mean time a caller waited for a client, including the wait
+     * for a free session of the vCenter.
+     */
+    public long getMeanBorrowWaitMillis() {
+        return meanBorrowWaitMillis;
+    }
+
+    public long getMaxBorrowWaitMillis() {
+        return maxBorrowWaitMillis;
+    }
+
+    /**
+     * Returns the number of clients which were discarded because their
+     * session was no longer valid.
+     */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    @Override
+    public String toString() {
+        return "active: " + numActive + ", idle: " + numIdle + ", borrowed: "
+                + borrowCount + ", mean wait: " + meanBorrowWaitMillis
+                + "ms, max wait: " + maxBorrowWaitMillis
+                + "ms, validation failures: " + validationFailures;
+    }
+}
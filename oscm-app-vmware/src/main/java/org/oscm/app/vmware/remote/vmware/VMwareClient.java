@@ -8,6 +8,9 @@
 
 package org.oscm.app.vmware.remote.vmware;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import com.vmware.vim25.InvalidPropertyFaultMsg;
 import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.NotAuthenticated;
 import com.vmware.vim25.RuntimeFaultFaultMsg;
 import com.vmware.vim25.ServiceContent;
 import com.vmware.vim25.TaskInfo;
@@ -42,11 +46,19 @@ public class VMwareClient implements AutoCloseable {
     private static final String MO_TYPE_VIRTUAL_MACHINE = "VirtualMachine";
     private static final String PROPERTY_SNAPSHOT = "snapshot";
     private static final String PROPERTY_INFO = "info";
+    private static final String PROPERTY_CURRENT_SESSION = "currentSession";
+
+    /**
+     * Time in milliseconds for which a successful session check is trusted
+     * without asking vSphere again.
+     */
+    static final long SESSION_CHECK_INTERVAL = 60000;
 
     private String url;
     private String user;
     private String password;
     private ServiceConnection connection;
+    private volatile long lastSessionCheck;
 
     public VMwareClient() {
     }
@@ -92,7 +104,10 @@ public class VMwareClient implements AutoCloseable {
                         .retrieveServiceContent(morSvcInstance);
                 vimPort.login(serviceContent.getSessionManager(), user,
                         password, null);
-                connection = new ServiceConnection(vimPort, serviceContent);
+                connection = new ServiceConnection(
+                        withSessionRetry(vimPort, serviceContent),
+                        serviceContent);
+                lastSessionCheck = System.currentTimeMillis();
                 LOG.debug("Established connection to vSphere. URL: " + url
                         + ", UserId: " + user);
 
@@ -117,7 +132,54 @@ public class VMwareClient implements AutoCloseable {
     }
 
     /**
-     * Returns whether the connection has been established
+     * Returns a port which logs in again and repeats a call once if vSphere
+     * rejects it as not authenticated. As a session check is trusted for
+     * {@link #SESSION_CHECK_INTERVAL} milliseconds, a client taken from the
+     * pool may have an expired session, which must not fail the operation.
+     */
+    VimPortType withSessionRetry(final VimPortType vimPort,
+            final ServiceContent serviceContent) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return method.invoke(vimPort, args);
+            } catch (InvocationTargetException e) {
+                if (!isSessionError(e.getCause())
+                        || "login".equals(method.getName())
+                        || "logout".equals(method.getName())) {
+                    throw e.getCause();
+                }
+            }
+            LOG.debug("vSphere session has expired, logging in again. URL: "
+                    + url + ", UserId: " + user);
+            synchronized (vimPort) {
+                vimPort.login(serviceContent.getSessionManager(), user,
+                        password, null);
+                lastSessionCheck = System.currentTimeMillis();
+            }
+            try {
+                return method.invoke(vimPort, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (VimPortType) Proxy.newProxyInstance(
+                VimPortType.class.getClassLoader(),
+                new Class<?>[] { VimPortType.class, BindingProvider.class },
+                handler);
+    }
+
+    static boolean isSessionError(Throwable e) {
+        return e instanceof RuntimeFaultFaultMsg
+                && ((RuntimeFaultFaultMsg) e)
+                        .getFaultInfo() instanceof NotAuthenticated;
+    }
+
+    /**
+     * Returns whether the connection has been established and its session is
+     * still valid. The session is read from the session manager, which is
+     * much cheaper than an inventory search. A successful check is trusted for
+     * {@link #SESSION_CHECK_INTERVAL} milliseconds; calls failing on a session
+     * which expired in the meantime are repeated after a new login.
      *
      * @return true if connected, false otherwise
      */
@@ -128,10 +190,21 @@ public class VMwareClient implements AutoCloseable {
             return false;
         }
 
+        long ref = System.currentTimeMillis();
+        if (ref - lastSessionCheck < SESSION_CHECK_INTERVAL) {
+            return true;
+        }
+
         try {
-            long ref = System.currentTimeMillis();
-            new ManagedObjectAccessor(connection).getDecendentMoRef(null,
-                    "VirtualMachine", "no-name");
+            Object session = new ManagedObjectAccessor(connection)
+                    .getDynamicProperty(connection.getServiceContent()
+                            .getSessionManager(), PROPERTY_CURRENT_SESSION);
+            if (session == null) {
+                LOG.debug("vSphere session has expired. URL: " + url
+                        + ", UserId: " + user);
+                return false;
+            }
+            lastSessionCheck = ref;
             LOG.debug("vSphere connection is alive. Check took "
                     + (System.currentTimeMillis() - ref) + "ms. URL: " + url
                     + ", UserId: " + user);
@@ -181,6 +254,7 @@ public class VMwareClient implements AutoCloseable {
             connection.disconnect();
         }
         connection = null;
+        lastSessionCheck = 0;
     }
 
     public ManagedObjectReference getVirtualMachine(String vmName)
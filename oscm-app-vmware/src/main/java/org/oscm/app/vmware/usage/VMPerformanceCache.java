@@ -0,0 +1,392 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.usage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+import org.oscm.app.vmware.remote.vmware.VMwareClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vmware.vim25.DynamicProperty;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectContent;
+import com.vmware.vim25.PerfCounterInfo;
+import com.vmware.vim25.PerfEntityMetricBase;
+import com.vmware.vim25.PerfEntityMetricCSV;
+import com.vmware.vim25.PerfMetricId;
+import com.vmware.vim25.PerfMetricSeriesCSV;
+import com.vmware.vim25.PerfQuerySpec;
+import com.vmware.vim25.PropertySpec;
+import com.vmware.vim25.SelectionSpec;
+
+/**
+ * Performance statistics of the virtual machines of a vCenter, shared by the
+ * usage collection of all instances. The usage run asks for one instance
+ * after the other, so when the statistics have expired the first request
+ * reads the statistics of all virtual machines asked for since the last
+ * reading with a few batched <code>queryPerf</code> calls. The following
+ * requests are served from memory. Only these virtual machines belong to
+ * instances of the controller, the other ones of the vCenter are not
+ * queried. A virtual machine which is asked for the first time is queried
+ * on its own.
+ */
+public class VMPerformanceCache {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(VMPerformanceCache.class);
+
+    static final int CPU = 0;
+    static final int MEM = 1;
+    static final int DISK = 2;
+    static final String[] COUNTERS = { VMMetricCollector.CPU_USAGE_PERCENT,
+            VMMetricCollector.MEM_USAGE_PERCENT,
+            VMMetricCollector.DISK_USAGE_TOTAL };
+
+    /** Marks a metric without statistics */
+    static final long NO_VALUE = -1;
+
+    static final int BATCH_SIZE = 200;
+    static final long TIME_TO_LIVE = 30 * 60000;
+
+    private static class SingletonHolder {
+        public static final VMPerformanceCache INSTANCE = new VMPerformanceCache();
+    }
+
+    public static VMPerformanceCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private final ConcurrentMap<String, Map<String, Integer>> counterIds = new ConcurrentHashMap<String, Map<String, Integer>>();
+    private final ConcurrentMap<String, Statistics> statistics = new ConcurrentHashMap<String, Statistics>();
+
+    VMPerformanceCache() {
+    }
+
+    /**
+     * Returns the values of the metrics {@link #COUNTERS} of the given virtual
+     * machine, indexed by {@link #CPU}, {@link #MEM} and {@link #DISK}, or
+     * <code>null</code> if the virtual machine does not exist. A metric
+     * without statistics is {@link #NO_VALUE}.
+     */
+    public long[] getStatistics(String vcenter, String vmName, VMwareClient vmw)
+            throws Exception {
+        Statistics stats = statistics.computeIfAbsent(vcenter,
+                v -> new Statistics());
+        synchronized (stats) {
+            if (stats.isExpired()) {
+                Set<String> managed = new HashSet<String>(stats.requested);
+                managed.add(vmName);
+                Map<String, ManagedObjectReference> vms = readVirtualMachines(
+                        vmw, managed);
+                stats.reset(vms, query(vcenter, vmw, vms));
+            } else if (!stats.vms.containsKey(vmName)) {
+                Map<String, ManagedObjectReference> vm = findVirtualMachine(
+                        vmw, vmName);
+                stats.add(vm, query(vcenter, vmw, vm));
+            }
+            stats.requested.add(vmName);
+            return stats.values.get(vmName);
+        }
+    }
+
+    /**
+     * Reads the values of all given virtual machines. Statistics of the last
+     * day are used for metrics which have no statistics for a whole day yet.
+     */
+    Map<String, long[]> query(String vcenter, VMwareClient vmw,
+            Map<String, ManagedObjectReference> vms) throws Exception {
+        Map<String, Integer> ids = getCounterIds(vcenter, vmw);
+        int[] counters = new int[COUNTERS.length];
+        for (int i = 0; i < COUNTERS.length; i++) {
+            Integer id = ids.get(COUNTERS[i]);
+            counters[i] = id == null ? -1 : id.intValue();
+        }
+
+        Map<String, String> names = new HashMap<String, String>();
+        Map<String, long[]> values = new HashMap<String, long[]>();
+        for (Map.Entry<String, ManagedObjectReference> vm : vms.entrySet()) {
+            names.put(vm.getValue().getValue(), vm.getKey());
+            long[] v = new long[COUNTERS.length];
+            Arrays.fill(v, NO_VALUE);
+            values.put(vm.getKey(), v);
+        }
+
+        List<ManagedObjectReference> incomplete = query(vmw, counters,
+                new ArrayList<ManagedObjectReference>(vms.values()),
+                VMMetricCollector.INTERVALL_ONE_YEAR, names, values);
+        if (!incomplete.isEmpty()) {
+            query(vmw, counters, incomplete,
+                    VMMetricCollector.INTERVALL_ONE_DAY, names, values);
+        }
+        return values;
+    }
+
+    /**
+     * Queries the given virtual machines in batches of {@link #BATCH_SIZE}
+     * and fills in the missing values. For the yearly interval only the last
+     * sample is read, for shorter intervals the average of all samples is
+     * used.
+     *
+     * @return the virtual machines which still miss a value
+     */
+    private List<ManagedObjectReference> query(VMwareClient vmw,
+            int[] counters, List<ManagedObjectReference> vms, int interval,
+            Map<String, String> names, Map<String, long[]> values)
+            throws Exception {
+        ManagedObjectReference perfManager = vmw.getConnection()
+                .getServiceContent().getPerfManager();
+        boolean lastSampleOnly = interval == VMMetricCollector.INTERVALL_ONE_YEAR;
+        List<ManagedObjectReference> incomplete = new ArrayList<ManagedObjectReference>();
+        for (int start = 0; start < vms.size(); start += BATCH_SIZE) {
+            List<PerfQuerySpec> specs = new ArrayList<PerfQuerySpec>();
+            for (ManagedObjectReference vm : vms.subList(start,
+                    Math.min(start + BATCH_SIZE, vms.size()))) {
+                specs.add(createPerfQuerySpec(vm, counters, interval,
+                        lastSampleOnly));
+            }
+            List<PerfEntityMetricBase> stats = vmw.getService()
+                    .queryPerf(perfManager, specs);
+            if (stats != null) {
+                for (PerfEntityMetricBase entityStats : stats) {
+                    String name = names
+                            .get(entityStats.getEntity().getValue());
+                    if (name != null) {
+                        fill(values.get(name),
+                                (PerfEntityMetricCSV) entityStats, counters,
+                                lastSampleOnly);
+                    }
+                }
+            }
+            for (PerfQuerySpec spec : specs) {
+                long[] v = values.get(names.get(spec.getEntity().getValue()));
+                if (contains(v, NO_VALUE)) {
+                    incomplete.add(spec.getEntity());
+                }
+            }
+        }
+        return incomplete;
+    }
+
+    static PerfQuerySpec createPerfQuerySpec(ManagedObjectReference vm,
+            int[] counters, int interval, boolean lastSampleOnly) {
+        PerfQuerySpec spec = new PerfQuerySpec();
+        spec.setEntity(vm);
+        spec.setIntervalId(Integer.valueOf(interval));
+        spec.setFormat("csv");
+        if (lastSampleOnly) {
+            spec.setMaxSample(Integer.valueOf(1));
+        }
+        for (int counter : counters) {
+            if (counter >= 0) {
+                PerfMetricId metricId = new PerfMetricId();
+                metricId.setCounterId(counter);
+                // wildcard to get every instance including the aggregate
+                metricId.setInstance("*");
+                spec.getMetricId().add(metricId);
+            }
+        }
+        return spec;
+    }
+
+    private static void fill(long[] values, PerfEntityMetricCSV entityStats,
+            int[] counters, boolean lastSampleOnly) {
+        for (PerfMetricSeriesCSV csv : entityStats.getValue()) {
+            if (!csv.getId().getInstance().isEmpty()) {
+                continue;
+            }
+            int index = indexOf(counters, csv.getId().getCounterId());
+            if (index >= 0 && values[index] == NO_VALUE) {
+                long[] series = parseSeries(csv.getValue());
+                if (series.length > 0) {
+                    values[index] = lastSampleOnly ? series[series.length - 1]
+                            : average(series);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the comma separated values of a series without creating
+     * intermediate strings.
+     */
+    static long[] parseSeries(String csv) {
+        if (csv == null || csv.isEmpty()) {
+            return new long[0];
+        }
+        int count = 1;
+        for (int i = 0; i < csv.length(); i++) {
+            if (csv.charAt(i) == ',') {
+                count++;
+            }
+        }
+        long[] result = new long[count];
+        int index = 0;
+        long value = 0;
+        boolean negative = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (c == ',') {
+                result[index++] = negative ? -value : value;
+                value = 0;
+                negative = false;
+            } else if (c == '-') {
+                negative = true;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else if (c != ' ') {
+                throw new NumberFormatException(
+                        "Invalid performance value: " + csv);
+            }
+        }
+        result[index] = negative ? -value : value;
+        return result;
+    }
+
+    static long average(long[] series) {
+        long sum = 0;
+        for (long value : series) {
+            sum += value;
+        }
+        return sum / series.length;
+    }
+
+    private static int indexOf(int[] counters, int counter) {
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] == counter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the mapping of counter names to IDs of the given vCenter. The
+     * IDs can be different in every vSphere environment but do not change,
+     * so the catalogue is read only once per vCenter.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Integer> getCounterIds(String vcenter, VMwareClient vmw)
+            throws Exception {
+        Map<String, Integer> ids = counterIds.get(vcenter);
+        if (ids == null) {
+            ManagedObjectReference perfManager = vmw.getConnection()
+                    .getServiceContent().getPerfManager();
+            List<PerfCounterInfo> perfCounters = (List<PerfCounterInfo>) vmw
+                    .getServiceUtil()
+                    .getDynamicProperty(perfManager, "perfCounter");
+            ids = createCounterToNameMapping(perfCounters);
+            counterIds.put(vcenter, ids);
+        }
+        return ids;
+    }
+
+    static Map<String, Integer> createCounterToNameMapping(
+            List<PerfCounterInfo> perfCounters) {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        for (PerfCounterInfo perfCounter : perfCounters) {
+            String fullCounterName = perfCounter.getGroupInfo().getKey() + "."
+                    + perfCounter.getNameInfo().getKey() + "."
+                    + perfCounter.getRollupType().toString();
+            ids.put(fullCounterName, Integer.valueOf(perfCounter.getKey()));
+        }
+        return Collections.unmodifiableMap(ids);
+    }
+
+    /**
+     * Reads the names of all virtual machines of the vCenter with a single
+     * request and keeps the ones with the given names.
+     */
+    private static Map<String, ManagedObjectReference> readVirtualMachines(
+            VMwareClient vmw, Set<String> names) throws Exception {
+        PropertySpec propertySpec = new PropertySpec();
+        propertySpec.setType("VirtualMachine");
+        propertySpec.setAll(Boolean.FALSE);
+        propertySpec.getPathSet().add("name");
+
+        List<ObjectContent> contents = vmw.getServiceUtil()
+                .retrieveContainerContents(
+                        vmw.getConnection().getServiceContent()
+                                .getRootFolder(),
+                        Collections.singletonList("VirtualMachine"),
+                        Collections.<SelectionSpec> emptyList(),
+                        Collections.singletonList(propertySpec));
+
+        Map<String, ManagedObjectReference> vms = new HashMap<String, ManagedObjectReference>();
+        for (ObjectContent content : contents) {
+            for (DynamicProperty dp : content.getPropSet()) {
+                if ("name".equals(dp.getName()) && dp.getVal() != null
+                        && names.contains(dp.getVal().toString())) {
+                    vms.putIfAbsent(dp.getVal().toString(), content.getObj());
+                }
+            }
+        }
+        LOGGER.debug("Reading performance statistics of " + vms.size()
+                + " virtual machines");
+        return vms;
+    }
+
+    private static Map<String, ManagedObjectReference> findVirtualMachine(
+            VMwareClient vmw, String vmName) throws Exception {
+        ManagedObjectAccessor serviceUtil = vmw.getServiceUtil();
+        ManagedObjectReference vm = serviceUtil.getDecendentMoRef(null,
+                "VirtualMachine", vmName);
+        if (vm == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(vmName, vm);
+    }
+
+    private static class Statistics {
+
+        final Map<String, ManagedObjectReference> vms = new HashMap<String, ManagedObjectReference>();
+        final Map<String, long[]> values = new HashMap<String, long[]>();
+        /** Names of the virtual machines asked for since the last reading */
+        final Set<String> requested = new HashSet<String>();
+        long loaded;
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loaded > TIME_TO_LIVE;
+        }
+
+        void reset(Map<String, ManagedObjectReference> vms,
+                Map<String, long[]> values) {
+            this.vms.clear();
+            this.values.clear();
+            requested.clear();
+            add(vms, values);
+            loaded = System.currentTimeMillis();
+        }
+
+        void add(Map<String, ManagedObjectReference> vms,
+                Map<String, long[]> values) {
+            this.vms.putAll(vms);
+            this.values.putAll(values);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InventoryCacheTest {
+
+  private InventoryCache cache;
+
+  @Before
+  public void setup() {
+    cache = new InventoryCache(mock(InventoryWatcher.ClientFactory.class));
+  }
+
+  @Test
+  public void getWatcher_noThreadFactory() {
+    // when
+    InventoryWatcher watcher = cache.getWatcher("vcenter", "datacenter", "cluster");
+
+    // then
+    assertNull(watcher);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void getWatcher_shared() {
+    // given
+    cache.setThreadFactory(givenThreadFactory());
+
+    // when
+    InventoryWatcher first = cache.getWatcher("vcenter", "datacenter", "cluster");
+    InventoryWatcher second = cache.getWatcher("vcenter", "datacenter", "cluster");
+
+    // then
+    assertNotNull(first);
+    assertSame(first, second);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void stopAll() {
+    // given
+    cache.setThreadFactory(givenThreadFactory());
+    cache.getWatcher("vcenter", "datacenter", "cluster");
+
+    // when
+    cache.stopAll();
+
+    // then
+    assertEquals(0, cache.size());
+  }
+
+  /** Creates threads which do not run the watcher, so that vCenter is not contacted. */
+  private static ThreadFactory givenThreadFactory() {
+    return r -> new Thread(() -> {});
+  }
+}
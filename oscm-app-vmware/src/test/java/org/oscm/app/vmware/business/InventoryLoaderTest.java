@@ -0,0 +1,209 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.vmware.business.model.VMwareHost;
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+
+import com.vmware.vim25.ArrayOfDatastoreHostMount;
+import com.vmware.vim25.ArrayOfManagedObjectReference;
+import com.vmware.vim25.DatastoreHostMount;
+import com.vmware.vim25.DynamicProperty;
+import com.vmware.vim25.HostMountInfo;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectContent;
+import com.vmware.vim25.PropertySpec;
+import com.vmware.vim25.SelectionSpec;
+
+public class InventoryLoaderTest {
+
+  private ManagedObjectAccessor serviceUtil;
+  private InventoryLoader loader;
+  private ManagedObjectReference cluster;
+  private List<ObjectContent> contents;
+
+  @Before
+  public void setUp() throws Exception {
+    serviceUtil = mock(ManagedObjectAccessor.class);
+    loader = new InventoryLoader(serviceUtil);
+    cluster = moRef("ClusterComputeResource", "domain-c1");
+    contents = new ArrayList<ObjectContent>();
+    doReturn(contents)
+        .when(serviceUtil)
+        .retrieveContainerContents(
+            eq(cluster),
+            anyListOf(String.class),
+            anyListOf(SelectionSpec.class),
+            anyListOf(PropertySpec.class));
+  }
+
+  @Test
+  public void load() throws Exception {
+    // given
+    ManagedObjectReference host1 = moRef(InventoryLoader.HOST_SYSTEM, "host-1");
+    ManagedObjectReference host2 = moRef(InventoryLoader.HOST_SYSTEM, "host-2");
+    ManagedObjectReference ds1 = moRef(InventoryLoader.DATASTORE, "ds-1");
+    ManagedObjectReference ds2 = moRef(InventoryLoader.DATASTORE, "ds-2");
+    contents.add(host(host1, "host1", ds1, ds2));
+    contents.add(host(host2, "host2", ds1));
+    contents.add(
+        datastore(
+            ds1,
+            "storage1",
+            mount(host1, true, true, "readWrite"),
+            mount(host2, true, true, "readOnly")));
+    contents.add(datastore(ds2, "storage2", mount(host1, false, true, "readWrite")));
+    contents.add(vm("vm1", host1));
+    contents.add(vm("vm2", host1));
+    contents.add(vm("vm3", host2));
+
+    // when
+    VMwareDatacenterInventory inventory = loader.load(cluster);
+    inventory.initialize();
+
+    // then
+    assertEquals(2, inventory.getHosts().size());
+    assertEquals(1, inventory.getStorageByHost("host1").size());
+    assertEquals("storage1", inventory.getStorageByHost("host1").get(0).getName());
+    assertNull(inventory.getStorageByHost("host2"));
+    assertNull(inventory.getStorage("storage2"));
+    VMwareHost host = inventory.getHost("host1");
+    assertEquals(2, host.getAllocatedVMs());
+    assertEquals(4, host.getAllocatedCPUs());
+    assertEquals(1, inventory.getHost("host2").getAllocatedVMs());
+  }
+
+  @Test
+  public void load_singleRequest() throws Exception {
+    // given
+    ManagedObjectReference host1 = moRef(InventoryLoader.HOST_SYSTEM, "host-1");
+    contents.add(host(host1, "host1"));
+    contents.add(vm("vm1", host1));
+
+    // when
+    loader.load(cluster);
+
+    // then
+    verify(serviceUtil, times(1))
+        .retrieveContainerContents(
+            eq(cluster),
+            anyListOf(String.class),
+            anyListOf(SelectionSpec.class),
+            anyListOf(PropertySpec.class));
+    verify(serviceUtil, never()).getDynamicProperty(any(ManagedObjectReference.class), anyString());
+  }
+
+  @Test
+  public void load_vmOnHostOutsideCluster() throws Exception {
+    // given
+    ManagedObjectReference host1 = moRef(InventoryLoader.HOST_SYSTEM, "host-1");
+    ManagedObjectReference other = moRef(InventoryLoader.HOST_SYSTEM, "host-9");
+    contents.add(host(host1, "host1"));
+    contents.add(vm("vm1", other));
+    doReturn("host9").when(serviceUtil).getDynamicProperty(other, "name");
+
+    // when
+    VMwareDatacenterInventory inventory = loader.load(cluster);
+    inventory.initialize();
+
+    // then
+    assertEquals(0, inventory.getHost("host1").getAllocatedVMs());
+    verify(serviceUtil, times(1)).getDynamicProperty(other, "name");
+  }
+
+  private static ManagedObjectReference moRef(String type, String value) {
+    ManagedObjectReference mor = new ManagedObjectReference();
+    mor.setType(type);
+    mor.setValue(value);
+    return mor;
+  }
+
+  private static DynamicProperty property(String name, Object value) {
+    DynamicProperty dp = new DynamicProperty();
+    dp.setName(name);
+    dp.setVal(value);
+    return dp;
+  }
+
+  private static ObjectContent content(ManagedObjectReference mor, DynamicProperty... dps) {
+    ObjectContent oc = new ObjectContent();
+    oc.setObj(mor);
+    for (DynamicProperty dp : dps) {
+      oc.getPropSet().add(dp);
+    }
+    return oc;
+  }
+
+  private static ObjectContent host(
+      ManagedObjectReference mor, String name, ManagedObjectReference... datastores) {
+    ArrayOfManagedObjectReference refs = new ArrayOfManagedObjectReference();
+    for (ManagedObjectReference ds : datastores) {
+      refs.getManagedObjectReference().add(ds);
+    }
+    return content(
+        mor,
+        property("name", name),
+        property("summary.hardware.memorySize", "17179869184"),
+        property("summary.hardware.numCpuCores", "8"),
+        property("datastore", refs));
+  }
+
+  private static DatastoreHostMount mount(
+      ManagedObjectReference host, boolean accessible, boolean mounted, String accessMode) {
+    HostMountInfo info = new HostMountInfo();
+    info.setAccessible(Boolean.valueOf(accessible));
+    info.setMounted(Boolean.valueOf(mounted));
+    info.setAccessMode(accessMode);
+    DatastoreHostMount mount = new DatastoreHostMount();
+    mount.setKey(host);
+    mount.setMountInfo(info);
+    return mount;
+  }
+
+  private static ObjectContent datastore(
+      ManagedObjectReference mor, String name, DatastoreHostMount... mounts) {
+    ArrayOfDatastoreHostMount hostMounts = new ArrayOfDatastoreHostMount();
+    for (DatastoreHostMount mount : mounts) {
+      hostMounts.getDatastoreHostMount().add(mount);
+    }
+    return content(
+        mor,
+        property("summary.name", name),
+        property("summary.capacity", "1000"),
+        property("summary.freeSpace", "500"),
+        property("host", hostMounts));
+  }
+
+  private static ObjectContent vm(String name, ManagedObjectReference host) {
+    return content(
+        moRef(InventoryLoader.VIRTUAL_MACHINE, "vm-" + name),
+        property("name", name),
+        property("summary.config.memorySizeMB", "1024"),
+        property("summary.config.numCpu", "2"),
+        property("runtime.host", host));
+  }
+}
@@ -12,9 +12,9 @@ package org.oscm.app.vmware.business;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -34,9 +34,6 @@ import org.oscm.app.vmware.business.model.VMwareStorage;
 import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
 import org.oscm.app.vmware.remote.vmware.VMwareClient;
 
-import com.vmware.vim25.DatastoreHostMount;
-import com.vmware.vim25.DynamicProperty;
-import com.vmware.vim25.HostMountInfo;
 import com.vmware.vim25.InvalidPropertyFaultMsg;
 import com.vmware.vim25.ManagedObjectReference;
 import com.vmware.vim25.RuntimeFaultFaultMsg;
@@ -224,140 +221,77 @@ public class InventoryTemplateTest {
   @Test
   public void readDatacenterInventory() throws Exception {
     // given
-    List<ManagedObjectReference> hostMoRefs = new ArrayList<ManagedObjectReference>();
-    List<DynamicProperty> dps = new ArrayList<DynamicProperty>();
     ManagedObjectReference dcMoRef = mock(ManagedObjectReference.class);
     ManagedObjectReference clusterMoRef = mock(ManagedObjectReference.class);
-    ManagedObjectReference host1 = mock(ManagedObjectReference.class);
-    ManagedObjectReference host2 = mock(ManagedObjectReference.class);
-    hostMoRefs.add(host1);
-    hostMoRefs.add(host2);
+    InventoryLoader loader = mock(InventoryLoader.class);
+    VMwareDatacenterInventory inventory = mock(VMwareDatacenterInventory.class);
 
     doReturn(dcMoRef).when(moa).getDecendentMoRef(null, "Datacenter", "");
     doReturn(clusterMoRef).when(moa).getDecendentMoRef(dcMoRef, "ClusterComputeResource", "");
-    doReturn(hostMoRefs).when(moa).getDynamicProperty(clusterMoRef, "host");
-    doReturn(dps).when(template).setHostSystemPropertyToInventory(any(), any(), any());
-    doReturn("host").when(template).getHostName(dps);
-    doNothing().when(template).setStoragePropertyToInventory(any(), any(), any(), anyString());
-    doNothing().when(template).setVMToInventory(any(), any(), any());
-
-    // when
-    template.readDatacenterInventory(vmw, "", "");
-    // then
-    verify(template, times(2)).setStoragePropertyToInventory(any(), any(), any(), anyString());
-    verify(template, times(2)).setVMToInventory(any(), any(), any());
-  }
-
-  @Test
-  public void setVMToInventory() throws Exception {
-    // given
-    List<ManagedObjectReference> vmRefs = new ArrayList<ManagedObjectReference>();
-    ManagedObjectReference mor = mock(ManagedObjectReference.class);
-    vmRefs.add(mor);
-    VMwareDatacenterInventory inventory = mock(VMwareDatacenterInventory.class);
-    ManagedObjectReference hostRef = mock(ManagedObjectReference.class);
-
-    doReturn(vmRefs).when(moa).getDynamicProperty(hostRef, "vm");
-    doReturn(new ArrayList<DynamicProperty>())
-        .when(moa)
-        .getDynamicProperty(
-            mor,
-            new String[] {
-              "name", "summary.config.memorySizeMB", "summary.config.numCpu", "runtime.host"
-            });
+    doReturn(loader).when(template).createInventoryLoader(moa);
+    doReturn(inventory).when(loader).load(clusterMoRef);
 
     // when
-    template.setVMToInventory(moa, inventory, hostRef);
+    VMwareDatacenterInventory result = template.readDatacenterInventory(vmw, "", "");
 
     // then
-    verify(inventory, times(1)).addVirtualMachine(any(), any());
+    assertEquals(inventory, result);
+    verify(inventory, times(1)).initialize();
   }
 
   @Test
-  public void setStoragePropertyToInventory() throws Exception {
-
+  public void readDatacenterInventory_shared() throws Exception {
     // given
-    List<ManagedObjectReference> storageRefs = new ArrayList<ManagedObjectReference>();
-    ManagedObjectReference mor = mock(ManagedObjectReference.class);
-    storageRefs.add(mor);
-
-    List<DatastoreHostMount> hostMounts = new ArrayList<DatastoreHostMount>();
-    DatastoreHostMount hostMount = mock(DatastoreHostMount.class);
-    hostMounts.add(hostMount);
-    ManagedObjectReference hostMor = mock(ManagedObjectReference.class);
-
+    InventoryLoader loader = mock(InventoryLoader.class);
+    InventoryWatcher watcher = mock(InventoryWatcher.class);
     VMwareDatacenterInventory inventory = mock(VMwareDatacenterInventory.class);
-    ManagedObjectReference hostRef = mock(ManagedObjectReference.class);
-    HostMountInfo info = mock(HostMountInfo.class);
-
-    doReturn(storageRefs).when(moa).getDynamicProperty(hostRef, "datastore");
-    doReturn(new ArrayList<DynamicProperty>())
-        .when(moa)
-        .getDynamicProperty(
-            mor, new String[] {"summary.name", "summary.capacity", "summary.freeSpace"});
-    doReturn(hostMounts).when(moa).getDynamicProperty(mor, "host");
-    doReturn("storageName").when(template).getStorageName(any());
-    doReturn("name").when(moa).getDynamicProperty(hostMor, "name");
-    doReturn(hostMor).when(hostMount).getKey();
-    doReturn(info).when(hostMount).getMountInfo();
-    doReturn(new Boolean(true)).when(info).isAccessible();
-    doReturn(new Boolean(true)).when(info).isMounted();
-    doReturn("notReadOnly").when(info).getAccessMode();
-
-    // when
-    template.setStoragePropertyToInventory(moa, inventory, hostRef, "name");
 
-    // then
-    verify(inventory, times(1)).addStorage(anyString(), any());
-  }
-
-  @Test
-  public void getStorageName() {
-    // given
-    List<DynamicProperty> dps = new ArrayList<DynamicProperty>();
-    DynamicProperty dp = new DynamicProperty();
-    dp.setName("summary.name");
-    dp.setVal("name");
-    dps.add(dp);
+    doReturn(watcher).when(template).getInventoryWatcher("datacenter", "cluster");
+    doReturn(loader).when(template).createInventoryLoader(moa);
+    doReturn(inventory).when(watcher).getInventory(loader);
 
     // when
-    String result = template.getStorageName(dps);
+    VMwareDatacenterInventory result =
+        template.readDatacenterInventory(vmw, "datacenter", "cluster");
 
     // then
-    assertEquals("name", result);
+    assertEquals(inventory, result);
+    verify(moa, never()).getDecendentMoRef(any(), anyString(), anyString());
+    verify(loader, never()).load(any());
   }
 
   @Test
-  public void getHostName() {
+  public void getHostAndStorageSpec_reserve() throws Exception {
     // given
-    List<DynamicProperty> dps = new ArrayList<DynamicProperty>();
-    DynamicProperty dp = new DynamicProperty();
-    dp.setName("name");
-    dp.setVal("name");
-    dps.add(dp);
-
-    // when
-    String result = template.getHostName(dps);
+    VMwareDatacenterInventory inventory = mock(VMwareDatacenterInventory.class);
+    InventoryWatcher watcher = mock(InventoryWatcher.class);
+    VMwareHost host = mock(VMwareHost.class);
+    VMwareStorage storage = mock(VMwareStorage.class);
+    ManagedObjectReference moa = mock(ManagedObjectReference.class);
 
-    // then
-    assertEquals("name", result);
-  }
+    doReturn("datacenter").when(paramHandler).getTargetDatacenter();
+    doReturn("cluster").when(paramHandler).getTargetCluster();
+    doReturn("").when(paramHandler).getServiceSetting(VMPropertyHandler.TS_TARGET_STORAGE);
+    doReturn("host").when(paramHandler).getServiceSetting(VMPropertyHandler.TS_TARGET_HOST);
+    doReturn("vm1").when(paramHandler).getInstanceName();
+    doReturn(2).when(paramHandler).getConfigCPUs();
+    doReturn(2048L).when(paramHandler).getConfigMemoryMB();
+    doReturn(1024.0).when(paramHandler).getTemplateDiskSpaceMB();
 
-  @Test
-  public void setHostSystemPropertyToInventory() throws Exception {
-    // given
-    VMwareDatacenterInventory inventory = mock(VMwareDatacenterInventory.class);
-    ManagedObjectReference hostRef = mock(ManagedObjectReference.class);
-    doReturn(new ArrayList<DynamicProperty>())
-        .when(moa)
-        .getDynamicProperty(
-            hostRef,
-            new String[] {"name", "summary.hardware.memorySize", "summary.hardware.numCpuCores"});
+    doReturn(watcher).when(template).getInventoryWatcher("datacenter", "cluster");
+    doReturn(inventory).when(template).readDatacenterInventory(vmw, "datacenter", "cluster");
+    doReturn(host).when(inventory).getHost("host");
+    doReturn(storage).when(host).getNextStorage(paramHandler);
+    doReturn("storage").when(storage).getName();
+    doReturn(moa).when(template).getVMHost(vmDataCenter, "host");
+    doReturn(moa).when(template).getVMPool(anyString(), any());
+    doReturn(moa).when(template).getVMDatastore(anyString(), anyString(), any());
 
     // when
-    template.setHostSystemPropertyToInventory(moa, inventory, hostRef);
+    template.getHostAndStorageSpec(vmDataCenter);
 
     // then
-    verify(inventory, times(1)).addHostSystem(any());
+    // the storage is charged for the disk and the swap file like in StorageBalancer.allocate
+    verify(watcher, times(1)).reserve("vm1", "host", "storage", 2, 2048L, 3072.0);
   }
 }
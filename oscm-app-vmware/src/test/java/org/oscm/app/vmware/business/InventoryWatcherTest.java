@@ -0,0 +1,195 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.vmware.business.model.VMwareHost;
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectUpdate;
+import com.vmware.vim25.ObjectUpdateKind;
+import com.vmware.vim25.PropertyChange;
+import com.vmware.vim25.PropertyChangeOp;
+import com.vmware.vim25.PropertyFilterUpdate;
+import com.vmware.vim25.UpdateSet;
+
+public class InventoryWatcherTest {
+
+  private static final ManagedObjectReference HOST =
+      moRef(InventoryLoader.HOST_SYSTEM, "host-1");
+
+  private InventoryWatcher watcher;
+  private InventoryLoader loader;
+
+  @Before
+  public void setUp() {
+    watcher = new InventoryWatcher("vcenter", "datacenter", "cluster", null);
+    loader = new InventoryLoader(mock(ManagedObjectAccessor.class));
+  }
+
+  @Test
+  public void getInventory_notAvailable() throws Exception {
+    assertNull(watcher.getInventory(loader));
+  }
+
+  @Test
+  public void getInventory() throws Exception {
+    // given
+    watcher.apply(updateSet(host(), vm("vm-1", "vm1", ObjectUpdateKind.ENTER)));
+    watcher.publish();
+
+    // when
+    VMwareDatacenterInventory inventory = watcher.getInventory(loader);
+
+    // then
+    assertEquals(1, inventory.getHosts().size());
+    assertEquals(1, inventory.getHost("host1").getAllocatedVMs());
+  }
+
+  @Test
+  public void getInventory_modifyAndLeave() throws Exception {
+    // given
+    watcher.apply(
+        updateSet(
+            host(),
+            vm("vm-1", "vm1", ObjectUpdateKind.ENTER),
+            vm("vm-2", "vm2", ObjectUpdateKind.ENTER)));
+    watcher.publish();
+    ObjectUpdate resize =
+        update(
+            moRef(InventoryLoader.VIRTUAL_MACHINE, "vm-1"),
+            ObjectUpdateKind.MODIFY,
+            change("summary.config.numCpu", "4"));
+    ObjectUpdate delete =
+        update(moRef(InventoryLoader.VIRTUAL_MACHINE, "vm-2"), ObjectUpdateKind.LEAVE);
+
+    // when
+    watcher.apply(updateSet(resize, delete));
+    watcher.publish();
+    VMwareDatacenterInventory inventory = watcher.getInventory(loader);
+
+    // then
+    VMwareHost host = inventory.getHost("host1");
+    assertEquals(1, host.getAllocatedVMs());
+    assertEquals(4, host.getAllocatedCPUs());
+  }
+
+  @Test
+  public void getInventory_reserved() throws Exception {
+    // given
+    watcher.apply(updateSet(host()));
+    watcher.publish();
+
+    // when
+    watcher.reserve("vm1", "host1", null, 2, 1024, 0);
+    VMwareDatacenterInventory inventory = watcher.getInventory(loader);
+
+    // then
+    VMwareHost host = inventory.getHost("host1");
+    assertEquals(1, host.getAllocatedVMs());
+    assertEquals(2, host.getAllocatedCPUs());
+    assertEquals(1024, host.getAllocatedMemoryMB());
+  }
+
+  @Test
+  public void getInventory_reservedVmCreated() throws Exception {
+    // given
+    watcher.apply(updateSet(host()));
+    watcher.publish();
+    watcher.reserve("vm1", "host1", null, 2, 1024, 0);
+
+    // when
+    watcher.apply(updateSet(vm("vm-1", "vm1", ObjectUpdateKind.ENTER)));
+    watcher.publish();
+    VMwareDatacenterInventory inventory = watcher.getInventory(loader);
+
+    // then
+    assertEquals(1, inventory.getHost("host1").getAllocatedVMs());
+    assertEquals(1, watcher.getAllocationCount());
+  }
+
+  @Test
+  public void publish_releasesReservation() throws Exception {
+    // given
+    watcher.apply(updateSet(host()));
+    watcher.publish();
+    watcher.reserve("vm1", "host1", null, 2, 1024, 0);
+    watcher.apply(updateSet(vm("vm-1", "vm1", ObjectUpdateKind.ENTER)));
+    watcher.publish();
+
+    // when
+    watcher.publish();
+
+    // then
+    assertEquals(0, watcher.getAllocationCount());
+    assertEquals(1, watcher.getInventory(loader).getHost("host1").getAllocatedVMs());
+  }
+
+  private static ManagedObjectReference moRef(String type, String value) {
+    ManagedObjectReference mor = new ManagedObjectReference();
+    mor.setType(type);
+    mor.setValue(value);
+    return mor;
+  }
+
+  private static PropertyChange change(String name, Object value) {
+    PropertyChange change = new PropertyChange();
+    change.setName(name);
+    change.setOp(PropertyChangeOp.ASSIGN);
+    change.setVal(value);
+    return change;
+  }
+
+  private static ObjectUpdate update(
+      ManagedObjectReference mor, ObjectUpdateKind kind, PropertyChange... changes) {
+    ObjectUpdate update = new ObjectUpdate();
+    update.setObj(mor);
+    update.setKind(kind);
+    for (PropertyChange change : changes) {
+      update.getChangeSet().add(change);
+    }
+    return update;
+  }
+
+  private static UpdateSet updateSet(ObjectUpdate... updates) {
+    PropertyFilterUpdate filterUpdate = new PropertyFilterUpdate();
+    for (ObjectUpdate update : updates) {
+      filterUpdate.getObjectSet().add(update);
+    }
+    UpdateSet updateSet = new UpdateSet();
+    updateSet.getFilterSet().add(filterUpdate);
+    return updateSet;
+  }
+
+  private static ObjectUpdate host() {
+    return update(
+        HOST,
+        ObjectUpdateKind.ENTER,
+        change("name", "host1"),
+        change("summary.hardware.memorySize", "17179869184"),
+        change("summary.hardware.numCpuCores", "8"));
+  }
+
+  private static ObjectUpdate vm(String id, String name, ObjectUpdateKind kind) {
+    return update(
+        moRef(InventoryLoader.VIRTUAL_MACHINE, id),
+        kind,
+        change("name", name),
+        change("summary.config.memorySizeMB", "1024"),
+        change("summary.config.numCpu", "2"),
+        change("runtime.host", HOST));
+  }
+}
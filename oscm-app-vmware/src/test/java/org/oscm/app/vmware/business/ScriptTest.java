@@ -10,12 +10,13 @@ package org.oscm.app.vmware.business;
 
 import com.vmware.vim25.*;
 import org.apache.commons.io.IOUtils;
-import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.oscm.app.v2_0.data.ProvisioningSettings;
+import org.oscm.app.v2_0.data.Setting;
 import org.oscm.app.vmware.business.Script.OS;
 import org.oscm.app.vmware.remote.bes.ServiceParamRetrieval;
 import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
@@ -35,14 +36,16 @@ import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.io.OutputStream;
 import java.io.StringWriter;
-import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -51,7 +54,7 @@ import static org.mockito.Mockito.*;
 @PrepareForTest({Script.class, SSLContext.class, HttpsURLConnection.class, IOUtils.class})
 public class ScriptTest {
 
-  Script script = Script.getInstance();
+  Script script = new Script();
 
   @Mock
   private VMPropertyHandler vph;
@@ -146,79 +149,193 @@ public class ScriptTest {
 
   private void mockScript() {
     script = PowerMockito.spy(script);
-    setSpy(script);
-  }
-
-  private void setSpy(Script mock) {
-    try {
-      Field script = Script.class.getDeclaredField("script");
-      script.setAccessible(true);
-      script.set(script, mock);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  @After
-  public void resetSingleton() throws Exception {
-    Field script = Script.class.getDeclaredField("script");
-    script.setAccessible(true);
-    script.set(null, null);
   }
 
   @Test
-  public void executeUpdateScript() throws Exception {
+  public void startUpdateScript() throws Exception {
     // given
     String updateScript = VMScript.updateLinuxVMRootPassword("testPassword");
     script.initScript(vph, os, updateScript);
     doNothing().when(script).uploadScriptFileToVM(any(), any(), any(), any(), any(), any());
     doReturn(pwList).when(script).addOsIndependetServiceParameters(any());
+    when(vimPort.createTemporaryFileInGuest(any(), any(), any(), anyString(), anyString(),
+        anyString())).thenReturn("/tmp/output");
+    when(vimPort.startProgramInGuest(any(), any(), any(), any())).thenReturn(Long.valueOf(42));
     // when
-    script.execute(vmw, objectReference);
+    script.start(vmw, objectReference);
     // then
-    verify(script).execute(vmw, objectReference);
-    verify(script, times(1)).setScriptExecuting(eq(true));
-    verify(script, times(1)).setScriptExecuting(eq(false));
+    verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "42");
+    verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT, "/tmp/output");
+    verify(script, never()).getProcInfo(any(), any(), any(), any(), any());
   }
 
   @Test
-  public void executeUpdateScript_withSetPwException() throws Exception {
+  public void startUpdateScript_withException() throws Exception {
     // given
     String updateScript = VMScript
         .updateLinuxVMRootPassword("testPassword");
     script.initScript(vph, os, updateScript);
+    doThrow(new Exception()).when(script).getVSphereURL();
+    // when
+    try {
+      script.start(vmw, objectReference);
+    } catch (Exception e) {
+      // then
+      verify(vph, never()).setSetting(eq(VMPropertyHandler.SM_SCRIPT_PID), anyString());
+      return;
+    }
+    fail();
+  }
+
+  @Test
+  public void executeScript_thenUpdateLinuxPassword() throws Exception {
+    // given
+    HashMap<String, Setting> parameters = new HashMap<String, Setting>();
+    VMPropertyHandler ph = new VMPropertyHandler(new ProvisioningSettings(parameters,
+        new HashMap<String, Setting>(), new HashMap<String, Setting>(),
+        new HashMap<String, Setting>(), "en"));
+    ph.setSetting(VMPropertyHandler.SM_STATE, "EXECUTE_SCRIPT");
+    ph.setSetting(VMPropertyHandler.TS_SCRIPT_USERID, "root");
+    ph.setSetting(VMPropertyHandler.TS_SCRIPT_PWD, "secret");
+    ph.setSetting(VMPropertyHandler.TS_LINUX_ROOT_PWD, "newSecret");
     doNothing().when(script).uploadScriptFileToVM(any(), any(), any(), any(), any(), any());
     doReturn(pwList).when(script).addOsIndependetServiceParameters(any());
+    when(vimPort.createTemporaryFileInGuest(any(), any(), any(), anyString(), anyString(),
+        anyString())).thenReturn("/tmp/output");
+    when(vimPort.startProgramInGuest(any(), any(), any(), any()))
+        .thenReturn(Long.valueOf(42), Long.valueOf(43));
+    script.initScript(ph, os, "#!/bin/sh\necho");
+    script.start(vmw, objectReference);
+    script.resume(ph, os);
+    script.checkCompletion(vmw, objectReference);
+    ph.setSetting(VMPropertyHandler.SM_STATE, "UPDATE_LINUX_PASSWORD");
 
     // when
-    when(script.getProcInfo(any(), any(), any(), any(), any()))
-        .thenThrow(new GuestOperationsFaultFaultMsg(any(), any()));
-    script.execute(vmw, objectReference);
+    boolean started = Script.isStarted(ph);
+    script.initScript(ph, os, VMScript.updateLinuxVMRootPassword("newSecret"));
+    script.start(vmw, objectReference);
+
     // then
-    verify(script).execute(vmw, objectReference);
-    verify(script, times(1)).setScriptExecuting(eq(true));
-    verify(script, times(1)).setScriptExecuting(eq(false));
+    assertFalse(started);
+    assertTrue(Script.isStarted(ph));
+    assertEquals("43", ph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID));
   }
 
   @Test
-  public void executeUpdateScript_withException() throws Exception {
+  public void checkCompletion_clearsPersistedSettings() throws Exception {
     // given
-    String updateScript = VMScript
-        .updateLinuxVMRootPassword("testPassword");
-    script.initScript(vph, os, updateScript);
+    HashMap<String, Setting> parameters = new HashMap<String, Setting>();
+    VMPropertyHandler ph = new VMPropertyHandler(new ProvisioningSettings(parameters,
+        new HashMap<String, Setting>(), new HashMap<String, Setting>(),
+        new HashMap<String, Setting>(), "en"));
+    ph.setSetting(VMPropertyHandler.SM_SCRIPT_PID, "42");
+    ph.setSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT, "/tmp/output");
+    script.resume(ph, os);
+
+    // when
+    script.checkCompletion(vmw, objectReference);
+
+    // then
+    assertFalse(Script.isStarted(ph));
+    assertEquals("", parameters.get(VMPropertyHandler.SM_SCRIPT_PID).getValue());
+    assertEquals("", parameters.get(VMPropertyHandler.SM_SCRIPT_OUTPUT).getValue());
+  }
+
+  @Test
+  public void checkCompletion_running() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    when(procInf.getEndTime()).thenReturn(null);
+    script.resume(vph, os);
+    // when
+    boolean finished = script.checkCompletion(vmw, objectReference);
+    // then
+    assertFalse(finished);
+    verify(script, times(1)).getProcInfo(any(), any(), any(), any(), any());
+    verify(vph, never()).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+  }
+
+  @Test
+  public void checkCompletion_finished() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    script.resume(vph, os);
+    // when
+    boolean finished = script.checkCompletion(vmw, objectReference);
+    // then
+    assertTrue(finished);
+    verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+    verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_OUTPUT, "");
+  }
+
+  @Test
+  public void checkCompletion_withSetPwException() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    script.resume(vph, os);
+    doThrow(new GuestOperationsFaultFaultMsg("", null)).when(script)
+        .getProcInfo(any(), any(), any(), any(), any());
+    // when
+    boolean finished = script.checkCompletion(vmw, objectReference);
+    // then
+    assertFalse(finished);
+    verify(script, times(2)).getProcInfo(any(), any(), any(), any(), any());
+    verify(vph).getServiceSetting(VMPropertyHandler.TS_LINUX_ROOT_PWD);
+    verify(vph).setSetting(eq(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE), anyString());
+    verify(vph, never()).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+  }
+
+  @Test
+  public void checkCompletion_unreadableWithinTimeout() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE))
+        .thenReturn(Long.toString(System.currentTimeMillis()));
+    script.resume(vph, os);
+    doThrow(new GuestOperationsFaultFaultMsg("", null)).when(script)
+        .getProcInfo(any(), any(), any(), any(), any());
+    // when
+    boolean finished = script.checkCompletion(vmw, objectReference);
+    // then
+    assertFalse(finished);
+    verify(vph, never()).setSetting(eq(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE), anyString());
+    verify(vph, never()).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+  }
+
+  @Test
+  public void checkCompletion_unreadableTimeout() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE))
+        .thenReturn(Long.toString(System.currentTimeMillis() - Script.UNREADABLE_TIMEOUT));
+    script.resume(vph, os);
+    doThrow(new GuestOperationsFaultFaultMsg("", null)).when(script)
+        .getProcInfo(any(), any(), any(), any(), any());
     // when
     try {
-      when(script.getVSphereURL())
-          .thenThrow(new Exception(any(), any()));
-      script.execute(vmw, objectReference);
+      script.checkCompletion(vmw, objectReference);
+      fail();
     } catch (Exception e) {
       // then
-      verify(script).execute(vmw, objectReference);
-      verify(script, times(1)).setScriptExecuting(eq(true));
-      verify(script, times(1)).setScriptExecuting(eq(false));
+      verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_PID, "");
+      verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE, "");
     }
   }
 
+  @Test
+  public void checkCompletion_readableAgain() throws Exception {
+    // given
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_PID)).thenReturn("42");
+    when(vph.getServiceSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE)).thenReturn("1");
+    when(procInf.getEndTime()).thenReturn(null);
+    script.resume(vph, os);
+    // when
+    boolean finished = script.checkCompletion(vmw, objectReference);
+    // then
+    assertFalse(finished);
+    verify(vph).setSetting(VMPropertyHandler.SM_SCRIPT_UNREADABLE_SINCE, "");
+  }
+
   @Test
   public void testHidePasswordsLinux() throws Exception {
     // given
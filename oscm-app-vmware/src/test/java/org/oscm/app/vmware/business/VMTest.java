@@ -622,19 +622,38 @@ public class VMTest {
   public void testRunScript() throws Exception {
     // given
     when(ph.getServiceSetting(anyString())).thenReturn("https://company.com/script");
-    PowerMockito.when(Script.getInstance()).thenReturn(script);
+    PowerMockito.whenNew(Script.class).withNoArguments().thenReturn(script);
     when(configSpec.getGuestId()).thenReturn("windows");
     // when
-    vm.runScript(ph);
+    boolean finished = vm.runScript(ph);
+    // then
+    assertFalse(finished);
+    verify(script, times(1)).start(any(), any());
+    verify(script, never()).checkCompletion(any(), any());
+  }
+
+  @Test
+  public void testRunScript_started() throws Exception {
+    // given
+    when(ph.getServiceSetting(anyString())).thenReturn("https://company.com/script");
+    PowerMockito.whenNew(Script.class).withNoArguments().thenReturn(script);
+    PowerMockito.when(Script.isStarted(ph)).thenReturn(true);
+    when(script.checkCompletion(any(), any())).thenReturn(true);
+    when(configSpec.getGuestId()).thenReturn("windows");
+    // when
+    boolean finished = vm.runScript(ph);
     // then
-    verify(script, times(1)).execute(any(), any());
-    verify(script, never()).setScriptExecuting(false);
+    assertTrue(finished);
+    verify(script, never()).start(any(), any());
+    verify(script, never()).initScript(any(), any());
   }
 
   @Test(expected = Exception.class)
   public void testRunScriptThrowException() throws Exception {
     // given
     when(ph.getServiceSetting(anyString())).thenReturn("https://company.com/script");
+    PowerMockito.whenNew(Script.class).withNoArguments().thenReturn(script);
+    doThrow(new Exception()).when(script).initScript(any(), any());
     // when
     vm.runScript(ph);
   }
@@ -644,12 +663,12 @@ public class VMTest {
     // given
     when(ph.getServiceSetting(anyString())).thenReturn("password");
     PowerMockito.when(VMScript.updateLinuxVMRootPassword("password")).thenReturn("update");
-    PowerMockito.when(Script.getInstance()).thenReturn(script);
+    PowerMockito.whenNew(Script.class).withNoArguments().thenReturn(script);
     when(configSpec.getGuestId()).thenReturn("windows");
     // when
     vm.updateLinuxVMPassword(ph);
     // then
-    verify(script, times(1)).execute(any(), any());
+    verify(script, times(1)).start(any(), any());
   }
 
   @Test
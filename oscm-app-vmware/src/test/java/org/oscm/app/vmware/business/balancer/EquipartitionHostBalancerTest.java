@@ -12,6 +12,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import java.util.HashMap;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -412,6 +413,47 @@ public class EquipartitionHostBalancerTest {
 
 	}
 
+	@Test
+	public void testSpreadIncremental() {
+		Random random = new Random(4711);
+		for (int cnt : new int[] { 10, 100, 1000 }) {
+			double[] values = new double[cnt];
+			double[] norm = new double[cnt];
+			for (int i = 0; i < cnt; i++) {
+				values[i] = random.nextInt(64);
+				norm[i] = 16 + random.nextInt(48);
+			}
+			double[] spread = EquipartitionHostBalancer.calculateSpread(values, 4, norm);
+			double[] expected = calculateSpreadPerHost(values, 4, norm);
+			for (int i = 0; i < cnt; i++) {
+				assertEquals(expected[i], spread[i], 0.000000001);
+			}
+		}
+	}
+
+	/**
+	 * Reference implementation calculating the complete spread for each host.
+	 */
+	private static double[] calculateSpreadPerHost(double[] values, double addition, double[] norm) {
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			double[] calcBase = new double[values.length];
+			for (int j = 0; j < values.length; j++) {
+				calcBase[j] = (values[j] + (i == j ? addition : 0)) / norm[j];
+			}
+			double avg = 0;
+			for (double value : calcBase) {
+				avg += value / calcBase.length;
+			}
+			double sum = 0;
+			for (double value : calcBase) {
+				sum += (avg - value) * (avg - value);
+			}
+			result[i] = Math.sqrt(sum / calcBase.length) / avg;
+		}
+		return result;
+	}
+
 	private EquipartitionHostBalancer getBalancerWithoutHostObjects(double memWeight, double cpuWeight, double vmWeight)
 			throws Exception {
 		EquipartitionHostBalancer balancer = new EquipartitionHostBalancer();
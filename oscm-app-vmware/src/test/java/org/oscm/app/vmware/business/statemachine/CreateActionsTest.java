@@ -224,6 +224,7 @@ public class CreateActionsTest {
     when(objectPool.borrowObject(anyString())).thenReturn(vmClient);
     when(propertyHandler.getServiceSetting(anyString())).thenReturn("test");
     PowerMockito.whenNew(VM.class).withAnyArguments().thenReturn(vm);
+    when(vm.runScript(propertyHandler)).thenReturn(true);
     // when
     String result = createActions.executeScript("Instance ID", ps, instanceStatus);
     // then
@@ -231,6 +232,23 @@ public class CreateActionsTest {
     verify(vm, times(1)).runScript(propertyHandler);
   }
 
+  @Test
+  public void testExecuteScriptReturnExecuting() throws Exception {
+    // given
+    PowerMockito.whenNew(VMPropertyHandler.class).withAnyArguments().thenReturn(propertyHandler);
+    PowerMockito.when(VMClientPool.getInstance()).thenReturn(clientPool);
+    when(clientPool.getPool()).thenReturn(objectPool);
+    when(objectPool.borrowObject(anyString())).thenReturn(vmClient);
+    when(propertyHandler.getServiceSetting(anyString())).thenReturn("test");
+    PowerMockito.whenNew(VM.class).withAnyArguments().thenReturn(vm);
+    when(vm.runScript(propertyHandler)).thenReturn(false);
+    // when
+    String result = createActions.executeScript("Instance ID", ps, instanceStatus);
+    // then
+    assertEquals("executing", result);
+    verify(objectPool, times(1)).returnObject("test", vmClient);
+  }
+
   @Test
   public void testExecuteScriptReturnFailed() throws Exception {
     // given
@@ -253,7 +271,7 @@ public class CreateActionsTest {
     when(objectPool.borrowObject(anyString())).thenReturn(vmClient);
     when(propertyHandler.getServiceSetting(anyString())).thenReturn("test");
     PowerMockito.whenNew(VM.class).withAnyArguments().thenReturn(vm);
-    when(vm.isScriptExecuting()).thenReturn(false);
+    when(vm.updateLinuxVMPassword(propertyHandler)).thenReturn(true);
     // when
     String result = createActions.updateLinuxPwd("Instance ID", ps, instanceStatus);
     // then
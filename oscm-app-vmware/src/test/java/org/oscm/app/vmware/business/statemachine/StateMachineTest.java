@@ -91,7 +91,7 @@ public class StateMachineTest {
     PowerMockito.mockStatic(APPlatformServiceFactory.class);
     thread = mock(Thread.class);
     loader = mock(ClassLoader.class);
-    states = mock(States.class);
+    states = PowerMockito.spy(new States());
     mockState = mock(State.class);
     jaxbContext = mock(JAXBContext.class);
     unmarshaller = mock(Unmarshaller.class);
@@ -106,6 +106,7 @@ public class StateMachineTest {
     when(JAXBContext.newInstance(States.class)).thenReturn(jaxbContext);
     when(jaxbContext.createUnmarshaller()).thenReturn(unmarshaller);
     when(unmarshaller.unmarshal(inputStream)).thenReturn(states);
+    StateMachine.clearDefinitions();
     stateMachine = PowerMockito.spy(new StateMachine(ps));
   }
 
@@ -139,7 +140,7 @@ public class StateMachineTest {
     state.setEvents(listEvents);
     listStates.add(state);
     when(states.getStates()).thenReturn(listStates);
-    when(states.invokeAction(any(), anyString(), any(), any())).thenReturn("Begin");
+    doReturn("Begin").when(states).invokeAction(any(), anyString(), any(), any());
     PowerMockito.whenNew(VMPropertyHandler.class).withAnyArguments().thenReturn(propertyHandler);
     when(propertyHandler.getServiceSetting(anyString())).thenReturn("suspended");
     // when
@@ -169,7 +170,7 @@ public class StateMachineTest {
     state.setEvents(listEvents);
     listStates.add(state);
     when(states.getStates()).thenReturn(listStates);
-    when(states.invokeAction(any(), anyString(), any(), any())).thenReturn("Creating");
+    doReturn("Creating").when(states).invokeAction(any(), anyString(), any(), any());
     PowerMockito.whenNew(VMPropertyHandler.class).withAnyArguments().thenReturn(propertyHandler);
     // when
     stateMachine.executeAction(ps, "Instance ID", null);
@@ -198,7 +199,7 @@ public class StateMachineTest {
     state.setEvents(listEvents);
     listStates.add(state);
     when(states.getStates()).thenReturn(listStates);
-    when(states.invokeAction(any(), anyString(), any(), any())).thenReturn("Begin");
+    doReturn("Begin").when(states).invokeAction(any(), anyString(), any(), any());
     PowerMockito.whenNew(VMPropertyHandler.class).withAnyArguments().thenReturn(propertyHandler);
     when(propertyHandler.getServiceSetting(anyString())).thenReturn("500");
     when(mockState.getTimeout()).thenReturn("500");
@@ -273,6 +274,17 @@ public class StateMachineTest {
     assertEquals("HistoryState", result);
   }
 
+  @Test
+  public void testDefinitionParsedOnce() throws Exception {
+    // when
+    new StateMachine(ps);
+    new StateMachine(ps);
+    // then
+    PowerMockito.verifyStatic(times(1));
+    JAXBContext.newInstance(States.class);
+    verify(unmarshaller, times(1)).unmarshal(inputStream);
+  }
+
   @Test
   public void testLoadPreviousStateFromHistory() throws Exception {
     // when
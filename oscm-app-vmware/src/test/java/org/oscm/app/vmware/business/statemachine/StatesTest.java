@@ -23,9 +23,14 @@ import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
@@ -97,4 +102,54 @@ public class StatesTest {
     // when
     states.invokeAction(mockState, "Instance ID", ps, instanceStatus);
   }
+
+  @Test
+  public void testInvokeActionRepeated() throws Exception {
+    // given
+    states.setClass("org.oscm.app.vmware.business.statemachine.CreateActions");
+    when(mockState.getAction()).thenReturn("reserveIPAddress");
+    states.invokeAction(mockState, "Instance ID", ps, instanceStatus);
+    // when
+    String result = states.invokeAction(mockState, "Instance ID", ps, instanceStatus);
+    // then
+    assertEquals("failed", result);
+  }
+
+  @Test
+  public void testGetState() {
+    // given
+    State first = state("BEGIN");
+    List<State> list = new ArrayList<>();
+    list.add(first);
+    list.add(state("BEGIN"));
+    list.add(state("END"));
+    states.setStates(list);
+    // when
+    State result = states.getState("BEGIN");
+    // then
+    assertSame(first, result);
+    assertEquals("END", states.getState("END").getId());
+    assertNull(states.getState("UNKNOWN"));
+  }
+
+  @Test
+  public void testGetEvent() {
+    // given
+    Event event = new Event();
+    event.setId("success");
+    event.setState("END");
+    State state = state("BEGIN");
+    state.setEvents(Collections.singletonList(event));
+    // when
+    Event result = state.getEvent("success");
+    // then
+    assertSame(event, result);
+    assertNull(state.getEvent("failed"));
+  }
+
+  private static State state(String id) {
+    State state = new State();
+    state.setId(id);
+    return state;
+  }
 }
@@ -115,5 +115,6 @@ public class VLANImporterTest {
     PowerMockito.verifyPrivate(vlanImporter, times(1)).invoke("save", vlan);
     verify(preparedStatement, times(1)).setString(1, "cluster");
     verify(preparedStatement, times(1)).setString(2, "datacenter");
+    verify(das, times(1)).invalidateTopology();
   }
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataAccessServiceTest {
+
+  private static final String SELECT_FREE = "SELECT tkey, ip_address, in_use FROM ippool";
+  private static final String UPDATE_BY_TKEY =
+      "UPDATE ippool SET in_use = TRUE WHERE tkey = ? AND in_use = FALSE RETURNING ip_address";
+  private static final String UPDATE_SKIP_LOCKED =
+      "UPDATE ippool SET in_use = TRUE WHERE tkey = (SELECT tkey FROM ippool WHERE vlan_tkey = ?"
+          + " AND in_use = FALSE ORDER BY tkey LIMIT 1 FOR UPDATE SKIP LOCKED)"
+          + " RETURNING ip_address";
+
+  /** The bitmaps are shared by all instances, so each test uses its own VLAN. */
+  private static int nextVlanTKey = 1000;
+
+  private final DataAccessService das = new DataAccessService("en");
+  private Connection con;
+  private PreparedStatement select;
+  private PreparedStatement update;
+  private PreparedStatement skipLocked;
+  private int vlanTKey;
+
+  @Before
+  public void setUp() throws Exception {
+    con = mock(Connection.class);
+    select = mock(PreparedStatement.class);
+    update = mock(PreparedStatement.class);
+    skipLocked = mock(PreparedStatement.class);
+    when(con.prepareStatement(startsWith(SELECT_FREE))).thenReturn(select);
+    when(con.prepareStatement(eq(UPDATE_BY_TKEY))).thenReturn(update);
+    when(con.prepareStatement(eq(UPDATE_SKIP_LOCKED))).thenReturn(skipLocked);
+    vlanTKey = nextVlanTKey++;
+  }
+
+  @Test
+  public void reserveIPAddress_fromBitmap() throws Exception {
+    // given
+    givenAddresses(row(1, "10.0.0.1", true), row(2, "10.0.0.2", false));
+    ResultSet reserved = rows("10.0.0.2");
+    when(update.executeQuery()).thenReturn(reserved);
+
+    // when
+    String address = das.reserveIPAddress(con, vlanTKey);
+
+    // then
+    assertEquals("10.0.0.2", address);
+    verify(select).setInt(1, vlanTKey);
+    verify(update).setInt(1, 2);
+    verify(update, never()).setInt(1, 1);
+    verify(skipLocked, never()).executeQuery();
+  }
+
+  @Test
+  public void reserveIPAddress_staleBitmap() throws Exception {
+    // given
+    givenAddresses(row(1, "10.0.0.1", false));
+    ResultSet taken = rows();
+    when(update.executeQuery()).thenReturn(taken);
+    ResultSet found = rows("10.0.0.5");
+    when(skipLocked.executeQuery()).thenReturn(found);
+
+    // when
+    String address = das.reserveIPAddress(con, vlanTKey);
+
+    // then
+    assertEquals("10.0.0.5", address);
+    verify(update).setInt(1, 1);
+    verify(skipLocked).setInt(1, vlanTKey);
+  }
+
+  @Test
+  public void reserveIPAddress_foundInDatabase_bitmapReadAgain() throws Exception {
+    // given
+    givenAddresses();
+    ResultSet found = rows("10.0.0.7");
+    when(skipLocked.executeQuery()).thenReturn(found);
+    das.reserveIPAddress(con, vlanTKey);
+    givenAddresses();
+    ResultSet none = rows();
+    when(skipLocked.executeQuery()).thenReturn(none);
+
+    // when
+    das.reserveIPAddress(con, vlanTKey);
+
+    // then
+    verify(select, times(2)).executeQuery();
+  }
+
+  @Test
+  public void reserveIPAddress_noRows() throws Exception {
+    // given
+    givenAddresses(row(1, "10.0.0.1", true));
+    ResultSet none = rows();
+    when(skipLocked.executeQuery()).thenReturn(none);
+
+    // when
+    String address = das.reserveIPAddress(con, vlanTKey);
+
+    // then
+    assertNull(address);
+    verify(update, never()).setInt(eq(1), anyInt());
+    verify(skipLocked).setInt(1, vlanTKey);
+  }
+
+  /** Each row consists of the tkey, the IP address and whether it is in use. */
+  private void givenAddresses(Object[]... rows) throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    int[] row = {-1};
+    when(rs.next()).thenAnswer(i -> Boolean.valueOf(++row[0] < rows.length));
+    when(rs.getInt("tkey")).thenAnswer(i -> rows[row[0]][0]);
+    when(rs.getString("ip_address")).thenAnswer(i -> rows[row[0]][1]);
+    when(rs.getBoolean("in_use")).thenAnswer(i -> rows[row[0]][2]);
+    when(select.executeQuery()).thenReturn(rs);
+  }
+
+  private static Object[] row(int tkey, String address, boolean inUse) {
+    return new Object[] {Integer.valueOf(tkey), address, Boolean.valueOf(inUse)};
+  }
+
+  private static ResultSet rows(String... addresses) throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    if (addresses.length == 0) {
+      when(rs.next()).thenReturn(Boolean.FALSE);
+    } else {
+      when(rs.next()).thenReturn(Boolean.TRUE, Boolean.FALSE);
+      when(rs.getString("ip_address")).thenReturn(addresses[0]);
+    }
+    return rs;
+  }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class IPAddressBitmapTest {
+
+  @Test
+  public void take() {
+    // given
+    IPAddressBitmap bitmap = bitmap(3, 1);
+
+    // when
+    int first = bitmap.take();
+    int second = bitmap.take();
+    int third = bitmap.take();
+
+    // then
+    assertEquals(100, first);
+    assertEquals(102, second);
+    assertEquals(-1, third);
+  }
+
+  @Test
+  public void take_continuesBehindLastAddress() {
+    // given
+    IPAddressBitmap bitmap = bitmap(3);
+    bitmap.take();
+    bitmap.take();
+
+    // when
+    bitmap.release("10.0.0.0");
+    int next = bitmap.take();
+    int wrapped = bitmap.take();
+
+    // then
+    assertEquals(102, next);
+    assertEquals(100, wrapped);
+  }
+
+  @Test
+  public void markUsed() {
+    // given
+    IPAddressBitmap bitmap = bitmap(2);
+
+    // when
+    bitmap.markUsed("10.0.0.0");
+    bitmap.markUsed("10.9.9.9");
+
+    // then
+    assertEquals(1, bitmap.getFreeCount());
+    assertEquals(101, bitmap.take());
+  }
+
+  @Test
+  public void take_concurrent() throws Exception {
+    // given
+    final int addresses = 10000;
+    final int threads = 64;
+    final IPAddressBitmap bitmap = bitmap(addresses);
+    final Set<Integer> taken = ConcurrentHashMap.newKeySet();
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+    // when
+    for (int i = 0; i < threads; i++) {
+      results.add(
+          executor.submit(
+              new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                  start.await();
+                  int duplicates = 0;
+                  for (int tkey = bitmap.take(); tkey != -1; tkey = bitmap.take()) {
+                    if (!taken.add(Integer.valueOf(tkey))) {
+                      duplicates++;
+                    }
+                  }
+                  return Integer.valueOf(duplicates);
+                }
+              }));
+    }
+    start.countDown();
+    int duplicates = 0;
+    for (Future<Integer> result : results) {
+      duplicates += result.get().intValue();
+    }
+    executor.shutdown();
+
+    // then
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, duplicates);
+    assertEquals(addresses, taken.size());
+    assertEquals(0, bitmap.getFreeCount());
+  }
+
+  private static IPAddressBitmap bitmap(int size, int... used) {
+    int[] tkeys = new int[size];
+    String[] addresses = new String[size];
+    boolean[] inUse = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      tkeys[i] = 100 + i;
+      addresses[i] = "10.0." + (i / 256) + "." + (i % 256);
+    }
+    for (int i : used) {
+      inUse[i] = true;
+    }
+    return new IPAddressBitmap(tkeys, addresses, inUse);
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * *****************************************************************************
+ *
+ * <p>Copyright FUJITSU LIMITED 2026
+ *
+ * <p>Creation Date: 18.10.2026
+ *
+ * <p>*****************************************************************************
+ */
+package org.oscm.app.vmware.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopologyCacheTest {
+
+  private TopologyCache cache;
+  private AtomicInteger loads;
+
+  @Before
+  public void setUp() {
+    cache = new TopologyCache(TopologyCache.TIME_TO_LIVE);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  public void get() throws Exception {
+    // when
+    String first = cache.get("key", () -> "value" + loads.incrementAndGet());
+    String second = cache.get("key", () -> "value" + loads.incrementAndGet());
+
+    // then
+    assertEquals("value1", first);
+    assertEquals("value1", second);
+    TopologyCacheStatistics statistics = cache.getStatistics();
+    assertEquals(1, statistics.getSize());
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(0.5, statistics.getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void get_null() throws Exception {
+    // given
+    cache.get("key", () -> nullValue());
+
+    // when
+    String value = cache.get("key", () -> nullValue());
+
+    // then
+    assertNull(value);
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void get_failed() throws Exception {
+    // given
+    try {
+      cache.get(
+          "key",
+          () -> {
+            throw new Exception("database not available");
+          });
+      fail();
+    } catch (Exception e) {
+      assertEquals("database not available", e.getMessage());
+    }
+
+    // when
+    String value = cache.get("key", () -> "value");
+
+    // then
+    assertEquals("value", value);
+    assertEquals(2, cache.getStatistics().getMisses());
+  }
+
+  @Test
+  public void get_expired() throws Exception {
+    // given
+    cache = new TopologyCache(-1);
+    cache.get("key", () -> "value" + loads.incrementAndGet());
+
+    // when
+    String value = cache.get("key", () -> "value" + loads.incrementAndGet());
+
+    // then
+    assertEquals("value2", value);
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    // given
+    cache.get("key", () -> "value" + loads.incrementAndGet());
+
+    // when
+    cache.invalidate();
+    String value = cache.get("key", () -> "value" + loads.incrementAndGet());
+
+    // then
+    assertEquals("value2", value);
+    assertEquals(1, cache.getStatistics().getInvalidations());
+  }
+
+  @Test
+  public void invalidate_whileLoading() throws Exception {
+    // when
+    cache.get(
+        "key",
+        () -> {
+          cache.invalidate();
+          return "outdated";
+        });
+    String value = cache.get("key", () -> "current");
+
+    // then
+    assertEquals("current", value);
+  }
+
+  private String nullValue() {
+    loads.incrementAndGet();
+    return null;
+  }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.remote.vmware;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.oscm.app.vmware.persistence.VMwarePoolLimits;
+
+public class VMClientKeyedPoolTest {
+
+    private VMClientKeyedPool pool;
+
+    private static class TestFactory extends VMClientFactory {
+
+        @Override
+        public VMwareClient create(String vcenter) throws Exception {
+            return mock(VMwareClient.class);
+        }
+    }
+
+    @After
+    public void after() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private VMClientKeyedPool createPool(int maxSessions,
+            int maxIdleSessions) {
+        return new VMClientKeyedPool(new TestFactory(),
+                vcenter -> new VMwarePoolLimits(maxSessions, maxIdleSessions));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void borrowObject_sessionLimit() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        pool.borrowObject("vcenter");
+
+        // when
+        pool.borrowObject("vcenter", 10);
+    }
+
+    @Test
+    public void borrowObject_sessionLimitPerVCenter() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        pool.borrowObject("vcenter1");
+
+        // when
+        pool.borrowObject("vcenter2", 10);
+
+        // then
+        assertEquals(2, pool.getNumActive());
+    }
+
+    @Test
+    public void returnObject_releasesSession() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        VMwareClient client = pool.borrowObject("vcenter");
+
+        // when
+        pool.returnObject("vcenter", client);
+
+        // then
+        assertSame(client, pool.borrowObject("vcenter", 10));
+    }
+
+    @Test
+    public void invalidateObject_releasesSession() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        VMwareClient client = pool.borrowObject("vcenter");
+
+        // when
+        pool.invalidateObject("vcenter", client);
+
+        // then
+        assertNotSame(client, pool.borrowObject("vcenter", 10));
+        verify(client).close();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void returnObject_twice() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        VMwareClient client = pool.borrowObject("vcenter");
+        pool.returnObject("vcenter", client);
+        try {
+            pool.returnObject("vcenter", client);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        pool.borrowObject("vcenter");
+
+        // when
+        pool.borrowObject("vcenter", 10);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void invalidateObject_notBorrowed() throws Exception {
+        // given
+        pool = createPool(1, 0);
+        pool.borrowObject("vcenter");
+        try {
+            pool.invalidateObject("vcenter", mock(VMwareClient.class));
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // when
+        pool.borrowObject("vcenter", 10);
+    }
+
+    @Test
+    public void returnObject_maxIdleSessions() throws Exception {
+        // given
+        pool = createPool(5, 1);
+        VMwareClient client1 = pool.borrowObject("vcenter");
+        VMwareClient client2 = pool.borrowObject("vcenter");
+
+        // when
+        pool.returnObject("vcenter", client1);
+        pool.returnObject("vcenter", client2);
+
+        // then
+        assertEquals(1, pool.getNumIdle("vcenter"));
+        assertEquals(0, pool.getNumActive("vcenter"));
+        verify(client2).close();
+    }
+
+    @Test
+    public void returnObject_defaultMaxIdleSessions() throws Exception {
+        // given
+        pool = createPool(0, 0);
+        int count = VMClientKeyedPool.DEFAULT_MAX_IDLE_SESSIONS + 1;
+        VMwareClient[] clients = new VMwareClient[count];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = pool.borrowObject("vcenter");
+        }
+
+        // when
+        for (VMwareClient client : clients) {
+            pool.returnObject("vcenter", client);
+        }
+
+        // then
+        assertEquals(VMClientKeyedPool.DEFAULT_MAX_IDLE_SESSIONS,
+                pool.getNumIdle("vcenter"));
+    }
+
+    @Test
+    public void getMetrics() throws Exception {
+        // given
+        pool = createPool(0, 0);
+        VMwareClient client = pool.borrowObject("vcenter");
+        pool.returnObject("vcenter", client);
+        pool.borrowObject("vcenter");
+
+        // when
+        VMClientPoolMetrics metrics = pool.getMetrics();
+
+        // then
+        assertEquals(1, metrics.getNumActive());
+        assertEquals(0, metrics.getNumIdle());
+        assertEquals(2, metrics.getBorrowCount());
+        assertEquals(0, metrics.getValidationFailures());
+    }
+
+    @Test
+    public void getMetrics_validationFailures() throws Exception {
+        // given
+        pool = createPool(0, 0);
+        pool.setTestWhileIdle(true);
+        VMwareClient client = pool.borrowObject("vcenter");
+        pool.returnObject("vcenter", client);
+
+        // when
+        pool.evict();
+
+        // then
+        assertEquals(1, pool.getMetrics().getValidationFailures());
+        assertEquals(0, pool.getNumIdle());
+    }
+}
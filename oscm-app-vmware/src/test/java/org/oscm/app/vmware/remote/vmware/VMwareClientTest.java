@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.remote.vmware;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.vmware.persistence.VMwareCredentials;
+
+import com.vmware.vim25.InvalidArgument;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.NotAuthenticated;
+import com.vmware.vim25.RuntimeFaultFaultMsg;
+import com.vmware.vim25.ServiceContent;
+import com.vmware.vim25.VimPortType;
+
+public class VMwareClientTest {
+
+    private final VMwareClient client = new VMwareClient(
+            new VMwareCredentials("https://vcenter/sdk", "user", "password"));
+    private final ManagedObjectReference sessionManager = new ManagedObjectReference();
+    private final ManagedObjectReference mor = new ManagedObjectReference();
+    private VimPortType vimPort;
+    private ServiceContent content;
+
+    @Before
+    public void setUp() {
+        vimPort = mock(VimPortType.class);
+        content = new ServiceContent();
+        content.setSessionManager(sessionManager);
+    }
+
+    @Test
+    public void withSessionRetry_sessionExpired() throws Exception {
+        // given
+        when(vimPort.retrieveServiceContent(mor)).thenThrow(
+                new RuntimeFaultFaultMsg("expired", new NotAuthenticated()))
+                .thenReturn(content);
+
+        // when
+        ServiceContent result = client.withSessionRetry(vimPort, content)
+                .retrieveServiceContent(mor);
+
+        // then
+        assertSame(content, result);
+        verify(vimPort).login(sessionManager, "user", "password", null);
+        verify(vimPort, times(2)).retrieveServiceContent(mor);
+    }
+
+    @Test(expected = RuntimeFaultFaultMsg.class)
+    public void withSessionRetry_otherFault() throws Exception {
+        // given
+        when(vimPort.retrieveServiceContent(mor)).thenThrow(
+                new RuntimeFaultFaultMsg("invalid", new InvalidArgument()));
+
+        // when
+        try {
+            client.withSessionRetry(vimPort, content)
+                    .retrieveServiceContent(mor);
+        } finally {
+            // then
+            verify(vimPort, never()).login(any(ManagedObjectReference.class),
+                    any(String.class), any(String.class), any(String.class));
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.usage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.oscm.app.vmware.remote.vmware.ManagedObjectAccessor;
+import org.oscm.app.vmware.remote.vmware.ServiceConnection;
+import org.oscm.app.vmware.remote.vmware.VMwareClient;
+import org.powermock.reflect.Whitebox;
+
+import com.vmware.vim25.DynamicProperty;
+import com.vmware.vim25.ElementDescription;
+import com.vmware.vim25.ManagedObjectReference;
+import com.vmware.vim25.ObjectContent;
+import com.vmware.vim25.PerfCounterInfo;
+import com.vmware.vim25.PerfEntityMetricBase;
+import com.vmware.vim25.PerfEntityMetricCSV;
+import com.vmware.vim25.PerfMetricId;
+import com.vmware.vim25.PerfMetricSeriesCSV;
+import com.vmware.vim25.PerfQuerySpec;
+import com.vmware.vim25.PerfSummaryType;
+import com.vmware.vim25.PropertySpec;
+import com.vmware.vim25.SelectionSpec;
+import com.vmware.vim25.ServiceContent;
+import com.vmware.vim25.VimPortType;
+
+public class VMPerformanceCacheTest {
+
+    private static final int CPU_ID = 6;
+    private static final int MEM_ID = 24;
+    private static final int DISK_ID = 240;
+
+    private VMPerformanceCache cache;
+    private VMwareClient vmw;
+    private ManagedObjectAccessor serviceUtil;
+    private VimPortType vimPort;
+    private ServiceContent serviceContent;
+    private List<ObjectContent> vms;
+
+    @Before
+    public void before() throws Exception {
+        cache = new VMPerformanceCache();
+        vmw = mock(VMwareClient.class);
+        serviceUtil = mock(ManagedObjectAccessor.class);
+        vimPort = mock(VimPortType.class);
+        ServiceConnection connection = mock(ServiceConnection.class);
+        serviceContent = new ServiceContent();
+        serviceContent.setPerfManager(moRef("PerformanceManager", "perf"));
+        serviceContent.setRootFolder(moRef("Folder", "root"));
+        vms = new ArrayList<ObjectContent>();
+
+        when(vmw.getServiceUtil()).thenReturn(serviceUtil);
+        when(vmw.getService()).thenReturn(vimPort);
+        when(vmw.getConnection()).thenReturn(connection);
+        when(connection.getServiceContent()).thenReturn(serviceContent);
+        doReturn(Arrays.asList(counter(CPU_ID, "cpu", "usagemhz",
+                PerfSummaryType.AVERAGE),
+                counter(MEM_ID, "mem", "usage", PerfSummaryType.AVERAGE),
+                counter(DISK_ID, "disk", "used", PerfSummaryType.LATEST)))
+                        .when(serviceUtil).getDynamicProperty(
+                                serviceContent.getPerfManager(),
+                                "perfCounter");
+        doReturn(vms).when(serviceUtil).retrieveContainerContents(
+                any(ManagedObjectReference.class), anyListOf(String.class),
+                anyListOf(SelectionSpec.class),
+                anyListOf(PropertySpec.class));
+    }
+
+    @Test
+    public void testCreateCounterToNameMapping() {
+        // given
+        List<PerfCounterInfo> infos = Arrays.asList(
+                counter(1, "cpu", "usagemhz", PerfSummaryType.AVERAGE));
+
+        // when
+        Map<String, Integer> result = VMPerformanceCache
+                .createCounterToNameMapping(infos);
+
+        // then
+        assertEquals(Integer.valueOf(1), result.get("cpu.usagemhz.AVERAGE"));
+    }
+
+    @Test
+    public void testParseSeries() {
+        assertArrayEquals(new long[] { 5, 2, 5, -1, 6, 6, 9 },
+                VMPerformanceCache.parseSeries("5,2,5,-1,6,6,9"));
+        assertArrayEquals(new long[] { 42 },
+                VMPerformanceCache.parseSeries("42"));
+        assertArrayEquals(new long[0], VMPerformanceCache.parseSeries(""));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseSeries_invalid() {
+        VMPerformanceCache.parseSeries("1,x");
+    }
+
+    @Test
+    public void testAverage() {
+        assertEquals(5, VMPerformanceCache
+                .average(new long[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetStatistics_singleQueryForRequestedVMs()
+            throws Exception {
+        // given
+        vms.add(vm("vm-1", "vm1"));
+        vms.add(vm("vm-2", "vm2"));
+        vms.add(vm("vm-3", "vm3"));
+        doReturn(moRef("VirtualMachine", "vm-2")).when(serviceUtil)
+                .getDecendentMoRef(null, "VirtualMachine", "vm2");
+        doReturn(Arrays.asList(stats("vm-1", "100", "2500", "1000")))
+                .doReturn(Arrays.asList(stats("vm-2", "200", "5000", "2000")))
+                .doReturn(Arrays.asList(stats("vm-1", "110", "2600", "1100"),
+                        stats("vm-2", "210", "5100", "2100")))
+                .when(vimPort).queryPerf(any(ManagedObjectReference.class),
+                        anyListOf(PerfQuerySpec.class));
+        cache.getStatistics("vcenter", "vm1", vmw);
+        cache.getStatistics("vcenter", "vm2", vmw);
+        expire("vcenter");
+
+        // when
+        long[] vm1 = cache.getStatistics("vcenter", "vm1", vmw);
+        long[] vm2 = cache.getStatistics("vcenter", "vm2", vmw);
+
+        // then
+        assertArrayEquals(new long[] { 110, 2600, 1100 }, vm1);
+        assertArrayEquals(new long[] { 210, 5100, 2100 }, vm2);
+        ArgumentCaptor<List> specs = ArgumentCaptor.forClass(List.class);
+        verify(vimPort, times(3)).queryPerf(any(ManagedObjectReference.class),
+                specs.capture());
+        List<PerfQuerySpec> refreshed = specs.getAllValues().get(2);
+        assertEquals(2, refreshed.size());
+        for (PerfQuerySpec spec : refreshed) {
+            assertNotEquals("vm-3", spec.getEntity().getValue());
+        }
+        verify(serviceUtil, times(1)).getDynamicProperty(
+                serviceContent.getPerfManager(), "perfCounter");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetStatistics_otherVMsNotQueried() throws Exception {
+        // given
+        vms.add(vm("vm-1", "vm1"));
+        vms.add(vm("vm-2", "vm2"));
+        doReturn(Arrays.asList(stats("vm-1", "100", "2500", "1000")))
+                .when(vimPort).queryPerf(any(ManagedObjectReference.class),
+                        anyListOf(PerfQuerySpec.class));
+
+        // when
+        long[] vm1 = cache.getStatistics("vcenter", "vm1", vmw);
+
+        // then
+        assertArrayEquals(new long[] { 100, 2500, 1000 }, vm1);
+        ArgumentCaptor<List> specs = ArgumentCaptor.forClass(List.class);
+        verify(vimPort).queryPerf(any(ManagedObjectReference.class),
+                specs.capture());
+        List<PerfQuerySpec> queried = specs.getValue();
+        assertEquals(1, queried.size());
+        assertEquals("vm-1", queried.get(0).getEntity().getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetStatistics_lastDayForMissingValues() throws Exception {
+        // given
+        vms.add(vm("vm-1", "vm1"));
+        vms.add(vm("vm-2", "vm2"));
+        doReturn(Arrays.asList(stats("vm-1", "100", "2500", "1000"),
+                stats("vm-2", "200", null, "2000")))
+                        .doReturn(Arrays.asList(
+                                stats("vm-2", "1,2,3", "10,20", "7")))
+                        .when(vimPort)
+                        .queryPerf(any(ManagedObjectReference.class),
+                                anyListOf(PerfQuerySpec.class));
+
+        // when
+        long[] vm2 = cache.getStatistics("vcenter", "vm2", vmw);
+
+        // then
+        assertArrayEquals(new long[] { 200, 15, 2000 }, vm2);
+        ArgumentCaptor<List> specs = ArgumentCaptor.forClass(List.class);
+        verify(vimPort, times(2)).queryPerf(any(ManagedObjectReference.class),
+                specs.capture());
+        List<PerfQuerySpec> daily = specs.getAllValues().get(1);
+        assertEquals(1, daily.size());
+        assertEquals("vm-2", daily.get(0).getEntity().getValue());
+        assertEquals(Integer.valueOf(VMMetricCollector.INTERVALL_ONE_DAY),
+                daily.get(0).getIntervalId());
+    }
+
+    @Test
+    public void testGetStatistics_newVM() throws Exception {
+        // given
+        vms.add(vm("vm-1", "vm1"));
+        doReturn(Arrays.asList(stats("vm-1", "100", "2500", "1000")))
+                .doReturn(Arrays.asList(stats("vm-3", "300", "7500", "3000")))
+                .when(vimPort).queryPerf(any(ManagedObjectReference.class),
+                        anyListOf(PerfQuerySpec.class));
+        doReturn(moRef("VirtualMachine", "vm-3")).when(serviceUtil)
+                .getDecendentMoRef(null, "VirtualMachine", "vm3");
+        cache.getStatistics("vcenter", "vm1", vmw);
+
+        // when
+        long[] vm3 = cache.getStatistics("vcenter", "vm3", vmw);
+
+        // then
+        assertArrayEquals(new long[] { 300, 7500, 3000 }, vm3);
+        verify(serviceUtil, times(1)).retrieveContainerContents(
+                any(ManagedObjectReference.class), anyListOf(String.class),
+                anyListOf(SelectionSpec.class),
+                anyListOf(PropertySpec.class));
+    }
+
+    @Test
+    public void testGetStatistics_unknownVM() throws Exception {
+        // given
+        vms.add(vm("vm-1", "vm1"));
+        doReturn(Arrays.asList(stats("vm-1", "100", "2500", "1000")))
+                .when(vimPort).queryPerf(any(ManagedObjectReference.class),
+                        anyListOf(PerfQuerySpec.class));
+        cache.getStatistics("vcenter", "vm1", vmw);
+
+        // when
+        long[] result = cache.getStatistics("vcenter", "vm9", vmw);
+
+        // then
+        assertNull(result);
+        verify(serviceUtil, times(1)).getDecendentMoRef(null,
+                "VirtualMachine", "vm9");
+        verify(vimPort, times(1)).queryPerf(any(ManagedObjectReference.class),
+                anyListOf(PerfQuerySpec.class));
+    }
+
+    @Test
+    public void testQuery_batches() throws Exception {
+        // given
+        Map<String, ManagedObjectReference> managed = new HashMap<String, ManagedObjectReference>();
+        List<PerfEntityMetricBase> stats = new ArrayList<PerfEntityMetricBase>();
+        for (int i = 0; i <= VMPerformanceCache.BATCH_SIZE; i++) {
+            managed.put("vm" + i, moRef("VirtualMachine", "vm-" + i));
+            stats.add(stats("vm-" + i, "1", "2", "3"));
+        }
+        doReturn(stats).when(vimPort).queryPerf(
+                any(ManagedObjectReference.class),
+                anyListOf(PerfQuerySpec.class));
+
+        // when
+        cache.query("vcenter", vmw, managed);
+
+        // then
+        verify(vimPort, times(2)).queryPerf(any(ManagedObjectReference.class),
+                anyListOf(PerfQuerySpec.class));
+    }
+
+    /** Lets the statistics of the given vCenter expire */
+    private void expire(String vcenter) {
+        Map<String, Object> statistics = Whitebox.getInternalState(cache,
+                "statistics");
+        Whitebox.setInternalState(statistics.get(vcenter), "loaded",
+                Long.valueOf(0));
+    }
+
+    private static ManagedObjectReference moRef(String type, String value) {
+        ManagedObjectReference mor = new ManagedObjectReference();
+        mor.setType(type);
+        mor.setValue(value);
+        return mor;
+    }
+
+    private static PerfCounterInfo counter(int key, String group, String name,
+            PerfSummaryType rollup) {
+        ElementDescription groupInfo = new ElementDescription();
+        groupInfo.setKey(group);
+        ElementDescription nameInfo = new ElementDescription();
+        nameInfo.setKey(name);
+        PerfCounterInfo counter = new PerfCounterInfo();
+        counter.setKey(key);
+        counter.setGroupInfo(groupInfo);
+        counter.setNameInfo(nameInfo);
+        counter.setRollupType(rollup);
+        return counter;
+    }
+
+    private static ObjectContent vm(String id, String name) {
+        DynamicProperty dp = new DynamicProperty();
+        dp.setName("name");
+        dp.setVal(name);
+        ObjectContent content = new ObjectContent();
+        content.setObj(moRef("VirtualMachine", id));
+        content.getPropSet().add(dp);
+        return content;
+    }
+
+    private static PerfEntityMetricCSV stats(String id, String cpu,
+            String mem, String disk) {
+        PerfEntityMetricCSV stats = new PerfEntityMetricCSV();
+        stats.setEntity(moRef("VirtualMachine", id));
+        add(stats, CPU_ID, cpu);
+        add(stats, MEM_ID, mem);
+        add(stats, DISK_ID, disk);
+        return stats;
+    }
+
+    private static void add(PerfEntityMetricCSV stats, int counter,
+            String values) {
+        if (values == null) {
+            return;
+        }
+        PerfMetricId id = new PerfMetricId();
+        id.setCounterId(counter);
+        id.setInstance("");
+        PerfMetricSeriesCSV series = new PerfMetricSeriesCSV();
+        series.setId(id);
+        series.setValue(values);
+        stats.getValue().add(series);
+    }
+}
@@ -0,0 +1,4 @@
+ALTER TABLE "serviceinstance" ADD COLUMN "nextpolltime" BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE "serviceinstance" ADD COLUMN "unchangedpollcount" INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX "serviceinstance_timer_idx" ON "serviceinstance" ("provisioningstatus", "runwithtimer", "nextpolltime");
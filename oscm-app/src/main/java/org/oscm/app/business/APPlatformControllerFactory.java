@@ -21,8 +21,25 @@ public class APPlatformControllerFactory {
     private static final Logger logger = LoggerFactory
             .getLogger(APPlatformControllerFactory.class);
 
+    private static final ControllerRegistry REGISTRY = new ControllerRegistry();
+
+    /**
+     * Returns the controller with the given ID. The JNDI lookup is done only
+     * for the first request, the reference is reused afterwards.
+     */
     public static APPlatformController getInstance(String controllerId)
             throws ControllerLookupException {
+        APPlatformController controller = REGISTRY.get(controllerId,
+                APPlatformControllerFactory::lookup);
+        return new APPlatformControllerAdapter(controller);
+    }
+
+    public static ControllerRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    static APPlatformController lookup(String controllerId)
+            throws ControllerLookupException {
         String controllerFullId = APPlatformController.JNDI_PREFIX
                 + controllerId;
         try {
@@ -31,18 +48,14 @@ public class APPlatformControllerFactory {
 
             InitialContext context = new InitialContext(p);
             Object lookup = context.lookup(controllerFullId);
-            APPlatformController adapter;
 
-            if (APPlatformController.class.isAssignableFrom(lookup.getClass())) {
-                adapter = new APPlatformControllerAdapter(
-                        (APPlatformController) lookup);
-            } else {
+            if (!APPlatformController.class.isAssignableFrom(lookup.getClass())) {
                 logger.warn("Exception during controller lookup ["
                         + controllerFullId + "]");
                 throw new ControllerLookupException(
                         Messages.getAll("error_controller_lookup"));
             }
-            return adapter;
+            return (APPlatformController) lookup;
         } catch (Exception e) {
             logger.warn("Exception during controller lookup ["
                     + controllerFullId + "]", e);
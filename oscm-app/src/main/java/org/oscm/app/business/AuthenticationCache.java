@@ -0,0 +1,298 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.oscm.app.v2_0.exceptions.AuthenticationException;
+import org.oscm.types.enumtypes.UserRoleType;
+import org.oscm.vo.VOUserDetails;
+
+/**
+ * Remembers the results of user authentications against BES for a short
+ * time, so that the controller UIs and the notification callbacks do not
+ * call BES several times with each request.
+ * <p>
+ * Entries are keyed by the user, the required role and the scope (controller,
+ * organization and service instance) of the authentication. Passwords are
+ * never stored, only their hash salted with a random value of this cache.
+ * <p>
+ * Credentials rejected by BES are remembered as well, so that the same wrong
+ * password is rejected without asking BES again. Repeated failures of a user
+ * are throttled: after {@link #FREE_ATTEMPTS} failures, each further attempt
+ * has to wait for a delay, which doubles with each failure up to a maximum.
+ * Attempts within the delay are rejected without asking BES. The user is
+ * never locked, the valid password is accepted as soon as the delay has
+ * passed, and a success resets the failures of the user.
+ */
+public class AuthenticationCache {
+
+    public static final long DEFAULT_TIME_TO_LIVE = 60000;
+    public static final long FAILURE_TIME_TO_LIVE = 30000;
+    public static final int MAX_SIZE = 1000;
+
+    /** Failed attempts of a user which are not delayed. */
+    public static final int FREE_ATTEMPTS = 3;
+    public static final long INITIAL_DELAY = 1000;
+    public static final long MAX_DELAY = 30000;
+
+    /** Time after the last failure after which the failures are forgotten. */
+    public static final long THROTTLE_TIME_TO_LIVE = 300000;
+
+    private final Map<String, Success> successes = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final Map<String, Throttle> throttles = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final byte[] salt = new byte[16];
+    private final long timeToLive;
+    private final int maxSize;
+    private final long maxDelay;
+
+    public AuthenticationCache() {
+        this(DEFAULT_TIME_TO_LIVE, MAX_SIZE);
+    }
+
+    public AuthenticationCache(long timeToLive, int maxSize) {
+        this(timeToLive, maxSize, MAX_DELAY);
+    }
+
+    public AuthenticationCache(long timeToLive, int maxSize, long maxDelay) {
+        this.timeToLive = timeToLive;
+        this.maxSize = maxSize;
+        this.maxDelay = maxDelay;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Builds the key of an authentication.
+     */
+    public static String key(String userName, UserRoleType role,
+            String controllerId, String organizationId, String instanceId) {
+        return String.join("|", userName, String.valueOf(role),
+                String.valueOf(controllerId), String.valueOf(organizationId),
+                String.valueOf(instanceId));
+    }
+
+    /**
+     * Returns the details of the user if the authentication with the given
+     * key and password has succeeded recently, <code>null</code> otherwise.
+     */
+    public VOUserDetails get(String key, String password) {
+        Success success = successes.get(key);
+        if (success != null) {
+            if (success.expires > System.currentTimeMillis()
+                    && MessageDigest.isEqual(success.passwordHash,
+                            hash(password))) {
+                hits.incrementAndGet();
+                return success.userDetails;
+            }
+            successes.remove(key, success);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Rejects the authentication if the user has to wait after failed
+     * attempts, or if the same password has just been rejected by BES.
+     */
+    public void checkFailures(String key, String userName, String password)
+            throws AuthenticationException {
+        Throttle throttle = throttles.get(userName);
+        if (throttle != null) {
+            long wait = throttle.notBefore - System.currentTimeMillis();
+            if (wait > 0) {
+                rejections.incrementAndGet();
+                throw new AuthenticationException(String.format(
+                        "Too many failed attempts, try again in %d seconds.",
+                        Long.valueOf((wait + 999) / 1000)));
+            }
+        }
+        Failure failure = failures.get(key);
+        if (failure == null) {
+            return;
+        }
+        if (failure.expires <= System.currentTimeMillis()) {
+            failures.remove(key, failure);
+            return;
+        }
+        if (MessageDigest.isEqual(failure.passwordHash, hash(password))) {
+            rejections.incrementAndGet();
+            throw new AuthenticationException(failure.message);
+        }
+    }
+
+    /**
+     * Remembers a successful authentication, which also forgets the last
+     * rejected password and the failed attempts of the user.
+     */
+    public void putSuccess(String key, String userName, String password,
+            VOUserDetails userDetails) {
+        failures.remove(key);
+        throttles.remove(userName);
+        ensureCapacity(successes);
+        successes.put(key, new Success(hash(password), userDetails,
+                System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * Remembers credentials which were rejected by BES. Only rejections of
+     * the credentials themselves must be passed here, not communication
+     * errors, which would otherwise reject valid passwords for a while.
+     */
+    public void putFailure(String key, String userName, String password,
+            String message) {
+        long now = System.currentTimeMillis();
+        successes.remove(key);
+        ensureCapacity(failures);
+        failures.put(key, new Failure(hash(password), message,
+                now + FAILURE_TIME_TO_LIVE));
+        if (!throttles.containsKey(userName)) {
+            ensureCapacity(throttles);
+        }
+        throttles.compute(userName, (user, throttle) -> {
+            int count = throttle == null || throttle.isExpired(now) ? 1
+                    : throttle.failures + 1;
+            return new Throttle(count, now + getDelay(count),
+                    now + THROTTLE_TIME_TO_LIVE);
+        });
+    }
+
+    /**
+     * Returns the time a user has to wait after the given number of failed
+     * attempts.
+     */
+    long getDelay(int failedAttempts) {
+        if (failedAttempts <= FREE_ATTEMPTS) {
+            return 0;
+        }
+        int doublings = Math.min(failedAttempts - FREE_ATTEMPTS - 1, 30);
+        return Math.min(maxDelay, INITIAL_DELAY << doublings);
+    }
+
+    /**
+     * Removes expired entries if the cache is full. If it is still full
+     * afterwards, an arbitrary entry is dropped.
+     */
+    private void ensureCapacity(Map<String, ? extends Expiring> cache) {
+        if (cache.size() < maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(e -> e.isExpired(now));
+        Iterator<String> keys = cache.keySet().iterator();
+        while (cache.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private byte[] hash(String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            if (password != null) {
+                md.update(password.getBytes(StandardCharsets.UTF_8));
+            }
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void invalidate() {
+        successes.clear();
+        failures.clear();
+        throttles.clear();
+    }
+
+    public int size() {
+        return successes.size() + failures.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getRejectionCount() {
+        return rejections.get();
+    }
+
+    private interface Expiring {
+        boolean isExpired(long now);
+    }
+
+    private static class Success implements Expiring {
+
+        final byte[] passwordHash;
+        final VOUserDetails userDetails;
+        final long expires;
+
+        Success(byte[] passwordHash, VOUserDetails userDetails, long expires) {
+            this.passwordHash = passwordHash;
+            this.userDetails = userDetails;
+            this.expires = expires;
+        }
+
+        @Override
+        public boolean isExpired(long now) {
+            return expires <= now;
+        }
+    }
+
+    private static class Throttle implements Expiring {
+
+        final int failures;
+        final long notBefore;
+        final long expires;
+
+        Throttle(int failures, long notBefore, long expires) {
+            this.failures = failures;
+            this.notBefore = notBefore;
+            this.expires = expires;
+        }
+
+        @Override
+        public boolean isExpired(long now) {
+            return expires <= now;
+        }
+    }
+
+    private static class Failure implements Expiring {
+
+        final byte[] passwordHash;
+        final String message;
+        final long expires;
+
+        Failure(byte[] passwordHash, String message, long expires) {
+            this.passwordHash = passwordHash;
+            this.message = message;
+            this.expires = expires;
+        }
+
+        @Override
+        public boolean isExpired(long now) {
+            return expires <= now;
+        }
+    }
+}
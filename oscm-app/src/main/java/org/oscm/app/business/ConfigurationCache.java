@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.oscm.app.v2_0.exceptions.ConfigurationException;
+
+/**
+ * Caches the decrypted configuration settings of the proxy and the
+ * controllers as well as the custom attributes of the organizations. Each
+ * entry is an immutable snapshot which is replaced as a whole, so readers do
+ * not need any locking.
+ * <p>
+ * All snapshots are invalidated when settings are written. As settings may
+ * also be changed outside of this JVM, e.g. by the property import, snapshots
+ * expire after a short time to live.
+ */
+public class ConfigurationCache {
+
+    public static final long DEFAULT_TIME_TO_LIVE = 60000;
+
+    /**
+     * Loads the settings of one scope from the database in case of a cache
+     * miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Map<String, CachedSetting> load() throws ConfigurationException;
+    }
+
+    private final Map<String, Snapshot> controllerSettings = new ConcurrentHashMap<>();
+    private final Map<String, Snapshot> customAttributes = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final long timeToLive;
+
+    public ConfigurationCache() {
+        this(DEFAULT_TIME_TO_LIVE);
+    }
+
+    public ConfigurationCache(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the settings of the given controller, the proxy settings are
+     * stored with the controller ID <code>PROXY</code>.
+     */
+    public Map<String, CachedSetting> getControllerSettings(
+            String controllerId, Loader loader) throws ConfigurationException {
+        return get(controllerSettings, controllerId, loader);
+    }
+
+    /**
+     * Returns the custom attributes of the given organization.
+     */
+    public Map<String, CachedSetting> getCustomAttributes(
+            String organizationId, Loader loader)
+            throws ConfigurationException {
+        return get(customAttributes, organizationId, loader);
+    }
+
+    private Map<String, CachedSetting> get(Map<String, Snapshot> cache,
+            String id, Loader loader) throws ConfigurationException {
+        long currentGeneration = generation.get();
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = cache.get(id);
+        if (snapshot != null && snapshot.generation == currentGeneration
+                && snapshot.expires > now) {
+            hits.incrementAndGet();
+            return snapshot.settings;
+        }
+        misses.incrementAndGet();
+        Map<String, CachedSetting> settings = Collections
+                .unmodifiableMap(new HashMap<>(loader.load()));
+        // a snapshot loaded during an invalidation is outdated with the next
+        // read, as it keeps the previous generation
+        cache.put(id, new Snapshot(settings, currentGeneration,
+                now + timeToLive));
+        return settings;
+    }
+
+    /**
+     * Discards all snapshots.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        controllerSettings.clear();
+        customAttributes.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the ratio of cache hits to all reads, or 0 if nothing has been
+     * read yet.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public int size() {
+        return controllerSettings.size() + customAttributes.size();
+    }
+
+    private static class Snapshot {
+
+        final Map<String, CachedSetting> settings;
+        final long generation;
+        final long expires;
+
+        Snapshot(Map<String, CachedSetting> settings, long generation,
+                long expires) {
+            this.settings = settings;
+            this.generation = generation;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * An immutable, decrypted setting. If the value could not be decrypted,
+     * the error is kept and reported when the setting is read.
+     */
+    public static class CachedSetting {
+
+        private final String key;
+        private final String value;
+        private final boolean encrypted;
+        private final String controllerId;
+        private final String error;
+
+        private CachedSetting(String key, String value, boolean encrypted,
+                String controllerId, String error) {
+            this.key = key;
+            this.value = value;
+            this.encrypted = encrypted;
+            this.controllerId = controllerId;
+            this.error = error;
+        }
+
+        public static CachedSetting of(String key, String value,
+                boolean encrypted, String controllerId) {
+            return new CachedSetting(key, value, encrypted, controllerId, null);
+        }
+
+        public static CachedSetting failed(String key, String error) {
+            return new CachedSetting(key, null, false, null, error);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() throws ConfigurationException {
+            if (error != null) {
+                throw new ConfigurationException(error);
+            }
+            return value;
+        }
+
+        public boolean isEncrypted() {
+            return encrypted;
+        }
+
+        public String getControllerId() {
+            return controllerId;
+        }
+    }
+}
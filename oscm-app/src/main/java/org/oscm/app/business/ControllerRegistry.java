@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ejb.EJBException;
+
+import org.oscm.app.v2_0.exceptions.ControllerLookupException;
+import org.oscm.app.v2_0.intf.APPlatformController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the controller references resolved by JNDI, so that each controller
+ * is looked up only once and not with each call.
+ * <p>
+ * When a controller EAR is redeployed or undeployed, the cached reference
+ * becomes stale and fails with a system exception. The entry is then evicted
+ * and the controller is looked up again with the next request.
+ */
+public class ControllerRegistry {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ControllerRegistry.class);
+
+    /**
+     * Resolves the controller with the given ID.
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        APPlatformController lookup(String controllerId)
+                throws ControllerLookupException;
+    }
+
+    private final Map<String, APPlatformController> controllers = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong lookupFailures = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Returns the controller with the given ID, resolving it with the given
+     * resolver if it is not registered yet.
+     */
+    public APPlatformController get(String controllerId, Resolver resolver)
+            throws ControllerLookupException {
+        APPlatformController controller = controllers.get(controllerId);
+        if (controller != null) {
+            hits.incrementAndGet();
+            return controller;
+        }
+        long start = System.nanoTime();
+        lookups.incrementAndGet();
+        try {
+            controller = evictOnFailure(controllerId,
+                    resolver.lookup(controllerId));
+        } catch (ControllerLookupException | RuntimeException e) {
+            lookupFailures.incrementAndGet();
+            throw e;
+        } finally {
+            lookupNanos.addAndGet(System.nanoTime() - start);
+        }
+        APPlatformController registered = controllers
+                .putIfAbsent(controllerId, controller);
+        return registered != null ? registered : controller;
+    }
+
+    /**
+     * Wraps the given controller, so that a system exception, as thrown by a
+     * stale reference after a redeployment, evicts it from the registry.
+     */
+    private APPlatformController evictOnFailure(String controllerId,
+            APPlatformController controller) {
+        return (APPlatformController) Proxy.newProxyInstance(
+                APPlatformController.class.getClassLoader(),
+                new Class<?>[] { APPlatformController.class },
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(controller, args);
+                    } catch (InvocationTargetException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof EJBException
+                                || cause instanceof IllegalStateException) {
+                            evict(controllerId, proxy);
+                        }
+                        throw cause;
+                    }
+                });
+    }
+
+    private void evict(String controllerId, Object controller) {
+        if (controllers.remove(controllerId, controller)) {
+            evictions.incrementAndGet();
+            LOGGER.info(
+                    "Reference to controller '{}' is no longer valid and will be looked up again",
+                    controllerId);
+        }
+    }
+
+    /**
+     * Removes the controller with the given ID, e.g. after its redeployment.
+     */
+    public void invalidate(String controllerId) {
+        controllers.remove(controllerId);
+    }
+
+    public void invalidateAll() {
+        controllers.clear();
+    }
+
+    public int size() {
+        return controllers.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    public long getLookupFailureCount() {
+        return lookupFailures.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the average duration of a JNDI lookup in milliseconds.
+     */
+    public double getAverageLookupMillis() {
+        long count = lookups.get();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(lookupNanos.get())
+                / count / 1000;
+    }
+}
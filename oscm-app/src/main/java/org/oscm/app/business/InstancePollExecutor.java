@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.oscm.app.domain.ServiceInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Distributes the service instances of one timer cycle on a bounded number of
+ * worker tasks. The instances are partitioned by controller ID and each
+ * partition is processed by at most <code>maxPerController</code> workers in
+ * parallel, so that one slow backend does not block the instances of other
+ * controllers. The total number of running workers is limited by
+ * <code>maxParallel</code>.
+ */
+public class InstancePollExecutor {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(InstancePollExecutor.class);
+
+    public static final int DEFAULT_MAX_PARALLEL = 16;
+    public static final int DEFAULT_MAX_PER_CONTROLLER = 4;
+
+    private final ExecutorService executor;
+    private final int maxParallel;
+    private final int maxPerController;
+
+    public InstancePollExecutor(ExecutorService executor, int maxParallel,
+            int maxPerController) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must be set");
+        }
+        this.executor = executor;
+        this.maxParallel = maxParallel > 0 ? maxParallel
+                : DEFAULT_MAX_PARALLEL;
+        this.maxPerController = maxPerController > 0 ? maxPerController
+                : DEFAULT_MAX_PER_CONTROLLER;
+    }
+
+    public int getMaxParallel() {
+        return maxParallel;
+    }
+
+    public int getMaxPerController() {
+        return maxPerController;
+    }
+
+    /**
+     * Handles all given instances with the given handler and returns when all
+     * of them have been processed. Exceptions thrown by the handler are logged
+     * and do not affect the processing of the other instances.
+     *
+     * @param instances
+     *            the instances to be handled
+     * @param handler
+     *            the callback handling a single instance
+     */
+    public void execute(List<ServiceInstance> instances,
+            Consumer<ServiceInstance> handler) {
+        Map<String, Queue<ServiceInstance>> partitions = partition(instances);
+        Semaphore slots = new Semaphore(maxParallel);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (Queue<ServiceInstance> queue : partitions.values()) {
+                int workers = Math.min(maxPerController, queue.size());
+                for (int i = 0; i < workers; i++) {
+                    slots.acquire();
+                    try {
+                        futures.add(executor.submit(() -> {
+                            try {
+                                drain(queue, handler);
+                            } finally {
+                                slots.release();
+                            }
+                        }));
+                    } catch (RejectedExecutionException e) {
+                        slots.release();
+                        LOGGER.warn(
+                                "Poll task rejected, handling instances in the timer thread");
+                        drain(queue, handler);
+                    }
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Poll task failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for poll tasks");
+        }
+    }
+
+    Map<String, Queue<ServiceInstance>> partition(
+            List<ServiceInstance> instances) {
+        Map<String, Queue<ServiceInstance>> partitions = new LinkedHashMap<>();
+        for (ServiceInstance instance : instances) {
+            partitions
+                    .computeIfAbsent(instance.getControllerId(),
+                            k -> new ConcurrentLinkedQueue<>())
+                    .add(instance);
+        }
+        return partitions;
+    }
+
+    private void drain(Queue<ServiceInstance> queue,
+            Consumer<ServiceInstance> handler) {
+        ServiceInstance instance;
+        while ((instance = queue.poll()) != null) {
+            try {
+                handler.accept(instance);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failure during polling of service instance '"
+                        + instance.getIdentifier() + "'", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.oscm.app.domain.ServiceInstance;
+
+/**
+ * Calculates the next poll time of a service instance. As long as the status
+ * of an instance does not change, the interval is doubled with each poll up to
+ * the configured maximum. A random jitter spreads instances that were created
+ * together over different timer cycles. On a status change the instance is
+ * polled again with the next timer cycle.
+ */
+public class PollScheduler {
+
+    public static final long DEFAULT_MIN_INTERVAL = 15000;
+    public static final long DEFAULT_MAX_INTERVAL = 600000;
+
+    /**
+     * Maximum fraction by which a delay is shortened randomly.
+     */
+    static final double JITTER = 0.2;
+
+    private static final int MAX_EXPONENT = 20;
+
+    private final long minInterval;
+    private final long maxInterval;
+
+    public PollScheduler() {
+        this(DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    public PollScheduler(long minInterval, long maxInterval) {
+        this.minInterval = minInterval > 0 ? minInterval
+                : DEFAULT_MIN_INTERVAL;
+        this.maxInterval = Math.max(this.minInterval, maxInterval);
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Sets the next poll time of the given instance after it has been polled.
+     *
+     * @param instance
+     *            the polled service instance
+     * @param statusChanged
+     *            <code>true</code> if the poll has detected a status change
+     * @param now
+     *            the current time in milliseconds
+     */
+    public void scheduleNext(ServiceInstance instance, boolean statusChanged,
+            long now) {
+        if (statusChanged) {
+            instance.resetPollSchedule();
+            return;
+        }
+        int count = instance.getUnchangedPollCount() + 1;
+        instance.setUnchangedPollCount(count);
+        instance.setNextPollTime(now + jitter(getDelay(count)));
+    }
+
+    /**
+     * Returns the delay without jitter after the given number of subsequent
+     * polls without status change.
+     */
+    long getDelay(int unchangedPollCount) {
+        if (unchangedPollCount <= 0) {
+            return 0;
+        }
+        int exponent = Math.min(unchangedPollCount - 1, MAX_EXPONENT);
+        long delay = minInterval << exponent;
+        return Math.min(delay, maxInterval);
+    }
+
+    long jitter(long delay) {
+        double factor = 1 - JITTER * ThreadLocalRandom.current().nextDouble();
+        return (long) (delay * factor);
+    }
+}
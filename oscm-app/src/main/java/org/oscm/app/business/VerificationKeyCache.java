@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.business;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+
+/**
+ * Keeps the public key which is used to verify the signature of the tokens
+ * sent by BES, so that the truststore is not read from disk for each request.
+ * <p>
+ * The key is loaded again as soon as the truststore file is modified or one
+ * of the related configuration settings (location, password, alias) changes.
+ * The password is only kept as a hash salted with a random value of this
+ * cache.
+ * <p>
+ * A {@link Cipher} instance must not be used concurrently, so the ciphers to
+ * decrypt the signature are borrowed from a small pool shared by all threads
+ * and returned after a successful decryption.
+ */
+public class VerificationKeyCache {
+
+    public static final int MAX_POOLED_CIPHERS = 16;
+
+    /**
+     * Loads the key from the truststore.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Key load() throws GeneralSecurityException, IOException;
+    }
+
+    private static final class Entry {
+        private final String location;
+        private final byte[] passwordHash;
+        private final String alias;
+        private final long lastModified;
+        private final long length;
+        private final Key key;
+
+        private Entry(String location, byte[] passwordHash, String alias,
+                long lastModified, long length, Key key) {
+            this.location = location;
+            this.passwordHash = passwordHash;
+            this.alias = alias;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.key = key;
+        }
+
+        private boolean matches(String location, byte[] passwordHash,
+                String alias, long lastModified, long length) {
+            return this.location.equals(location)
+                    && MessageDigest.isEqual(this.passwordHash, passwordHash)
+                    && this.alias.equals(alias)
+                    && this.lastModified == lastModified
+                    && this.length == length;
+        }
+    }
+
+    /**
+     * The idle ciphers of one key.
+     */
+    private static final class CipherPool {
+        private final Key key;
+        private final BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(
+                MAX_POOLED_CIPHERS);
+
+        private CipherPool(Key key) {
+            this.key = key;
+        }
+    }
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final byte[] salt = new byte[16];
+    private volatile Entry entry;
+    private volatile CipherPool pool;
+
+    public VerificationKeyCache() {
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Returns the key of the truststore at the given location, loading it
+     * with the given loader if the truststore or the settings have changed
+     * since the last call. A <code>null</code> key is not cached.
+     */
+    public Key getKey(String location, String password, String alias,
+            Loader loader) throws GeneralSecurityException, IOException {
+        File file = new File(location);
+        long lastModified = file.lastModified();
+        long length = file.length();
+        byte[] passwordHash = hash(password);
+
+        Entry current = entry;
+        if (current != null && current.matches(location, passwordHash, alias,
+                lastModified, length)) {
+            hits.incrementAndGet();
+            return current.key;
+        }
+
+        loads.incrementAndGet();
+        Key key = loader.load();
+        if (key != null) {
+            entry = new Entry(location, passwordHash, alias, lastModified,
+                    length, key);
+        }
+        return key;
+    }
+
+    /**
+     * Returns a cipher initialized for decryption with the given key. It must
+     * be returned with {@link #returnDecryptCipher(Key, Cipher)} after a
+     * successful decryption only, a cipher which failed might be in an
+     * undefined state.
+     */
+    public Cipher borrowDecryptCipher(Key key)
+            throws GeneralSecurityException {
+        CipherPool current = pool;
+        if (current != null && current.key == key) {
+            Cipher cipher = current.ciphers.poll();
+            if (cipher != null) {
+                return cipher;
+            }
+        }
+        Cipher cipher = Cipher.getInstance(key.getAlgorithm());
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return cipher;
+    }
+
+    /**
+     * Makes the given cipher available to other threads again. It is dropped
+     * if the key has changed meanwhile or enough ciphers are idle.
+     */
+    public void returnDecryptCipher(Key key, Cipher cipher) {
+        CipherPool current = pool;
+        if (current == null || current.key != key) {
+            current = new CipherPool(key);
+            pool = current;
+        }
+        current.ciphers.offer(cipher);
+    }
+
+    /**
+     * Drops the cached key and the idle ciphers.
+     */
+    public void invalidate() {
+        entry = null;
+        pool = null;
+    }
+
+    private byte[] hash(String password) throws GeneralSecurityException {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(salt);
+        if (password != null) {
+            md.update(password.getBytes(StandardCharsets.UTF_8));
+        }
+        return md.digest();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+}
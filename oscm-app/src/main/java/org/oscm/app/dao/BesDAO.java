@@ -43,7 +43,10 @@ import javax.xml.ws.Binding;
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Service;
 import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.http.HTTPException;
 import java.net.ConnectException;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -57,8 +60,13 @@ public class BesDAO {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BesDAO.class);
 
+  /** Web services shared by all bean instances */
+  private static final WebServiceCache SERVICE_CACHE = new WebServiceCache();
+
   @EJB protected APPConfigurationServiceBean configService;
 
+  protected WebServiceCache serviceCache = SERVICE_CACHE;
+
   /**
    * Reads the WSDL for any OSCM web service and returns an interface to the service implementation.
    * When a service instance is given, the respective BES credentials will be set. The APP specific
@@ -157,11 +165,22 @@ public class BesDAO {
     String targetNamespace = serviceClass.getAnnotation(WebService.class).targetNamespace();
     QName serviceQName = new QName(targetNamespace, serviceClass.getSimpleName());
 
-    Service service = createWebService(getWsdlUrl(serviceClass, settings), serviceQName);
+    URL wsdlUrl = getWsdlUrl(serviceClass, settings);
+    Service service =
+        serviceCache.get(
+            serviceClass,
+            settings.get(PlatformConfigurationKey.BSS_WEBSERVICE_WSDL_URL.name()).getValue(),
+            wsdlUrl,
+            () -> createWebService(wsdlUrl, serviceQName));
 
     return service.getPort(serviceClass);
   }
 
+  /** Returns the cache of the web services used to communicate with OSCM. */
+  public WebServiceCache getServiceCache() {
+    return serviceCache;
+  }
+
   <T> URL getWsdlUrl(Class<T> serviceClass, Map<String, Setting> settings)
       throws MalformedURLException {
     String wsdlUrl =
@@ -505,12 +524,31 @@ public class BesDAO {
     try {
       userDetails = idServ.getCurrentUserDetails();
     } catch (Exception e) {
+      if (getResponseCode((BindingProvider) idServ, e) == HttpURLConnection.HTTP_UNAUTHORIZED) {
+        // BES refused the credentials
+        throw new AuthenticationException(e.getMessage(), e);
+      }
       throw new APPlatformException(e.getMessage(), e);
     }
 
     return userDetails;
   }
 
+  /**
+   * Returns the HTTP status code of a failed web service call, taken from the exception or the
+   * response context of the client, or 0 if it is not known.
+   */
+  static int getResponseCode(BindingProvider client, Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof HTTPException) {
+        return ((HTTPException) t).getStatusCode();
+      }
+    }
+    Map<String, Object> context = client.getResponseContext();
+    Object code = context == null ? null : context.get(MessageContext.HTTP_RESPONSE_CODE);
+    return code instanceof Integer ? ((Integer) code).intValue() : 0;
+  }
+
   public VOUser getUser(ServiceInstance si, VOUser user, Optional<String> controllerId)
       throws APPlatformException {
     VOUser retrunUser = null;
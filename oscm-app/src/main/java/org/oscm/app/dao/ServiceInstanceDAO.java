@@ -24,6 +24,7 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Stateless
 @LocalBean
@@ -33,6 +34,12 @@ public class ServiceInstanceDAO {
     public EntityManager em;
     private static final Logger LOGGER = LoggerFactory.getLogger(ServiceInstanceDAO.class);
 
+    /**
+     * The maximum number of instances whose collections are fetched with one
+     * query.
+     */
+    static final int FETCH_CHUNK_SIZE = 500;
+
     public ServiceInstance getInstanceById(String instanceId)
             throws ServiceInstanceNotFoundException {
         if (Strings.isEmpty(instanceId)) {
@@ -220,15 +227,68 @@ public class ServiceInstanceDAO {
         return result;
     }
 
+    /**
+     * Fetch the instances in waiting state which are due to be polled by the
+     * timer.
+     */
     public List<ServiceInstance> getInstancesInWaitingState() {
         Query query = em
-                .createNamedQuery("ServiceInstance.getForStatusWithTimer");
+                .createNamedQuery("ServiceInstance.getDueForStatusWithTimer");
         query.setParameter("status", ProvisioningStatus.getWaiting());
+        query.setParameter("now", Long.valueOf(System.currentTimeMillis()));
+        @SuppressWarnings("unchecked")
+        List<ServiceInstance> result = query.getResultList();
+        return result;
+    }
+
+    /**
+     * Initializes the parameters and attributes of the given instances with one
+     * query per collection and chunk of instances, instead of one query per
+     * instance and collection on first access.
+     */
+    public void fetchParametersAndAttributes(List<ServiceInstance> instances) {
+        List<Long> keys = instances.stream()
+                .map(si -> Long.valueOf(si.getTkey()))
+                .collect(Collectors.toList());
+        for (int from = 0; from < keys.size(); from += FETCH_CHUNK_SIZE) {
+            List<Long> chunk = keys.subList(from,
+                    Math.min(from + FETCH_CHUNK_SIZE, keys.size()));
+            fetch("ServiceInstance.fetchParameters", chunk);
+            fetch("ServiceInstance.fetchAttributes", chunk);
+        }
+    }
+
+    /**
+     * Reads the instance with the given technical key for a poll in its own
+     * transaction. Its parameters and attributes are loaded lazily, the timer
+     * has fetched them in bulk for reading already.
+     * 
+     * @return the instance or <code>null</code> if it does not exist
+     */
+    public ServiceInstance getInstanceForPolling(long tkey) {
+        return em.find(ServiceInstance.class, Long.valueOf(tkey));
+    }
+
+    private List<ServiceInstance> fetch(String queryName, List<Long> keys) {
+        Query query = em.createNamedQuery(queryName);
+        query.setParameter("keys", keys);
         @SuppressWarnings("unchecked")
         List<ServiceInstance> result = query.getResultList();
         return result;
     }
 
+    /**
+     * Checks whether any instance is waiting for the timer, regardless of
+     * whether it is due in the current cycle.
+     */
+    public boolean hasInstancesInWaitingState() {
+        Query query = em
+                .createNamedQuery("ServiceInstance.getForStatusWithTimer");
+        query.setParameter("status", ProvisioningStatus.getWaiting());
+        query.setMaxResults(1);
+        return !query.getResultList().isEmpty();
+    }
+
     public boolean exists(String controllerId, String instanceId) {
         Query query = em.createNamedQuery("ServiceInstance.getForCtrlKey");
         query.setParameter("key", instanceId);
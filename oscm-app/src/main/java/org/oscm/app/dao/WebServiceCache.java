@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.dao;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.xml.ws.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the JAX-WS services created for the OSCM web services, so that the WSDL is read and
+ * parsed only once per service and WSDL location. Ports are still created per request from the
+ * cached service, which keeps the binding of the request credentials thread-safe.
+ *
+ * <p>The cache is cleared as soon as the configured WSDL location changes.
+ */
+public class WebServiceCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebServiceCache.class);
+
+  private final Map<String, Service> services = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private volatile String wsdlLocation;
+
+  /**
+   * Returns the cached service for the given service class and WSDL URL. If none is cached yet, it
+   * is created with the given factory.
+   *
+   * @param serviceClass the class of the service interface
+   * @param wsdlLocation the configured WSDL location (template) the URL was created from
+   * @param wsdlUrl the WSDL URL of the service
+   * @param factory creates the service in case of a cache miss
+   * @return the service
+   */
+  public Service get(
+      Class<?> serviceClass, String wsdlLocation, URL wsdlUrl, Supplier<Service> factory) {
+    validate(wsdlLocation);
+    String key = serviceClass.getName() + "@" + wsdlUrl.toExternalForm();
+    Service service = services.get(key);
+    if (service != null) {
+      hits.incrementAndGet();
+      return service;
+    }
+    return services.computeIfAbsent(
+        key,
+        k -> {
+          misses.incrementAndGet();
+          LOGGER.debug("Creating web service client for {}", wsdlUrl);
+          return factory.get();
+        });
+  }
+
+  void validate(String location) {
+    String current = wsdlLocation;
+    if (current != null && current.equals(location)) {
+      return;
+    }
+    synchronized (this) {
+      if (wsdlLocation != null && !wsdlLocation.equals(location)) {
+        LOGGER.info("WSDL location changed, clearing the web service cache");
+        services.clear();
+      }
+      wsdlLocation = location;
+    }
+  }
+
+  public void invalidate() {
+    services.clear();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public int size() {
+    return services.size();
+  }
+}
@@ -16,7 +16,6 @@ import javax.persistence.IdClass;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import org.oscm.app.v2_0.exceptions.ConfigurationException;
-import org.oscm.encrypter.AESEncrypter;
 
 /**
  * A configuration setting for the asynchronous provisioning proxy.
@@ -64,6 +63,9 @@ public class ConfigurationSetting {
   @Column(nullable = false)
   private String settingValue;
 
+  /** The plain text of the encrypted value, never persisted. */
+  private final transient DecryptedValue decrypted = new DecryptedValue();
+
   public String getSettingKey() {
     return settingKey;
   }
@@ -82,7 +84,11 @@ public class ConfigurationSetting {
 
   public void setDecryptedValue(String settingValue) throws ConfigurationException {
     try {
-      this.settingValue = isEncrypted() ? AESEncrypter.encrypt(settingValue) : settingValue;
+      if (!isEncrypted()) {
+        this.settingValue = settingValue;
+      } else {
+        this.settingValue = decrypted.encrypt(this.settingValue, settingValue);
+      }
     } catch (GeneralSecurityException e) {
       throw new ConfigurationException(
           String.format("Setting for key '%s' could not be encrypted", getSettingKey()));
@@ -90,8 +96,11 @@ public class ConfigurationSetting {
   }
 
   public String getDecryptedValue() throws ConfigurationException {
+    if (!isEncrypted()) {
+      return settingValue;
+    }
     try {
-      return isEncrypted() ? AESEncrypter.decrypt(settingValue) : settingValue;
+      return decrypted.decrypt(settingValue);
     } catch (GeneralSecurityException e) {
       throw new ConfigurationException(
           String.format("Setting for key '%s' could not be decrypted", getSettingKey()));
@@ -18,7 +18,6 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 
 import org.oscm.app.business.exceptions.BadResultException;
-import org.oscm.encrypter.AESEncrypter;
 
 /**
  * A custom attribute for the asynchronous provisioning proxy.
@@ -57,6 +56,11 @@ public class CustomAttribute {
      */
     private String controllerId;
 
+    /**
+     * The plain text of the encrypted value, never persisted.
+     */
+    private final transient DecryptedValue decrypted = new DecryptedValue();
+
     public String getAttributeKey() {
         return attributeKey;
     }
@@ -84,8 +88,12 @@ public class CustomAttribute {
     public void setDecryptedValue(String parameterValue)
             throws BadResultException {
         try {
-            this.attributeValue = isEncrypted()
-                    ? AESEncrypter.encrypt(parameterValue) : parameterValue;
+            if (!isEncrypted()) {
+                this.attributeValue = parameterValue;
+            } else {
+                this.attributeValue = decrypted.encrypt(this.attributeValue,
+                        parameterValue);
+            }
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Attribute for key '%s' could not be encrypted",
@@ -94,9 +102,11 @@ public class CustomAttribute {
     }
 
     public String getDecryptedValue() throws BadResultException {
+        if (!isEncrypted()) {
+            return attributeValue;
+        }
         try {
-            return isEncrypted() ? AESEncrypter.decrypt(attributeValue)
-                    : attributeValue;
+            return decrypted.decrypt(attributeValue);
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Attribute for key '%s' could not be decrypted",
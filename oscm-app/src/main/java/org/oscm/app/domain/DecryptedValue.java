@@ -0,0 +1,69 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.domain;
+
+import java.security.GeneralSecurityException;
+
+import org.oscm.encrypter.AESEncrypter;
+
+/**
+ * Remembers the plain text of the encrypted value of an entity, so that the
+ * value is decrypted only once as long as the stored value does not change.
+ * The cache is keyed by the stored (encrypted) value, which changes with each
+ * update of the entity, so it can never return the plain text of an outdated
+ * value.
+ * <p>
+ * Entities hold this object in a transient field only, so the plain text is
+ * neither persisted nor serialized, and it is not part of any string
+ * representation.
+ */
+final class DecryptedValue {
+
+    private String storedValue;
+    private String plainValue;
+
+    /**
+     * Returns the plain text of the given stored value, which is decrypted
+     * only if it is not the one of the cached plain text.
+     */
+    String decrypt(String stored) throws GeneralSecurityException {
+        if (stored != null && stored.equals(storedValue)) {
+            return plainValue;
+        }
+        String plain = AESEncrypter.decrypt(stored);
+        set(stored, plain);
+        return plain;
+    }
+
+    /**
+     * Returns the value to be stored for the given plain text. The current
+     * stored value is kept if it already is the encryption of the plain text,
+     * so that encrypting it again is skipped.
+     */
+    String encrypt(String current, String plain)
+            throws GeneralSecurityException {
+        if (plain != null && current != null && current.equals(storedValue)
+                && plain.equals(plainValue)) {
+            return current;
+        }
+        String stored = AESEncrypter.encrypt(plain);
+        set(stored, plain);
+        return stored;
+    }
+
+    private void set(String stored, String plain) {
+        this.storedValue = stored;
+        this.plainValue = plain;
+    }
+
+    @Override
+    public String toString() {
+        return "DecryptedValue[***]";
+    }
+}
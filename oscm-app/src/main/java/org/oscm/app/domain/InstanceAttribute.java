@@ -13,7 +13,6 @@ import java.security.GeneralSecurityException;
 import javax.persistence.*;
 
 import org.oscm.app.business.exceptions.BadResultException;
-import org.oscm.encrypter.AESEncrypter;
 
 /**
  * Represents a attributes setting for a service instance.
@@ -61,6 +60,11 @@ public class InstanceAttribute {
      */
     private String controllerId;
 
+    /**
+     * The plain text of the encrypted value, never persisted.
+     */
+    private final transient DecryptedValue decrypted = new DecryptedValue();
+
     public long getTkey() {
         return tkey;
     }
@@ -82,9 +86,11 @@ public class InstanceAttribute {
     }
 
     public String getDecryptedValue() throws BadResultException {
+        if (!isEncrypted()) {
+            return attributeValue;
+        }
         try {
-            return isEncrypted() ? AESEncrypter.decrypt(attributeValue)
-                    : attributeValue;
+            return decrypted.decrypt(attributeValue);
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Attribute for key '%s' could not be decrypted",
@@ -99,8 +105,12 @@ public class InstanceAttribute {
     public void setDecryptedValue(String parameterValue)
             throws BadResultException {
         try {
-            this.attributeValue = isEncrypted()
-                    ? AESEncrypter.encrypt(parameterValue) : parameterValue;
+            if (!isEncrypted()) {
+                this.attributeValue = parameterValue;
+            } else {
+                this.attributeValue = decrypted.encrypt(this.attributeValue,
+                        parameterValue);
+            }
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Attribute for key '%s' could not be encrypted",
@@ -13,7 +13,6 @@ import java.security.GeneralSecurityException;
 import javax.persistence.*;
 
 import org.oscm.app.business.exceptions.BadResultException;
-import org.oscm.encrypter.AESEncrypter;
 
 /**
  * Represents a parameter setting for a service instance.
@@ -119,6 +118,11 @@ public class InstanceParameter {
      */
     private boolean encrypted;
 
+    /**
+     * The plain text of the encrypted value, never persisted.
+     */
+    private final transient DecryptedValue decrypted = new DecryptedValue();
+
     public long getTkey() {
         return tkey;
     }
@@ -140,9 +144,11 @@ public class InstanceParameter {
     }
 
     public String getDecryptedValue() throws BadResultException {
+        if (!isEncrypted()) {
+            return parameterValue;
+        }
         try {
-            return isEncrypted() ? AESEncrypter.decrypt(parameterValue)
-                    : parameterValue;
+            return decrypted.decrypt(parameterValue);
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Parameter for key '%s' could not be decrypted",
@@ -158,8 +164,12 @@ public class InstanceParameter {
             throws BadResultException {
         try {
             if (parameterValue == null) parameterValue = "";
-            this.parameterValue = isEncrypted()
-                    ? AESEncrypter.encrypt(parameterValue) : parameterValue;
+            if (!isEncrypted()) {
+                this.parameterValue = parameterValue;
+            } else {
+                this.parameterValue = decrypted.encrypt(this.parameterValue,
+                        parameterValue);
+            }
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Parameter for key '%s' could not be encrypted",
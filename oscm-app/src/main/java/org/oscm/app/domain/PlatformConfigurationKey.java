@@ -35,6 +35,31 @@ public enum PlatformConfigurationKey {
      */
     APP_TIMER_REFRESH_USAGEDATA(false, "long"),
 
+    /**
+     * The maximum number of service instances polled in parallel within one
+     * timer cycle.
+     */
+    APP_TIMER_POLL_THREADS(false, "long"),
+
+    /**
+     * The maximum number of service instances of the same controller polled
+     * in parallel within one timer cycle.
+     */
+    APP_TIMER_POLL_THREADS_PER_CONTROLLER(false, "long"),
+
+    /**
+     * The maximum interval (in milliseconds) between two polls of an instance
+     * whose status does not change. Up to this interval, the time between two
+     * polls is doubled with each poll.
+     */
+    APP_TIMER_POLL_MAX_INTERVAL(false, "long"),
+
+    /**
+     * The interval (in milliseconds) at which queued progress notifications
+     * of service instances are sent to OSCM.
+     */
+    APP_BES_NOTIFICATION_INTERVAL(false, "long"),
+
 
     /**
      * Defines the mail resource to be used for communication.
@@ -17,6 +17,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
@@ -52,6 +53,9 @@ import org.oscm.string.Strings;
 @Entity
 @NamedQueries({
         @NamedQuery(name = "ServiceInstance.getForStatusWithTimer", query = "SELECT si FROM ServiceInstance si WHERE si.provisioningStatus IN (:status) AND si.runWithTimer = true ORDER BY tkey"),
+        @NamedQuery(name = "ServiceInstance.getDueForStatusWithTimer", query = "SELECT si FROM ServiceInstance si WHERE si.provisioningStatus IN (:status) AND si.runWithTimer = true AND si.nextPollTime <= :now ORDER BY tkey"),
+        @NamedQuery(name = "ServiceInstance.fetchParameters", query = "SELECT DISTINCT si FROM ServiceInstance si LEFT JOIN FETCH si.instanceParameters WHERE si.tkey IN (:keys)"),
+        @NamedQuery(name = "ServiceInstance.fetchAttributes", query = "SELECT DISTINCT si FROM ServiceInstance si LEFT JOIN FETCH si.instanceAttributes WHERE si.tkey IN (:keys)"),
         @NamedQuery(name = "ServiceInstance.getForSuspendedByApp", query = "SELECT si FROM ServiceInstance si WHERE si.suspendedByApp = true ORDER BY tkey"),
         @NamedQuery(name = "ServiceInstance.getLockedService", query = "SELECT si FROM ServiceInstance si WHERE si.locked = true AND si.controllerId = :cid"),
         @NamedQuery(name = "ServiceInstance.getForKey", query = "SELECT si FROM ServiceInstance si WHERE si.instanceId = :key"),
@@ -203,6 +207,20 @@ public class ServiceInstance implements Serializable {
     @Column
     private int vmsNumber;
 
+    /**
+     * The earliest time the timer polls the instance status again. A value of
+     * 0 means the instance is polled with the next timer cycle.
+     */
+    @Column(nullable = false)
+    private long nextPollTime = 0;
+
+    /**
+     * The number of subsequent polls without a status change, used to
+     * calculate the back off until the next poll.
+     */
+    @Column(nullable = false)
+    private int unchangedPollCount = 0;
+
     /**
      * SubscriptionID key for rollbackParameters
      */
@@ -225,6 +243,15 @@ public class ServiceInstance implements Serializable {
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "serviceInstance", fetch = FetchType.LAZY)
     private List<Operation> operations = new ArrayList<>();
 
+    /**
+     * Index of the instance parameters by key, built on demand. Parameters
+     * appended to the list are added to it, it is rebuilt as soon as the
+     * parameter list is replaced or gets shorter.
+     */
+    private transient Map<String, InstanceParameter> parameterIndex;
+    private transient List<InstanceParameter> indexedParameters;
+    private transient int indexedParameterCount;
+
     public long getTkey() {
         return tkey;
     }
@@ -297,6 +324,9 @@ public class ServiceInstance implements Serializable {
     }
 
     public void setProvisioningStatus(ProvisioningStatus provisioningStatus) {
+        if (this.provisioningStatus != provisioningStatus) {
+            resetPollSchedule();
+        }
         this.provisioningStatus = provisioningStatus;
         if (provisioningStatus.equals(ProvisioningStatus.COMPLETED)) {
             setLocked(false);
@@ -330,6 +360,7 @@ public class ServiceInstance implements Serializable {
     public void setInstanceParameters(
             List<InstanceParameter> instanceParameters) {
         this.instanceParameters = instanceParameters;
+        this.parameterIndex = null;
     }
 
     public String getInstanceId() {
@@ -385,9 +416,37 @@ public class ServiceInstance implements Serializable {
     }
 
     public void setRunWithTimer(boolean runWithTimer) {
+        if (runWithTimer && !this.runWithTimer) {
+            resetPollSchedule();
+        }
         this.runWithTimer = runWithTimer;
     }
 
+    public long getNextPollTime() {
+        return nextPollTime;
+    }
+
+    public void setNextPollTime(long nextPollTime) {
+        this.nextPollTime = nextPollTime;
+    }
+
+    public int getUnchangedPollCount() {
+        return unchangedPollCount;
+    }
+
+    public void setUnchangedPollCount(int unchangedPollCount) {
+        this.unchangedPollCount = unchangedPollCount;
+    }
+
+    /**
+     * Makes the instance due for the next timer cycle and restarts the back
+     * off of the poll interval.
+     */
+    public void resetPollSchedule() {
+        this.nextPollTime = 0;
+        this.unchangedPollCount = 0;
+    }
+
     public boolean isInstanceProvisioning() {
         return instanceProvisioning;
     }
@@ -425,12 +484,29 @@ public class ServiceInstance implements Serializable {
      * @return The instance parameter with the given key.
      */
     public InstanceParameter getParameterForKey(String parameterKey) {
-        for (InstanceParameter param : instanceParameters) {
-            if (param.getParameterKey().equals(parameterKey)) {
-                return param;
+        return getParameterIndex().get(parameterKey);
+    }
+
+    private Map<String, InstanceParameter> getParameterIndex() {
+        Map<String, InstanceParameter> index = parameterIndex;
+        int size = instanceParameters.size();
+        if (index == null || indexedParameters != instanceParameters
+                || indexedParameterCount > size) {
+            index = new HashMap<>();
+            parameterIndex = index;
+            indexedParameters = instanceParameters;
+            indexedParameterCount = 0;
+        }
+        if (indexedParameterCount < size) {
+            // only the parameters appended since the last lookup are added
+            for (InstanceParameter param : instanceParameters
+                    .subList(indexedParameterCount, size)) {
+                // the first parameter wins, as with a sequential search
+                index.putIfAbsent(param.getParameterKey(), param);
             }
+            indexedParameterCount = size;
         }
-        return null;
+        return index;
     }
 
     /**
@@ -455,11 +531,13 @@ public class ServiceInstance implements Serializable {
      * 
      * @param parameters
      *            all the service specific settings
+     * @return <code>true</code> if a parameter was added or its value changed
      * 
      * @throws BadResultException
      */
-    public void setInstanceParameters(HashMap<String, Setting> parameters)
+    public boolean setInstanceParameters(HashMap<String, Setting> parameters)
             throws BadResultException {
+        boolean changed = false;
         if (parameters != null) {
             List<InstanceParameter> instanceParamList = new ArrayList<>();
             for (String key : parameters.keySet()) {
@@ -471,6 +549,7 @@ public class ServiceInstance implements Serializable {
                             // Changed => Update
                             ip.setEncrypted(param.isEncrypted());
                             ip.setDecryptedValue(param.getValue());
+                            changed = true;
                         }
                     } else { // Added parameter
                         ip = new InstanceParameter();
@@ -478,12 +557,14 @@ public class ServiceInstance implements Serializable {
                         ip.setEncrypted(param.isEncrypted());
                         ip.setDecryptedValue(param.getValue());
                         ip.setServiceInstance(this);
+                        changed = true;
                     }
                     instanceParamList.add(ip);
                 }
             }
             this.setInstanceParameters(instanceParamList);
         }
+        return changed;
     }
 
     /**
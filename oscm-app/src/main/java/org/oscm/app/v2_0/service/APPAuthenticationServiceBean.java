@@ -3,6 +3,7 @@
  *******************************************************************************/
 package org.oscm.app.v2_0.service;
 
+import org.oscm.app.business.AuthenticationCache;
 import org.oscm.app.business.exceptions.ServiceInstanceNotFoundException;
 import org.oscm.app.dao.BesDAO;
 import org.oscm.app.dao.ServiceInstanceDAO;
@@ -37,6 +38,11 @@ public class APPAuthenticationServiceBean {
 
   @EJB protected BesDAO besDAO;
 
+  /** Shared by all bean instances, so that the pool size does not matter. */
+  private static final AuthenticationCache AUTH_CACHE = new AuthenticationCache();
+
+  protected AuthenticationCache authCache = AUTH_CACHE;
+
   public VOUserDetails authenticateAdministrator(PasswordAuthentication auth)
       throws APPlatformException {
 
@@ -118,6 +124,39 @@ public class APPAuthenticationServiceBean {
       throw new IllegalArgumentException("User id must be specified");
     }
 
+    String cacheKey =
+        AuthenticationCache.key(
+            auth.getUserName(),
+            role,
+            controllerId.orElse(null),
+            organizationId,
+            serviceInstance == null ? null : serviceInstance.getInstanceId());
+    VOUserDetails cachedUserDetails = authCache.get(cacheKey, auth.getPassword());
+    if (cachedUserDetails != null) {
+      return cachedUserDetails;
+    }
+    authCache.checkFailures(cacheKey, auth.getUserName(), auth.getPassword());
+
+    VOUserDetails userDetails =
+        authenticateUserAtBES(serviceInstance, organizationId, auth, role, controllerId, cacheKey);
+    authCache.putSuccess(cacheKey, auth.getUserName(), auth.getPassword(), userDetails);
+    return userDetails;
+  }
+
+  /**
+   * Only rejections of the credentials are remembered in the cache. Errors of the communication
+   * with BES are thrown without being cached, otherwise an outage of BES would reject valid
+   * passwords until the failure expires.
+   */
+  private VOUserDetails authenticateUserAtBES(
+      ServiceInstance serviceInstance,
+      String organizationId,
+      PasswordAuthentication auth,
+      UserRoleType role,
+      Optional<String> controllerId,
+      String cacheKey)
+      throws APPlatformException {
+
     VOUser user = new VOUser();
     VOUserDetails userDetails = null;
     user.setUserId(auth.getUserName());
@@ -151,7 +190,12 @@ public class APPAuthenticationServiceBean {
     if (user.getKey() == 0) {
       // if we do not yet have the required user key available we first have to get it from BSS
       // platform
-      user = besDAO.getUser(serviceInstance, user, controllerId);
+      try {
+        user = besDAO.getUser(serviceInstance, user, controllerId);
+      } catch (AuthenticationException e) {
+        // BES does not know the user
+        throw reject(cacheKey, auth.getUserName(), password, e);
+      }
     }
 
     try {
@@ -163,6 +207,9 @@ public class APPAuthenticationServiceBean {
       LOGGER.debug(
           "User {} could not be authenticated => call to retrieve himself failed",
           user.getUserId());
+      if (e instanceof AuthenticationException) {
+        throw reject(cacheKey, auth.getUserName(), password, ae);
+      }
       throw ae;
     }
 
@@ -174,7 +221,7 @@ public class APPAuthenticationServiceBean {
           "User {} does not belong to the correct organization {}",
           user.getUserId(),
           organizationId);
-      throw ae;
+      throw reject(cacheKey, auth.getUserName(), password, ae);
     }
 
     // check role
@@ -183,8 +230,14 @@ public class APPAuthenticationServiceBean {
       AuthenticationException ae =
           new AuthenticationException("User does not have the required role");
       LOGGER.debug("User {} does not have the required role", user.getUserId());
-      throw ae;
+      throw reject(cacheKey, auth.getUserName(), password, ae);
     }
     return userDetails;
   }
+
+  private AuthenticationException reject(
+      String cacheKey, String userName, String password, AuthenticationException e) {
+    authCache.putFailure(cacheKey, userName, password, e.getMessage());
+    return e;
+  }
 }
@@ -7,6 +7,8 @@
  *******************************************************************************/
 package org.oscm.app.v2_0.service;
 
+import org.oscm.app.business.ConfigurationCache;
+import org.oscm.app.business.ConfigurationCache.CachedSetting;
 import org.oscm.app.business.exceptions.BadResultException;
 import org.oscm.app.domain.*;
 import org.oscm.app.i18n.Messages;
@@ -18,11 +20,15 @@ import org.oscm.vo.VOUserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Resource;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.persistence.*;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -46,6 +52,11 @@ public class APPConfigurationServiceBean {
   private static final String APP_SUSPEND = "APP_SUSPEND";
   private static final String KEY_PATH = "APP_KEY_PATH";
 
+  /** Decrypted settings shared by all bean instances. */
+  private static final ConfigurationCache CONFIG_CACHE = new ConfigurationCache();
+
+  protected ConfigurationCache configCache = CONFIG_CACHE;
+
   /**
    * Initialized the encryption for the APP. If the key file specified in the settings is present,
    * it reads the key, otherwise it is generated and saved in file.
@@ -87,27 +98,77 @@ public class APPConfigurationServiceBean {
   @PersistenceContext(name = "persistence/em", unitName = "oscm-app")
   protected EntityManager em;
 
+  @Resource protected TransactionSynchronizationRegistry txRegistry;
+
   @TransactionAttribute(TransactionAttributeType.MANDATORY)
   public String getProxyConfigurationSetting(PlatformConfigurationKey key)
       throws ConfigurationException {
 
     LOGGER.debug("Retrieving proxy configuration setting for key {}", key.name());
-    Query query = em.createNamedQuery("ConfigurationSetting.getForProxyKey");
-    query.setParameter("key", key.name());
-    try {
-      ConfigurationSetting result = (ConfigurationSetting) query.getSingleResult();
-      return result.getDecryptedValue();
-    } catch (NoResultException e) {
-      if (key.name().equals(APP_SUSPEND)) {
-        return "";
-      } else {
-        LOGGER.warn("No entry found for key {}", key.name());
-        throw new ConfigurationException(
-            String.format("No configuration setting found for key '%s'", key.name()), key.name());
-      }
+    CachedSetting result = getSettingsSnapshot(PROXY_ID).get(key.name());
+    if (result != null) {
+      return result.getValue();
+    }
+    if (key.name().equals(APP_SUSPEND)) {
+      return "";
+    } else {
+      LOGGER.warn("No entry found for key {}", key.name());
+      throw new ConfigurationException(
+          String.format("No configuration setting found for key '%s'", key.name()), key.name());
+    }
+  }
+
+  /**
+   * Returns the decrypted settings of the given controller or the proxy from the configuration
+   * cache. They are loaded from the database if no valid snapshot is cached.
+   */
+  Map<String, CachedSetting> getSettingsSnapshot(String controllerId)
+      throws ConfigurationException {
+    return configCache.getControllerSettings(
+        controllerId,
+        () -> {
+          LOGGER.debug("Loading configuration settings for '{}'", controllerId);
+          Map<String, CachedSetting> result = new HashMap<>();
+          Query query = em.createNamedQuery("ConfigurationSetting.getForController");
+          query.setParameter("controllerId", controllerId);
+          for (Object entry : query.getResultList()) {
+            ConfigurationSetting currentCs = (ConfigurationSetting) entry;
+            String key = currentCs.getSettingKey();
+            try {
+              result.put(key, CachedSetting.of(key, currentCs.getDecryptedValue(), false, null));
+            } catch (ConfigurationException e) {
+              result.put(key, CachedSetting.failed(key, e.getMessage()));
+            }
+          }
+          return result;
+        });
+  }
+
+  /**
+   * Discards the cached settings. As the new values are visible to other transactions only after
+   * the commit, the cache is invalidated once more when the current transaction has completed.
+   */
+  void invalidateConfigCache() {
+    configCache.invalidate();
+    if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      final ConfigurationCache cache = configCache;
+      txRegistry.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+              cache.invalidate();
+            }
+          });
     }
   }
 
+  public ConfigurationCache getConfigurationCache() {
+    return configCache;
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRED)
   public HashMap<String, String> getControllerOrganizations() {
 
@@ -127,6 +188,7 @@ public class APPConfigurationServiceBean {
   public void storeControllerOrganizations(HashMap<String, String> controllerOrganizations) {
 
     LOGGER.debug("Storing configured controllers");
+    invalidateConfigCache();
     Query query = em.createNamedQuery("ConfigurationSetting.getControllersForKey");
     query.setParameter("key", ControllerConfigurationKey.BSS_ORGANIZATION_ID.name());
     List<?> resultList = query.getResultList();
@@ -168,15 +230,7 @@ public class APPConfigurationServiceBean {
 
   private HashMap<String, Setting> getProxySettings() throws ConfigurationException {
     LOGGER.debug("Retrieving all configuration settings for proxy");
-    HashMap<String, Setting> result = new HashMap<>();
-    Query query = em.createNamedQuery("ConfigurationSetting.getAllProxy");
-    List<?> resultList = query.getResultList();
-    for (Object entry : resultList) {
-      ConfigurationSetting currentCs = (ConfigurationSetting) entry;
-      result.put(
-          currentCs.getSettingKey(),
-          new Setting(currentCs.getSettingKey(), currentCs.getDecryptedValue()));
-    }
+    HashMap<String, Setting> result = toSettings(getSettingsSnapshot(PROXY_ID));
     PlatformConfigurationKey[] keys = PlatformConfigurationKey.values();
     StringBuffer missing = new StringBuffer();
     for (PlatformConfigurationKey key : keys) {
@@ -214,15 +268,7 @@ public class APPConfigurationServiceBean {
     LOGGER.debug("Retrieving configuration settings for controller '{}'", controllerId);
     HashMap<String, Setting> result = new HashMap<>();
     if (controllerId != null) {
-      Query query = em.createNamedQuery("ConfigurationSetting.getForController");
-      query.setParameter("controllerId", controllerId);
-      List<?> resultList = query.getResultList();
-      for (Object entry : resultList) {
-        ConfigurationSetting currentCs = (ConfigurationSetting) entry;
-        result.put(
-            currentCs.getSettingKey(),
-            new Setting(currentCs.getSettingKey(), currentCs.getDecryptedValue()));
-      }
+      result = toSettings(getSettingsSnapshot(controllerId));
     }
     ControllerConfigurationKey[] keys = ControllerConfigurationKey.values();
     StringBuffer missing = new StringBuffer();
@@ -252,23 +298,45 @@ public class APPConfigurationServiceBean {
     HashMap<String, Setting> result = new HashMap<>();
 
     if (organizationId != null) {
-      TypedQuery<CustomAttribute> query =
-          em.createNamedQuery("CustomAttribute.getForOrg", CustomAttribute.class);
-      query.setParameter("oid", organizationId);
-      List<CustomAttribute> resultList = query.getResultList();
+      Map<String, CachedSetting> attributes =
+          configCache.getCustomAttributes(
+              organizationId, () -> loadCustomAttributes(organizationId));
+      for (CachedSetting entry : attributes.values()) {
+        result.put(
+            entry.getKey(),
+            new Setting(
+                entry.getKey(), entry.getValue(), entry.isEncrypted(), entry.getControllerId()));
+      }
+    }
+
+    return result;
+  }
+
+  private Map<String, CachedSetting> loadCustomAttributes(String organizationId) {
+    Map<String, CachedSetting> result = new HashMap<>();
+    TypedQuery<CustomAttribute> query =
+        em.createNamedQuery("CustomAttribute.getForOrg", CustomAttribute.class);
+    query.setParameter("oid", organizationId);
+    for (CustomAttribute entry : query.getResultList()) {
+      String key = entry.getAttributeKey();
       try {
-        for (CustomAttribute entry : resultList) {
-          result.put(
-              entry.getAttributeKey(),
-              new Setting(
-                  entry.getAttributeKey(), entry.getDecryptedValue(),
-                  entry.isEncrypted(), entry.getControllerId()));
-        }
+        result.put(
+            key,
+            CachedSetting.of(
+                key, entry.getDecryptedValue(), entry.isEncrypted(), entry.getControllerId()));
       } catch (BadResultException e) {
-        throw new ConfigurationException(e.getMessage());
+        result.put(key, CachedSetting.failed(key, e.getMessage()));
       }
     }
+    return result;
+  }
 
+  private static HashMap<String, Setting> toSettings(Map<String, CachedSetting> snapshot)
+      throws ConfigurationException {
+    HashMap<String, Setting> result = new HashMap<>();
+    for (CachedSetting entry : snapshot.values()) {
+      result.put(entry.getKey(), new Setting(entry.getKey(), entry.getValue()));
+    }
     return result;
   }
 
@@ -305,6 +373,7 @@ public class APPConfigurationServiceBean {
     if (controllerId == null || settings == null) {
       throw new IllegalArgumentException("All parameters must be set");
     }
+    invalidateConfigCache();
     Query query = em.createNamedQuery("ConfigurationSetting.getForController");
     query.setParameter("controllerId", controllerId);
     List<?> resultList = query.getResultList();
@@ -339,6 +408,7 @@ public class APPConfigurationServiceBean {
     if (settings == null) {
       throw new IllegalArgumentException("All parameters must be set");
     }
+    invalidateConfigCache();
     Query query = em.createNamedQuery("ConfigurationSetting.getForController");
     query.setParameter("controllerId", PROXY_ID);
     List<?> resultList = query.getResultList();
@@ -26,12 +26,14 @@ import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
 import javax.ejb.EJBException;
 import javax.ejb.LocalBean;
+import javax.ejb.SessionContext;
 import javax.ejb.Singleton;
 import javax.ejb.Timeout;
 import javax.ejb.Timer;
 import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import javax.naming.NamingException;
 import javax.persistence.EntityManager;
@@ -40,6 +42,8 @@ import javax.persistence.PersistenceContext;
 
 import org.oscm.app.business.APPlatformControllerFactory;
 import org.oscm.app.business.InstanceFilter;
+import org.oscm.app.business.InstancePollExecutor;
+import org.oscm.app.business.PollScheduler;
 import org.oscm.app.business.ProductProvisioningServiceFactoryBean;
 import org.oscm.app.business.exceptions.BESNotificationException;
 import org.oscm.app.business.exceptions.BadResultException;
@@ -132,6 +136,26 @@ public class APPTimerServiceBean implements Cloneable {
     @EJB
     protected ProductProvisioningServiceFactoryBean provServFact;
 
+    @EJB
+    protected ProvisioningStatusNotifier statusNotifier;
+
+    @Resource
+    protected ManagedExecutorService pollExecutorService;
+
+    @Resource
+    protected SessionContext sessionContext;
+
+    /**
+     * Executor for the current timer cycle, <code>null</code> if the instances
+     * are handled sequentially within the timer thread.
+     */
+    private volatile InstancePollExecutor pollExecutor;
+
+    /**
+     * Calculates the next poll time of the instances handled by the timer.
+     */
+    private volatile PollScheduler pollScheduler = new PollScheduler();
+
     @PostConstruct
     public void init() {
         try {
@@ -206,11 +230,18 @@ public class APPTimerServiceBean implements Cloneable {
         synchronized (TIMER_LOCK) {
             result = instanceDAO.getInstancesInWaitingState();
             // If no service is waiting, we can stop the timer
-            if (result.isEmpty() || configService.isAPPSuspend()) {
+            if ((result.isEmpty() && !instanceDAO.hasInstancesInWaitingState())
+                    || configService.isAPPSuspend()) {
                 appTimerServiceBean.cancelTimers();
                 logger.info("Timer canceled.");
                 return;
             }
+            // services are waiting, but none is due in this cycle
+            if (result.isEmpty()) {
+                return;
+            }
+            pollExecutor = createPollExecutor();
+            pollScheduler = createPollScheduler();
         }
 
         final String ERROR_TIMER = "Error occured during timer handling";
@@ -261,6 +292,52 @@ public class APPTimerServiceBean implements Cloneable {
         }
     }
 
+    /**
+     * Creates the executor used to poll the instances of one timer cycle in
+     * parallel. Returns <code>null</code> if no managed executor is available,
+     * in which case the instances are handled sequentially.
+     */
+    InstancePollExecutor createPollExecutor() {
+        if (pollExecutorService == null || sessionContext == null) {
+            return null;
+        }
+        int maxParallel = (int) getLongSetting(
+                PlatformConfigurationKey.APP_TIMER_POLL_THREADS,
+                InstancePollExecutor.DEFAULT_MAX_PARALLEL);
+        int maxPerController = (int) getLongSetting(
+                PlatformConfigurationKey.APP_TIMER_POLL_THREADS_PER_CONTROLLER,
+                InstancePollExecutor.DEFAULT_MAX_PER_CONTROLLER);
+        return new InstancePollExecutor(pollExecutorService, maxParallel,
+                maxPerController);
+    }
+
+    /**
+     * Creates the scheduler for the next poll times, starting with the timer
+     * interval and backing off up to the configured maximum interval.
+     */
+    PollScheduler createPollScheduler() {
+        long minInterval = getLongSetting(
+                PlatformConfigurationKey.APP_TIMER_INTERVAL,
+                DEFAULT_TIMER_INTERVAL);
+        long maxInterval = getLongSetting(
+                PlatformConfigurationKey.APP_TIMER_POLL_MAX_INTERVAL,
+                PollScheduler.DEFAULT_MAX_INTERVAL);
+        return new PollScheduler(minInterval, maxInterval);
+    }
+
+    long getLongSetting(PlatformConfigurationKey key, long defaultValue) {
+        try {
+            String value = configService.getProxyConfigurationSetting(key);
+            if (!Strings.isEmpty(value)) {
+                return Long.parseLong(value.trim());
+            }
+        } catch (ConfigurationException | NumberFormatException e) {
+            logger.debug("Setting {} not valid, using default {}", key.name(),
+                    Long.valueOf(defaultValue));
+        }
+        return defaultValue;
+    }
+
     List<ServiceInstance> filterList(List<ServiceInstance> result,
             EnumSet<ProvisioningStatus> status) {
 
@@ -277,29 +354,89 @@ public class APPTimerServiceBean implements Cloneable {
         List<ServiceInstance> serviceInstanceList = filterList(result,
                 provisioningStatus);
 
+        // one query per collection and chunk of instances, also for the
+        // parallel polling, which reads the settings from these instances
+        instanceDAO.fetchParametersAndAttributes(serviceInstanceList);
+
+        InstancePollExecutor executor = pollExecutor;
+        if (executor != null) {
+            final APPTimerServiceBean self = sessionContext
+                    .getBusinessObject(APPTimerServiceBean.class);
+            executor.execute(serviceInstanceList,
+                    si -> self.handleInstance(si));
+            return;
+        }
+
         for (ServiceInstance currentSI : serviceInstanceList) {
             if (configService.isAPPSuspend()) {
                 return;
             } else {
-                if (currentSI.isInstanceProvisioning()) {
-                    doHandleInstanceProvisioning(currentSI);
-                } else {
-                    doHandleControllerProvisioning(currentSI);
-                }
+                doHandleInstance(currentSI);
             }
         }
 
         return;
     }
 
+    /**
+     * Handles a single service instance of the current timer cycle within its
+     * own transaction. The given instance has been loaded by the timer
+     * together with its parameters and attributes, the settings for the
+     * controller are read from it. Only the instance itself is read again,
+     * since the entity loaded by the timer belongs to a different persistence
+     * context.
+     * 
+     * @param loaded
+     *            the service instance loaded by the timer
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void handleInstance(ServiceInstance loaded) {
+        if (configService.isAPPSuspend()) {
+            return;
+        }
+        ServiceInstance currentSI = instanceDAO
+                .getInstanceForPolling(loaded.getTkey());
+        if (currentSI == null || !currentSI.getRunWithTimer()) {
+            return;
+        }
+        if (currentSI.isInstanceProvisioning()) {
+            doHandleInstanceProvisioning(currentSI);
+        } else {
+            doHandleControllerProvisioning(currentSI, loaded);
+        }
+    }
+
+    void doHandleInstance(ServiceInstance currentSI) {
+        if (currentSI.isInstanceProvisioning()) {
+            doHandleInstanceProvisioning(currentSI);
+        } else {
+            doHandleControllerProvisioning(currentSI);
+        }
+    }
+
     void doHandleControllerProvisioning(ServiceInstance serviceInstance) {
+        doHandleControllerProvisioning(serviceInstance, serviceInstance);
+    }
+
+    /**
+     * Requests the status of the given instance from its controller and
+     * updates the instance accordingly.
+     * 
+     * @param serviceInstance
+     *            the managed service instance to be updated
+     * @param loaded
+     *            the same service instance with its parameters and attributes
+     *            already loaded, used for the settings of the controller
+     */
+    void doHandleControllerProvisioning(ServiceInstance serviceInstance,
+            ServiceInstance loaded) {
         final ProvisioningStatus provisioningStatus = serviceInstance
                 .getProvisioningStatus();
         HashMap<String, Setting> changedParameters = new HashMap<>();
 
         try {
             final ProvisioningSettings settings = configService
-                    .getProvisioningSettings(serviceInstance, null, true);
+                    .getProvisioningSettings(loaded, null, true);
             final APPlatformController controller = APPlatformControllerFactory
                     .getInstance(serviceInstance.getControllerId());
             InstanceStatus instanceStatus = controller.getInstanceStatus(
@@ -314,22 +451,24 @@ public class APPTimerServiceBean implements Cloneable {
             }
 
             if (!instanceStatus.isReady()) {
+                // progress is sent asynchronously, so that a slow BES does
+                // not delay the polling
                 if (provisioningStatus.isWaitingForCreation()) {
-                    besDAO.notifyOnProvisioningStatusUpdate(serviceInstance,
+                    statusNotifier.notifyProgress(serviceInstance,
                             instanceStatus.getDescription());
                 } else if (provisioningStatus.isWaitingForOperation()) {
                     Operation operation = operationDAO.getOperationByInstanceId(
                             serviceInstance.getInstanceId());
                     if (operation != null) {
-                        besDAO.notifyAsyncOperationStatus(serviceInstance,
+                        statusNotifier.notifyOperationProgress(serviceInstance,
                                 operation.getTransactionId(),
-                                OperationStatus.RUNNING,
                                 instanceStatus.getDescription());
                     }
                 }
             } else {
                 if (provisioningStatus.isWaitingForDeletion()) {
                     em.remove(serviceInstance);
+                    statusNotifier.discard(serviceInstance.getTkey());
                     return;
                 }
 
@@ -373,10 +512,14 @@ public class APPTimerServiceBean implements Cloneable {
                         .setServiceLoginPath(instanceStatus.getLoginPath());
             }
 
-            serviceInstance.setInstanceParameters(changedParameters);
+            boolean statusChanged = serviceInstance
+                    .setInstanceParameters(changedParameters);
             serviceInstance.setControllerReady(instanceStatus.isReady());
             serviceInstance.setInstanceProvisioning(
                     instanceStatus.isInstanceProvisioningRequested());
+            pollScheduler.scheduleNext(serviceInstance,
+                    statusChanged || instanceStatus.isReady(),
+                    System.currentTimeMillis());
             em.persist(serviceInstance);
             if (serviceInstance.getProvisioningStatus().isCompleted()) {
                 OperationResult result = opBean
@@ -571,6 +714,7 @@ public class APPTimerServiceBean implements Cloneable {
             }
         } else if (instanceProvStatus.isWaitingForDeletion()) {
             em.remove(currentSI);
+            statusNotifier.discard(currentSI.getTkey());
             sendInfoMail(true, currentSI,
                     instanceProvStatus.getErrorMailMessage(), cause);
         } else if (instanceProvStatus.isWaitingForModification()) {
@@ -869,6 +1013,8 @@ public class APPTimerServiceBean implements Cloneable {
             InstanceResult instanceResult, APPlatformException cause)
             throws BESNotificationException {
 
+        statusNotifier.discard(currentSI.getTkey());
+
         ProvisioningStatus provisioningStatus = currentSI
                 .getProvisioningStatus();
 
@@ -929,6 +1075,8 @@ public class APPTimerServiceBean implements Cloneable {
     private void notifyOnProvisioningCompletion(ServiceInstance currentSI,
             InstanceResult instanceResult) throws BESNotificationException {
 
+        statusNotifier.discard(currentSI.getTkey());
+
         ProvisioningStatus provisioningStatus = currentSI
                 .getProvisioningStatus();
 
@@ -1026,6 +1174,9 @@ public class APPTimerServiceBean implements Cloneable {
             InstanceStatus newStatus = controller.notifyInstance(instanceId,
                     settings, properties);
 
+            // Poll the instance with the next timer cycle
+            currentSI.resetPollSchedule();
+
             // Check for internal call
             if (properties != null && EVENT_VALUE_YES
                     .equals(properties.getProperty(EVENT_KEY_RESUME, ""))) {
@@ -14,15 +14,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
-import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.KeyStore;
-import java.security.KeyStoreException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -31,16 +27,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
 import javax.ejb.EJB;
 import javax.ejb.Remote;
 import javax.ejb.Stateless;
 
 import org.apache.commons.codec.binary.Base64;
 import org.oscm.app.business.APPlatformControllerFactory;
+import org.oscm.app.business.VerificationKeyCache;
 import org.oscm.app.business.exceptions.BadResultException;
 import org.oscm.app.business.exceptions.ServiceInstanceNotFoundException;
 import org.oscm.app.dao.ServiceInstanceDAO;
@@ -72,6 +66,11 @@ public class APPlatformServiceBean implements APPlatformService {
   private static final String PROXY_CONTROLLER_ID = "PROXY";
   private static final String PWD_KEY = "BSS_USER_PWD";
 
+  /** Shared by all bean instances, the truststore is the same for all of them. */
+  private static final VerificationKeyCache KEY_CACHE = new VerificationKeyCache();
+
+  protected VerificationKeyCache keyCache = KEY_CACHE;
+
   public void setConfigService(APPConfigurationServiceBean configService) {
     this.configService = configService;
   }
@@ -288,7 +287,6 @@ public class APPlatformServiceBean implements APPlatformService {
   @Override
   public boolean checkToken(String token, String signature) {
 
-    InputStream is = null;
     try {
 
       // load configuration settings for truststore
@@ -311,60 +309,60 @@ public class APPlatformServiceBean implements APPlatformService {
       md.update(token.getBytes(StandardCharsets.UTF_8));
       String tokenHash = new String(md.digest());
 
-      // load truststore
-      is = new FileInputStream(loc);
-      KeyStore keystore = KeyStore.getInstance(KeyStore.getDefaultType());
-      keystore.load(is, pwd.toCharArray());
-
-      // get certificate for alias
-      Certificate cert = keystore.getCertificate(alias);
-
-      if (cert == null) {
-        LOGGER.error("Unable to find certificate with alias " + alias);
-        return false;
-      }
-
-      // get public key and decrypt signature
-      Key key = cert.getPublicKey();
-
+      // get public key, the truststore is only read again after a change
+      Key key = keyCache.getKey(loc, pwd, alias, () -> loadVerificationKey(loc, pwd, alias));
       if (key == null) {
-        LOGGER.error("Certificate returned null key");
         return false;
       }
 
-      Cipher c = Cipher.getInstance(key.getAlgorithm());
-      c.init(Cipher.DECRYPT_MODE, key);
-
+      // decrypt signature
       byte[] decodedSignature = Base64.decodeBase64(signature);
-      String decryptedHash = new String(c.doFinal(decodedSignature));
+      Cipher cipher = keyCache.borrowDecryptCipher(key);
+      String decryptedHash = new String(cipher.doFinal(decodedSignature));
+      keyCache.returnDecryptCipher(key, cipher);
 
       // compare token hash with decrypted hash
       if (tokenHash.equals(decryptedHash)) {
         return true;
       }
-    } catch (NoSuchAlgorithmException
-        | KeyStoreException
-        | CertificateException
-        | IOException
-        | NoSuchPaddingException
-        | InvalidKeyException
-        | IllegalBlockSizeException
-        | BadPaddingException
-        | ConfigurationException e) {
+    } catch (GeneralSecurityException | IOException | ConfigurationException e) {
       LOGGER.error("An error occur during the token validation", e);
-    } finally {
-      try {
-        if (is != null) {
-          is.close();
-        }
-      } catch (IOException e) {
-        // ignore
-      }
     }
 
     return false;
   }
 
+  /**
+   * Loads the public key of the certificate with the given alias from the truststore. Returns
+   * <code>null</code> if the certificate or its key cannot be found.
+   */
+  Key loadVerificationKey(String loc, String pwd, String alias)
+      throws GeneralSecurityException, IOException {
+
+    // load truststore
+    KeyStore keystore;
+    try (InputStream is = new FileInputStream(loc)) {
+      keystore = KeyStore.getInstance(KeyStore.getDefaultType());
+      keystore.load(is, pwd.toCharArray());
+    }
+
+    // get certificate for alias
+    Certificate cert = keystore.getCertificate(alias);
+
+    if (cert == null) {
+      LOGGER.error("Unable to find certificate with alias " + alias);
+      return null;
+    }
+
+    // get public key
+    Key key = cert.getPublicKey();
+
+    if (key == null) {
+      LOGGER.error("Certificate returned null key");
+    }
+    return key;
+  }
+
   @Override
   public void updateUserCredentials(long useKey, String username, String password) {
 
@@ -723,6 +723,7 @@ public class AsynchronousProvisioningProxy implements ProvisioningService {
         ca.setControllerId(attr.getControllerId());
         em.persist(ca);
       }
+      configService.invalidateConfigCache();
 
       return provResult.newOkBaseResult();
 
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.v2_0.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.oscm.app.business.exceptions.BESNotificationException;
+import org.oscm.app.dao.BesDAO;
+import org.oscm.app.domain.PlatformConfigurationKey;
+import org.oscm.app.domain.ProvisioningStatus;
+import org.oscm.app.domain.ServiceInstance;
+import org.oscm.app.v2_0.data.LocalizedText;
+import org.oscm.app.v2_0.exceptions.ConfigurationException;
+import org.oscm.string.Strings;
+import org.oscm.types.enumtypes.OperationStatus;
+import org.slf4j.Logger;
+
+/**
+ * Sends the progress notifications of instances which are still being
+ * provisioned to BES. Instead of calling BES with each poll of the timer, the
+ * notifications are queued and sent in batches by a timer of their own:
+ * <ul>
+ * <li>a notification with the same text as the last one sent for an instance
+ * is dropped,</li>
+ * <li>within one flush interval only the latest notification of an instance
+ * is sent,</li>
+ * <li>failed notifications are retried with an increasing delay unless a
+ * newer notification for the same instance is queued meanwhile.</li>
+ * </ul>
+ * Final notifications on completion or abortion are not handled here, they
+ * are still sent synchronously by the timer.
+ * <p>
+ * The timer runs without a transaction, each notification is sent in a
+ * transaction of its own, so that a slow or failing call to BES does not
+ * affect the others.
+ */
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@Singleton
+@LocalBean
+@Startup
+public class ProvisioningStatusNotifier {
+
+    private static final String NOTIFIER_TIMER_INFO = "8c1e7f2a-5d3b-4e61-9a0f-2b7d4c9e1a53";
+
+    static final long DEFAULT_FLUSH_INTERVAL = 10000;
+    static final int MAX_BATCH_SIZE = 200;
+    static final int MAX_ATTEMPTS = 5;
+    static final long MAX_RETRY_DELAY = 300000;
+
+    @Inject
+    protected transient Logger logger;
+
+    @PersistenceContext(name = "persistence/em", unitName = "oscm-app")
+    protected EntityManager em;
+
+    @Resource
+    protected TimerService timerService;
+
+    @Resource
+    protected SessionContext sessionContext;
+
+    @EJB
+    protected APPConfigurationServiceBean configService;
+
+    @EJB
+    protected BesDAO besDAO;
+
+    /**
+     * The queued notifications by technical key of the instance. A service
+     * instance is either waiting for its creation or for an operation, so one
+     * entry per instance is sufficient. The instance ID is not used as key,
+     * as it is only unique per controller.
+     */
+    final Map<Long, Notification> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The fingerprint of the last text sent per technical key of the instance.
+     */
+    final Map<Long, String> lastSent = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    @PostConstruct
+    public void setTimer() {
+        Collection<Timer> timers = timerService.getTimers();
+        for (Timer timer : timers) {
+            if (NOTIFIER_TIMER_INFO.equals(timer.getInfo())) {
+                timer.cancel();
+            }
+        }
+        flushInterval = getFlushInterval();
+        logger.info("Timer for BES status notifications will be created.");
+        timerService.createIntervalTimer(flushInterval, flushInterval,
+                new TimerConfig(NOTIFIER_TIMER_INFO, false));
+    }
+
+    long getFlushInterval() {
+        try {
+            String value = configService.getProxyConfigurationSetting(
+                    PlatformConfigurationKey.APP_BES_NOTIFICATION_INTERVAL);
+            if (!Strings.isEmpty(value)) {
+                long interval = Long.parseLong(value.trim());
+                if (interval > 0) {
+                    return interval;
+                }
+            }
+        } catch (ConfigurationException | NumberFormatException e) {
+            logger.debug("Interval for BES status notifications not set, use default.");
+        }
+        return DEFAULT_FLUSH_INTERVAL;
+    }
+
+    /**
+     * Queues a progress notification for an instance waiting for its
+     * creation.
+     *
+     * @param instance
+     *            the service instance
+     * @param texts
+     *            the localized progress description
+     */
+    public void notifyProgress(ServiceInstance instance,
+            List<LocalizedText> texts) {
+        enqueue(instance, null, texts);
+    }
+
+    /**
+     * Queues a notification on a running operation of an instance.
+     *
+     * @param instance
+     *            the service instance
+     * @param transactionId
+     *            the transaction ID of the operation
+     * @param texts
+     *            the localized progress description
+     */
+    public void notifyOperationProgress(ServiceInstance instance,
+            String transactionId, List<LocalizedText> texts) {
+        enqueue(instance, transactionId, texts);
+    }
+
+    /**
+     * Discards all queued notifications of the given instance, e.g. when its
+     * provisioning has been completed or aborted or when it is deleted.
+     *
+     * @param tkey
+     *            the technical key of the service instance
+     */
+    public void discard(long tkey) {
+        Long key = Long.valueOf(tkey);
+        pending.remove(key);
+        lastSent.remove(key);
+    }
+
+    void enqueue(ServiceInstance instance, String transactionId,
+            List<LocalizedText> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return;
+        }
+        Long key = Long.valueOf(instance.getTkey());
+        String fingerprint = fingerprint(transactionId, texts);
+        Notification notification = new Notification(instance.getTkey(),
+                instance.getInstanceId(), transactionId, new ArrayList<>(texts),
+                fingerprint, 0, 0);
+        pending.compute(key, (k, queued) -> {
+            if (queued == null && fingerprint.equals(lastSent.get(key))) {
+                droppedCount.incrementAndGet();
+                return null;
+            }
+            if (queued != null) {
+                droppedCount.incrementAndGet();
+            }
+            return notification;
+        });
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void execute(Timer timer) {
+        if (!NOTIFIER_TIMER_INFO.equals(timer.getInfo())) {
+            return;
+        }
+        flush(System.currentTimeMillis());
+    }
+
+    /**
+     * Sends the queued notifications which are due. Returns the number of
+     * notifications which have been sent.
+     */
+    int flush(long now) {
+        if (!flushing.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            final ProvisioningStatusNotifier self = sessionContext
+                    .getBusinessObject(ProvisioningStatusNotifier.class);
+            int sent = 0;
+            for (Notification notification : new ArrayList<>(
+                    pending.values())) {
+                if (sent >= MAX_BATCH_SIZE) {
+                    break;
+                }
+                if (notification.notBefore > now || !pending
+                        .remove(notification.getKey(), notification)) {
+                    // not due yet or replaced by a newer notification
+                    continue;
+                }
+                try {
+                    if (self.send(notification, now)) {
+                        sent++;
+                    }
+                } catch (RuntimeException e) {
+                    retry(notification, now, e);
+                }
+            }
+            return sent;
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Sends a single notification in a transaction of its own. Returns
+     * <code>false</code> if the notification is not needed any more or has
+     * been queued for a retry.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean send(Notification notification, long now) {
+        ServiceInstance instance = em.find(ServiceInstance.class,
+                notification.getKey());
+        if (instance == null || !isStillWaiting(instance, notification)) {
+            lastSent.remove(notification.getKey());
+            return false;
+        }
+        try {
+            if (notification.transactionId == null) {
+                besDAO.notifyOnProvisioningStatusUpdate(instance,
+                        notification.texts);
+            } else {
+                besDAO.notifyAsyncOperationStatus(instance,
+                        notification.transactionId, OperationStatus.RUNNING,
+                        notification.texts);
+            }
+            lastSent.put(notification.getKey(), notification.fingerprint);
+            sentCount.incrementAndGet();
+            return true;
+        } catch (BESNotificationException | RuntimeException e) {
+            retry(notification, now, e);
+            return false;
+        }
+    }
+
+    private boolean isStillWaiting(ServiceInstance instance,
+            Notification notification) {
+        ProvisioningStatus status = instance.getProvisioningStatus();
+        if (notification.transactionId == null) {
+            return status.isWaitingForCreation();
+        }
+        return status.isWaitingForOperation();
+    }
+
+    void retry(Notification notification, long now, Exception cause) {
+        int attempts = notification.attempts + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            failedCount.incrementAndGet();
+            logger.warn(
+                    "Status of service instance '{}' could not be sent to OSCM after {} attempts: {}",
+                    notification.instanceId, Integer.valueOf(attempts),
+                    cause.getMessage());
+            return;
+        }
+        logger.debug("Sending status of service instance '{}' failed: {}",
+                notification.instanceId, cause.getMessage());
+        // a newer notification queued meanwhile takes precedence
+        pending.putIfAbsent(notification.getKey(),
+                notification.retry(attempts, now + getRetryDelay(attempts)));
+    }
+
+    long getRetryDelay(int attempts) {
+        long delay = flushInterval << Math.min(attempts, 16);
+        return Math.min(delay, MAX_RETRY_DELAY);
+    }
+
+    static String fingerprint(String transactionId,
+            List<LocalizedText> texts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(transactionId);
+        for (LocalizedText text : texts) {
+            sb.append('\n').append(text.getLocale()).append('=')
+                    .append(text.getText());
+        }
+        return sb.toString();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    static class Notification {
+
+        final long tkey;
+        final String instanceId;
+        final String transactionId;
+        final List<LocalizedText> texts;
+        final String fingerprint;
+        final int attempts;
+        final long notBefore;
+
+        Notification(long tkey, String instanceId, String transactionId,
+                List<LocalizedText> texts, String fingerprint, int attempts,
+                long notBefore) {
+            this.tkey = tkey;
+            this.instanceId = instanceId;
+            this.transactionId = transactionId;
+            this.texts = Collections.unmodifiableList(texts);
+            this.fingerprint = fingerprint;
+            this.attempts = attempts;
+            this.notBefore = notBefore;
+        }
+
+        Long getKey() {
+            return Long.valueOf(tkey);
+        }
+
+        Notification retry(int newAttempts, long newNotBefore) {
+            return new Notification(tkey, instanceId, transactionId, texts,
+                    fingerprint, newAttempts, newNotBefore);
+        }
+    }
+}
@@ -76,6 +76,9 @@ public class ServiceInstanceServiceBean {
     @EJB
     protected OperationDAO opDao;
 
+    @EJB
+    protected ProvisioningStatusNotifier statusNotifier;
+
     @PersistenceContext(name = "persistence/em", unitName = "oscm-app")
     public EntityManager em;
 
@@ -285,6 +288,7 @@ public class ServiceInstanceServiceBean {
 
         try {
             dao.deleteInstance(changedSI);
+            statusNotifier.discard(changedSI.getTkey());
         } catch (ServiceInstanceNotFoundException e1) {
             logger.warn("The service instance '{}' doesn't exist any more.",
                     serviceInstance.getInstanceId());
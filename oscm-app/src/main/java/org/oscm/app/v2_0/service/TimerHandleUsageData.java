@@ -98,6 +98,10 @@ public class TimerHandleUsageData {
 
         APPlatformService ps = APPlatformServiceFactory.getInstance();
         List<ServiceInstance> instances = serviceInstanceService.getInstances();
+        // all instances of a run share the end time, so instances whose usage
+        // was fetched in the same run before have the same time window and
+        // controllers can fetch the usage of all of them at once
+        String endTime = getEndTime();
         for (ServiceInstance serviceInstance : instances) {
             try {
 
@@ -112,7 +116,6 @@ public class TimerHandleUsageData {
 
                 // handle usage data
                 String startTime = getStartTime(serviceInstance);
-                String endTime = getEndTime(serviceInstance);
 
                 handleUsageData(serviceInstance, controller, settings,
                         startTime, endTime);
@@ -222,7 +225,7 @@ public class TimerHandleUsageData {
         return null;
     }
 
-    String getEndTime(ServiceInstance serviceInstance) {
+    String getEndTime() {
         return now(of("UTC")).format(ISO_LOCAL_DATE_TIME);
     }
 
@@ -23,6 +23,8 @@ import javax.naming.InitialContext;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
@@ -40,6 +42,7 @@ public class APPlatformControllerFactoryTest {
     PowerMockito.mockStatic(APPlatformController.class);
     context = mock(InitialContext.class);
     lookup = mock(APPlatformController.class);
+    APPlatformControllerFactory.getRegistry().invalidateAll();
   }
 
   @Test
@@ -53,6 +56,19 @@ public class APPlatformControllerFactoryTest {
     assertEquals(APPlatformControllerAdapter.class, result.getClass());
   }
 
+  @Test
+  public void testGetInstance_lookupOnce() throws Exception {
+    PowerMockito.whenNew(InitialContext.class).withAnyArguments().thenReturn(context);
+    when(context.lookup(anyString())).thenReturn(lookup);
+    PowerMockito.when(APPlatformController.class.isAssignableFrom(lookup.getClass())).thenReturn(true);
+
+    Whitebox.invokeMethod(controllerFactory, "getInstance", "ControllerID");
+    Whitebox.invokeMethod(controllerFactory, "getInstance", "ControllerID");
+
+    verify(context, times(1)).lookup(anyString());
+    assertEquals(1, APPlatformControllerFactory.getRegistry().size());
+  }
+
   @Test(expected = Exception.class)
   public void testGetInstanceThrowsExce() throws Exception {
     PowerMockito.whenNew(InitialContext.class).withAnyArguments().thenReturn(context);
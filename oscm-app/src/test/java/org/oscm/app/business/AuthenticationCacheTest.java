@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.oscm.app.v2_0.exceptions.AuthenticationException;
+import org.oscm.types.enumtypes.UserRoleType;
+import org.oscm.vo.VOUserDetails;
+
+public class AuthenticationCacheTest {
+
+  private static final String USER = "user";
+  private static final String KEY =
+      AuthenticationCache.key(USER, UserRoleType.TECHNOLOGY_MANAGER, "ess.vmware", "org", null);
+
+  @Test
+  public void get_success() {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    VOUserDetails userDetails = new VOUserDetails();
+    cache.putSuccess(KEY, USER, "password", userDetails);
+
+    // when
+    VOUserDetails cached = cache.get(KEY, "password");
+
+    // then
+    assertSame(userDetails, cached);
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void get_wrongPassword() {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    cache.putSuccess(KEY, USER, "password", new VOUserDetails());
+
+    // when
+    VOUserDetails cached = cache.get(KEY, "other");
+
+    // then
+    assertNull(cached);
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void get_expired() {
+    // given
+    AuthenticationCache cache = new AuthenticationCache(-1, AuthenticationCache.MAX_SIZE);
+    cache.putSuccess(KEY, USER, "password", new VOUserDetails());
+
+    // when
+    VOUserDetails cached = cache.get(KEY, "password");
+
+    // then
+    assertNull(cached);
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = AuthenticationException.class)
+  public void checkFailures_samePassword() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    cache.putFailure(KEY, USER, "wrong", "invalid credentials");
+
+    // when
+    cache.checkFailures(KEY, USER, "wrong");
+  }
+
+  @Test
+  public void checkFailures_otherPassword() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    cache.putFailure(KEY, USER, "wrong", "invalid credentials");
+
+    // when
+    cache.checkFailures(KEY, USER, "password");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void putSuccess_resetsFailures() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    cache.putFailure(KEY, USER, "wrong", "invalid credentials");
+
+    // when
+    cache.putSuccess(KEY, USER, "password", new VOUserDetails());
+    cache.checkFailures(KEY, USER, "wrong");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void checkFailures_freeAttempts() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    for (int i = 0; i < AuthenticationCache.FREE_ATTEMPTS; i++) {
+      cache.putFailure(KEY, USER, "wrong" + i, "invalid credentials");
+    }
+
+    // when
+    cache.checkFailures(KEY, USER, "password");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void checkFailures_throttled() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    for (int i = 0; i <= AuthenticationCache.FREE_ATTEMPTS; i++) {
+      cache.putFailure(KEY, USER, "wrong" + i, "invalid credentials");
+    }
+
+    // when
+    try {
+      cache.checkFailures(KEY, USER, "password");
+      fail();
+    } catch (AuthenticationException e) {
+      // then
+      assertEquals(1, cache.getRejectionCount());
+    }
+  }
+
+  @Test
+  public void checkFailures_throttledPerUser() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    for (int i = 0; i <= AuthenticationCache.FREE_ATTEMPTS; i++) {
+      cache.putFailure(KEY, USER, "wrong" + i, "invalid credentials");
+    }
+    String otherKey =
+        AuthenticationCache.key("other", UserRoleType.TECHNOLOGY_MANAGER, "ess.vmware", "org", null);
+
+    // when
+    cache.checkFailures(otherKey, "other", "password");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void checkFailures_afterDelay() throws Exception {
+    // given
+    AuthenticationCache cache =
+        new AuthenticationCache(
+            AuthenticationCache.DEFAULT_TIME_TO_LIVE, AuthenticationCache.MAX_SIZE, 0);
+    for (int i = 0; i < 10; i++) {
+      cache.putFailure(KEY, USER, "wrong" + i, "invalid credentials");
+    }
+
+    // when
+    cache.checkFailures(KEY, USER, "password");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void putSuccess_resetsThrottle() throws Exception {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    for (int i = 0; i <= AuthenticationCache.FREE_ATTEMPTS; i++) {
+      cache.putFailure(KEY, USER, "wrong" + i, "invalid credentials");
+    }
+
+    // when
+    cache.putSuccess(KEY, USER, "password", new VOUserDetails());
+    cache.checkFailures(KEY, USER, "other");
+
+    // then
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  public void getDelay() {
+    // given
+    AuthenticationCache cache = new AuthenticationCache();
+    int first = AuthenticationCache.FREE_ATTEMPTS + 1;
+
+    // then
+    assertEquals(0, cache.getDelay(AuthenticationCache.FREE_ATTEMPTS));
+    assertEquals(AuthenticationCache.INITIAL_DELAY, cache.getDelay(first));
+    assertEquals(2 * AuthenticationCache.INITIAL_DELAY, cache.getDelay(first + 1));
+    assertEquals(AuthenticationCache.MAX_DELAY, cache.getDelay(first + 100));
+  }
+
+  @Test
+  public void putSuccess_sizeBounded() {
+    // given
+    AuthenticationCache cache = new AuthenticationCache(AuthenticationCache.DEFAULT_TIME_TO_LIVE, 2);
+
+    // when
+    for (int i = 0; i < 5; i++) {
+      cache.putSuccess(KEY + i, USER, "password", new VOUserDetails());
+    }
+
+    // then
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void key_scoped() {
+    assertNotEquals(
+        KEY,
+        AuthenticationCache.key("user", UserRoleType.ORGANIZATION_ADMIN, "ess.vmware", "org", null));
+  }
+}
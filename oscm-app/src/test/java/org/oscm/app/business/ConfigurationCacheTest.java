@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.oscm.app.business.ConfigurationCache.CachedSetting;
+import org.oscm.app.v2_0.exceptions.ConfigurationException;
+
+public class ConfigurationCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void getControllerSettings_cached() throws Exception {
+    // given
+    ConfigurationCache cache = new ConfigurationCache();
+    Map<String, CachedSetting> first = cache.getControllerSettings("ess.vmware", this::load);
+
+    // when
+    Map<String, CachedSetting> second = cache.getControllerSettings("ess.vmware", this::load);
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate(), 0.001);
+  }
+
+  @Test
+  public void getCustomAttributes_separateScope() throws Exception {
+    // given
+    ConfigurationCache cache = new ConfigurationCache();
+    cache.getControllerSettings("id", this::load);
+
+    // when
+    cache.getCustomAttributes("id", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    // given
+    ConfigurationCache cache = new ConfigurationCache();
+    cache.getControllerSettings("PROXY", this::load);
+
+    // when
+    cache.invalidate();
+    cache.getControllerSettings("PROXY", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void expired() throws Exception {
+    // given
+    ConfigurationCache cache = new ConfigurationCache(-1);
+    cache.getControllerSettings("PROXY", this::load);
+
+    // when
+    cache.getControllerSettings("PROXY", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void loadedDuringInvalidation_notReused() throws Exception {
+    // given
+    ConfigurationCache cache = new ConfigurationCache();
+    cache.getControllerSettings(
+        "PROXY",
+        () -> {
+          cache.invalidate();
+          return load();
+        });
+
+    // when
+    cache.getControllerSettings("PROXY", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void getValue_failed() throws Exception {
+    CachedSetting.failed("KEY_PWD", "could not be decrypted").getValue();
+  }
+
+  @Test
+  public void getHitRate_noReads() {
+    assertEquals(0, new ConfigurationCache().getHitRate(), 0);
+  }
+
+  private Map<String, CachedSetting> load() {
+    loads.incrementAndGet();
+    return Collections.singletonMap("KEY", CachedSetting.of("KEY", "value", false, null));
+  }
+}
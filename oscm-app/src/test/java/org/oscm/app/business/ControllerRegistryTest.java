@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ejb.EJBException;
+
+import org.junit.Test;
+import org.oscm.app.i18n.Messages;
+import org.oscm.app.v2_0.exceptions.ControllerLookupException;
+import org.oscm.app.v2_0.exceptions.ServiceNotReachableException;
+import org.oscm.app.v2_0.intf.APPlatformController;
+
+public class ControllerRegistryTest {
+
+  private final ControllerRegistry registry = new ControllerRegistry();
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  @Test
+  public void get_lookupOnce() throws Exception {
+    // given
+    APPlatformController controller = mock(APPlatformController.class);
+
+    // when
+    APPlatformController first = registry.get("ess.vmware", id -> lookup(controller));
+    APPlatformController second = registry.get("ess.vmware", id -> lookup(controller));
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, lookups.get());
+    assertEquals(1, registry.getLookupCount());
+    assertEquals(1, registry.getHitCount());
+  }
+
+  @Test
+  public void get_delegates() throws Exception {
+    // given
+    APPlatformController controller = mock(APPlatformController.class);
+
+    // when
+    registry.get("ess.vmware", id -> lookup(controller)).ping("ess.vmware");
+
+    // then
+    verify(controller).ping("ess.vmware");
+  }
+
+  @Test
+  public void get_lookupFailed() throws Exception {
+    // when
+    try {
+      registry.get(
+          "ess.vmware",
+          id -> {
+            throw new ControllerLookupException(Messages.getAll("error_controller_lookup"));
+          });
+    } catch (ControllerLookupException e) {
+      // expected
+    }
+
+    // then
+    assertEquals(1, registry.getLookupFailureCount());
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void staleReference_evicted() throws Exception {
+    // given
+    APPlatformController controller = mock(APPlatformController.class);
+    doThrow(new EJBException("undeployed")).when(controller).ping(anyString());
+    APPlatformController registered = registry.get("ess.vmware", id -> lookup(controller));
+
+    // when
+    try {
+      registered.ping("ess.vmware");
+    } catch (EJBException e) {
+      // expected
+    }
+    registry.get("ess.vmware", id -> lookup(controller));
+
+    // then
+    assertEquals(1, registry.getEvictionCount());
+    assertEquals(2, lookups.get());
+  }
+
+  @Test(expected = ServiceNotReachableException.class)
+  public void applicationException_notEvicted() throws Exception {
+    // given
+    APPlatformController controller = mock(APPlatformController.class);
+    doThrow(new ServiceNotReachableException("down")).when(controller).ping(anyString());
+    APPlatformController registered = registry.get("ess.vmware", id -> lookup(controller));
+
+    // when
+    try {
+      registered.ping("ess.vmware");
+    } finally {
+      // then
+      assertEquals(1, registry.size());
+    }
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    // given
+    APPlatformController controller = mock(APPlatformController.class);
+    registry.get("ess.vmware", id -> lookup(controller));
+
+    // when
+    registry.invalidate("ess.vmware");
+
+    // then
+    assertEquals(0, registry.size());
+  }
+
+  private APPlatformController lookup(APPlatformController controller) {
+    lookups.incrementAndGet();
+    return controller;
+  }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.domain.ServiceInstance;
+
+public class InstancePollExecutorTest {
+
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(8);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void execute_allInstancesHandled() {
+    // given
+    InstancePollExecutor executor = new InstancePollExecutor(executorService, 4, 2);
+    List<ServiceInstance> instances = createInstances(30, "ess.vmware", "ess.openstack", "ess.aws");
+    Map<String, Boolean> handled = new ConcurrentHashMap<>();
+
+    // when
+    executor.execute(instances, si -> handled.put(si.getInstanceId(), Boolean.TRUE));
+
+    // then
+    assertEquals(30, handled.size());
+  }
+
+  @Test
+  public void execute_limitPerController() {
+    // given
+    InstancePollExecutor executor = new InstancePollExecutor(executorService, 8, 2);
+    List<ServiceInstance> instances = createInstances(20, "ess.vmware");
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    // when
+    executor.execute(
+        instances,
+        si -> {
+          int current = running.incrementAndGet();
+          maxRunning.accumulateAndGet(current, Math::max);
+          sleep();
+          running.decrementAndGet();
+        });
+
+    // then
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void execute_limitTotal() {
+    // given
+    InstancePollExecutor executor = new InstancePollExecutor(executorService, 3, 4);
+    List<ServiceInstance> instances = createInstances(40, "a", "b", "c", "d");
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    // when
+    executor.execute(
+        instances,
+        si -> {
+          int current = running.incrementAndGet();
+          maxRunning.accumulateAndGet(current, Math::max);
+          sleep();
+          running.decrementAndGet();
+        });
+
+    // then
+    assertTrue(maxRunning.get() <= 3);
+  }
+
+  @Test
+  public void execute_failureDoesNotStopOtherInstances() {
+    // given
+    InstancePollExecutor executor = new InstancePollExecutor(executorService, 2, 1);
+    List<ServiceInstance> instances = createInstances(10, "ess.vmware");
+    AtomicInteger handled = new AtomicInteger();
+
+    // when
+    executor.execute(
+        instances,
+        si -> {
+          handled.incrementAndGet();
+          throw new IllegalStateException("failed");
+        });
+
+    // then
+    assertEquals(10, handled.get());
+  }
+
+  @Test
+  public void constructor_defaults() {
+    // when
+    InstancePollExecutor executor = new InstancePollExecutor(executorService, 0, -1);
+
+    // then
+    assertEquals(InstancePollExecutor.DEFAULT_MAX_PARALLEL, executor.getMaxParallel());
+    assertEquals(InstancePollExecutor.DEFAULT_MAX_PER_CONTROLLER, executor.getMaxPerController());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_noExecutor() {
+    new InstancePollExecutor(null, 1, 1);
+  }
+
+  private List<ServiceInstance> createInstances(int count, String... controllerIds) {
+    List<ServiceInstance> instances = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ServiceInstance instance = new ServiceInstance();
+      instance.setInstanceId("instance" + i);
+      instance.setControllerId(controllerIds[i % controllerIds.length]);
+      instances.add(instance);
+    }
+    return instances;
+  }
+
+  private void sleep() {
+    try {
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.app.domain.ProvisioningStatus;
+import org.oscm.app.domain.ServiceInstance;
+
+public class PollSchedulerTest {
+
+  private static final long NOW = 1000000L;
+
+  private PollScheduler scheduler;
+  private ServiceInstance instance;
+
+  @Before
+  public void setUp() {
+    scheduler = new PollScheduler(15000, 120000);
+    instance = new ServiceInstance();
+    instance.setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_CREATION);
+  }
+
+  @Test
+  public void getDelay_exponentialBackOff() {
+    assertEquals(0, scheduler.getDelay(0));
+    assertEquals(15000, scheduler.getDelay(1));
+    assertEquals(30000, scheduler.getDelay(2));
+    assertEquals(60000, scheduler.getDelay(3));
+    assertEquals(120000, scheduler.getDelay(4));
+    assertEquals(120000, scheduler.getDelay(5));
+    assertEquals(120000, scheduler.getDelay(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void scheduleNext_unchanged() {
+    // when
+    scheduler.scheduleNext(instance, false, NOW);
+    scheduler.scheduleNext(instance, false, NOW);
+
+    // then
+    assertEquals(2, instance.getUnchangedPollCount());
+    long delay = instance.getNextPollTime() - NOW;
+    assertTrue(delay <= 30000);
+    assertTrue(delay >= 30000 * (1 - PollScheduler.JITTER));
+  }
+
+  @Test
+  public void scheduleNext_changed() {
+    // given
+    scheduler.scheduleNext(instance, false, NOW);
+
+    // when
+    scheduler.scheduleNext(instance, true, NOW);
+
+    // then
+    assertEquals(0, instance.getUnchangedPollCount());
+    assertEquals(0, instance.getNextPollTime());
+  }
+
+  @Test
+  public void provisioningStatusChange_resetsSchedule() {
+    // given
+    scheduler.scheduleNext(instance, false, NOW);
+
+    // when
+    instance.setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_OPERATION);
+
+    // then
+    assertEquals(0, instance.getUnchangedPollCount());
+    assertEquals(0, instance.getNextPollTime());
+  }
+
+  @Test
+  public void constructor_invalidIntervals() {
+    // when
+    PollScheduler scheduler = new PollScheduler(0, 1000);
+
+    // then
+    assertEquals(PollScheduler.DEFAULT_MIN_INTERVAL, scheduler.getMinInterval());
+    assertEquals(PollScheduler.DEFAULT_MIN_INTERVAL, scheduler.getMaxInterval());
+  }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.business;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class VerificationKeyCacheTest {
+
+  private static KeyPair keyPair;
+
+  private final VerificationKeyCache cache = new VerificationKeyCache();
+  private final AtomicInteger loads = new AtomicInteger();
+  private File truststore;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(1024);
+    keyPair = generator.generateKeyPair();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    truststore = File.createTempFile("truststore", ".jks");
+  }
+
+  @After
+  public void tearDown() {
+    truststore.delete();
+  }
+
+  @Test
+  public void getKey_loadedOnce() throws Exception {
+    // given
+    Key first = cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // when
+    Key second = cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getLoadCount());
+  }
+
+  @Test
+  public void getKey_truststoreModified() throws Exception {
+    // given
+    cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // when
+    assertTrue(truststore.setLastModified(truststore.lastModified() - 60000));
+    cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void getKey_settingsChanged() throws Exception {
+    // given
+    cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // when
+    cache.getKey(truststore.getPath(), "pwd", "other", this::load);
+    cache.getKey(truststore.getPath(), "changed", "other", this::load);
+
+    // then
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void getKey_nullNotCached() throws Exception {
+    // given
+    cache.getKey(truststore.getPath(), "pwd", "alias", () -> null);
+
+    // when
+    Key key = cache.getKey(truststore.getPath(), "pwd", "alias", () -> null);
+
+    // then
+    assertNull(key);
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    // given
+    cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // when
+    cache.invalidate();
+    cache.getKey(truststore.getPath(), "pwd", "alias", this::load);
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void borrowDecryptCipher_reusedAfterReturn() throws Exception {
+    // given
+    Key key = keyPair.getPublic();
+    Cipher first = cache.borrowDecryptCipher(key);
+    cache.returnDecryptCipher(key, first);
+
+    // when
+    Cipher second = cache.borrowDecryptCipher(key);
+
+    // then
+    assertSame(first, second);
+  }
+
+  @Test
+  public void borrowDecryptCipher_notShared() throws Exception {
+    // given
+    Key key = keyPair.getPublic();
+    Cipher first = cache.borrowDecryptCipher(key);
+
+    // when
+    Cipher second = cache.borrowDecryptCipher(key);
+
+    // then
+    assertNotSame(first, second);
+  }
+
+  @Test
+  public void borrowDecryptCipher_otherKey() throws Exception {
+    // given
+    Key key = keyPair.getPublic();
+    Key otherKey = KeyPairGenerator.getInstance("RSA").generateKeyPair().getPublic();
+    Cipher first = cache.borrowDecryptCipher(key);
+    cache.returnDecryptCipher(key, first);
+
+    // when
+    Cipher other = cache.borrowDecryptCipher(otherKey);
+
+    // then
+    assertNotSame(first, other);
+  }
+
+  @Test
+  public void returnDecryptCipher_bounded() throws Exception {
+    // given
+    Key key = keyPair.getPublic();
+    List<Cipher> borrowed = new ArrayList<>();
+    for (int i = 0; i < VerificationKeyCache.MAX_POOLED_CIPHERS + 1; i++) {
+      borrowed.add(cache.borrowDecryptCipher(key));
+    }
+
+    // when
+    for (Cipher cipher : borrowed) {
+      cache.returnDecryptCipher(key, cipher);
+    }
+    Set<Cipher> pooled = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < VerificationKeyCache.MAX_POOLED_CIPHERS + 1; i++) {
+      pooled.add(cache.borrowDecryptCipher(key));
+    }
+
+    // then
+    pooled.removeAll(borrowed);
+    assertEquals(1, pooled.size());
+  }
+
+  @Test
+  public void borrowDecryptCipher_decryptsRepeatedly() throws Exception {
+    // given
+    byte[] hash = "hash".getBytes(StandardCharsets.UTF_8);
+    Cipher signer = Cipher.getInstance("RSA");
+    signer.init(Cipher.ENCRYPT_MODE, keyPair.getPrivate());
+    byte[] signature = signer.doFinal(hash);
+    Cipher cipher = cache.borrowDecryptCipher(keyPair.getPublic());
+    byte[] first = cipher.doFinal(signature);
+    cache.returnDecryptCipher(keyPair.getPublic(), cipher);
+
+    // when
+    byte[] second = cache.borrowDecryptCipher(keyPair.getPublic()).doFinal(signature);
+
+    // then
+    assertArrayEquals(hash, first);
+    assertArrayEquals(hash, second);
+  }
+
+  private Key load() {
+    loads.incrementAndGet();
+    return keyPair.getPublic();
+  }
+}
@@ -42,6 +42,9 @@ import javax.xml.namespace.QName;
 import javax.xml.ws.Binding;
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.http.HTTPException;
 import java.net.ConnectException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -296,6 +299,55 @@ public class BesDAOTest {
     verify(idServ).getCurrentUserDetails();
   }
 
+  @Test(expected = AuthenticationException.class)
+  public void getUserDetails_unauthorized() throws APPlatformException {
+    // given
+    doReturn(idServ)
+        .when(besDAO)
+        .getBESWebService(
+            eq(IdentityService.class), any(ServiceInstance.class), any(Optional.class));
+    doThrow(new WebServiceException("rejected")).when(idServ).getCurrentUserDetails();
+    Map<String, Object> responseContext = new HashMap<>();
+    responseContext.put(MessageContext.HTTP_RESPONSE_CODE, Integer.valueOf(401));
+    doReturn(responseContext).when(idServ).getResponseContext();
+
+    // when
+    besDAO.getUserDetails(new ServiceInstance(), null, null, Optional.empty());
+  }
+
+  @Test
+  public void getUserDetails_otherFailure() {
+    // given
+    doReturn(idServ)
+        .when(besDAO)
+        .getBESWebService(
+            eq(IdentityService.class), any(ServiceInstance.class), any(Optional.class));
+    doThrow(new WebServiceException("The server sent HTTP status code 401: Unauthorized"))
+        .when(idServ)
+        .getCurrentUserDetails();
+
+    // when
+    try {
+      besDAO.getUserDetails(new ServiceInstance(), null, null, Optional.empty());
+      fail();
+    } catch (APPlatformException e) {
+      // then
+      assertFalse(e instanceof AuthenticationException);
+    }
+  }
+
+  @Test
+  public void getResponseCode_httpException() {
+    // given
+    Exception e = new WebServiceException(new HTTPException(401));
+
+    // when
+    int code = BesDAO.getResponseCode(idServ, e);
+
+    // then
+    assertEquals(401, code);
+  }
+
   @Test
   public void getUserDetails_givenUser_INTERNAL() throws APPlatformException {
     // given
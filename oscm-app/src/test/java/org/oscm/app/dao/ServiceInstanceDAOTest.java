@@ -12,6 +12,7 @@ import org.oscm.app.domain.ServiceInstance;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -244,6 +245,67 @@ public class ServiceInstanceDAOTest {
     assertEquals(instances, instancesList);
   }
 
+  @Test
+  public void testHasInstancesInWaitingState() {
+    // given
+    when(query.getResultList()).thenReturn(Collections.singletonList(new ServiceInstance()));
+
+    // when
+    boolean result = siDAO.hasInstancesInWaitingState();
+
+    // then
+    assertTrue(result);
+    verify(em).createNamedQuery("ServiceInstance.getForStatusWithTimer");
+  }
+
+  @Test
+  public void testFetchParametersAndAttributes() {
+    // given
+    List<ServiceInstance> instances = new ArrayList<>();
+    for (int i = 0; i < ServiceInstanceDAO.FETCH_CHUNK_SIZE + 1; i++) {
+      instances.add(new ServiceInstance());
+    }
+
+    // when
+    siDAO.fetchParametersAndAttributes(instances);
+
+    // then
+    verify(em, times(2)).createNamedQuery("ServiceInstance.fetchParameters");
+    verify(em, times(2)).createNamedQuery("ServiceInstance.fetchAttributes");
+  }
+
+  @Test
+  public void testFetchParametersAndAttributes_noInstances() {
+    // when
+    siDAO.fetchParametersAndAttributes(Collections.emptyList());
+
+    // then
+    verify(em, never()).createNamedQuery(anyString());
+  }
+
+  @Test
+  public void testGetInstanceForPolling() {
+    // given
+    ServiceInstance instance = new ServiceInstance();
+    when(em.find(ServiceInstance.class, Long.valueOf(1L))).thenReturn(instance);
+
+    // when
+    ServiceInstance result = siDAO.getInstanceForPolling(1L);
+
+    // then
+    assertSame(instance, result);
+    verify(em, never()).createNamedQuery(anyString());
+  }
+
+  @Test
+  public void testGetInstanceForPolling_notFound() {
+    // when
+    ServiceInstance result = siDAO.getInstanceForPolling(1L);
+
+    // then
+    assertNull(result);
+  }
+
   @Test
   public void testExists() {
     // give
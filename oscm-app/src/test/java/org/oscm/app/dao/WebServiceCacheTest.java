@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.net.URL;
+
+import javax.xml.ws.Service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.oscm.intf.IdentityService;
+import org.oscm.intf.SubscriptionService;
+
+public class WebServiceCacheTest {
+
+  private static final String LOCATION = "https://localhost:8181/oscm/v1.9/{SERVICE}/BASIC?wsdl";
+  private static final String OTHER_LOCATION =
+      "https://otherhost:8181/oscm/v1.9/{SERVICE}/BASIC?wsdl";
+
+  private WebServiceCache cache;
+  private URL identityUrl;
+  private URL subscriptionUrl;
+
+  @Before
+  public void setup() throws Exception {
+    cache = new WebServiceCache();
+    identityUrl = new URL(LOCATION.replace("{SERVICE}", "IdentityService"));
+    subscriptionUrl = new URL(LOCATION.replace("{SERVICE}", "SubscriptionService"));
+  }
+
+  @Test
+  public void get_cached() {
+    // given
+    Service service = cache.get(IdentityService.class, LOCATION, identityUrl, this::newService);
+
+    // when
+    Service cached = cache.get(IdentityService.class, LOCATION, identityUrl, this::newService);
+
+    // then
+    assertSame(service, cached);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void get_differentServiceClass() {
+    // when
+    Service identity = cache.get(IdentityService.class, LOCATION, identityUrl, this::newService);
+    Service subscription =
+        cache.get(SubscriptionService.class, LOCATION, subscriptionUrl, this::newService);
+
+    // then
+    assertNotSame(identity, subscription);
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void get_locationChanged() throws Exception {
+    // given
+    Service service = cache.get(IdentityService.class, LOCATION, identityUrl, this::newService);
+    cache.get(SubscriptionService.class, LOCATION, subscriptionUrl, this::newService);
+    URL otherUrl = new URL(OTHER_LOCATION.replace("{SERVICE}", "IdentityService"));
+
+    // when
+    Service other = cache.get(IdentityService.class, OTHER_LOCATION, otherUrl, this::newService);
+
+    // then
+    assertNotSame(service, other);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void invalidate() {
+    // given
+    Service service = cache.get(IdentityService.class, LOCATION, identityUrl, this::newService);
+
+    // when
+    cache.invalidate();
+
+    // then
+    assertNotSame(
+        service, cache.get(IdentityService.class, LOCATION, identityUrl, this::newService));
+    assertEquals(2, cache.getMissCount());
+  }
+
+  private Service newService() {
+    return mock(Service.class);
+  }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+
+package org.oscm.app.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.oscm.encrypter.AESEncrypter;
+
+/**
+ * Unit tests for {@link InstanceParameter}.
+ */
+public class InstanceParameterTest {
+
+    @BeforeClass
+    public static void setUp() {
+        AESEncrypter.generateKey();
+    }
+
+    @Test
+    public void setDecryptedValue_encrypted() throws Exception {
+        InstanceParameter param = newEncryptedParameter("secret");
+
+        assertNotEquals("secret", param.getParameterValue());
+        assertEquals("secret",
+                AESEncrypter.decrypt(param.getParameterValue()));
+        assertEquals("secret", param.getDecryptedValue());
+    }
+
+    @Test
+    public void setDecryptedValue_unchangedNotEncryptedAgain()
+            throws Exception {
+        InstanceParameter param = newEncryptedParameter("secret");
+        String stored = param.getParameterValue();
+
+        param.setDecryptedValue("secret");
+
+        assertSame(stored, param.getParameterValue());
+    }
+
+    @Test
+    public void setDecryptedValue_changed() throws Exception {
+        InstanceParameter param = newEncryptedParameter("secret");
+        String stored = param.getParameterValue();
+
+        param.setDecryptedValue("other");
+
+        assertNotEquals(stored, param.getParameterValue());
+        assertEquals("other", param.getDecryptedValue());
+    }
+
+    @Test
+    public void getDecryptedValue_storedValueReplaced() throws Exception {
+        InstanceParameter param = newEncryptedParameter("secret");
+        param.getDecryptedValue();
+
+        param.setParameterValue(AESEncrypter.encrypt("other"));
+
+        assertEquals("other", param.getDecryptedValue());
+    }
+
+    @Test
+    public void getDecryptedValue_notEncrypted() throws Exception {
+        InstanceParameter param = new InstanceParameter();
+        param.setParameterKey("KEY");
+        param.setDecryptedValue("value");
+
+        assertEquals("value", param.getParameterValue());
+        assertEquals("value", param.getDecryptedValue());
+    }
+
+    @Test
+    public void setEncrypted_afterPlainValue() throws Exception {
+        InstanceParameter param = new InstanceParameter();
+        param.setParameterKey("KEY");
+        param.setDecryptedValue("value");
+
+        param.setEncrypted(true);
+        param.setDecryptedValue("value");
+
+        assertEquals("value", AESEncrypter.decrypt(param.getParameterValue()));
+    }
+
+    private static InstanceParameter newEncryptedParameter(String value)
+            throws Exception {
+        InstanceParameter param = new InstanceParameter();
+        param.setParameterKey("KEY_PWD");
+        param.setEncrypted(true);
+        param.setDecryptedValue(value);
+        return param;
+    }
+}
@@ -60,6 +60,63 @@ public class ServiceInstanceTest {
                 instance.getParameterForKey("param1").getParameterValue());
     }
 
+    @Test
+    public void testGetParameterForKey_listModified() {
+        final InstanceParameter p1 = new InstanceParameter();
+        p1.setParameterKey("param1");
+        final InstanceParameter p2 = new InstanceParameter();
+        p2.setParameterKey("param2");
+        List<InstanceParameter> params = new ArrayList<>();
+        params.add(p1);
+        instance.setInstanceParameters(params);
+        assertNull(instance.getParameterForKey("param2"));
+
+        params.add(p2);
+
+        assertSame(p2, instance.getParameterForKey("param2"));
+    }
+
+    @Test
+    public void testGetParameterForKey_appendedOneByOne() {
+        List<InstanceParameter> params = new ArrayList<>();
+        instance.setInstanceParameters(params);
+        for (int i = 0; i < 10; i++) {
+            final InstanceParameter p = new InstanceParameter();
+            p.setParameterKey("param" + i);
+            params.add(p);
+
+            assertSame(p, instance.getParameterForKey("param" + i));
+        }
+        assertNotNull(instance.getParameterForKey("param0"));
+    }
+
+    @Test
+    public void testGetParameterForKey_listShortened() {
+        final InstanceParameter p1 = new InstanceParameter();
+        p1.setParameterKey("param1");
+        final InstanceParameter p2 = new InstanceParameter();
+        p2.setParameterKey("param2");
+        List<InstanceParameter> params = new ArrayList<>(Arrays.asList(p1, p2));
+        instance.setInstanceParameters(params);
+        assertSame(p2, instance.getParameterForKey("param2"));
+
+        params.remove(p2);
+
+        assertNull(instance.getParameterForKey("param2"));
+        assertSame(p1, instance.getParameterForKey("param1"));
+    }
+
+    @Test
+    public void testGetParameterForKey_duplicateKey() {
+        final InstanceParameter p1 = new InstanceParameter();
+        p1.setParameterKey("param1");
+        final InstanceParameter p2 = new InstanceParameter();
+        p2.setParameterKey("param1");
+        instance.setInstanceParameters(Arrays.asList(p1, p2));
+
+        assertSame(p1, instance.getParameterForKey("param1"));
+    }
+
     @Test
     public void testGetAttributeForKey() {
         final InstanceAttribute a = new InstanceAttribute();
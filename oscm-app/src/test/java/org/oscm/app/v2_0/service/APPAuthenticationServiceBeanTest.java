@@ -9,12 +9,14 @@
  */
 package org.oscm.app.v2_0.service;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.oscm.app.business.AuthenticationCache;
 import org.oscm.app.dao.BesDAO;
 import org.oscm.app.dao.ServiceInstanceDAO;
 import org.oscm.app.domain.ServiceInstance;
@@ -27,12 +29,16 @@ import org.oscm.types.enumtypes.UserRoleType;
 import org.oscm.vo.VOUser;
 import org.oscm.vo.VOUserDetails;
 
+import javax.xml.ws.WebServiceException;
+import java.net.ConnectException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -45,6 +51,11 @@ public class APPAuthenticationServiceBeanTest {
   @Mock protected ServiceInstanceDAO instanceDAO;
   @Mock protected BesDAO besDAO;
 
+  @Before
+  public void setup() {
+    serviceBean.authCache = new AuthenticationCache();
+  }
+
   @Test
   public void authenticateAdministrator() throws Exception {
     // given
@@ -264,4 +275,167 @@ public class APPAuthenticationServiceBeanTest {
         UserRoleType.PLATFORM_OPERATOR,
         Optional.of(controllerId));
   }
+
+  @Test
+  public void authenticateUser_cached() throws Exception {
+    // given
+    PasswordAuthentication passwordAuthentication =
+        new PasswordAuthentication("username", "password");
+    VOUserDetails userDetails = new VOUserDetails();
+    userDetails.setOrganizationId("org_id");
+    userDetails.setUserRoles(
+        new HashSet<>(Collections.singletonList(UserRoleType.TECHNOLOGY_MANAGER)));
+    when(besDAO.getUserDetails(any(), any(VOUser.class), anyString(), any()))
+        .thenReturn(userDetails);
+    authenticateTM(passwordAuthentication);
+
+    // when
+    VOUserDetails authenticatedUser = authenticateTM(passwordAuthentication);
+
+    // then
+    assertSame(userDetails, authenticatedUser);
+    verify(besDAO, times(1)).getUser(any(), any(VOUser.class), any());
+    verify(besDAO, times(1)).getUserDetails(any(), any(VOUser.class), anyString(), any());
+  }
+
+  @Test
+  public void authenticateUser_otherPasswordNotCached() throws Exception {
+    // given
+    VOUserDetails userDetails = new VOUserDetails();
+    userDetails.setOrganizationId("org_id");
+    userDetails.setUserRoles(
+        new HashSet<>(Collections.singletonList(UserRoleType.TECHNOLOGY_MANAGER)));
+    when(besDAO.getUserDetails(any(), any(VOUser.class), anyString(), any()))
+        .thenReturn(userDetails);
+    authenticateTM(new PasswordAuthentication("username", "password"));
+
+    // when
+    authenticateTM(new PasswordAuthentication("username", "other"));
+
+    // then
+    verify(besDAO, times(2)).getUserDetails(any(), any(VOUser.class), anyString(), any());
+  }
+
+  @Test
+  public void authenticateUser_failureCached() throws Exception {
+    // given
+    PasswordAuthentication passwordAuthentication =
+        new PasswordAuthentication("username", "wrong");
+    when(besDAO.getUser(any(), any(VOUser.class), any())).thenReturn(new VOUser());
+    when(besDAO.getUserDetails(any(), any(VOUser.class), anyString(), any()))
+        .thenThrow(givenUnauthorized());
+    authenticateTMAndFail(passwordAuthentication);
+
+    // when
+    authenticateTMAndFail(passwordAuthentication);
+
+    // then
+    verify(besDAO, times(1)).getUserDetails(any(), any(VOUser.class), anyString(), any());
+    assertEquals(1, serviceBean.authCache.getRejectionCount());
+  }
+
+  @Test
+  public void authenticateUser_wrongOrganizationCached() throws Exception {
+    // given
+    PasswordAuthentication passwordAuthentication =
+        new PasswordAuthentication("username", "password");
+    VOUserDetails userDetails = new VOUserDetails();
+    userDetails.setOrganizationId("other_org");
+    when(besDAO.getUser(any(), any(VOUser.class), any())).thenReturn(new VOUser());
+    when(besDAO.getUserDetails(any(), any(VOUser.class), anyString(), any()))
+        .thenReturn(userDetails);
+    authenticateTMAndFail(passwordAuthentication);
+
+    // when
+    authenticateTMAndFail(passwordAuthentication);
+
+    // then
+    verify(besDAO, times(1)).getUserDetails(any(), any(VOUser.class), anyString(), any());
+  }
+
+  @Test
+  public void authenticateUser_besUnavailableNotCached() throws Exception {
+    // given
+    PasswordAuthentication passwordAuthentication =
+        new PasswordAuthentication("username", "password");
+    when(besDAO.getUser(any(), any(VOUser.class), any())).thenReturn(new VOUser());
+    when(besDAO.getUserDetails(any(), any(VOUser.class), anyString(), any()))
+        .thenThrow(
+            new APPlatformException(
+                "connection refused",
+                new WebServiceException(new ConnectException("connection refused"))));
+    authenticateTMAndFail(passwordAuthentication);
+
+    // when
+    authenticateTMAndFail(passwordAuthentication);
+
+    // then
+    verify(besDAO, times(2)).getUserDetails(any(), any(VOUser.class), anyString(), any());
+    assertEquals(0, serviceBean.authCache.getRejectionCount());
+  }
+
+  @Test
+  public void authenticateUser_validPasswordAfterFailedAttempts() throws Exception {
+    // given
+    VOUserDetails userDetails = new VOUserDetails();
+    userDetails.setOrganizationId("org_id");
+    userDetails.setUserRoles(
+        new HashSet<>(Collections.singletonList(UserRoleType.TECHNOLOGY_MANAGER)));
+    when(besDAO.getUser(any(), any(VOUser.class), any())).thenReturn(new VOUser());
+    when(besDAO.getUserDetails(any(), any(VOUser.class), eq("password"), any()))
+        .thenReturn(userDetails);
+    when(besDAO.getUserDetails(any(), any(VOUser.class), startsWith("wrong"), any()))
+        .thenThrow(givenUnauthorized());
+    serviceBean.authCache =
+        new AuthenticationCache(
+            AuthenticationCache.DEFAULT_TIME_TO_LIVE, AuthenticationCache.MAX_SIZE, 0);
+    for (int i = 0; i < 10; i++) {
+      authenticateTMAndFail(new PasswordAuthentication("username", "wrong" + i));
+    }
+
+    // when
+    VOUserDetails authenticatedUser =
+        authenticateTM(new PasswordAuthentication("username", "password"));
+
+    // then
+    assertSame(userDetails, authenticatedUser);
+  }
+
+  @Test
+  public void authenticateUser_throttled() throws Exception {
+    // given
+    when(besDAO.getUser(any(), any(VOUser.class), any())).thenReturn(new VOUser());
+    when(besDAO.getUserDetails(any(), any(VOUser.class), startsWith("wrong"), any()))
+        .thenThrow(givenUnauthorized());
+    for (int i = 0; i <= AuthenticationCache.FREE_ATTEMPTS; i++) {
+      authenticateTMAndFail(new PasswordAuthentication("username", "wrong" + i));
+    }
+
+    // when
+    authenticateTMAndFail(new PasswordAuthentication("username", "password"));
+
+    // then
+    verify(besDAO, never()).getUserDetails(any(), any(VOUser.class), eq("password"), any());
+    assertEquals(1, serviceBean.authCache.getRejectionCount());
+  }
+
+  private APPlatformException givenUnauthorized() {
+    return new AuthenticationException(
+        "The server sent HTTP status code 401: Unauthorized",
+        new WebServiceException("The server sent HTTP status code 401: Unauthorized"));
+  }
+
+  private VOUserDetails authenticateTM(PasswordAuthentication auth) throws Exception {
+    return serviceBean.authenticateUser(
+        null, "org_id", auth, UserRoleType.TECHNOLOGY_MANAGER, Optional.of("controller_id"));
+  }
+
+  private void authenticateTMAndFail(PasswordAuthentication auth) throws Exception {
+    try {
+      authenticateTM(auth);
+      fail();
+    } catch (AuthenticationException e) {
+      // expected
+    }
+  }
 }
@@ -9,6 +9,7 @@
  */
 package org.oscm.app.v2_0.service;
 
+import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,18 +17,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.oscm.app.business.ConfigurationCache;
 import org.oscm.app.domain.*;
 import org.oscm.app.v2_0.data.*;
 import org.oscm.app.v2_0.exceptions.ConfigurationException;
 import org.oscm.encrypter.AESEncrypter;
 
 import javax.persistence.EntityManager;
-import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -44,6 +46,11 @@ public class APPConfigurationServiceBeanTest {
     AESEncrypter.generateKey();
   }
 
+  @Before
+  public void setup() {
+    serviceBean.configCache = new ConfigurationCache();
+  }
+
   @Test
   public void testGetProxyConfigurationSetting() throws Exception {
     // given
@@ -51,9 +58,9 @@ public class APPConfigurationServiceBeanTest {
     when(entityManager.createNamedQuery(anyString())).thenReturn(query);
 
     ConfigurationSetting setting = new ConfigurationSetting();
-    setting.setSettingKey("KEY");
+    setting.setSettingKey("BSS_USER_ID");
     setting.setSettingValue("VALUE");
-    when(query.getSingleResult()).thenReturn(setting);
+    when(query.getResultList()).thenReturn(Collections.singletonList(setting));
 
     // when
     PlatformConfigurationKey userId = PlatformConfigurationKey.BSS_USER_ID;
@@ -63,12 +70,63 @@ public class APPConfigurationServiceBeanTest {
     assertEquals(expectedSetting, setting.getSettingValue());
   }
 
+  @Test
+  public void testGetProxyConfigurationSetting_cached() throws Exception {
+    // given
+    Query query = mock(Query.class);
+    when(entityManager.createNamedQuery(anyString())).thenReturn(query);
+    when(query.getResultList())
+        .thenReturn(Collections.singletonList(newConfigurationSetting("BSS_USER_ID", "VALUE")));
+
+    // when
+    serviceBean.getProxyConfigurationSetting(PlatformConfigurationKey.BSS_USER_ID);
+    String value = serviceBean.getProxyConfigurationSetting(PlatformConfigurationKey.BSS_USER_ID);
+
+    // then
+    assertEquals("VALUE", value);
+    verify(query, times(1)).getResultList();
+    assertEquals(1, serviceBean.getConfigurationCache().getHitCount());
+  }
+
+  @Test
+  public void testGetProxyConfigurationSetting_invalidatedOnStore() throws Exception {
+    // given
+    Query query = mock(Query.class);
+    when(entityManager.createNamedQuery(anyString())).thenReturn(query);
+    when(query.getResultList())
+        .thenReturn(Collections.singletonList(newConfigurationSetting("BSS_USER_ID", "VALUE")))
+        .thenReturn(new ArrayList<>())
+        .thenReturn(Collections.singletonList(newConfigurationSetting("BSS_USER_ID", "NEW")));
+    serviceBean.getProxyConfigurationSetting(PlatformConfigurationKey.BSS_USER_ID);
+
+    // when
+    serviceBean.setAPPSuspend("true");
+    String value = serviceBean.getProxyConfigurationSetting(PlatformConfigurationKey.BSS_USER_ID);
+
+    // then
+    assertEquals("NEW", value);
+  }
+
+  @Test
+  public void testIsAPPSuspend_notSet() {
+    // given
+    Query query = mock(Query.class);
+    when(entityManager.createNamedQuery(anyString())).thenReturn(query);
+    when(query.getResultList()).thenReturn(new ArrayList<>());
+
+    // when
+    boolean suspended = serviceBean.isAPPSuspend();
+
+    // then
+    assertFalse(suspended);
+  }
+
   @Test(expected = ConfigurationException.class)
   public void testGetProxyConfigurationSetting_NoResult() throws Exception {
     // given
     Query query = mock(Query.class);
     when(entityManager.createNamedQuery(anyString())).thenReturn(query);
-    when(query.getSingleResult()).thenThrow(new NoResultException());
+    when(query.getResultList()).thenReturn(new ArrayList<>());
 
     // when
     PlatformConfigurationKey userId = PlatformConfigurationKey.BSS_USER_ID;
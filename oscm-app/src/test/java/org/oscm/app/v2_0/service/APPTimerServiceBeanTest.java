@@ -13,10 +13,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.oscm.app.business.APPlatformControllerFactory;
+import org.oscm.app.business.InstancePollExecutor;
 import org.oscm.app.business.ProductProvisioningServiceFactoryBean;
 import org.oscm.app.business.exceptions.BESNotificationException;
 import org.oscm.app.dao.BesDAO;
@@ -40,8 +42,10 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.slf4j.Logger;
 
+import javax.ejb.SessionContext;
 import javax.ejb.Timer;
 import javax.ejb.TimerService;
 import javax.persistence.EntityManager;
@@ -67,6 +71,7 @@ public class APPTimerServiceBeanTest {
   private APPConfigurationServiceBean configService;
   private ProductProvisioningServiceFactoryBean provFactoryBean;
   private BesDAO besDAOMock;
+  private ProvisioningStatusNotifier statusNotifier;
   private OperationDAO operationDAO;
   private APPCommunicationServiceBean mailService;
   private Logger logger;
@@ -103,6 +108,7 @@ public class APPTimerServiceBeanTest {
     ts = mock(TimerService.class);
     mailService = Mockito.mock(APPCommunicationServiceBean.class);
     besDAOMock = mock(BesDAO.class);
+    statusNotifier = mock(ProvisioningStatusNotifier.class);
     operationDAO = mock(OperationDAO.class);
     provFactoryBean = mock(ProductProvisioningServiceFactoryBean.class);
     configService = mock(APPConfigurationServiceBean.class);
@@ -130,6 +136,7 @@ public class APPTimerServiceBeanTest {
     timerService.configService = configService;
     timerService.mailService = mailService;
     timerService.besDAO = besDAOMock;
+    timerService.statusNotifier = statusNotifier;
     timerService.operationDAO = operationDAO;
     timerService.timerService = ts;
     timerService.appTimerServiceBean = timerBean;
@@ -162,6 +169,34 @@ public class APPTimerServiceBeanTest {
     verify(timerBean, times(1)).cancelTimers();
   }
 
+  @Test
+  public void handleTimer_noInstanceDue() {
+    // given
+    doReturn(new ArrayList<ServiceInstance>()).when(instanceDAO).getInstancesInWaitingState();
+    doReturn(Boolean.TRUE).when(instanceDAO).hasInstancesInWaitingState();
+
+    // when
+    timerService.handleTimer(timer);
+
+    // then
+    verify(timerBean, never()).cancelTimers();
+    verify(timerService, never())
+        .doHandleSystems(anyListOf(ServiceInstance.class), any(EnumSet.class));
+  }
+
+  @Test
+  public void handleTimer_noInstanceWaiting() {
+    // given
+    doReturn(new ArrayList<ServiceInstance>()).when(instanceDAO).getInstancesInWaitingState();
+    doReturn(Boolean.FALSE).when(instanceDAO).hasInstancesInWaitingState();
+
+    // when
+    timerService.handleTimer(timer);
+
+    // then
+    verify(timerBean, times(1)).cancelTimers();
+  }
+
   @Test
   public void handleTimer_doHandleSystems_APPSuspended() throws Exception {
     // given
@@ -175,6 +210,55 @@ public class APPTimerServiceBeanTest {
     verify(timerService, times(0)).doHandleControllerProvisioning(any(ServiceInstance.class));
   }
 
+  @Test
+  public void doHandleSystems_parallel_fetchedInBulk() throws Exception {
+    // given
+    InstancePollExecutor executor = mock(InstancePollExecutor.class);
+    Whitebox.setInternalState(timerService, "pollExecutor", executor);
+    timerService.sessionContext = mock(SessionContext.class);
+    List<ServiceInstance> instances = getResult();
+    instances.get(0).setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_CREATION);
+
+    // when
+    timerService.doHandleSystems(instances, ProvisioningStatus.getWaitingForCreation());
+
+    // then
+    InOrder inOrder = inOrder(instanceDAO, executor);
+    inOrder.verify(instanceDAO).fetchParametersAndAttributes(instances);
+    inOrder.verify(executor).execute(eq(instances), any());
+  }
+
+  @Test
+  public void handleInstance_settingsOfLoadedInstance() throws Exception {
+    // given
+    ServiceInstance loaded = mock(ServiceInstance.class);
+    when(Long.valueOf(loaded.getTkey())).thenReturn(Long.valueOf(1L));
+    when(instanceDAO.getInstanceForPolling(1L)).thenReturn(serviceInstance);
+    when(Boolean.valueOf(serviceInstance.getRunWithTimer())).thenReturn(Boolean.TRUE);
+    doNothing().when(timerService).doHandleControllerProvisioning(serviceInstance, loaded);
+
+    // when
+    timerService.handleInstance(loaded);
+
+    // then
+    verify(timerService).doHandleControllerProvisioning(serviceInstance, loaded);
+    verify(instanceDAO, never()).fetchParametersAndAttributes(anyListOf(ServiceInstance.class));
+  }
+
+  @Test
+  public void handleInstance_deleted() throws Exception {
+    // given
+    ServiceInstance loaded = mock(ServiceInstance.class);
+    when(Long.valueOf(loaded.getTkey())).thenReturn(Long.valueOf(1L));
+
+    // when
+    timerService.handleInstance(loaded);
+
+    // then
+    verify(timerService, never())
+        .doHandleControllerProvisioning(any(ServiceInstance.class), any(ServiceInstance.class));
+  }
+
   @Test
   public void handleBESNotificationException() {
     // given
@@ -726,7 +810,8 @@ public class APPTimerServiceBeanTest {
 
     timerService.doHandleControllerProvisioning(serviceInstance);
 
-    verify(besDAOMock, times(1)).notifyAsyncOperationStatus(eq(serviceInstance), anyString(), eq(OperationStatus.RUNNING), anyList());
+    verify(statusNotifier, times(1)).notifyOperationProgress(eq(serviceInstance), anyString(), anyList());
+    verify(besDAOMock, never()).notifyAsyncOperationStatus(eq(serviceInstance), anyString(), eq(OperationStatus.RUNNING), anyList());
   }
 
   @Test
@@ -16,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.oscm.app.business.APPlatformControllerFactory;
+import org.oscm.app.business.VerificationKeyCache;
 import org.oscm.app.business.exceptions.ServiceInstanceNotFoundException;
 import org.oscm.app.dao.ServiceInstanceDAO;
 import org.oscm.app.domain.PlatformConfigurationKey;
@@ -79,6 +80,7 @@ public class APPlatformServiceBeanTest {
     PowerMockito.mockStatic(KeyStore.class);
 
     MockitoAnnotations.initMocks(this);
+    applatformService.keyCache = new VerificationKeyCache();
   }
 
   @Test
@@ -12,6 +12,7 @@ package org.oscm.app.v2_0.service;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.oscm.app.business.APPlatformControllerFactory;
 import org.oscm.app.business.ProductProvisioningServiceFactoryBean;
@@ -234,6 +235,23 @@ public class AsynchronousProvisioningProxyTest {
     verify(entityManager, times(attributes.size())).persist(any(CustomAttribute.class));
   }
 
+  @Test
+  public void testSaveAttributes_invalidatesConfigCache() {
+    // given
+    List<ServiceAttribute> attributes = Arrays.asList(serviceAttribute("KEY", "VALUE"));
+    Query query = mock(Query.class);
+    when(entityManager.createNamedQuery(anyString())).thenReturn(query);
+
+    // when
+    proxy.saveAttributes("orgId", attributes, new User());
+
+    // then
+    InOrder inOrder = inOrder(query, entityManager, configService);
+    inOrder.verify(query).executeUpdate();
+    inOrder.verify(entityManager).persist(any(CustomAttribute.class));
+    inOrder.verify(configService).invalidateConfigCache();
+  }
+
   @Test
   public void testCreateUsers() throws Exception {
     // given
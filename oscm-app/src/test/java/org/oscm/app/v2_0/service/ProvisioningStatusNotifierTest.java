@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2026
+ *
+ *  Creation Date: 18.10.2026
+ *
+ *******************************************************************************/
+package org.oscm.app.v2_0.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.ejb.EJBException;
+import javax.ejb.SessionContext;
+import javax.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.oscm.app.business.exceptions.BESNotificationException;
+import org.oscm.app.dao.BesDAO;
+import org.oscm.app.domain.ProvisioningStatus;
+import org.oscm.app.domain.ServiceInstance;
+import org.oscm.app.v2_0.data.LocalizedText;
+import org.oscm.types.enumtypes.OperationStatus;
+import org.slf4j.Logger;
+
+public class ProvisioningStatusNotifierTest {
+
+  private ProvisioningStatusNotifier notifier;
+  private BesDAO besDAO;
+  private EntityManager em;
+  private ServiceInstance instance;
+
+  @Before
+  public void setup() {
+    notifier = new ProvisioningStatusNotifier();
+    besDAO = mock(BesDAO.class);
+    em = mock(EntityManager.class);
+    notifier.besDAO = besDAO;
+    notifier.em = em;
+    notifier.logger = mock(Logger.class);
+    notifier.sessionContext = mock(SessionContext.class);
+    when(notifier.sessionContext.getBusinessObject(ProvisioningStatusNotifier.class))
+        .thenReturn(notifier);
+
+    instance = new ServiceInstance();
+    instance.setInstanceId("instance1");
+    instance.setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_CREATION);
+    when(em.find(eq(ServiceInstance.class), any())).thenReturn(instance);
+  }
+
+  @Test
+  public void flush_latestNotificationOnly() throws Exception {
+    // given
+    notifier.notifyProgress(instance, texts("step 1"));
+    notifier.notifyProgress(instance, texts("step 2"));
+
+    // when
+    int sent = notifier.flush(0);
+
+    // then
+    assertEquals(1, sent);
+    assertEquals("step 2", sentText());
+    assertEquals(0, notifier.getPendingCount());
+  }
+
+  @Test
+  public void flush_sameTextSentOnce() throws Exception {
+    // given
+    notifier.notifyProgress(instance, texts("step 1"));
+    notifier.flush(0);
+
+    // when
+    notifier.notifyProgress(instance, texts("step 1"));
+    int sent = notifier.flush(0);
+
+    // then
+    assertEquals(0, sent);
+    verify(besDAO, times(1))
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+  }
+
+  @Test
+  public void flush_operationProgress() throws Exception {
+    // given
+    instance.setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_OPERATION);
+    notifier.notifyOperationProgress(instance, "trx1", texts("running"));
+
+    // when
+    notifier.flush(0);
+
+    // then
+    verify(besDAO, times(1))
+        .notifyAsyncOperationStatus(
+            eq(instance), eq("trx1"), eq(OperationStatus.RUNNING), anyListOf(LocalizedText.class));
+  }
+
+  @Test
+  public void flush_instanceNoLongerWaiting() throws Exception {
+    // given
+    notifier.notifyProgress(instance, texts("step 1"));
+    instance.setProvisioningStatus(ProvisioningStatus.COMPLETED);
+
+    // when
+    int sent = notifier.flush(0);
+
+    // then
+    assertEquals(0, sent);
+    verify(besDAO, never())
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+  }
+
+  @Test
+  public void flush_retryWithBackoff() throws Exception {
+    // given
+    doThrow(new BESNotificationException("failed", null))
+        .when(besDAO)
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+    notifier.notifyProgress(instance, texts("step 1"));
+
+    // when
+    notifier.flush(0);
+    int sentBeforeDelay = notifier.flush(notifier.getRetryDelay(1) - 1);
+
+    // then
+    assertEquals(0, sentBeforeDelay);
+    assertEquals(1, notifier.getPendingCount());
+    verify(besDAO, times(1))
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+  }
+
+  @Test
+  public void flush_dropAfterMaxAttempts() throws Exception {
+    // given
+    doThrow(new BESNotificationException("failed", null))
+        .when(besDAO)
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+    notifier.notifyProgress(instance, texts("step 1"));
+
+    // when
+    for (int i = 0; i < ProvisioningStatusNotifier.MAX_ATTEMPTS; i++) {
+      notifier.flush(Long.MAX_VALUE);
+    }
+
+    // then
+    assertEquals(0, notifier.getPendingCount());
+    assertEquals(1, notifier.getFailedCount());
+  }
+
+  @Test
+  public void flush_newerNotificationReplacesRetry() throws Exception {
+    // given
+    doThrow(new BESNotificationException("failed", null))
+        .doNothing()
+        .when(besDAO)
+        .notifyOnProvisioningStatusUpdate(any(ServiceInstance.class), anyListOf(LocalizedText.class));
+    notifier.notifyProgress(instance, texts("step 1"));
+    notifier.flush(0);
+
+    // when
+    notifier.notifyProgress(instance, texts("step 2"));
+    int sent = notifier.flush(0);
+
+    // then
+    assertEquals(1, sent);
+    assertEquals("step 2", sentText());
+  }
+
+  @Test
+  public void discard() {
+    // given
+    notifier.notifyProgress(instance, texts("step 1"));
+
+    // when
+    notifier.discard(instance.getTkey());
+
+    // then
+    assertEquals(0, notifier.getPendingCount());
+  }
+
+  @Test
+  public void discard_forgetsLastSent() throws Exception {
+    // given
+    notifier.notifyProgress(instance, texts("step 1"));
+    notifier.flush(0);
+
+    // when
+    notifier.discard(instance.getTkey());
+
+    // then
+    assertTrue(notifier.lastSent.isEmpty());
+  }
+
+  @Test
+  public void notifyProgress_sameInstanceIdOfOtherController() throws Exception {
+    // given
+    ServiceInstance other = spy(new ServiceInstance());
+    other.setInstanceId(instance.getInstanceId());
+    other.setProvisioningStatus(ProvisioningStatus.WAITING_FOR_SYSTEM_CREATION);
+    when(Long.valueOf(other.getTkey())).thenReturn(Long.valueOf(2));
+    notifier.notifyProgress(instance, texts("step 1"));
+
+    // when
+    notifier.notifyProgress(other, texts("step 1"));
+
+    // then
+    assertEquals(2, notifier.getPendingCount());
+  }
+
+  @Test
+  public void flush_sendFailsUnexpectedly() throws Exception {
+    // given
+    ProvisioningStatusNotifier self = mock(ProvisioningStatusNotifier.class);
+    when(notifier.sessionContext.getBusinessObject(ProvisioningStatusNotifier.class))
+        .thenReturn(self);
+    when(self.send(any(ProvisioningStatusNotifier.Notification.class), anyLong()))
+        .thenThrow(new EJBException("transaction failed"));
+    notifier.notifyProgress(instance, texts("step 1"));
+
+    // when
+    int sent = notifier.flush(0);
+
+    // then
+    assertEquals(0, sent);
+    assertEquals(1, notifier.getPendingCount());
+  }
+
+  @Test
+  public void getRetryDelay_limited() {
+    assertEquals(
+        ProvisioningStatusNotifier.MAX_RETRY_DELAY,
+        notifier.getRetryDelay(ProvisioningStatusNotifier.MAX_ATTEMPTS * 10));
+  }
+
+  @SuppressWarnings("unchecked")
+  private String sentText() throws Exception {
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    verify(besDAO, atLeastOnce()).notifyOnProvisioningStatusUpdate(eq(instance), captor.capture());
+    List<LocalizedText> texts = captor.getValue();
+    return texts.get(0).getText();
+  }
+
+  private static List<LocalizedText> texts(String text) {
+    return Collections.singletonList(new LocalizedText("en", text));
+  }
+}
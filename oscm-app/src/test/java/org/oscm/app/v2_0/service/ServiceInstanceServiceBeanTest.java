@@ -75,6 +75,7 @@ public class ServiceInstanceServiceBeanTest {
         bean.timerServcie = mock(APPTimerServiceBean.class);
         bean.opBean = mock(OperationServiceBean.class);
         bean.opDao = mock(OperationDAO.class);
+        bean.statusNotifier = mock(ProvisioningStatusNotifier.class);
         user = new ServiceUser();
     }
 
@@ -144,6 +145,7 @@ public class ServiceInstanceServiceBeanTest {
                 anyString());
         verify(bean.dao, times(1)).deleteInstance(eq(newInstance));
         verify(bean.dao, times(0)).restoreInstance(eq(newInstance));
+        verify(bean.statusNotifier).discard(newInstance.getTkey());
     }
 
     @Test